@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * {@link IDataProvider} without backing data, so layer stacks with millions
+ * of rows and columns can be created without allocating the data.
+ */
+public class BenchmarkDataProvider implements IDataProvider {
+
+    private final int columnCount;
+    private final int rowCount;
+
+    public BenchmarkDataProvider(int columnCount, int rowCount) {
+        this.columnCount = columnCount;
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public Object getDataValue(int columnIndex, int rowIndex) {
+        return columnIndex + rowIndex;
+    }
+
+    @Override
+    public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Creates random values in the range [0, bound) that are used as positions
+     * by the benchmarks. A fixed seed is used so the results are comparable.
+     *
+     * @param count
+     *            The number of values to create.
+     * @param bound
+     *            The upper bound (exclusive) of the values.
+     * @return The random values.
+     */
+    public static int[] randomPositions(int count, int bound) {
+        Random random = new Random(4711);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = random.nextInt(bound);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.HorizontalAlignmentEnum;
+import org.eclipse.nebula.widgets.nattable.style.Style;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the resolution of configuration attributes for the label stacks
+ * of cells, as performed multiple times for every visible cell on painting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConfigRegistryBenchmark {
+
+    static final int LOOKUPS = 1024;
+
+    /**
+     * The number of distinct labels that are registered.
+     */
+    @Param({ "10", "1000" })
+    public int labels;
+
+    /**
+     * Whether the resolution cache of the {@link ConfigRegistry} is enabled.
+     */
+    @Param({ "false", "true" })
+    public boolean resolutionCache;
+
+    private ConfigRegistry configRegistry;
+    private LabelStack[] labelStacks;
+
+    @Setup
+    public void setup() {
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.setResolutionCacheEnabled(this.resolutionCache);
+
+        Style defaultStyle = new Style();
+        defaultStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.LEFT);
+        this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, defaultStyle);
+        for (int i = 0; i < this.labels; i++) {
+            Style style = new Style();
+            style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.RIGHT);
+            this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, style, DisplayMode.SELECT, label(i));
+        }
+
+        // label stacks as created for the cells of a body layer stack, with
+        // a column label and a row label
+        int[] columns = BenchmarkDataProvider.randomPositions(LOOKUPS, this.labels);
+        this.labelStacks = new LabelStack[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            this.labelStacks[i] = new LabelStack(label(columns[i]), (i & 1) == 0 ? "EVEN_BODY" : "ODD_BODY", "BODY"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+    }
+
+    private static String label(int i) {
+        return "COLUMN_" + i; //$NON-NLS-1$
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getConfigAttributeNormal(Blackhole blackhole) {
+        for (LabelStack labelStack : this.labelStacks) {
+            blackhole.consume(this.configRegistry.getConfigAttribute(
+                    CellConfigAttributes.CELL_STYLE, DisplayMode.NORMAL, labelStack.getLabels()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getConfigAttributeSelect(Blackhole blackhole) {
+        for (LabelStack labelStack : this.labelStacks) {
+            blackhole.consume(this.configRegistry.getConfigAttribute(
+                    CellConfigAttributes.CELL_STYLE, DisplayMode.SELECT, labelStack.getLabels()));
+        }
+    }
+
+    /**
+     * Lookup with the interned labels as performed by the
+     * {@link org.eclipse.nebula.widgets.nattable.style.CellStyleUtil} on
+     * painting.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getConfigAttributeInterned(Blackhole blackhole) {
+        for (LabelStack labelStack : this.labelStacks) {
+            blackhole.consume(this.configRegistry.getConfigAttribute(
+                    CellConfigAttributes.CELL_STYLE, DisplayMode.SELECT, labelStack.getInternedLabels()));
+        }
+    }
+}
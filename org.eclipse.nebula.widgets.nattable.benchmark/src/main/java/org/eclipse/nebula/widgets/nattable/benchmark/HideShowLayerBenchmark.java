@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.hideshow.RowHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the position conversion of the {@link ColumnHideShowLayer} and
+ * the {@link RowHideShowLayer} with a number of hidden positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HideShowLayerBenchmark {
+
+    static final int LOOKUPS = 1024;
+
+    /**
+     * The number of columns respectively rows.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    /**
+     * Every n-th position is hidden.
+     */
+    @Param({ "1000" })
+    public int hideEvery;
+
+    private ColumnHideShowLayer columnHideShowLayer;
+    private RowHideShowLayer rowHideShowLayer;
+    private int[] visiblePositions;
+    private int[] indexes;
+
+    @Setup
+    public void setup() {
+        this.columnHideShowLayer = new ColumnHideShowLayer(new DataLayer(new BenchmarkDataProvider(this.size, 1)));
+        this.rowHideShowLayer = new RowHideShowLayer(new DataLayer(new BenchmarkDataProvider(1, this.size)));
+
+        int[] hidden = new int[this.size / this.hideEvery];
+        for (int i = 0; i < hidden.length; i++) {
+            hidden[i] = i * this.hideEvery;
+        }
+        this.columnHideShowLayer.hideColumnIndexes(hidden);
+        this.rowHideShowLayer.hideRowIndexes(hidden);
+
+        this.visiblePositions = BenchmarkDataProvider.randomPositions(LOOKUPS, this.size - hidden.length);
+        this.indexes = BenchmarkDataProvider.randomPositions(LOOKUPS, this.size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void columnIndexByPosition(Blackhole blackhole) {
+        for (int position : this.visiblePositions) {
+            blackhole.consume(this.columnHideShowLayer.getColumnIndexByPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void columnPositionByIndex(Blackhole blackhole) {
+        for (int index : this.indexes) {
+            blackhole.consume(this.columnHideShowLayer.getColumnPositionByIndex(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void startXOfColumnPosition(Blackhole blackhole) {
+        for (int position : this.visiblePositions) {
+            blackhole.consume(this.columnHideShowLayer.getStartXOfColumnPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rowIndexByPosition(Blackhole blackhole) {
+        for (int position : this.visiblePositions) {
+            blackhole.consume(this.rowHideShowLayer.getRowIndexByPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rowPositionByIndex(Blackhole blackhole) {
+        for (int index : this.indexes) {
+            blackhole.consume(this.rowHideShowLayer.getRowPositionByIndex(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void startYOfRowPosition(Blackhole blackhole) {
+        for (int position : this.visiblePositions) {
+            blackhole.consume(this.rowHideShowLayer.getStartYOfRowPosition(position));
+        }
+    }
+}
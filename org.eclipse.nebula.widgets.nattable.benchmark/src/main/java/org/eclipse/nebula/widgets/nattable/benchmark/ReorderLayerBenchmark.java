@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.RowReorderLayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the index/position mapping of the {@link ColumnReorderLayer} and
+ * the {@link RowReorderLayer} after a number of reorder operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReorderLayerBenchmark {
+
+    static final int LOOKUPS = 1024;
+
+    /**
+     * The number of columns respectively rows.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    /**
+     * The number of reorder operations performed before measuring.
+     */
+    @Param({ "100" })
+    public int reorders;
+
+    private ColumnReorderLayer columnReorderLayer;
+    private RowReorderLayer rowReorderLayer;
+    private int[] positions;
+
+    @Setup
+    public void setup() {
+        this.columnReorderLayer = new ColumnReorderLayer(new DataLayer(new BenchmarkDataProvider(this.size, 1)), false);
+        this.rowReorderLayer = new RowReorderLayer(new DataLayer(new BenchmarkDataProvider(1, this.size)), false);
+
+        int[] from = BenchmarkDataProvider.randomPositions(this.reorders * 2, this.size);
+        for (int i = 0; i < this.reorders; i++) {
+            this.columnReorderLayer.reorderColumnPosition(from[i * 2], from[i * 2 + 1]);
+            this.rowReorderLayer.reorderRowPosition(from[i * 2], from[i * 2 + 1]);
+        }
+
+        this.positions = BenchmarkDataProvider.randomPositions(LOOKUPS, this.size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void columnIndexByPosition(Blackhole blackhole) {
+        for (int position : this.positions) {
+            blackhole.consume(this.columnReorderLayer.getColumnIndexByPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void columnPositionByIndex(Blackhole blackhole) {
+        for (int index : this.positions) {
+            blackhole.consume(this.columnReorderLayer.getColumnPositionByIndex(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void startXOfColumnPosition(Blackhole blackhole) {
+        for (int position : this.positions) {
+            blackhole.consume(this.columnReorderLayer.getStartXOfColumnPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rowIndexByPosition(Blackhole blackhole) {
+        for (int position : this.positions) {
+            blackhole.consume(this.rowReorderLayer.getRowIndexByPosition(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rowPositionByIndex(Blackhole blackhole) {
+        for (int index : this.positions) {
+            blackhole.consume(this.rowReorderLayer.getRowPositionByIndex(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void startYOfRowPosition(Blackhole blackhole) {
+        for (int position : this.positions) {
+            blackhole.consume(this.rowReorderLayer.getStartYOfRowPosition(position));
+        }
+    }
+}
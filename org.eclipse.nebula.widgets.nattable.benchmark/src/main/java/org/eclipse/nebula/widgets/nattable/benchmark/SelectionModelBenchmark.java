@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionModel;
+import org.eclipse.swt.graphics.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the queries of the {@link SelectionModel} with a number of
+ * selected ranges, as performed for every visible cell on painting.
+ * <p>
+ * Note that the default painter of the {@link SelectionLayer} initializes the
+ * SWT {@link org.eclipse.swt.widgets.Display}, so this benchmark needs a
+ * display, e.g. Xvfb on a build server.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SelectionModelBenchmark {
+
+    static final int LOOKUPS = 1024;
+
+    /**
+     * The number of rows.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    /**
+     * The number of selected ranges.
+     */
+    @Param({ "1", "100" })
+    public int selections;
+
+    /**
+     * The number of columns.
+     */
+    @Param({ "20" })
+    public int columns;
+
+    private SelectionLayer selectionLayer;
+    private int[] rowPositions;
+    private int[] columnPositions;
+
+    @Setup
+    public void setup() {
+        this.selectionLayer = new SelectionLayer(new DataLayer(new BenchmarkDataProvider(this.columns, this.size)), false);
+
+        int[] starts = BenchmarkDataProvider.randomPositions(this.selections, this.size);
+        int height = Math.max(1, this.size / (this.selections * 10));
+        for (int i = 0; i < this.selections; i++) {
+            int column = i % this.columns;
+            this.selectionLayer.getSelectionModel().addSelection(
+                    new Rectangle(column, starts[i], 2, Math.min(height, this.size - starts[i])));
+        }
+
+        this.rowPositions = BenchmarkDataProvider.randomPositions(LOOKUPS, this.size);
+        this.columnPositions = BenchmarkDataProvider.randomPositions(LOOKUPS, this.columns);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void isCellPositionSelected(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(this.selectionLayer.isCellPositionSelected(this.columnPositions[i], this.rowPositions[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void isRowPositionSelected(Blackhole blackhole) {
+        for (int position : this.rowPositions) {
+            blackhole.consume(this.selectionLayer.isRowPositionSelected(position));
+        }
+    }
+
+    @Benchmark
+    public Object getSelectedRowPositions() {
+        return this.selectionLayer.getSelectedRowPositions();
+    }
+
+    @Benchmark
+    public boolean isColumnPositionFullySelected() {
+        return this.selectionLayer.isColumnPositionFullySelected(0);
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.layer.SizeConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the aggregated size calculations of the {@link SizeConfig}, which
+ * are used to convert between pixel coordinates and positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SizeConfigBenchmark {
+
+    static final int LOOKUPS = 1024;
+
+    /**
+     * The number of positions.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    /**
+     * Every n-th position gets an individual size.
+     */
+    @Param({ "10" })
+    public int customizeEvery;
+
+    /**
+     * Whether the indexed mode of the {@link SizeConfig} is enabled.
+     */
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    private SizeConfig sizeConfig;
+    private int[] positions;
+    private int[] pixels;
+    private int[] sizes;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.sizeConfig = new SizeConfig(20);
+        this.sizeConfig.setAggregateSizeIndexed(this.indexed);
+
+        this.sizes = BenchmarkDataProvider.randomPositions(this.size / this.customizeEvery, 80);
+        for (int i = 0; i < this.sizes.length; i++) {
+            this.sizeConfig.setSize(i * this.customizeEvery, this.sizes[i] + 1);
+        }
+
+        this.positions = BenchmarkDataProvider.randomPositions(LOOKUPS, this.size);
+        int totalSize = this.sizeConfig.getAggregateSize(this.size);
+        this.pixels = BenchmarkDataProvider.randomPositions(LOOKUPS, totalSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getAggregateSize(Blackhole blackhole) {
+        for (int position : this.positions) {
+            blackhole.consume(this.sizeConfig.getAggregateSize(position));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getPositionByAggregateSize(Blackhole blackhole) {
+        for (int pixel : this.pixels) {
+            blackhole.consume(this.sizeConfig.getPositionByAggregateSize(pixel));
+        }
+    }
+
+    /**
+     * Changes a single size followed by an aggregated size lookup, which is
+     * the pattern of interactive resizing.
+     */
+    @Benchmark
+    public int resizeAndGetAggregateSize() {
+        int i = this.index++ & (LOOKUPS - 1);
+        this.sizeConfig.setSize(this.positions[i], this.sizes[i % this.sizes.length] + 1);
+        return this.sizeConfig.getAggregateSize(this.size);
+    }
+}
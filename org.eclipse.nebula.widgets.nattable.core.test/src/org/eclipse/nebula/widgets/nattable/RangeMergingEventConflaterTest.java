@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.nebula.widgets.nattable.conflation.EventConflaterChain;
+import org.eclipse.nebula.widgets.nattable.conflation.MergedVisualChange;
+import org.eclipse.nebula.widgets.nattable.conflation.RangeMergingEventConflater;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.LayerEventFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.junit.Test;
+
+public class RangeMergingEventConflaterTest {
+
+    @Test
+    public void shouldAccumulateEvents() throws Exception {
+        NatTableFixture natTable = new NatTableFixture();
+        RangeMergingEventConflater conflater = new RangeMergingEventConflater(natTable);
+        EventConflaterChain chain = new EventConflaterChain();
+        chain.add(conflater);
+
+        conflater.addEvent(new LayerEventFixture());
+        conflater.addEvent(new LayerEventFixture());
+        assertEquals(2, conflater.getCount());
+
+        chain.start();
+        Thread.sleep(EventConflaterChain.DEFAULT_INITIAL_DELAY + 100);
+
+        assertEquals(0, conflater.getCount());
+    }
+
+    @Test
+    public void shouldMergeQueuedRowUpdates() {
+        NatTableFixture natTable = new NatTableFixture();
+        TestConflater conflater = new TestConflater(natTable);
+
+        for (int i = 0; i < 1000; i++) {
+            conflater.addEvent(new RowUpdateEvent(natTable, 2 + (i % 3)));
+        }
+        assertEquals(1000, conflater.getCount());
+
+        MergedVisualChange change = conflater.drainQueue();
+        assertEquals(0, conflater.getCount());
+        assertEquals(1000, change.getEventCount());
+        assertFalse(change.isFullRefresh());
+        assertEquals(Arrays.asList(new Range(2, 5)), change.getRowRanges());
+
+        assertTrue(conflater.drainQueue().isEmpty());
+    }
+
+    private static class TestConflater extends RangeMergingEventConflater {
+
+        TestConflater(NatTable natTable) {
+            super(natTable);
+        }
+
+        @Override
+        public MergedVisualChange drainQueue() {
+            return super.drainQueue();
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,11 @@
 package org.eclipse.nebula.widgets.nattable.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
@@ -169,4 +174,94 @@ public void registerWithDisplayModeAndMultipleConfigLabels()
                 DisplayMode.NORMAL, "testLabel_1", "testLabel");
         assertEquals("testValueNormalLabel_1", actual);
     }
+
+    @Test
+    public void resolutionCacheShouldCountHitsAndMisses() {
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+
+        assertEquals("testValueNormalLabel",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+        assertEquals("testValueNormalLabel",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "otherLabel"));
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "otherLabel"));
+
+        assertEquals(2, this.configRegistry.getResolutionCacheHitCount());
+        assertEquals(2, this.configRegistry.getResolutionCacheMissCount());
+
+        this.configRegistry.resetResolutionCacheStatistics();
+        assertEquals(0, this.configRegistry.getResolutionCacheHitCount());
+        assertEquals(0, this.configRegistry.getResolutionCacheMissCount());
+    }
+
+    @Test
+    public void resolutionCacheShouldBeClearedOnRegistrationChanges() {
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "testValue");
+        assertEquals("testValue",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueSelectLabel", DisplayMode.SELECT, "testLabel");
+        assertEquals("testValueSelectLabel",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+
+        this.configRegistry.unregisterConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel");
+        assertEquals("testValue",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+
+        this.configRegistry.unregisterConfigAttribute(this.testAttribute);
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+    }
+
+    @Test
+    public void resolutionCacheShouldNotDependOnModifiedLabelList() {
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueLabel", DisplayMode.NORMAL, "testLabel");
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueLabel_1", DisplayMode.NORMAL, "testLabel_1");
+
+        List<String> labels = new ArrayList<String>(Arrays.asList("testLabel"));
+        assertEquals("testValueLabel",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, labels));
+
+        labels.add(0, "testLabel_1");
+        assertEquals("testValueLabel_1",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, labels));
+        assertEquals("testValueLabel",
+                this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+    }
+
+    @Test
+    public void getConfigAttributeResolution() {
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "testValue");
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueSelect", DisplayMode.SELECT);
+        this.configRegistry.registerConfigAttribute(this.testAttribute,
+                "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+
+        assertEquals(Arrays.asList("testValueSelect", "testValueNormalLabel", "testValue"),
+                this.configRegistry.getConfigAttributeResolution(this.testAttribute,
+                        DisplayMode.SELECT, Arrays.asList("testLabel")));
+    }
+
+    @Test
+    public void resolutionCacheShouldBeBounded() {
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "testValue");
+        this.configRegistry.setResolutionCacheSize(2);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("testValue",
+                    this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "label" + i));
+        }
+        assertEquals(5, this.configRegistry.getResolutionCacheMissCount());
+
+        // label4 is still cached, label0 was removed
+        this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "label4");
+        this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "label0");
+        assertEquals(1, this.configRegistry.getResolutionCacheHitCount());
+        assertEquals(6, this.configRegistry.getResolutionCacheMissCount());
+    }
 }
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.conflation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ColumnVisualUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergedVisualChangeTest {
+
+    private DataLayerFixture layer;
+    private MergedVisualChange change;
+
+    @Before
+    public void setup() {
+        this.layer = new DataLayerFixture(10, 100, 100, 20);
+        this.change = new MergedVisualChange();
+    }
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        assertTrue(this.change.isEmpty());
+        assertFalse(this.change.isFullRefresh());
+        assertEquals(0, this.change.getRegionCount());
+    }
+
+    @Test
+    public void shouldMergeAdjacentAndOverlappingRows() {
+        this.change.add(new RowUpdateEvent(this.layer, 5));
+        this.change.add(new RowUpdateEvent(this.layer, 6));
+        this.change.add(new RowUpdateEvent(this.layer, new Range(10, 15)));
+        this.change.add(new RowUpdateEvent(this.layer, new Range(12, 20)));
+        this.change.add(new RowUpdateEvent(this.layer, 30));
+        this.change.add(new RowUpdateEvent(this.layer, 5));
+
+        assertEquals(6, this.change.getEventCount());
+        assertEquals(
+                Arrays.asList(new Range(5, 7), new Range(10, 20), new Range(30, 31)),
+                this.change.getRowRanges());
+        assertEquals(3, this.change.getRegionCount());
+        assertFalse(this.change.isFullRefresh());
+    }
+
+    @Test
+    public void shouldMergeRangeSpanningSeveralRanges() {
+        this.change.add(new RowUpdateEvent(this.layer, 2));
+        this.change.add(new RowUpdateEvent(this.layer, 4));
+        this.change.add(new RowUpdateEvent(this.layer, 8));
+        this.change.add(new RowUpdateEvent(this.layer, new Range(3, 8)));
+
+        assertEquals(Arrays.asList(new Range(2, 9)), this.change.getRowRanges());
+        assertEquals(1, this.change.getRegionCount());
+    }
+
+    @Test
+    public void shouldCollapseManyTicksOnFewRows() {
+        this.change = new MergedVisualChange(50);
+        for (int i = 0; i < 10000; i++) {
+            this.change.add(new CellVisualChangeEvent(this.layer, (i / 50) % 3, i % 50));
+        }
+
+        assertFalse(this.change.isFullRefresh());
+        Map<Integer, List<Range>> cells = this.change.getCellRanges();
+        assertEquals(50, cells.size());
+        assertEquals(Arrays.asList(new Range(0, 3)), cells.get(42));
+        assertEquals(50, this.change.getRegionCount());
+    }
+
+    @Test
+    public void shouldMergeCellsPerRow() {
+        this.change.add(new CellVisualChangeEvent(this.layer, 1, 3));
+        this.change.add(new CellVisualChangeEvent(this.layer, 2, 3));
+        this.change.add(new CellVisualChangeEvent(this.layer, 5, 3));
+        this.change.add(new CellVisualChangeEvent(this.layer, 1, 4));
+        this.change.add(new CellVisualChangeEvent(this.layer, 1, 8));
+        this.change.add(new RowUpdateEvent(this.layer, 8));
+
+        Map<Integer, List<Range>> cells = this.change.getCellRanges();
+        assertEquals(2, cells.size());
+        assertEquals(Arrays.asList(new Range(1, 3), new Range(5, 6)), cells.get(3));
+        assertEquals(Arrays.asList(new Range(1, 2)), cells.get(4));
+    }
+
+    @Test
+    public void shouldCollectColumns() {
+        this.change.add(new ColumnVisualUpdateEvent(this.layer, 2));
+        this.change.add(new ColumnVisualUpdateEvent(this.layer, 3));
+
+        assertEquals(Arrays.asList(new Range(2, 4)), this.change.getColumnRanges());
+        assertTrue(this.change.getRowRanges().isEmpty());
+    }
+
+    @Test
+    public void shouldFullRefreshOnStructuralChange() {
+        this.change.add(new RowUpdateEvent(this.layer, 5));
+        this.change.add(new RowStructuralRefreshEvent(this.layer));
+        this.change.add(new RowUpdateEvent(this.layer, 7));
+
+        assertTrue(this.change.isFullRefresh());
+        assertTrue(this.change.getRowRanges().isEmpty());
+        assertEquals(3, this.change.getEventCount());
+    }
+
+    @Test
+    public void shouldFullRefreshOnUnknownVisualChange() {
+        this.change.add(new VisualRefreshEvent(this.layer));
+        assertTrue(this.change.isFullRefresh());
+    }
+
+    @Test
+    public void shouldFullRefreshOnTooManyRegions() {
+        this.change = new MergedVisualChange(3);
+        this.change.add(new RowUpdateEvent(this.layer, 1));
+        this.change.add(new RowUpdateEvent(this.layer, 3));
+        this.change.add(new CellVisualChangeEvent(this.layer, 1, 5));
+        assertFalse(this.change.isFullRefresh());
+
+        this.change.add(new ColumnVisualUpdateEvent(this.layer, 7));
+        assertTrue(this.change.isFullRefresh());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaxRegions() {
+        new MergedVisualChange(-1);
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider.ColumnType;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.summaryrow.ISummaryProvider;
+import org.eclipse.nebula.widgets.nattable.summaryrow.SummationSummaryProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarDataProviderTest {
+
+    private ColumnarDataProvider dataProvider;
+
+    @Before
+    public void setUp() {
+        this.dataProvider = new ColumnarDataProvider(2,
+                ColumnType.DOUBLE, ColumnType.LONG, ColumnType.INT, ColumnType.STRING);
+        this.dataProvider.addRow(1.5d, 10L, 100, "EUR");
+        this.dataProvider.addRow(2.5d, 20L, 200, "USD");
+        this.dataProvider.addRow(null, null, null, "EUR");
+    }
+
+    @Test
+    public void shouldReturnBoxedValues() {
+        assertEquals(4, this.dataProvider.getColumnCount());
+        assertEquals(3, this.dataProvider.getRowCount());
+
+        assertEquals(Double.valueOf(1.5d), this.dataProvider.getDataValue(0, 0));
+        assertEquals(Long.valueOf(20L), this.dataProvider.getDataValue(1, 1));
+        assertEquals(Integer.valueOf(100), this.dataProvider.getDataValue(2, 0));
+        assertEquals("USD", this.dataProvider.getDataValue(3, 1));
+
+        assertNull(this.dataProvider.getDataValue(0, 2));
+        assertNull(this.dataProvider.getDataValue(1, 2));
+        assertNull(this.dataProvider.getDataValue(2, 2));
+    }
+
+    @Test
+    public void shouldReturnTypedValues() {
+        assertEquals(2.5d, this.dataProvider.getDouble(0, 1), 0);
+        assertEquals(20d, this.dataProvider.getDouble(1, 1), 0);
+        assertEquals(200d, this.dataProvider.getDouble(2, 1), 0);
+        assertEquals(10L, this.dataProvider.getLong(1, 0));
+        assertEquals(100L, this.dataProvider.getLong(2, 0));
+        assertEquals(200, this.dataProvider.getInt(2, 1));
+        assertEquals("EUR", this.dataProvider.getString(3, 2));
+
+        assertTrue(this.dataProvider.isNull(0, 2));
+        assertFalse(this.dataProvider.isNull(0, 1));
+        assertEquals(0d, this.dataProvider.getDouble(0, 2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotReturnIntFromDoubleColumn() {
+        this.dataProvider.getInt(0, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldCheckRowIndex() {
+        this.dataProvider.getDouble(0, 3);
+    }
+
+    @Test
+    public void shouldEncodeStrings() {
+        assertEquals(this.dataProvider.getStringCode(3, 0), this.dataProvider.getStringCode(3, 2));
+        assertNotEquals(this.dataProvider.getStringCode(3, 0), this.dataProvider.getStringCode(3, 1));
+        assertEquals(Arrays.asList("EUR", "USD"), this.dataProvider.getDictionary(3));
+
+        this.dataProvider.setString(3, 0, null);
+        assertEquals(-1, this.dataProvider.getStringCode(3, 0));
+        assertTrue(this.dataProvider.isNull(3, 0));
+    }
+
+    @Test
+    public void shouldUpdateValues() {
+        this.dataProvider.setDataValue(0, 2, Integer.valueOf(3));
+        assertEquals(Double.valueOf(3d), this.dataProvider.getDataValue(0, 2));
+
+        this.dataProvider.setDataValue(1, 2, " 42 ");
+        assertEquals(Long.valueOf(42L), this.dataProvider.getDataValue(1, 2));
+
+        this.dataProvider.setInt(2, 2, 7);
+        assertEquals(Integer.valueOf(7), this.dataProvider.getDataValue(2, 2));
+
+        this.dataProvider.setDataValue(0, 0, null);
+        assertTrue(this.dataProvider.isNull(0, 0));
+
+        this.dataProvider.setRow(1, 9d, 9L, 9, "CHF");
+        assertEquals(9d, this.dataProvider.getDouble(0, 1), 0);
+        assertEquals("CHF", this.dataProvider.getString(3, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedValues() {
+        this.dataProvider.setDataValue(0, 0, Boolean.TRUE);
+    }
+
+    @Test
+    public void shouldGrowOnAppend() {
+        for (int i = 0; i < 1000; i++) {
+            int rowIndex = this.dataProvider.addRow();
+            this.dataProvider.setDouble(0, rowIndex, i);
+            this.dataProvider.setLong(1, rowIndex, i);
+        }
+        assertEquals(1003, this.dataProvider.getRowCount());
+        assertEquals(999d, this.dataProvider.getDouble(0, 1002), 0);
+        assertEquals(999L, this.dataProvider.getLong(1, 1002));
+        assertTrue(this.dataProvider.isNull(2, 1002));
+        assertTrue(this.dataProvider.isNull(3, 1002));
+    }
+
+    @Test
+    public void shouldCompareLikeDefaultComparator() {
+        for (int column = 0; column < this.dataProvider.getColumnCount(); column++) {
+            for (int row1 = 0; row1 < this.dataProvider.getRowCount(); row1++) {
+                for (int row2 = 0; row2 < this.dataProvider.getRowCount(); row2++) {
+                    int expected = DefaultComparator.getInstance().compare(
+                            this.dataProvider.getDataValue(column, row1),
+                            this.dataProvider.getDataValue(column, row2));
+                    assertEquals(Integer.signum(expected),
+                            Integer.signum(this.dataProvider.compare(column, row1, row2)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldResolveRowObjects() {
+        ColumnarDataProvider.Row row = this.dataProvider.getRowObject(1);
+        assertEquals(1, row.getRowIndex());
+        assertEquals("USD", row.getDataValue(3));
+        assertEquals(row, this.dataProvider.getRowObject(1));
+        assertEquals(1, this.dataProvider.indexOfRowObject(row));
+
+        ColumnarDataProvider other = new ColumnarDataProvider(ColumnType.INT);
+        other.addRow(1);
+        other.addRow(2);
+        assertEquals(-1, this.dataProvider.indexOfRowObject(other.getRowObject(1)));
+    }
+
+    @Test
+    public void shouldSummarizeWithoutBoxing() {
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE,
+                new SummationSummaryProvider(this.dataProvider).summarize(0));
+        assertEquals(4d, new SummationSummaryProvider(this.dataProvider, false).summarize(0));
+        assertEquals(30d, new SummationSummaryProvider(this.dataProvider, false).summarize(1));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE,
+                new SummationSummaryProvider(this.dataProvider).summarize(3));
+    }
+
+    @Test
+    public void shouldWorkInDataLayer() {
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        assertEquals(4, dataLayer.getColumnCount());
+        assertEquals(3, dataLayer.getRowCount());
+        assertEquals("USD", dataLayer.getDataValueByPosition(3, 1));
+    }
+}
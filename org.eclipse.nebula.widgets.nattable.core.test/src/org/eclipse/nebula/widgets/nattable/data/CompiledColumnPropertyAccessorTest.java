@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.eclipse.nebula.widgets.nattable.data.PropertyAccessorFactory.PropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Address;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person.Gender;
+import org.eclipse.nebula.widgets.nattable.dataset.person.PersonWithAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledColumnPropertyAccessorTest {
+
+    private CompiledColumnPropertyAccessor<PersonWithAddress> accessor;
+    private PersonWithAddress person;
+
+    @Before
+    public void setup() {
+        this.accessor = new CompiledColumnPropertyAccessor<>(
+                "firstName", "married", "id", "address.street", "address.housenumber");
+
+        Address address = new Address();
+        address.setStreet("Evergreen Terrace");
+        address.setHousenumber(742);
+        this.person = new PersonWithAddress(1, "Homer", "Simpson", Gender.MALE, true, new Date(), address);
+    }
+
+    @Test
+    public void shouldReadProperties() {
+        assertEquals("Homer", this.accessor.getDataValue(this.person, 0));
+        assertEquals(Boolean.TRUE, this.accessor.getDataValue(this.person, 1));
+        assertEquals(Integer.valueOf(1), this.accessor.getDataValue(this.person, 2));
+        assertEquals("Evergreen Terrace", this.accessor.getDataValue(this.person, 3));
+        assertEquals(Integer.valueOf(742), this.accessor.getDataValue(this.person, 4));
+    }
+
+    @Test
+    public void shouldWriteProperties() {
+        this.accessor.setDataValue(this.person, 0, "Marge");
+        this.accessor.setDataValue(this.person, 1, false);
+        this.accessor.setDataValue(this.person, 3, "Spalding Way");
+        this.accessor.setDataValue(this.person, 4, 1094);
+
+        assertEquals("Marge", this.accessor.getDataValue(this.person, 0));
+        assertEquals(Boolean.FALSE, this.accessor.getDataValue(this.person, 1));
+        assertEquals("Spalding Way", this.accessor.getDataValue(this.person, 3));
+        assertEquals(Integer.valueOf(1094), this.accessor.getDataValue(this.person, 4));
+    }
+
+    @Test
+    public void shouldReturnNullForNullPathSegment() {
+        this.person.setAddress(null);
+        assertNull(this.accessor.getDataValue(this.person, 3));
+    }
+
+    @Test
+    public void shouldIgnoreMismatchingTypeLikeReflection() {
+        ReflectiveColumnPropertyAccessor<PersonWithAddress> reflective =
+                new ReflectiveColumnPropertyAccessor<>("firstName", "married");
+
+        reflective.setDataValue(this.person, 1, "no boolean");
+        this.accessor.setDataValue(this.person, 1, "no boolean");
+        reflective.setDataValue(this.person, 1, null);
+        this.accessor.setDataValue(this.person, 1, null);
+
+        assertEquals(Boolean.TRUE, this.accessor.getDataValue(this.person, 1));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldFailForUnknownProperty() {
+        new CompiledColumnPropertyAccessor<PersonWithAddress>("unknown").getDataValue(this.person, 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldFailForMissingSetter() {
+        new CompiledColumnPropertyAccessor<PersonWithAddress>("class").setDataValue(this.person, 0, Object.class);
+    }
+
+    @Test
+    public void shouldProvideColumnProperties() {
+        assertEquals(5, this.accessor.getColumnCount());
+        assertEquals("address.street", this.accessor.getColumnProperty(3));
+        assertEquals(4, this.accessor.getColumnIndex("address.housenumber"));
+    }
+
+    @Test
+    public void shouldCachePropertyAccessors() {
+        PropertyAccessor accessor = PropertyAccessorFactory.getPropertyAccessor(Address.class, "street");
+        assertSame(accessor, PropertyAccessorFactory.getPropertyAccessor(Address.class, "street"));
+        assertTrue(accessor.isReadable());
+        assertTrue(accessor.isWritable());
+        assertFalse(PropertyAccessorFactory.getPropertyAccessor(Address.class, "class").isWritable());
+        assertNull(PropertyAccessorFactory.getPropertyAccessor(Address.class, "unknown"));
+    }
+
+    @Test
+    public void shouldAccessNonPublicClassesLikeReflection() {
+        ReflectiveColumnAccessorTest test = new ReflectiveColumnAccessorTest();
+        ReflectiveColumnAccessorTest.SubBean1 bean = test.new SubBean1("One", true, 1f, "Bart");
+        CompiledColumnPropertyAccessor<ReflectiveColumnAccessorTest.TestBean> beanAccessor =
+                new CompiledColumnPropertyAccessor<>("stringField", "booleanField", "floatField", "additionalField");
+
+        beanAccessor.setDataValue(bean, 2, 42f);
+        // widening conversion as supported via reflection
+        beanAccessor.setDataValue(bean, 2, 43);
+        beanAccessor.setDataValue(bean, 3, "Lisa");
+
+        assertEquals("One", beanAccessor.getDataValue(bean, 0));
+        assertEquals(Boolean.TRUE, beanAccessor.getDataValue(bean, 1));
+        assertEquals(Float.valueOf(43f), beanAccessor.getDataValue(bean, 2));
+        assertEquals("Lisa", beanAccessor.getDataValue(bean, 3));
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow.combobox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class DistinctValueCounterTest {
+
+    private DistinctValueCounter counter = new DistinctValueCounter();
+
+    @Test
+    public void shouldCountOccurrences() {
+        assertTrue(this.counter.add("a"));
+        assertFalse(this.counter.add("a"));
+        assertTrue(this.counter.add(null));
+
+        assertEquals(2, this.counter.getCount("a"));
+        assertEquals(1, this.counter.getCount(null));
+        assertEquals(0, this.counter.getCount("b"));
+        assertEquals(2, this.counter.size());
+
+        assertFalse(this.counter.remove("a"));
+        assertTrue(this.counter.remove("a"));
+        assertFalse(this.counter.remove("b"));
+        assertEquals(1, this.counter.size());
+    }
+
+    @Test
+    public void shouldCollectPendingChanges() {
+        this.counter.add("a");
+        this.counter.add("b");
+        assertEquals(Arrays.asList("a", "b"), this.counter.getValues());
+        assertTrue(this.counter.getAddedValues().isEmpty());
+
+        // removing and adding again is no change
+        this.counter.remove("a");
+        this.counter.add("a");
+        this.counter.add("c");
+        this.counter.remove("b");
+
+        assertEquals(Collections.singleton("c"), this.counter.getAddedValues());
+        assertEquals(Collections.singleton("b"), this.counter.getRemovedValues());
+        assertEquals(Arrays.asList("a", "c"), this.counter.getValues());
+        assertTrue(this.counter.getAddedValues().isEmpty());
+        assertTrue(this.counter.getRemovedValues().isEmpty());
+    }
+
+    @Test
+    public void shouldKeepSortOrderOnIncrementalUpdates() {
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            if (values.isEmpty() || random.nextBoolean()) {
+                Integer value = random.nextInt(100);
+                values.add(value);
+                this.counter.add(value);
+            } else {
+                this.counter.remove(values.remove(random.nextInt(values.size())));
+            }
+
+            if (i % 10 == 0) {
+                assertEquals(new ArrayList<>(new TreeSet<>(values)), this.counter.getValues());
+            }
+        }
+    }
+
+    @Test
+    public void shouldPlaceNullFirst() {
+        this.counter.add("b");
+        this.counter.getValues();
+        this.counter.add(null);
+        this.counter.add("a");
+
+        List<?> values = this.counter.getValues();
+        assertEquals(3, values.size());
+        assertNull(values.get(0));
+        assertEquals("a", values.get(1));
+        assertEquals("b", values.get(2));
+    }
+
+    @Test
+    public void shouldNotModifyReturnedValues() {
+        this.counter.add("a");
+        List<?> values = this.counter.getValues();
+        this.counter.add("b");
+
+        assertEquals(1, values.size());
+        assertEquals(2, this.counter.getValues().size());
+    }
+}
@@ -12,8 +12,10 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -78,6 +80,86 @@ public void shouldCollectUniqueNonComparable() {
         assertNull(values.get(0));
     }
 
+    @Test
+    public void shouldTrackInsertedAndDeletedRows() {
+        this.provider.setValueTrackingEnabled(true);
+        assertEquals(3, this.provider.getValues(1, 0).size());
+
+        MyRowObject added = new MyRowObject(26, "Apu", "Nahasapeemapetilon", true, new Date(), null);
+        this.persons.add(added);
+
+        List<FilterRowComboUpdateEvent> events;
+        this.provider.getValueCacheLock().writeLock().lock();
+        try {
+            this.provider.rowInserted(added);
+            events = this.provider.commitRowChanges();
+        } finally {
+            this.provider.getValueCacheLock().writeLock().unlock();
+        }
+
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getColumnIndex());
+        assertEquals(Arrays.asList("Nahasapeemapetilon"), new ArrayList<>(events.get(0).getAddedItems()));
+        assertTrue(events.get(0).getRemovedItems().isEmpty());
+        assertEquals(Arrays.asList(null, "Flanders", "Nahasapeemapetilon", "Simpson"), this.provider.getValues(1, 0));
+
+        // deleting one of the two rows without last name keeps the null value
+        MyRowObject deleted = this.persons.remove(5);
+        this.provider.getValueCacheLock().writeLock().lock();
+        try {
+            this.provider.rowDeleted(deleted);
+            events = this.provider.commitRowChanges();
+        } finally {
+            this.provider.getValueCacheLock().writeLock().unlock();
+        }
+
+        assertTrue(events.isEmpty());
+        assertEquals(this.provider.collectValues(1), this.provider.getValues(1, 0));
+    }
+
+    @Test
+    public void shouldTrackModifiedRows() {
+        this.provider.setValueTrackingEnabled(true);
+        assertEquals(8, this.provider.getValues(0, 0).size());
+
+        // change the only two rows with first name Lisa
+        List<FilterRowComboUpdateEvent> events;
+        this.provider.getValueCacheLock().writeLock().lock();
+        try {
+            for (MyRowObject person : this.persons) {
+                if ("Lisa".equals(person.getFirstName())) {
+                    person.setFirstName("Maggie");
+                    this.provider.rowUpdated(person, person);
+                }
+            }
+            events = this.provider.commitRowChanges();
+        } finally {
+            this.provider.getValueCacheLock().writeLock().unlock();
+        }
+
+        assertEquals(1, events.size());
+        assertEquals(Arrays.asList("Maggie"), new ArrayList<>(events.get(0).getAddedItems()));
+        assertEquals(Arrays.asList("Lisa"), new ArrayList<>(events.get(0).getRemovedItems()));
+        assertEquals(this.provider.collectValues(0), this.provider.getValues(0, 0));
+    }
+
+    @Test
+    public void shouldNotTrackIfDisabled() {
+        assertEquals(8, this.provider.getValues(0, 0).size());
+
+        MyRowObject added = new MyRowObject(26, "Apu", "Nahasapeemapetilon", true, new Date(), null);
+        this.persons.add(added);
+
+        this.provider.getValueCacheLock().writeLock().lock();
+        try {
+            this.provider.rowInserted(added);
+            assertTrue(this.provider.commitRowChanges().isEmpty());
+        } finally {
+            this.provider.getValueCacheLock().writeLock().unlock();
+        }
+        assertEquals(8, this.provider.getValues(0, 0).size());
+    }
+
     private List<MyRowObject> getObjects() {
         List<MyRowObject> result = new ArrayList<>();
 
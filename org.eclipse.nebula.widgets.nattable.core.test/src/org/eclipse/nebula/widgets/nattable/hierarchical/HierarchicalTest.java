@@ -1,5 +1,5 @@
 /*****************************************************************************
- * Copyright (c) 2018 Dirk Fauth.
+ * Copyright (c) 2018, 2020 Dirk Fauth.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -112,6 +112,39 @@ public void testCreationWithCarAndMotorWithOrders() {
         assertNull(accessor.getDataValue(result.get(2), 8));
     }
 
+    @Test
+    public void testCompiledAccessor() {
+        List<Car> input = new ArrayList<>();
+
+        Car car = new Car("Mercedes", "C Klasse");
+        Motor motor1 = new Motor("C320", "160", "KW", 250);
+        Feedback order1 = new Feedback(new Date(), Classification.POSITIVE, "Blubb");
+        Feedback order2 = new Feedback(new Date(), Classification.NEUTRAL, "Dingens");
+        motor1.setFeedbacks(Arrays.asList(order1, order2));
+
+        Motor motor2 = new Motor("C200", "100", "KW", 215);
+        car.setMotors(Arrays.asList(motor1, motor2));
+
+        input.add(car);
+
+        List<HierarchicalWrapper> result = HierarchicalHelper.deNormalize(input, false, Arrays.asList(CarService.PROPERTY_NAMES));
+
+        HierarchicalCompiledColumnPropertyAccessor accessor = new HierarchicalCompiledColumnPropertyAccessor(CarService.PROPERTY_NAMES);
+        assertEquals("Mercedes", accessor.getDataValue(result.get(1), 0));
+        assertEquals(Integer.valueOf(250), accessor.getDataValue(result.get(1), 5));
+        assertEquals(Classification.NEUTRAL, accessor.getDataValue(result.get(1), 7));
+
+        // test set data value
+        assertEquals("Dingens", accessor.getDataValue(result.get(1), 8));
+        accessor.setDataValue(result.get(1), 8, "Something");
+        assertEquals("Something", accessor.getDataValue(result.get(1), 8));
+
+        // test non existing child
+        assertNull(accessor.getDataValue(result.get(2), 8));
+        accessor.setDataValue(result.get(2), 8, "Something");
+        assertNull(accessor.getDataValue(result.get(2), 8));
+    }
+
     @Test
     public void testCreationWithCarOnlyAndRootObjects() {
         List<Car> input = new ArrayList<>();
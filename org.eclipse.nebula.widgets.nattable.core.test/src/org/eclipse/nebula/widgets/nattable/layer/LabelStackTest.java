@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LabelStackTest {
+
+    @Test
+    public void shouldAddLabelsOnlyOnce() {
+        LabelStack stack = new LabelStack("a", null, "b");
+        stack.addLabel("c");
+        stack.addLabelOnTop("top");
+        stack.addLabel("a");
+        stack.addLabelOnTop("c");
+
+        assertEquals(Arrays.asList("top", "a", "b", "c"), stack.getLabels());
+        assertEquals(4, stack.size());
+        assertTrue(stack.hasLabel("b"));
+        assertFalse(stack.hasLabel("x"));
+    }
+
+    @Test
+    public void shouldRemoveLabels() {
+        LabelStack stack = new LabelStack("a", "b", "c");
+        assertTrue(stack.removeLabel("b"));
+        assertFalse(stack.removeLabel("b"));
+        assertEquals(Arrays.asList("a", "c"), stack.getLabels());
+    }
+
+    @Test
+    public void shouldModifyStackViaLabelList() {
+        LabelStack stack = new LabelStack("a");
+        List<String> labels = stack.getLabels();
+        labels.addAll(Arrays.asList("b", "c"));
+        labels.add(0, "top");
+        labels.set(1, "x");
+
+        Iterator<String> it = labels.iterator();
+        while (it.hasNext()) {
+            if ("b".equals(it.next())) {
+                it.remove();
+            }
+        }
+
+        assertEquals(Arrays.asList("top", "x", "c"), labels);
+        assertTrue(stack.hasLabel("x"));
+        assertFalse(stack.hasLabel("a"));
+        assertEquals(new LabelStack("top", "x", "c"), stack);
+        assertEquals(new LabelStack("top", "x", "c").hashCode(), stack.hashCode());
+    }
+
+    @Test
+    public void shouldInternLabels() {
+        LabelStack stack1 = new LabelStack("a", "b");
+        LabelStack stack2 = new LabelStack("a");
+        stack2.addLabel("b");
+
+        List<String> interned = stack1.getInternedLabels();
+        assertSame(interned, stack2.getInternedLabels());
+        assertSame(interned, LabelStack.intern(Arrays.asList("a", "b")));
+        assertEquals(Arrays.asList("a", "b"), interned);
+        assertEquals(Arrays.asList("a", "b").hashCode(), interned.hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void internedLabelsShouldBeUnmodifiable() {
+        new LabelStack("a").getInternedLabels().add("b");
+    }
+
+    @Test
+    public void shouldNotModifyInternedLabelsOnStackChange() {
+        LabelStack stack = new LabelStack("a", "b");
+        List<String> interned = stack.getInternedLabels();
+
+        stack.addLabelOnTop("top");
+        stack.removeLabel("b");
+
+        assertEquals(Arrays.asList("a", "b"), interned);
+        assertEquals(Arrays.asList("top", "a"), stack.getLabels());
+        List<String> changed = stack.getInternedLabels();
+        assertNotSame(interned, changed);
+        assertEquals(Arrays.asList("top", "a"), changed);
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class PositionMapTest {
+
+    @Test
+    public void shouldStoreSparse() {
+        IntPositionMap map = new IntPositionMap();
+        map.put(1000, 10);
+        map.put(5, 20);
+        map.put(100, 30);
+
+        assertFalse(map.isDense());
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(20), map.get(5));
+        assertEquals(Integer.valueOf(30), map.get(100));
+        assertEquals(Integer.valueOf(10), map.get(1000));
+        assertNull(map.get(6));
+        assertTrue(map.containsKey(100));
+        assertFalse(map.containsKey(101));
+
+        List<Integer> keys = new ArrayList<Integer>(map.keySet());
+        assertEquals(5, keys.get(0).intValue());
+        assertEquals(100, keys.get(1).intValue());
+        assertEquals(1000, keys.get(2).intValue());
+    }
+
+    @Test
+    public void shouldSwitchBetweenDenseAndSparse() {
+        IntPositionMap map = new IntPositionMap();
+        for (int i = 0; i < 200; i++) {
+            map.put(i, i * 2);
+        }
+        assertTrue(map.isDense());
+        assertEquals(200, map.size());
+        assertEquals(Integer.valueOf(398), map.get(199));
+
+        // adding a position far away makes the storage sparse again
+        map.put(100_000, 1);
+        assertFalse(map.isDense());
+        assertEquals(201, map.size());
+        assertEquals(Integer.valueOf(398), map.get(199));
+        assertEquals(Integer.valueOf(1), map.get(100_000));
+
+        map.remove(100_000);
+        map.put(200, 400);
+        assertTrue(map.isDense());
+
+        for (int i = 0; i < 190; i++) {
+            map.remove(i);
+        }
+        assertFalse(map.isDense());
+        assertEquals(11, map.size());
+        assertEquals(Integer.valueOf(400), map.get(200));
+    }
+
+    @Test
+    public void shouldBehaveLikeTreeMap() {
+        Random random = new Random(123);
+        DoublePositionMap map = new DoublePositionMap();
+        TreeMap<Integer, Double> reference = new TreeMap<Integer, Double>();
+        for (int i = 0; i < 5000; i++) {
+            int position = random.nextInt(i < 2500 ? 300 : 5000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(reference.remove(position), map.remove(position));
+            } else {
+                double value = random.nextDouble();
+                assertEquals(reference.put(position, value), map.put(position, value));
+            }
+        }
+        assertEquals(reference, map);
+        assertEquals(new ArrayList<Integer>(reference.keySet()), new ArrayList<Integer>(map.keySet()));
+    }
+
+    @Test
+    public void shouldRemoveViaIterator() {
+        BooleanPositionMap map = new BooleanPositionMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i % 2 == 0);
+        }
+        assertTrue(map.isDense());
+
+        for (Iterator<Map.Entry<Integer, Boolean>> it = map.entrySet().iterator(); it.hasNext();) {
+            if (!it.next().getValue()) {
+                it.remove();
+            }
+        }
+        assertEquals(50, map.size());
+        assertFalse(map.containsValue(Boolean.FALSE));
+        assertEquals(Boolean.TRUE, map.get(98));
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SizeConfigIndexedTest {
+
+    private static final int DEFAULT_SIZE = 20;
+    private SizeConfig sizeConfig;
+    private SizeConfig referenceConfig;
+
+    @Before
+    public void setup() {
+        this.sizeConfig = new SizeConfig(DEFAULT_SIZE);
+        this.sizeConfig.setAggregateSizeIndexed(true);
+        this.referenceConfig = new SizeConfig(DEFAULT_SIZE);
+    }
+
+    private void setSize(int position, int size) {
+        this.sizeConfig.setSize(position, size);
+        this.referenceConfig.setSize(position, size);
+    }
+
+    private void assertSameAggregateSizes(int positionCount) {
+        for (int i = 0; i <= positionCount; i++) {
+            assertEquals("aggregate size of position " + i,
+                    this.referenceConfig.getAggregateSize(i),
+                    this.sizeConfig.getAggregateSize(i));
+        }
+    }
+
+    @Test
+    public void shouldBeIndexed() {
+        assertTrue(this.sizeConfig.isAggregateSizeIndexed());
+    }
+
+    @Test
+    public void getAggregateSizeWithSizeOverrides() {
+        setSize(5, 120);
+        setSize(0, 10);
+
+        assertEquals(10, this.sizeConfig.getAggregateSize(1));
+        assertEquals(90, this.sizeConfig.getAggregateSize(5));
+        assertEquals(290, this.sizeConfig.getAggregateSize(10));
+    }
+
+    @Test
+    public void getAggregateSizeWithDefaultSizeChanges() {
+        setSize(3, 50);
+        this.sizeConfig.setDefaultSize(2, 5);
+        this.referenceConfig.setDefaultSize(2, 5);
+        assertSameAggregateSizes(10);
+
+        this.sizeConfig.setDefaultSize(30);
+        this.referenceConfig.setDefaultSize(30);
+        assertSameAggregateSizes(10);
+
+        this.sizeConfig.resetConfiguredSize(3);
+        this.referenceConfig.resetConfiguredSize(3);
+        assertSameAggregateSizes(10);
+    }
+
+    @Test
+    public void getAggregateSizeWithRandomSizes() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            setSize(random.nextInt(2000), random.nextInt(100));
+        }
+        assertSameAggregateSizes(2500);
+    }
+
+    @Test
+    public void getAggregateSizeWithScaling() {
+        setSize(5, 120);
+        setSize(100, 7);
+
+        IDpiConverter dpiConverter = new AbstractDpiConverter() {
+
+            @Override
+            protected void readDpiFromDisplay() {
+                // use dpi of 144 which will result in a dpi factor of 1.5
+                this.dpi = 144;
+            }
+
+            @Override
+            public float getCurrentDpiFactor() {
+                return 1.5f;
+            }
+        };
+        this.sizeConfig.setDpiConverter(dpiConverter);
+        this.referenceConfig.setDpiConverter(dpiConverter);
+
+        assertSameAggregateSizes(200);
+    }
+
+    @Test
+    public void getAggregateSizeWithPercentageSizing() {
+        this.sizeConfig.setPercentageSizing(true);
+        this.referenceConfig.setPercentageSizing(true);
+        this.sizeConfig.setPercentage(0, 30);
+        this.referenceConfig.setPercentage(0, 30);
+
+        this.sizeConfig.calculatePercentages(1000, 4);
+        this.referenceConfig.calculatePercentages(1000, 4);
+        assertSameAggregateSizes(4);
+        assertEquals(1000, this.sizeConfig.getAggregateSize(4));
+
+        this.sizeConfig.calculatePercentages(500, 4);
+        this.referenceConfig.calculatePercentages(500, 4);
+        assertSameAggregateSizes(4);
+        assertEquals(500, this.sizeConfig.getAggregateSize(4));
+
+        // switch back to pixel sizing
+        this.sizeConfig.setPercentageSizing(false);
+        this.referenceConfig.setPercentageSizing(false);
+        this.sizeConfig.setPercentageSizing(0, false);
+        this.referenceConfig.setPercentageSizing(0, false);
+        assertSameAggregateSizes(4);
+    }
+
+    @Test
+    public void getPositionByAggregateSize() {
+        setSize(0, 10);
+        setSize(2, 0);
+        setSize(3, 50);
+
+        assertEquals(-1, this.sizeConfig.getPositionByAggregateSize(-1));
+        assertEquals(0, this.sizeConfig.getPositionByAggregateSize(0));
+        assertEquals(0, this.sizeConfig.getPositionByAggregateSize(9));
+        assertEquals(1, this.sizeConfig.getPositionByAggregateSize(10));
+        assertEquals(1, this.sizeConfig.getPositionByAggregateSize(29));
+        // position 2 has a size of 0 and can therefore not be found
+        assertEquals(3, this.sizeConfig.getPositionByAggregateSize(30));
+        assertEquals(3, this.sizeConfig.getPositionByAggregateSize(79));
+        assertEquals(4, this.sizeConfig.getPositionByAggregateSize(80));
+        assertEquals(53, this.sizeConfig.getPositionByAggregateSize(1070));
+    }
+
+    @Test
+    public void getPositionByAggregateSizeShouldMatchReference() {
+        Random random = new Random(4711);
+        for (int i = 0; i < 300; i++) {
+            setSize(random.nextInt(1000), random.nextInt(60));
+        }
+        int total = this.sizeConfig.getAggregateSize(1200);
+        for (int pixel = 0; pixel < total; pixel += 7) {
+            assertEquals("position for pixel " + pixel,
+                    this.referenceConfig.getPositionByAggregateSize(pixel),
+                    this.sizeConfig.getPositionByAggregateSize(pixel));
+        }
+    }
+
+    @Test
+    public void disableIndexedMode() {
+        setSize(5, 120);
+        this.sizeConfig.setAggregateSizeIndexed(false);
+        setSize(1, 40);
+
+        assertSameAggregateSizes(10);
+
+        this.sizeConfig.setAggregateSizeIndexed(true);
+        assertSameAggregateSizes(10);
+    }
+
+    @Test
+    public void indexShouldGrow() {
+        AggregateSizeIndex index = new AggregateSizeIndex();
+        index.setSize(3, 5);
+        index.setSize(1_000, 7);
+        index.setSize(100_000, 0);
+
+        assertEquals(30, index.getAggregateSize(3, 10));
+        assertEquals(35, index.getAggregateSize(4, 10));
+        assertEquals(9995, index.getAggregateSize(1_000, 10));
+        assertEquals(10_002, index.getAggregateSize(1_001, 10));
+        assertEquals(999_992, index.getAggregateSize(100_001, 10));
+        assertEquals(1_000, index.getPosition(9995, 10));
+        assertEquals(1_001, index.getPosition(10_002, 10));
+        assertEquals(100_001, index.getPosition(999_992, 10));
+
+        index.removeSize(1_000);
+        assertEquals(10_005, index.getAggregateSize(1_001, 10));
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SizeConfigPrimitiveStorageTest {
+
+    private static final int DEFAULT_SIZE = 100;
+    private SizeConfig sizeConfig;
+    private SizeConfig referenceConfig;
+
+    @Before
+    public void setup() {
+        this.sizeConfig = new SizeConfig(DEFAULT_SIZE, true);
+        this.referenceConfig = new SizeConfig(DEFAULT_SIZE);
+    }
+
+    @Test
+    public void shouldUsePrimitiveStorage() {
+        assertTrue(this.sizeConfig.isPrimitiveStorage());
+        assertFalse(this.referenceConfig.isPrimitiveStorage());
+    }
+
+    @Test
+    public void getAggregateSizeWithSizeOverrides() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int position = random.nextInt(500);
+            int size = random.nextInt(200);
+            this.sizeConfig.setSize(position, size);
+            this.referenceConfig.setSize(position, size);
+        }
+        this.sizeConfig.setPositionResizable(7, false);
+        this.referenceConfig.setPositionResizable(7, false);
+
+        for (int i = 0; i < 600; i++) {
+            assertEquals(this.referenceConfig.getSize(i), this.sizeConfig.getSize(i));
+            assertEquals(this.referenceConfig.getAggregateSize(i), this.sizeConfig.getAggregateSize(i));
+            assertEquals(this.referenceConfig.isPositionResizable(i), this.sizeConfig.isPositionResizable(i));
+        }
+    }
+
+    @Test
+    public void getAggregateSizeWithPercentageSizing() {
+        this.sizeConfig.setPercentageSizing(true);
+        this.referenceConfig.setPercentageSizing(true);
+        this.sizeConfig.setPercentage(0, 30);
+        this.referenceConfig.setPercentage(0, 30);
+        this.sizeConfig.setMinSize(2, 150);
+        this.referenceConfig.setMinSize(2, 150);
+
+        this.sizeConfig.calculatePercentages(1000, 4);
+        this.referenceConfig.calculatePercentages(1000, 4);
+        for (int i = 0; i <= 4; i++) {
+            assertEquals(this.referenceConfig.getAggregateSize(i), this.sizeConfig.getAggregateSize(i));
+        }
+
+        this.sizeConfig.setSize(1, 300);
+        this.referenceConfig.setSize(1, 300);
+        for (int i = 0; i <= 4; i++) {
+            assertEquals(this.referenceConfig.getAggregateSize(i), this.sizeConfig.getAggregateSize(i));
+        }
+    }
+
+    @Test
+    public void persistedStateShouldBeCompatible() {
+        this.referenceConfig.setSize(3, 40);
+        this.referenceConfig.setSize(1000, 45);
+        this.referenceConfig.setDefaultSize(5, 10);
+        this.referenceConfig.setPositionResizable(2, false);
+        this.referenceConfig.setPercentageSizing(4, true);
+        this.referenceConfig.setPercentage(4, 25.5);
+        this.referenceConfig.setMinSize(4, 20);
+
+        Properties referenceProperties = new Properties();
+        this.referenceConfig.saveState("prefix", referenceProperties);
+
+        this.sizeConfig.loadState("prefix", referenceProperties);
+
+        Properties properties = new Properties();
+        this.sizeConfig.saveState("prefix", properties);
+
+        assertEquals(referenceProperties, properties);
+        assertEquals(40, this.sizeConfig.getConfiguredSize(3));
+        assertEquals(45, this.sizeConfig.getConfiguredSize(1000));
+        assertFalse(this.sizeConfig.isPositionResizable(2));
+        assertEquals(25.5, this.sizeConfig.getConfiguredPercentageSize(4), 0);
+        assertEquals(20, this.sizeConfig.getConfiguredMinSize(4));
+    }
+}
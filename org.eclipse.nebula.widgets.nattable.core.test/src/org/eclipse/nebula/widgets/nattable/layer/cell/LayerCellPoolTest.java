@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.cell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.DataProviderFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LayerCellPoolTest {
+
+    private DataLayer dataLayer;
+    private ColumnReorderLayer reorderLayer;
+    private LayerCellPool pool;
+
+    @Before
+    public void setup() {
+        this.dataLayer = new DataLayer(new DataProviderFixture(10, 10));
+        this.reorderLayer = new ColumnReorderLayer(this.dataLayer);
+        this.pool = new LayerCellPool();
+    }
+
+    @After
+    public void tearDown() {
+        while (this.pool.isActive()) {
+            this.pool.deactivate();
+        }
+    }
+
+    @Test
+    public void shouldCreateNewCellsIfNotActive() {
+        assertNull(LayerCellPool.getActivePool());
+
+        ILayerCell cell1 = this.reorderLayer.getCellByPosition(1, 1);
+        ILayerCell cell2 = this.reorderLayer.getCellByPosition(1, 1);
+        assertNotSame(cell1, cell2);
+        assertEquals(0, this.pool.getPooledCellCount());
+    }
+
+    @Test
+    public void shouldReuseReleasedCells() {
+        this.pool.activate();
+        assertSame(this.pool, LayerCellPool.getActivePool());
+
+        long mark = this.pool.mark();
+        ILayerCell cell1 = this.reorderLayer.getCellByPosition(1, 2);
+        assertEquals(1, cell1.getColumnPosition());
+        assertEquals(2, cell1.getRowPosition());
+        assertEquals("[1,2]", cell1.getDataValue()); //$NON-NLS-1$
+        this.pool.release(mark);
+
+        ILayerCell cell2 = this.reorderLayer.getCellByPosition(3, 4);
+        assertSame(cell1, cell2);
+        assertEquals(3, cell2.getColumnPosition());
+        assertEquals(4, cell2.getRowPosition());
+        assertEquals(3, cell2.getColumnIndex());
+        assertEquals(4, cell2.getRowIndex());
+        assertSame(this.reorderLayer, cell2.getLayer());
+        // the cached data value of the previous usage needs to be cleared
+        assertEquals("[3,4]", cell2.getDataValue()); //$NON-NLS-1$
+
+        // one translated cell and one underlying cell
+        assertEquals(2, this.pool.getPooledCellCount());
+    }
+
+    @Test
+    public void shouldNotReuseRetainedCells() {
+        this.pool.activate();
+
+        long mark = this.pool.mark();
+        ILayerCell retained = this.reorderLayer.getCellByPosition(1, 2);
+        long cellMark = this.pool.mark();
+        ILayerCell released = this.reorderLayer.getCellByPosition(2, 2);
+        this.pool.release(cellMark);
+
+        ILayerCell cell = this.reorderLayer.getCellByPosition(5, 5);
+        assertSame(released, cell);
+        assertNotSame(retained, cell);
+        assertEquals(1, retained.getColumnPosition());
+        assertEquals(2, retained.getRowPosition());
+
+        this.pool.release(mark);
+        assertSame(retained, this.reorderLayer.getCellByPosition(0, 0));
+    }
+
+    @Test
+    public void shouldClearReferencesOnDeactivate() {
+        this.pool.activate();
+        this.pool.activate();
+        ILayerCell cell = this.dataLayer.getCellByPosition(1, 1);
+        this.pool.deactivate();
+
+        // still active because of the nested activation
+        assertTrue(this.pool.isActive());
+        assertSame(this.dataLayer, cell.getLayer());
+
+        this.pool.deactivate();
+        assertFalse(this.pool.isActive());
+        assertNull(LayerCellPool.getActivePool());
+        assertNull(cell.getLayer());
+    }
+
+    @Test
+    public void shouldRestorePreviousPool() {
+        LayerCellPool other = new LayerCellPool();
+        this.pool.activate();
+        other.activate();
+        assertSame(other, LayerCellPool.getActivePool());
+        other.deactivate();
+        assertSame(this.pool, LayerCellPool.getActivePool());
+    }
+
+    @Test
+    public void shouldNotUsePoolOfOtherThread() throws InterruptedException {
+        final LayerCellPool other = new LayerCellPool();
+        final CountDownLatch activated = new CountDownLatch(1);
+        final CountDownLatch checked = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            other.activate();
+            try {
+                activated.countDown();
+                checked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                other.deactivate();
+            }
+        });
+        thread.start();
+        try {
+            activated.await();
+            assertNull(LayerCellPool.getActivePool());
+            ILayerCell cell1 = this.reorderLayer.getCellByPosition(1, 1);
+            ILayerCell cell2 = this.reorderLayer.getCellByPosition(1, 1);
+            assertNotSame(cell1, cell2);
+            assertEquals(0, other.getPooledCellCount());
+        } finally {
+            checked.countDown();
+            thread.join();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailOnDeactivateWithoutActivate() {
+        this.pool.deactivate();
+    }
+}
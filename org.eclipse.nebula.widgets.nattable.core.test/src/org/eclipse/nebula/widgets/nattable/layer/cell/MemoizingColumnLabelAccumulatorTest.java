@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.cell;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.painter.layer.PaintPass;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoizingColumnLabelAccumulatorTest {
+
+    private ColumnOverrideLabelAccumulator overrides;
+    private int calls;
+    private MemoizingColumnLabelAccumulator accumulator;
+
+    @Before
+    public void setUp() {
+        this.overrides = new ColumnOverrideLabelAccumulator(new DataLayerFixture());
+        this.overrides.registerColumnOverrides(0, "label0", "other0");
+        this.accumulator = new MemoizingColumnLabelAccumulator(new IConfigLabelAccumulator() {
+
+            @Override
+            public void accumulateConfigLabels(LabelStack configLabels, int columnPosition, int rowPosition) {
+                MemoizingColumnLabelAccumulatorTest.this.calls++;
+                MemoizingColumnLabelAccumulatorTest.this.overrides.accumulateConfigLabels(configLabels, columnPosition, rowPosition);
+                if (columnPosition == 1) {
+                    configLabels.addLabelOnTop("top1");
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        PaintPass.end();
+    }
+
+    private LabelStack accumulate(int columnPosition, int rowPosition) {
+        LabelStack stack = new LabelStack("existing");
+        this.accumulator.accumulateConfigLabels(stack, columnPosition, rowPosition);
+        return stack;
+    }
+
+    @Test
+    public void shouldNotMemoizeOutsidePaintPass() {
+        accumulate(0, 0);
+        accumulate(0, 1);
+        assertEquals(2, this.calls);
+    }
+
+    @Test
+    public void shouldMemoizePerColumnInPaintPass() {
+        PaintPass.begin();
+        for (int row = 0; row < 10; row++) {
+            assertEquals(Arrays.asList("existing", "label0", "other0"), accumulate(0, row).getLabels());
+            assertEquals(Arrays.asList("top1", "existing"), accumulate(1, row).getLabels());
+            assertEquals(Arrays.asList("existing"), accumulate(2, row).getLabels());
+        }
+        assertEquals(3, this.calls);
+    }
+
+    @Test
+    public void shouldRecalculateInNewPaintPass() {
+        PaintPass.begin();
+        accumulate(0, 0);
+        PaintPass.end();
+
+        this.overrides.registerColumnOverrides(0, "changed");
+
+        PaintPass.begin();
+        assertEquals(Arrays.asList("existing", "label0", "other0", "changed"), accumulate(0, 0).getLabels());
+        accumulate(0, 1);
+        assertEquals(2, this.calls);
+    }
+
+    @Test
+    public void shouldRecalculateOnStructuralChange() {
+        ColumnReorderLayer reorderLayer = new ColumnReorderLayer(new DataLayerFixture(), false);
+        ColumnOverrideLabelAccumulator reorderOverrides = new ColumnOverrideLabelAccumulator(reorderLayer);
+        reorderOverrides.registerColumnOverrides(0, "index0");
+        reorderOverrides.registerColumnOverrides(1, "index1");
+        MemoizingColumnLabelAccumulator memo = new MemoizingColumnLabelAccumulator(reorderOverrides);
+        reorderLayer.addLayerListener(memo);
+
+        PaintPass.begin();
+        LabelStack stack = new LabelStack();
+        memo.accumulateConfigLabels(stack, 0, 0);
+        assertEquals(Arrays.asList("index0"), stack.getLabels());
+
+        // column index 1 is now shown at column position 0
+        reorderLayer.reorderColumnPosition(1, 0);
+
+        stack = new LabelStack();
+        memo.accumulateConfigLabels(stack, 0, 1);
+        assertEquals(Arrays.asList("index1"), stack.getLabels());
+        stack = new LabelStack();
+        memo.accumulateConfigLabels(stack, 1, 1);
+        assertEquals(Arrays.asList("index0"), stack.getLabels());
+    }
+}
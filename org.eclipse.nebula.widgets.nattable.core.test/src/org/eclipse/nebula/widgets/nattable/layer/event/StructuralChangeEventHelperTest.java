@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.junit.Test;
+
+public class StructuralChangeEventHelperTest {
+
+    private DataLayerFixture layer = new DataLayerFixture(10, 10, 100, 20);
+
+    private static StructuralDiff add(int position) {
+        return new StructuralDiff(DiffTypeEnum.ADD, new Range(position, position), new Range(position, position + 1));
+    }
+
+    private static StructuralDiff delete(int start, int end) {
+        return new StructuralDiff(DiffTypeEnum.DELETE, new Range(start, end), new Range(start, start));
+    }
+
+    @Test
+    public void shouldHandleRowDelete() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(0, 2, 5, 7));
+        StructuralChangeEventHelper.handleRowDelete(Arrays.asList(delete(1, 3), delete(6, 7)), this.layer, cached, false);
+        assertEquals(Arrays.asList(0, 3, 4), cached);
+    }
+
+    @Test
+    public void shouldHandleMultipleRowInsertsInOrder() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(0, 1, 2, 3, 4));
+        StructuralChangeEventHelper.handleRowInsert(Arrays.asList(add(1), add(3), add(7)), this.layer, cached, true);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), cached);
+    }
+
+    @Test
+    public void shouldHandleMultipleRowInsertsOnReorderedIndexes() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(4, 3, 2, 1, 0));
+        StructuralChangeEventHelper.handleRowInsert(Arrays.asList(add(0), add(2)), this.layer, cached, true);
+        assertEquals(Arrays.asList(0, 6, 2, 5, 4, 3, 1), cached);
+    }
+
+    @Test
+    public void shouldHandleMultipleRowInsertsWithoutAdding() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(1, 3));
+        StructuralChangeEventHelper.handleRowInsert(Arrays.asList(add(1), add(3)), this.layer, cached, false);
+        assertEquals(Arrays.asList(2, 5), cached);
+    }
+
+    @Test
+    public void shouldHandleUnorderedRowInserts() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(1, 3));
+        StructuralChangeEventHelper.handleRowInsert(Arrays.asList(add(3), add(1)), this.layer, cached, false);
+        assertEquals(Arrays.asList(2, 5), cached);
+    }
+
+    @Test
+    public void shouldHandleColumnDeleteAndInsert() {
+        List<Integer> cached = new ArrayList<>(Arrays.asList(0, 1, 2, 3));
+        List<StructuralDiff> diffs = Arrays.asList(delete(1, 2), add(2));
+        StructuralChangeEventHelper.handleColumnDelete(diffs, this.layer, cached, false);
+        StructuralChangeEventHelper.handleColumnInsert(diffs, this.layer, cached, true);
+        assertEquals(Arrays.asList(0, 1, 2, 3), cached);
+    }
+
+    @Test
+    public void shouldHandleRowInsertsWithReorderedPositions() {
+        // the row at position 6 has the index 2, the inserted position 6
+        // needs to be shifted by the subsequent insert at index 3
+        final int[] indexes = { 0, 1, 6, 3, 4, 5, 2, 7, 8, 9 };
+        DataLayerFixture reordered = new DataLayerFixture(10, 10, 100, 20) {
+            @Override
+            public int getRowIndexByPosition(int rowPosition) {
+                return indexes[rowPosition];
+            }
+        };
+        List<Integer> cached = new ArrayList<>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7));
+        List<StructuralDiff> diffs = Arrays.asList(add(6), add(3));
+
+        List<Integer> expected = new ArrayList<>(cached);
+        handleRowInsertSequentially(diffs, indexes, expected);
+        assertEquals(Arrays.asList(0, 1, 7, 3, 4, 5, 6, 7, 8, 9), expected);
+
+        StructuralChangeEventHelper.handleRowInsert(diffs, reordered, cached, true);
+        assertEquals(expected, cached);
+    }
+
+    @Test
+    public void shouldHandleRowInsertsLikeSequentialInserts() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            int size = 1 + random.nextInt(20);
+            int addCount = 1 + random.nextInt(5);
+
+            // random mapping of positions to indexes
+            List<Integer> mapping = new ArrayList<>();
+            for (int i = 0; i < size + addCount; i++) {
+                mapping.add(i);
+            }
+            Collections.shuffle(mapping, random);
+            final int[] indexes = new int[mapping.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = mapping.get(i);
+            }
+            DataLayerFixture reordered = new DataLayerFixture(10, 10, 100, 20) {
+                @Override
+                public int getRowIndexByPosition(int rowPosition) {
+                    return indexes[rowPosition];
+                }
+            };
+
+            // inserts at positions with ascending indexes use the single
+            // pass, others are applied one after the other. Only indexes
+            // that are valid for the cache are inserted.
+            List<Integer> positions = new ArrayList<>(mapping.size());
+            for (int i = 0; i < indexes.length; i++) {
+                if (indexes[i] <= size) {
+                    positions.add(i);
+                }
+            }
+            Collections.shuffle(positions, random);
+            positions = new ArrayList<>(positions.subList(0, Math.min(addCount, positions.size())));
+            if (random.nextBoolean()) {
+                positions.sort((p1, p2) -> Integer.compare(indexes[p1], indexes[p2]));
+            }
+            List<StructuralDiff> diffs = new ArrayList<>();
+            for (Integer position : positions) {
+                diffs.add(add(position));
+            }
+
+            List<Integer> cached = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                cached.add(i);
+            }
+            Collections.shuffle(cached, random);
+            boolean addToCache = random.nextBoolean();
+
+            List<Integer> expected = new ArrayList<>(cached);
+            if (addToCache) {
+                handleRowInsertSequentially(diffs, indexes, expected);
+            } else {
+                for (StructuralDiff diff : diffs) {
+                    int beforeIndex = indexes[diff.getBeforePositionRange().start];
+                    for (int i = 0; i < expected.size(); i++) {
+                        if (expected.get(i) >= beforeIndex) {
+                            expected.set(i, expected.get(i) + 1);
+                        }
+                    }
+                }
+            }
+
+            StructuralChangeEventHelper.handleRowInsert(diffs, reordered, cached, addToCache);
+            assertEquals("diffs " + positions + " on " + Arrays.toString(indexes), expected, cached);
+        }
+    }
+
+    /**
+     * The previous implementation that applies the ADD diffs one after the
+     * other and adds the inserted positions to the cache.
+     */
+    private static void handleRowInsertSequentially(List<StructuralDiff> diffs, int[] indexes, List<Integer> cached) {
+        for (StructuralDiff diff : diffs) {
+            int beforePosition = diff.getBeforePositionRange().start;
+            int beforeIndex = indexes[beforePosition];
+            for (int i = 0; i < cached.size(); i++) {
+                if (cached.get(i) >= beforeIndex) {
+                    cached.set(i, cached.get(i) + 1);
+                }
+            }
+            cached.add(beforeIndex, beforePosition);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextExtentCacheTest {
+
+    private GC gc;
+    private Font smallFont;
+    private Font largeFont;
+    private TextExtentCache cache;
+
+    @Before
+    public void setUp() {
+        this.gc = new GC(Display.getDefault());
+        this.smallFont = new Font(Display.getDefault(), new FontData("Verdana", 8, SWT.NORMAL));
+        this.largeFont = new Font(Display.getDefault(), new FontData("Verdana", 24, SWT.BOLD));
+        this.cache = new TextExtentCache(2);
+    }
+
+    @After
+    public void tearDown() {
+        this.gc.dispose();
+        this.smallFont.dispose();
+        this.largeFont.dispose();
+    }
+
+    @Test
+    public void shouldCacheTextExtentPerFont() {
+        this.gc.setFont(this.smallFont);
+        int smallWidth = this.gc.textExtent("NatTable").x;
+        assertEquals(smallWidth, this.cache.getTextWidth(this.gc, "NatTable"));
+        assertEquals(smallWidth, this.cache.getTextWidth(this.gc, "NatTable"));
+
+        this.gc.setFont(this.largeFont);
+        int largeWidth = this.gc.textExtent("NatTable").x;
+        assertEquals(largeWidth, this.cache.getTextWidth(this.gc, "NatTable"));
+        assertEquals(this.gc.textExtent("NatTable").y, this.cache.getTextHeight(this.gc, "NatTable"));
+
+        assertEquals(2, this.cache.getHitCount());
+        assertEquals(2, this.cache.getMissCount());
+        assertEquals(0.5d, this.cache.getHitRate(), 0.0001d);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        this.gc.setFont(this.smallFont);
+        this.cache.getTextWidth(this.gc, "a");
+        this.cache.getTextWidth(this.gc, "b");
+        // access a so b is the least recently used
+        this.cache.getTextWidth(this.gc, "a");
+        this.cache.getTextWidth(this.gc, "c");
+
+        assertEquals(2, this.cache.size());
+        assertEquals(1, this.cache.getEvictionCount());
+
+        this.cache.resetStatistics();
+        this.cache.getTextWidth(this.gc, "a");
+        this.cache.getTextWidth(this.gc, "b");
+        assertEquals(1, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    public void shouldShrinkOnSmallerMaximumSize() {
+        this.gc.setFont(this.smallFont);
+        this.cache.getTextWidth(this.gc, "a");
+        this.cache.getTextWidth(this.gc, "b");
+
+        this.cache.setMaximumSize(1);
+        assertEquals(1, this.cache.size());
+    }
+}
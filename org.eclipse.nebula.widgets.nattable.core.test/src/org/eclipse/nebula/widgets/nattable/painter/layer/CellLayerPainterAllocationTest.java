@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verifies that a steady-state repaint does not allocate objects per cell in
+ * the layer painter. The layer returns pre-created cells and a no-op cell
+ * painter, so the measured allocations are the ones of the layer painter,
+ * including the adjustment of the cell bounds.
+ */
+public class CellLayerPainterAllocationTest {
+
+    private static final int COLUMNS = 60;
+    private static final int ROWS = 200;
+    private static final int REPAINTS = 50;
+
+    /**
+     * Allowed allocations per paint pass, e.g. for the position rectangle and
+     * the GC clipping. Any allocation per cell would exceed this by far.
+     */
+    private static final long MAX_BYTES_PER_PASS = 2048;
+
+    private CountingCellPainter cellPainter;
+    private CachedCellDataLayer layer;
+    private IConfigRegistry configRegistry;
+    private Image image;
+    private GC gc;
+
+    @Before
+    public void setup() {
+        this.cellPainter = new CountingCellPainter();
+        this.layer = new CachedCellDataLayer(this.cellPainter);
+        this.configRegistry = new ConfigRegistry();
+        this.image = new Image(Display.getDefault(), this.layer.getWidth(), this.layer.getHeight());
+        this.gc = new GC(this.image);
+    }
+
+    @After
+    public void tearDown() {
+        this.gc.dispose();
+        this.image.dispose();
+    }
+
+    @Test
+    public void cellLayerPainterShouldNotAllocatePerCell() {
+        assertNoAllocationPerCell(new CellLayerPainter());
+    }
+
+    @Test
+    public void gridLineCellLayerPainterShouldNotAllocatePerCell() {
+        assertNoAllocationPerCell(new GridLineCellLayerPainter());
+    }
+
+    @Test
+    public void shouldPaintWithOverriddenAdjustCellBounds() {
+        // subclasses that only override the public adjustment need to paint
+        // with the same bounds that are used e.g. for editing
+        GridLineCellLayerPainter painter = new GridLineCellLayerPainter() {
+            @Override
+            public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle bounds) {
+                Rectangle adjusted = super.adjustCellBounds(columnPosition, rowPosition, bounds);
+                adjusted.width -= 5;
+                return adjusted;
+            }
+        };
+        this.layer.setLayerPainter(painter);
+
+        Rectangle bounds = new Rectangle(0, 0, this.layer.getWidth(), this.layer.getHeight());
+        painter.paintLayer(this.layer, this.gc, 0, 0, bounds, this.configRegistry);
+
+        assertEquals(COLUMNS * ROWS, this.cellPainter.count);
+        Rectangle expected = painter.adjustCellBounds(
+                COLUMNS - 1, ROWS - 1, this.layer.getCellByPosition(COLUMNS - 1, ROWS - 1).getBounds());
+        assertEquals(expected, this.cellPainter.lastBounds);
+        assertEquals(14, this.cellPainter.lastBounds.width);
+    }
+
+    private void assertNoAllocationPerCell(ILayerPainter painter) {
+        // the layer painter is also used to adjust the cell bounds
+        this.layer.setLayerPainter(painter);
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        Rectangle bounds = new Rectangle(0, 0, this.layer.getWidth(), this.layer.getHeight());
+
+        // warm up, e.g. to grow the internal arrays of the painter
+        for (int i = 0; i < REPAINTS; i++) {
+            painter.paintLayer(this.layer, this.gc, 0, 0, bounds, this.configRegistry);
+        }
+        this.cellPainter.count = 0;
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < REPAINTS; i++) {
+            painter.paintLayer(this.layer, this.gc, 0, 0, bounds, this.configRegistry);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(COLUMNS * ROWS * REPAINTS, this.cellPainter.count);
+        assertTrue("allocated " + allocated + " bytes in " + REPAINTS + " repaints",
+                allocated / REPAINTS < MAX_BYTES_PER_PASS);
+    }
+
+    private static class CountingCellPainter implements ICellPainter {
+
+        int count;
+        final Rectangle lastBounds = new Rectangle(0, 0, 0, 0);
+
+        @Override
+        public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegistry configRegistry) {
+            this.count++;
+            this.lastBounds.x = rectangle.x;
+            this.lastBounds.y = rectangle.y;
+            this.lastBounds.width = rectangle.width;
+            this.lastBounds.height = rectangle.height;
+        }
+
+        @Override
+        public int getPreferredWidth(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
+            return 0;
+        }
+
+        @Override
+        public int getPreferredHeight(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
+            return 0;
+        }
+
+        @Override
+        public ICellPainter getCellPainterAt(int x, int y, ILayerCell cell, GC gc,
+                Rectangle adjustedCellBounds, IConfigRegistry configRegistry) {
+            return this;
+        }
+    }
+
+    private static class CachedCellDataLayer extends DataLayer {
+
+        private final ILayerCell[][] cells = new ILayerCell[COLUMNS][ROWS];
+        private final ICellPainter cellPainter;
+
+        CachedCellDataLayer(ICellPainter cellPainter) {
+            super(new IDataProvider() {
+
+                @Override
+                public Object getDataValue(int columnIndex, int rowIndex) {
+                    return null;
+                }
+
+                @Override
+                public void setDataValue(int columnIndex, int rowIndex, Object newValue) {}
+
+                @Override
+                public int getColumnCount() {
+                    return COLUMNS;
+                }
+
+                @Override
+                public int getRowCount() {
+                    return ROWS;
+                }
+            }, 20, 10);
+            this.cellPainter = cellPainter;
+
+            for (int column = 0; column < COLUMNS; column++) {
+                for (int row = 0; row < ROWS; row++) {
+                    this.cells[column][row] = new LayerCell(this, column, row);
+                    // cache the bounds
+                    this.cells[column][row].getBounds();
+                }
+            }
+        }
+
+        @Override
+        public ILayerCell getCellByPosition(int columnPosition, int rowPosition) {
+            return this.cells[columnPosition][rowPosition];
+        }
+
+        @Override
+        public ICellPainter getCellPainter(int columnPosition, int rowPosition, ILayerCell cell, IConfigRegistry configRegistry) {
+            return this.cellPainter;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntervalSelectionModelTest {
+
+    private SelectionLayer selectionLayer;
+    private IntervalSelectionModel model;
+
+    @Before
+    public void before() {
+        this.selectionLayer = new SelectionLayer(new DataLayerFixture(100, 100, 100, 40));
+        this.model = new IntervalSelectionModel(this.selectionLayer);
+    }
+
+    @Test
+    public void shouldUpdateIndexOnModification() {
+        assertFalse(this.model.isCellPositionSelected(0, 0));
+
+        this.model.addSelection(0, 0);
+        assertTrue(this.model.isCellPositionSelected(0, 0));
+        assertTrue(this.model.isRowPositionSelected(0));
+        assertTrue(this.model.isColumnPositionSelected(0));
+
+        this.model.addSelection(new Rectangle(5, 10, 3, 2));
+        assertTrue(this.model.isCellPositionSelected(7, 11));
+        assertFalse(this.model.isCellPositionSelected(8, 11));
+        assertArrayEquals(new int[] { 0, 5, 6, 7 }, this.model.getSelectedColumnPositions());
+        assertEquals(3, this.model.getSelectedRowCount());
+
+        this.model.clearSelection(6, 10);
+        assertFalse(this.model.isCellPositionSelected(6, 10));
+        assertTrue(this.model.isCellPositionSelected(6, 11));
+
+        this.model.clearSelection();
+        assertFalse(this.model.isCellPositionSelected(0, 0));
+        assertTrue(this.model.isEmpty());
+        assertEquals(0, this.model.getSelectedRowCount());
+    }
+
+    @Test
+    public void shouldMergeRowRanges() {
+        this.model.addSelection(new Rectangle(0, 0, 1, 5));
+        this.model.addSelection(new Rectangle(3, 5, 1, 5));
+        this.model.addSelection(new Rectangle(3, 20, 1, 5));
+
+        assertEquals(
+                new HashSet<Range>(Arrays.asList(new Range(0, 10), new Range(20, 25))),
+                this.model.getSelectedRowPositions());
+        assertEquals(15, this.model.getSelectedRowCount());
+        assertTrue(this.model.isRowPositionSelected(9));
+        assertFalse(this.model.isRowPositionSelected(10));
+        assertTrue(this.model.isRowPositionSelected(24));
+        assertFalse(this.model.isRowPositionSelected(25));
+    }
+
+    @Test
+    public void shouldReduceRangesToLayerSize() {
+        this.model.addSelection(new Rectangle(95, 95, 10, 10));
+
+        assertArrayEquals(new int[] { 95, 96, 97, 98, 99 }, this.model.getSelectedColumnPositions());
+        assertEquals(5, this.model.getSelectedRowCount());
+        assertFalse(this.model.isRowPositionSelected(100));
+    }
+
+    @Test
+    public void isColumnFullySelectedForContiguousRectangles() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 10));
+        this.model.addSelection(new Rectangle(5, 10, 10, 10));
+
+        assertTrue(this.model.isColumnPositionFullySelected(5, 20));
+        assertFalse(this.model.isColumnPositionFullySelected(4, 20));
+        assertArrayEquals(new int[] { 5, 6, 7, 8, 9 }, this.model.getFullySelectedColumnPositions(20));
+    }
+
+    @Test
+    public void isRowFullySelectedForNonContiguousRectangles() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 10));
+        this.model.addSelection(new Rectangle(5, 5, 10, 8));
+        this.model.addSelection(new Rectangle(17, 5, 5, 10));
+
+        assertFalse(this.model.isRowPositionFullySelected(5, 22));
+        assertTrue(this.model.isRowPositionFullySelected(0, 10));
+        assertFalse(this.model.isRowPositionFullySelected(0, 11));
+        assertTrue(this.model.isRowPositionFullySelected(13, 5));
+    }
+
+    @Test
+    public void shouldBehaveLikeSelectionModel() {
+        SelectionModel reference = new SelectionModel(this.selectionLayer);
+        Random random = new Random(4711);
+
+        for (int i = 0; i < 500; i++) {
+            Rectangle rectangle = new Rectangle(
+                    random.nextInt(110) - 5,
+                    random.nextInt(110) - 5,
+                    random.nextInt(20),
+                    random.nextInt(20));
+
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                reference.addSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+                this.model.addSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            } else if (operation < 9) {
+                reference.clearSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+                this.model.clearSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            } else {
+                reference.addSelection(rectangle.x, rectangle.y);
+                this.model.addSelection(rectangle.x, rectangle.y);
+            }
+
+            assertEquals(reference.getSelections(), this.model.getSelections());
+            assertArrayEquals(reference.getSelectedColumnPositions(), this.model.getSelectedColumnPositions());
+            assertEquals(reference.getSelectedRowPositions(), this.model.getSelectedRowPositions());
+            assertEquals(reference.getSelectedRowCount(), this.model.getSelectedRowCount());
+
+            if (i % 50 == 0) {
+                for (int row = 0; row < 100; row++) {
+                    assertEquals(reference.isRowPositionSelected(row), this.model.isRowPositionSelected(row));
+                    assertEquals(reference.isRowPositionFullySelected(row, 100), this.model.isRowPositionFullySelected(row, 100));
+                    for (int column = 0; column < 100; column++) {
+                        assertEquals(
+                                reference.isCellPositionSelected(column, row),
+                                this.model.isCellPositionSelected(column, row));
+                    }
+                }
+                for (int column = 0; column < 100; column++) {
+                    assertEquals(reference.isColumnPositionSelected(column), this.model.isColumnPositionSelected(column));
+                    assertEquals(reference.isColumnPositionFullySelected(column, 100), this.model.isColumnPositionFullySelected(column, 100));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermutationSortModelTest {
+
+    private List<int[]> rows;
+    private PermutationSortModel<int[]> sortModel;
+    private IRowDataProvider<int[]> sorted;
+
+    @Before
+    public void setup() {
+        this.rows = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            this.rows.add(new int[] { i, random.nextInt(100), random.nextInt(10) });
+        }
+
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                SortConfigAttributes.SORT_COMPARATOR,
+                DefaultComparator.getInstance(),
+                DisplayMode.NORMAL);
+
+        DataLayer columnHeaderDataLayer = new DataLayer(
+                new DefaultColumnHeaderDataProvider(new String[] { "id", "value", "group" }));
+
+        this.sortModel = new PermutationSortModel<>(
+                new ListDataProvider<>(this.rows, new ArrayAccessor()),
+                configRegistry,
+                columnHeaderDataLayer);
+        this.sorted = this.sortModel.getSortedRowDataProvider();
+    }
+
+    @Test
+    public void shouldProvideUnsortedRowsInitially() {
+        assertEquals(20000, this.sorted.getRowCount());
+        assertSame(this.rows.get(42), this.sorted.getRowObject(42));
+        assertTrue(this.sortModel.getSortedColumnIndexes().isEmpty());
+    }
+
+    @Test
+    public void shouldSortMultipleColumns() {
+        this.sortModel.sort(2, SortDirectionEnum.DESC, false);
+        this.sortModel.sort(1, SortDirectionEnum.ASC, true);
+
+        assertEquals(Arrays.asList(2, 1), this.sortModel.getSortedColumnIndexes());
+        assertEquals(SortDirectionEnum.DESC, this.sortModel.getSortDirection(2));
+        assertEquals(1, this.sortModel.getSortOrder(1));
+        assertFalse(this.sortModel.isColumnIndexSorted(0));
+
+        assertSorted(comparator());
+
+        this.sortModel.sort(1, SortDirectionEnum.NONE, true);
+        assertEquals(Arrays.asList(2), this.sortModel.getSortedColumnIndexes());
+        assertSorted(comparator());
+
+        this.sortModel.clear();
+        assertSame(this.rows.get(42), this.sorted.getRowObject(42));
+    }
+
+    @Test
+    public void shouldSortSequentially() {
+        this.sortModel.setParallelSortEnabled(false);
+        this.sortModel.sort(1, SortDirectionEnum.ASC, false);
+        assertSorted(comparator());
+    }
+
+    @Test
+    public void shouldReinsertUpdatedRows() {
+        this.sortModel.sort(2, SortDirectionEnum.ASC, false);
+        this.sortModel.sort(1, SortDirectionEnum.DESC, true);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int row = random.nextInt(this.sorted.getRowCount());
+            int[] rowObject = this.sorted.getRowObject(row);
+            this.sorted.setDataValue(1, row, random.nextInt(100));
+            assertEquals(this.sorted.indexOfRowObject(rowObject), indexOf(rowObject));
+        }
+        assertSorted(comparator());
+
+        // modified without using the sorted data provider
+        this.rows.get(0)[2] = 11;
+        this.rows.get(1)[2] = -1;
+        this.sortModel.updateRows(0, 1);
+        assertSame(this.rows.get(1), this.sorted.getRowObject(0));
+        assertSame(this.rows.get(0), this.sorted.getRowObject(this.sorted.getRowCount() - 1));
+        assertSorted(comparator());
+    }
+
+    @Test
+    public void shouldSortAgainOnRowCountChange() {
+        this.sortModel.sort(1, SortDirectionEnum.ASC, false);
+
+        this.rows.add(new int[] { 20000, -1, 0 });
+        assertEquals(20001, this.sorted.getRowCount());
+        assertSame(this.rows.get(20000), this.sorted.getRowObject(0));
+        assertSorted(comparator());
+    }
+
+    private Comparator<int[]> comparator() {
+        Comparator<int[]> result = null;
+        for (final int column : this.sortModel.getSortedColumnIndexes()) {
+            Comparator<int[]> columnComparator = Comparator.comparingInt(row -> row[column]);
+            if (this.sortModel.getSortDirection(column) == SortDirectionEnum.DESC) {
+                columnComparator = columnComparator.reversed();
+            }
+            result = (result == null) ? columnComparator : result.thenComparing(columnComparator);
+        }
+        // equal rows keep the original order
+        return result.thenComparingInt(row -> row[0]);
+    }
+
+    private void assertSorted(Comparator<int[]> comparator) {
+        List<int[]> expected = new ArrayList<>(this.rows);
+        expected.sort(comparator);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame("row " + i, expected.get(i), this.sorted.getRowObject(i));
+            assertEquals(i, this.sorted.indexOfRowObject(expected.get(i)));
+        }
+    }
+
+    private int indexOf(int[] rowObject) {
+        for (int i = 0; i < this.sorted.getRowCount(); i++) {
+            if (this.sorted.getRowObject(i) == rowObject) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class ArrayAccessor implements IColumnAccessor<int[]> {
+
+        @Override
+        public Object getDataValue(int[] rowObject, int columnIndex) {
+            return rowObject[columnIndex];
+        }
+
+        @Override
+        public void setDataValue(int[] rowObject, int columnIndex, Object newValue) {
+            rowObject[columnIndex] = (Integer) newValue;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 3;
+        }
+    }
+}
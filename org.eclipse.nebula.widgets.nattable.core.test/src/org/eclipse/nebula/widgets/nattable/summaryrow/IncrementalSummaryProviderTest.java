@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalSummaryProviderTest {
+
+    private List<Object[]> rows;
+    private CountingDataProvider dataProvider;
+
+    @Before
+    public void setup() {
+        this.rows = new ArrayList<Object[]>();
+        for (int i = 0; i < 100; i++) {
+            this.rows.add(new Object[] { Double.valueOf(i), Integer.valueOf(i % 7) });
+        }
+        this.dataProvider = new CountingDataProvider(this.rows);
+    }
+
+    @Test
+    public void shouldMatchFullScanOnRandomChanges() {
+        IIncrementalSummaryProvider sum = new IncrementalSummationSummaryProvider(this.dataProvider);
+        IIncrementalSummaryProvider count = new IncrementalCountSummaryProvider(this.dataProvider);
+        IIncrementalSummaryProvider average = new IncrementalAverageSummaryProvider(this.dataProvider);
+        IIncrementalSummaryProvider min = new IncrementalMinMaxSummaryProvider(this.dataProvider, false);
+        IIncrementalSummaryProvider max = new IncrementalMinMaxSummaryProvider(this.dataProvider, true);
+        IIncrementalSummaryProvider[] providers = { sum, count, average, min, max };
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 && !this.rows.isEmpty()) {
+                int row = random.nextInt(this.rows.size());
+                int count1 = 1 + random.nextInt(Math.min(3, this.rows.size() - row));
+                for (int r = 0; r < count1; r++) {
+                    this.rows.remove(row);
+                }
+                for (IIncrementalSummaryProvider provider : providers) {
+                    provider.rowsDeleted(row, count1);
+                }
+            } else if (op == 1) {
+                int row = random.nextInt(this.rows.size() + 1);
+                this.rows.add(row, new Object[] { (double) random.nextInt(1000) - 500, random.nextInt(10) });
+                for (IIncrementalSummaryProvider provider : providers) {
+                    provider.rowsInserted(row, 1);
+                }
+            } else if (!this.rows.isEmpty()) {
+                int row = random.nextInt(this.rows.size());
+                this.rows.get(row)[0] = (double) random.nextInt(1000) - 500;
+                for (IIncrementalSummaryProvider provider : providers) {
+                    provider.cellChanged(0, row);
+                }
+            }
+
+            double expectedSum = 0;
+            double expectedMin = Double.MAX_VALUE;
+            double expectedMax = -Double.MAX_VALUE;
+            for (Object[] row : this.rows) {
+                double value = (Double) row[0];
+                expectedSum += value;
+                expectedMin = Math.min(expectedMin, value);
+                expectedMax = Math.max(expectedMax, value);
+            }
+            int rowCount = this.rows.size();
+            assertEquals(expectedSum, (Double) sum.summarize(0), 0.000001);
+            assertEquals(rowCount, count.summarize(0));
+            if (rowCount > 0) {
+                assertEquals(expectedSum / rowCount, (Double) average.summarize(0), 0.000001);
+                assertEquals(expectedMin, (Double) min.summarize(0), 0);
+                assertEquals(expectedMax, (Double) max.summarize(0), 0);
+            } else {
+                assertNull(average.summarize(0));
+                assertNull(min.summarize(0));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotRescanOnCellChange() {
+        IIncrementalSummaryProvider sum = new IncrementalSummationSummaryProvider(this.dataProvider);
+        assertEquals(4950d, sum.summarize(0));
+        int reads = this.dataProvider.reads;
+
+        this.rows.get(10)[0] = 110d;
+        sum.cellChanged(0, 10);
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(reads + 1, this.dataProvider.reads);
+    }
+
+    @Test
+    public void shouldRespectStrictMode() {
+        IIncrementalSummaryProvider strict = new IncrementalSummationSummaryProvider(this.dataProvider);
+        IIncrementalSummaryProvider lenient = new IncrementalSummationSummaryProvider(this.dataProvider, false);
+        strict.summarize(0);
+        lenient.summarize(0);
+
+        this.rows.get(5)[0] = "five";
+        strict.cellChanged(0, 5);
+        lenient.cellChanged(0, 5);
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, strict.summarize(0));
+        assertEquals(4945d, lenient.summarize(0));
+
+        this.rows.get(5)[0] = 5d;
+        strict.cellChanged(0, 5);
+        assertEquals(4950d, strict.summarize(0));
+    }
+
+    @Test
+    public void shouldRescanOnUnreportedStructuralChange() {
+        IIncrementalSummaryProvider sum = new IncrementalSummationSummaryProvider(this.dataProvider);
+        assertEquals(4950d, sum.summarize(0));
+
+        this.rows.add(new Object[] { 50d, 0 });
+        assertEquals(5000d, sum.summarize(0));
+    }
+
+    @Test
+    public void shouldHandleSpecialValues() {
+        IIncrementalSummaryProvider sum = new IncrementalSummationSummaryProvider(this.dataProvider);
+        sum.summarize(0);
+
+        this.rows.get(1)[0] = Double.POSITIVE_INFINITY;
+        sum.cellChanged(0, 1);
+        assertEquals(Double.POSITIVE_INFINITY, sum.summarize(0));
+
+        this.rows.get(1)[0] = 1d;
+        sum.cellChanged(0, 1);
+        assertEquals(4950d, sum.summarize(0));
+    }
+
+    @Test
+    public void shouldApplyLayerEvents() {
+        IIncrementalSummaryProvider sum = new IncrementalSummationSummaryProvider(this.dataProvider);
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                sum,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_ROW_CONFIG_LABEL);
+
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        SummaryRowLayer summaryRowLayer = new SummaryRowLayer(dataLayer, configRegistry, false);
+        assertEquals(4950d, sum.summarize(0));
+        int reads = this.dataProvider.reads;
+
+        dataLayer.doCommand(new UpdateDataCommand(dataLayer, 0, 3, 103d));
+        assertEquals(5050d, sum.summarize(0));
+
+        this.rows.add(0, new Object[] { 1000d, 0 });
+        dataLayer.fireLayerEvent(new RowInsertEvent(dataLayer, 0));
+        assertEquals(6050d, sum.summarize(0));
+
+        this.rows.remove(50);
+        this.rows.remove(50);
+        dataLayer.fireLayerEvent(new RowDeleteEvent(dataLayer, new Range(50, 52)));
+        assertEquals(6050d - 49 - 50, sum.summarize(0));
+
+        Object[] row = this.rows.get(10);
+        row[0] = 0d;
+        dataLayer.fireLayerEvent(new PropertyUpdateEvent<Object[]>(dataLayer, row, "value", 9d, 0d));
+        assertEquals(6050d - 49 - 50 - 9, sum.summarize(0));
+
+        // only the changed and inserted cells were read, the row lookup of
+        // the property update uses the list
+        assertTrue(this.dataProvider.reads - reads < 10);
+        assertEquals(99, summaryRowLayer.getSummaryRowPosition());
+    }
+
+    @Test
+    public void shouldRescanOnVisualRefresh() {
+        IIncrementalSummaryProvider max = new IncrementalMinMaxSummaryProvider(this.dataProvider, true);
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                max,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_ROW_CONFIG_LABEL);
+
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        new SummaryRowLayer(dataLayer, configRegistry, false);
+        assertEquals(99d, max.summarize(0));
+
+        // in place change without cell information, e.g. a list update
+        this.rows.get(99)[0] = 5d;
+        dataLayer.fireLayerEvent(new VisualRefreshEvent(dataLayer));
+        assertEquals(98d, max.summarize(0));
+    }
+
+    @Test
+    public void shouldApplyCellChangesByColumnPosition() {
+        RecordingSummaryProvider first = new RecordingSummaryProvider();
+        RecordingSummaryProvider second = new RecordingSummaryProvider();
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                first,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_COLUMN_CONFIG_LABEL_PREFIX + 0);
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                second,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_COLUMN_CONFIG_LABEL_PREFIX + 1);
+
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        ColumnReorderLayer reorderLayer = new ColumnReorderLayer(dataLayer, false);
+        new SummaryRowLayer(reorderLayer, configRegistry, false);
+
+        // column index 0 is now shown at column position 1
+        reorderLayer.reorderColumnPosition(0, 2);
+        first.changes.clear();
+        second.changes.clear();
+
+        dataLayer.doCommand(new UpdateDataCommand(dataLayer, 0, 3, 103d));
+        assertTrue(first.changes.isEmpty());
+        assertEquals(1, second.changes.size());
+        assertEquals(1, second.changes.get(0)[0]);
+        assertEquals(3, second.changes.get(0)[1]);
+    }
+
+    private static class RecordingSummaryProvider implements IIncrementalSummaryProvider {
+
+        List<int[]> changes = new ArrayList<int[]>();
+
+        @Override
+        public Object summarize(int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public void cellChanged(int columnIndex, int rowIndex) {
+            this.changes.add(new int[] { columnIndex, rowIndex });
+        }
+
+        @Override
+        public boolean rowObjectChanged(Object rowObject) {
+            return false;
+        }
+
+        @Override
+        public void rowsInserted(int rowIndex, int count) {
+        }
+
+        @Override
+        public void rowsDeleted(int rowIndex, int count) {
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+
+    private static class CountingDataProvider extends ListDataProvider<Object[]> {
+
+        int reads;
+
+        CountingDataProvider(List<Object[]> rows) {
+            super(rows, new IColumnAccessor<Object[]>() {
+
+                @Override
+                public Object getDataValue(Object[] rowObject, int columnIndex) {
+                    return rowObject[columnIndex];
+                }
+
+                @Override
+                public void setDataValue(Object[] rowObject, int columnIndex, Object newValue) {
+                    rowObject[columnIndex] = newValue;
+                }
+
+                @Override
+                public int getColumnCount() {
+                    return 2;
+                }
+            });
+        }
+
+        @Override
+        public Object getDataValue(int columnIndex, int rowIndex) {
+            this.reads++;
+            return super.getDataValue(columnIndex, rowIndex);
+        }
+    }
+}
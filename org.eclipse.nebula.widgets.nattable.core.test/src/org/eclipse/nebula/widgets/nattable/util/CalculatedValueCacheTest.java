@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,12 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
@@ -193,9 +199,154 @@ public void testIllegalState() {
         this.valueCache.getCalculatedValue(0, 0, false, this.calculator);
     }
 
+    @Test
+    public void testDeduplicateBackgroundCalculations() throws Exception {
+        CalculatedValueCache cache = new CalculatedValueCache(new DataLayer(
+                new DummyBodyDataProvider(10, 10)), true, true);
+        this.valueCache = cache;
+
+        final AtomicInteger count = new AtomicInteger();
+        ICalculator countingCalculator = new ICalculator() {
+
+            @Override
+            public Object executeCalculation() {
+                count.incrementAndGet();
+                return CalculatedValueCacheTest.this.calculator.executeCalculation();
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(cache.getCalculatedValue(0, 0, true, countingCalculator));
+        }
+        assertEquals(9, cache.getDeduplicatedCount());
+
+        Thread.sleep(250);
+        assertEquals(Integer.valueOf(42), cache.getCalculatedValue(0, 0, true, countingCalculator));
+        assertEquals(1, count.get());
+        assertEquals(0, cache.getPendingCalculationCount());
+    }
+
+    @Test
+    public void testKillCacheCancelsQueuedCalculations() throws Exception {
+        CalculationExecutor executor = new CalculationExecutor("Test-Calculation", 1);
+        try {
+            CalculatedValueCache cache = new CalculatedValueCache(new DataLayer(
+                    new DummyBodyDataProvider(10, 10)), true, true, false, executor);
+            this.valueCache = cache;
+
+            // block the single calculation thread
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            executor.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {}
+                }
+            });
+            started.await(1, TimeUnit.SECONDS);
+
+            final AtomicInteger count = new AtomicInteger();
+            ICalculator countingCalculator = new ICalculator() {
+
+                @Override
+                public Object executeCalculation() {
+                    return count.incrementAndGet();
+                }
+            };
+
+            for (int i = 0; i < 5; i++) {
+                cache.getCalculatedValue(i, 0, true, countingCalculator);
+            }
+            assertEquals(5, cache.getPendingCalculationCount());
+            assertEquals(5, executor.getQueueDepth());
+
+            cache.killCache();
+            assertEquals(0, cache.getPendingCalculationCount());
+            assertEquals(0, executor.getQueueDepth());
+            assertEquals(5, executor.getCancelledCount());
+
+            latch.countDown();
+            Thread.sleep(100);
+            assertEquals(0, count.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecutorMetrics() throws Exception {
+        CalculationExecutor executor = new CalculationExecutor("Test-Calculation", 2);
+        try {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(new Runnable() {
+
+                    @Override
+                    public void run() {}
+                }).get(1, TimeUnit.SECONDS);
+            }
+            assertEquals(4, executor.getSubmittedCount());
+            assertEquals(4, executor.getCompletedCount());
+            assertEquals(0, executor.getQueueDepth());
+
+            executor.resetMetrics();
+            assertEquals(0, executor.getSubmittedCount());
+            assertEquals(0, executor.getCompletedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecutorMetricsForCancelledCalculation() throws Exception {
+        CalculationExecutor executor = new CalculationExecutor("Test-Calculation", 1);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            Future<?> future = executor.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {}
+                }
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            // cancel while running
+            assertTrue(future.cancel(false));
+            latch.countDown();
+
+            // wait until the cancelled calculation finished
+            executor.submit(new Runnable() {
+
+                @Override
+                public void run() {}
+            }).get(1, TimeUnit.SECONDS);
+
+            assertEquals(2, executor.getSubmittedCount());
+            assertEquals(1, executor.getCancelledCount());
+            assertEquals(1, executor.getCompletedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecutorInvalidThreadCount() {
+        new CalculationExecutor("Test-Calculation", 0);
+    }
+
     @After
     public void tearDown() {
-        this.valueCache.dispose();
+        if (this.valueCache != null) {
+            this.valueCache.dispose();
+        }
     }
 
     // TODO test cache clearing
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EpochCalculatedValueCacheTest {
+
+    private EpochCalculatedValueCache valueCache;
+    private AtomicInteger calculations;
+
+    @Before
+    public void setup() {
+        this.valueCache = new EpochCalculatedValueCache(
+                new DataLayer(new DummyBodyDataProvider(10, 10)), true, true);
+        this.calculations = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() {
+        this.valueCache.dispose();
+    }
+
+    private ICalculator calculator(final int column, final int row) {
+        return new ICalculator() {
+
+            @Override
+            public Object executeCalculation() {
+                EpochCalculatedValueCacheTest.this.calculations.incrementAndGet();
+                return column * 100 + row + EpochCalculatedValueCacheTest.this.calculations.get() * 10000;
+            }
+        };
+    }
+
+    private Object get(int column, int row) {
+        return this.valueCache.getCalculatedValue(column, row, false, calculator(column, row));
+    }
+
+    @Test
+    public void shouldCacheCalculatedValues() {
+        Object value = get(1, 2);
+        assertEquals(value, get(1, 2));
+        assertEquals(1, this.calculations.get());
+    }
+
+    @Test
+    public void shouldInvalidateSingleCell() {
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 3; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(9, this.calculations.get());
+
+        this.valueCache.invalidateCell(1, 1);
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 3; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(10, this.calculations.get());
+    }
+
+    @Test
+    public void shouldInvalidateRowsAndColumns() {
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 5; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(15, this.calculations.get());
+
+        this.valueCache.invalidateRow(4);
+        this.valueCache.invalidateRows(new Range(1, 3));
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 5; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(24, this.calculations.get());
+
+        this.valueCache.invalidateColumn(2);
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 5; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(29, this.calculations.get());
+    }
+
+    @Test
+    public void shouldInvalidateKey() {
+        ICalculatedValueCacheKey key1 = new TestKey(1);
+        ICalculatedValueCacheKey key2 = new TestKey(2);
+        this.valueCache.getCalculatedValue(0, 0, key1, false, calculator(0, 0));
+        this.valueCache.getCalculatedValue(0, 1, key2, false, calculator(0, 1));
+
+        this.valueCache.invalidateKey(key1);
+        this.valueCache.getCalculatedValue(0, 0, key1, false, calculator(0, 0));
+        this.valueCache.getCalculatedValue(0, 1, key2, false, calculator(0, 1));
+        assertEquals(3, this.calculations.get());
+
+        // rows are also tracked for custom keys
+        this.valueCache.invalidateRow(1);
+        this.valueCache.getCalculatedValue(0, 0, key1, false, calculator(0, 0));
+        this.valueCache.getCalculatedValue(0, 1, key2, false, calculator(0, 1));
+        assertEquals(4, this.calculations.get());
+    }
+
+    @Test
+    public void shouldReturnInvalidatedValueOnSmoothUpdate() throws Exception {
+        Object value = get(0, 0);
+        this.valueCache.clearCache();
+
+        // the previous value is returned until the re-calculation is done
+        assertEquals(value, this.valueCache.getCalculatedValue(0, 0, true, calculator(0, 0)));
+        Thread.sleep(100);
+        Object newValue = this.valueCache.getCalculatedValue(0, 0, true, calculator(0, 0));
+        assertEquals(2, this.calculations.get());
+        assertEquals(20000, newValue);
+    }
+
+    @Test
+    public void shouldDiscardValuesOnKill() throws Exception {
+        get(0, 0);
+        assertEquals(1, this.valueCache.size());
+
+        this.valueCache.killCache();
+        assertEquals(0, this.valueCache.size());
+        assertNull(this.valueCache.getCalculatedValue(0, 0, true, calculator(0, 0)));
+    }
+
+    @Test
+    public void shouldStorePackedKeysBeyondInitialCapacity() {
+        for (int column = 0; column < 100; column++) {
+            for (int row = 0; row < 100; row++) {
+                get(column, row);
+            }
+        }
+        assertEquals(10000, this.valueCache.size());
+        assertEquals(10000, this.calculations.get());
+        assertEquals(5 * 100 + 7 + 508 * 10000, get(5, 7));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireKeyIfNoPositionIsUsed() {
+        this.valueCache = new EpochCalculatedValueCache(null, false, false);
+        get(0, 0);
+    }
+
+    private static class TestKey implements ICalculatedValueCacheKey {
+
+        private final int id;
+
+        TestKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestKey && ((TestKey) obj).id == this.id;
+        }
+    }
+}
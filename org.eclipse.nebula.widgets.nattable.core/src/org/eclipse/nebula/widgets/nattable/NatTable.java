@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,7 +33,7 @@
 import org.eclipse.nebula.widgets.nattable.config.IConfiguration;
 import org.eclipse.nebula.widgets.nattable.conflation.EventConflaterChain;
 import org.eclipse.nebula.widgets.nattable.conflation.IEventConflater;
-import org.eclipse.nebula.widgets.nattable.conflation.VisualChangeEventConflater;
+import org.eclipse.nebula.widgets.nattable.conflation.RangeMergingEventConflater;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.copy.InternalCellClipboard;
 import org.eclipse.nebula.widgets.nattable.edit.ActiveCellEditorRegistry;
@@ -47,6 +47,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCellPool;
 import org.eclipse.nebula.widgets.nattable.layer.command.ConfigureScalingCommand;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ColumnVisualUpdateEvent;
@@ -58,6 +59,7 @@
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.NatLayerPainter;
+import org.eclipse.nebula.widgets.nattable.painter.layer.PaintPass;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer.MoveDirectionEnum;
 import org.eclipse.nebula.widgets.nattable.selection.event.CellSelectionEvent;
@@ -132,6 +134,12 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 
     private ILayerPainter layerPainter = new NatLayerPainter(this);
 
+    /**
+     * The pool that is used for layer cells while painting. <code>null</code>
+     * if layer cell pooling is disabled.
+     */
+    private LayerCellPool layerCellPool;
+
     private final boolean autoconfigure;
 
     /**
@@ -299,8 +307,18 @@ public void widgetDisposed(DisposeEvent e) {
         });
     }
 
+    /**
+     * Creates the {@link IEventConflater} that gathers the
+     * {@link IVisualChangeEvent}s that are not handled directly. By default a
+     * {@link RangeMergingEventConflater} is used that only repaints the changed
+     * regions. Subclasses can return a
+     * {@link org.eclipse.nebula.widgets.nattable.conflation.VisualChangeEventConflater}
+     * to always refresh the whole table.
+     *
+     * @return The {@link IEventConflater} for visual change events.
+     */
     protected IEventConflater getVisualChangeEventConflater() {
-        return new VisualChangeEventConflater(this);
+        return new RangeMergingEventConflater(this);
     }
 
     private void disableScrollBar(ScrollBar scrollBar) {
@@ -504,9 +522,52 @@ public void paintControl(final PaintEvent event) {
     }
 
     private void paintNatTable(final PaintEvent event) {
-        getLayerPainter().paintLayer(this, event.gc, 0, 0,
-                new Rectangle(event.x, event.y, event.width, event.height),
-                getConfigRegistry());
+        LayerCellPool pool = this.layerCellPool;
+        if (pool != null) {
+            pool.activate();
+        }
+        PaintPass.begin();
+        try {
+            getLayerPainter().paintLayer(this, event.gc, 0, 0,
+                    new Rectangle(event.x, event.y, event.width, event.height),
+                    getConfigRegistry());
+        } finally {
+            PaintPass.end();
+            if (pool != null) {
+                pool.deactivate();
+            }
+        }
+    }
+
+    /**
+     * Enable or disable the pooling of layer cells while painting. If enabled,
+     * the {@link ILayerCell} instances that are created by the default layer
+     * implementations while the NatTable is painted are taken from a
+     * {@link LayerCellPool} and reused for subsequent cells, which reduces the
+     * garbage created per paint pass. Cells that are requested outside of a
+     * paint operation, e.g. for editing or selection handling, are never
+     * pooled.
+     * <p>
+     * Pooling is disabled by default as custom painters that keep references
+     * to cells beyond the painting of a cell would see changed cell values.
+     * </p>
+     *
+     * @param enabled
+     *            <code>true</code> to enable the layer cell pooling,
+     *            <code>false</code> to disable it.
+     * @since 2.0
+     */
+    public void setLayerCellPoolingEnabled(boolean enabled) {
+        this.layerCellPool = enabled ? new LayerCellPool() : null;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if layer cells are pooled while painting.
+     * @since 2.0
+     */
+    public boolean isLayerCellPoolingEnabled() {
+        return this.layerCellPool != null;
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,21 +10,65 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.config;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DefaultDisplayModeOrdering;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.IDisplayModeOrdering;
 
+/**
+ * Default implementation of {@link IConfigRegistry}.
+ * <p>
+ * The resolution of a configuration attribute for a display mode and a list of
+ * labels is cached. The cache stores the ordered list of all values that match
+ * the display mode ordering and the labels, so subsequent requests for the
+ * same combination, e.g. while painting, only need a single lookup. The cache
+ * is cleared automatically on every registration change, which also covers
+ * theme changes as themes register and unregister their attributes via this
+ * registry. As the registered values are cached by reference, modifications
+ * of mutable values like an {@link org.eclipse.nebula.widgets.nattable.style.IStyle}
+ * are still visible.
+ * </p>
+ */
 public class ConfigRegistry implements IConfigRegistry {
 
+    /**
+     * The default maximum number of resolutions that are cached.
+     *
+     * @since 2.0
+     */
+    public static final int DEFAULT_RESOLUTION_CACHE_SIZE = 10_000;
+
+    private static final List<Object> EMPTY_RESOLUTION = Collections.emptyList();
+
     // Map<configAttributeType, Map<displayMode, Map<configLabel, value>>>
     Map<ConfigAttribute<?>, Map<String, Map<String, ?>>> configRegistry = new HashMap<ConfigAttribute<?>, Map<String, Map<String, ?>>>();
 
+    /**
+     * Cache of the resolved values per attribute, display mode and labels. The
+     * cache can be accessed concurrently, e.g. by parallel exports, while
+     * registration changes are expected to be performed by a single thread as
+     * before.
+     */
+    private final Map<ResolutionKey, List<Object>> resolutionCache = new ConcurrentHashMap<ResolutionKey, List<Object>>();
+
+    private final AtomicInteger resolutionCacheEntries = new AtomicInteger();
+    private final AtomicLong resolutionCacheHits = new AtomicLong();
+    private final AtomicLong resolutionCacheMisses = new AtomicLong();
+
+    private volatile boolean resolutionCacheEnabled = true;
+    private volatile int resolutionCacheSize = DEFAULT_RESOLUTION_CACHE_SIZE;
+
     @Override
     public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute,
             String targetDisplayMode, String... configLabels) {
@@ -36,6 +80,106 @@ public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute,
     @SuppressWarnings("unchecked")
     public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute,
             String targetDisplayMode, List<String> configLabels) {
+        if (this.resolutionCacheEnabled) {
+            List<Object> resolution = getResolution(configAttribute, targetDisplayMode, configLabels);
+            return resolution.isEmpty() ? null : (T) resolution.get(0);
+        }
+        return resolveConfigAttribute(configAttribute, targetDisplayMode, configLabels);
+    }
+
+    /**
+     * Returns all values that are registered for the given attribute, display
+     * mode and labels in the order they are inspected by
+     * {@link #getConfigAttribute(ConfigAttribute, String, List)}. That is for
+     * every display mode in the display mode ordering, the values for the
+     * labels in the order of the given list followed by the default value for
+     * that display mode. The first element of the returned list is the value
+     * that is returned by
+     * {@link #getConfigAttribute(ConfigAttribute, String, List)}.
+     * <p>
+     * This is used for example to resolve style attributes for a cell without
+     * inspecting the registry again for every single style attribute.
+     * </p>
+     *
+     * @param configAttribute
+     *            The configuration attribute for which the values are
+     *            requested.
+     * @param targetDisplayMode
+     *            The display mode for which the values are requested.
+     * @param configLabels
+     *            The labels for which the values are requested.
+     * @return The unmodifiable ordered list of all matching values. Never
+     *         <code>null</code>.
+     * @since 2.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getConfigAttributeResolution(ConfigAttribute<T> configAttribute,
+            String targetDisplayMode, List<String> configLabels) {
+        List<Object> resolution = this.resolutionCacheEnabled
+                ? getResolution(configAttribute, targetDisplayMode, configLabels)
+                : resolve(configAttribute, targetDisplayMode, configLabels);
+        return (List<T>) resolution;
+    }
+
+    private List<Object> getResolution(ConfigAttribute<?> configAttribute,
+            String targetDisplayMode, List<String> configLabels) {
+        List<Object> resolution = this.resolutionCache.get(
+                new ResolutionKey(configAttribute, targetDisplayMode, configLabels));
+        if (resolution != null) {
+            this.resolutionCacheHits.incrementAndGet();
+            return resolution;
+        }
+
+        this.resolutionCacheMisses.incrementAndGet();
+        resolution = resolve(configAttribute, targetDisplayMode, configLabels);
+
+        if (this.resolutionCacheEntries.incrementAndGet() > this.resolutionCacheSize) {
+            // simply start over instead of tracking the usage of entries
+            clearResolutionCache();
+            this.resolutionCacheEntries.incrementAndGet();
+        }
+        // use the interned labels as the given list might be modified
+        // afterwards, this also shares the label lists between the keys
+        this.resolutionCache.put(
+                new ResolutionKey(configAttribute, targetDisplayMode, LabelStack.intern(configLabels)),
+                resolution);
+        return resolution;
+    }
+
+    private List<Object> resolve(ConfigAttribute<?> configAttribute,
+            String targetDisplayMode, List<String> configLabels) {
+        Map<String, Map<String, ?>> displayModeConfigAttributeMap = this.configRegistry
+                .get(configAttribute);
+        if (displayModeConfigAttributeMap == null) {
+            return EMPTY_RESOLUTION;
+        }
+
+        List<Object> values = new ArrayList<Object>();
+        for (String displayMode : this.displayModeOrdering
+                .getDisplayModeOrdering(targetDisplayMode)) {
+            Map<String, ?> configAttributeMap = displayModeConfigAttributeMap
+                    .get(displayMode);
+            if (configAttributeMap != null) {
+                for (String configLabel : configLabels) {
+                    Object attributeValue = configAttributeMap.get(configLabel);
+                    if (attributeValue != null) {
+                        values.add(attributeValue);
+                    }
+                }
+
+                // default config type
+                Object attributeValue = configAttributeMap.get(null);
+                if (attributeValue != null) {
+                    values.add(attributeValue);
+                }
+            }
+        }
+        return values.isEmpty() ? EMPTY_RESOLUTION : Collections.unmodifiableList(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T resolveConfigAttribute(ConfigAttribute<T> configAttribute,
+            String targetDisplayMode, List<String> configLabels) {
         T attributeValue = null;
 
         Map<String, Map<String, ?>> displayModeConfigAttributeMap = this.configRegistry
@@ -120,7 +264,8 @@ public <T> void registerConfigAttribute(ConfigAttribute<T> configAttribute,
         }
 
         configAttributeMap.put(configLabel, attributeValue);
-    };
+        clearResolutionCache();
+    }
 
     @Override
     public <T> void unregisterConfigAttribute(
@@ -148,6 +293,7 @@ public <T> void unregisterConfigAttribute(
                 configAttributeMap.remove(configLabel);
             }
         }
+        clearResolutionCache();
     }
 
     // Display mode ordering //////////////////////////////////////////////////
@@ -161,6 +307,136 @@ public IDisplayModeOrdering getDisplayModeOrdering() {
 
     public void setDisplayModeOrdering(IDisplayModeOrdering displayModeOrdering) {
         this.displayModeOrdering = displayModeOrdering;
+        clearResolutionCache();
+    }
+
+    // Resolution cache ///////////////////////////////////////////////////////
+
+    /**
+     * Clears the cache of resolved configuration attributes. Called
+     * automatically on registration changes. Only needs to be called manually
+     * if the registry is modified in a way that is not covered by this class,
+     * e.g. by a subclass that modifies the underlying maps or a display mode
+     * ordering that changes its ordering.
+     *
+     * @since 2.0
+     */
+    public void clearResolutionCache() {
+        this.resolutionCache.clear();
+        this.resolutionCacheEntries.set(0);
+    }
+
+    /**
+     * Enable or disable the caching of resolved configuration attributes.
+     * Enabled by default.
+     *
+     * @param enabled
+     *            <code>true</code> to cache resolved configuration attributes,
+     *            <code>false</code> to inspect the registry on every request.
+     * @since 2.0
+     */
+    public void setResolutionCacheEnabled(boolean enabled) {
+        this.resolutionCacheEnabled = enabled;
+        clearResolutionCache();
+    }
+
+    /**
+     *
+     * @return <code>true</code> if resolved configuration attributes are
+     *         cached.
+     * @since 2.0
+     */
+    public boolean isResolutionCacheEnabled() {
+        return this.resolutionCacheEnabled;
+    }
+
+    /**
+     * Set the maximum number of resolutions that are cached. If the maximum is
+     * exceeded, the cache is cleared. This avoids unbounded growth in case of
+     * labels that are unique per row or column.
+     *
+     * @param size
+     *            The maximum number of cached resolutions.
+     * @since 2.0
+     */
+    public void setResolutionCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0"); //$NON-NLS-1$
+        }
+        this.resolutionCacheSize = size;
+        clearResolutionCache();
+    }
+
+    /**
+     *
+     * @return The number of requests that could be answered from the
+     *         resolution cache.
+     * @since 2.0
+     */
+    public long getResolutionCacheHitCount() {
+        return this.resolutionCacheHits.get();
+    }
+
+    /**
+     *
+     * @return The number of requests that needed to inspect the registry
+     *         because the resolution was not cached.
+     * @since 2.0
+     */
+    public long getResolutionCacheMissCount() {
+        return this.resolutionCacheMisses.get();
+    }
+
+    /**
+     * Resets the hit and miss counters of the resolution cache.
+     *
+     * @since 2.0
+     */
+    public void resetResolutionCacheStatistics() {
+        this.resolutionCacheHits.set(0);
+        this.resolutionCacheMisses.set(0);
+    }
+
+    /**
+     * Key for the resolution cache. The hash code is calculated once as the
+     * label list needs to be iterated for it.
+     */
+    private static final class ResolutionKey {
+
+        private final ConfigAttribute<?> configAttribute;
+        private final String displayMode;
+        private final List<String> configLabels;
+        private final int hash;
+
+        ResolutionKey(ConfigAttribute<?> configAttribute, String displayMode, List<String> configLabels) {
+            this.configAttribute = configAttribute;
+            this.displayMode = displayMode;
+            this.configLabels = configLabels;
+            int result = configAttribute.hashCode();
+            result = 31 * result + (displayMode != null ? displayMode.hashCode() : 0);
+            result = 31 * result + configLabels.hashCode();
+            this.hash = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ResolutionKey)) {
+                return false;
+            }
+            ResolutionKey other = (ResolutionKey) obj;
+            return this.hash == other.hash
+                    && this.configAttribute == other.configAttribute
+                    && (this.displayMode == null ? other.displayMode == null : this.displayMode.equals(other.displayMode))
+                    && this.configLabels.equals(other.configLabels);
+        }
     }
 
 }
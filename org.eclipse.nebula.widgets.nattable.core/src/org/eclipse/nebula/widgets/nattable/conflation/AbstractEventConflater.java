@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.conflation;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -17,7 +18,12 @@
 
 public abstract class AbstractEventConflater implements IEventConflater {
 
-    protected List<ILayerEvent> queue = new LinkedList<ILayerEvent>();
+    /**
+     * The queued events. As events are added from different threads and
+     * consumed by the conflater task, the list is synchronized. Iterating
+     * or draining the list needs to be performed while synchronizing on it.
+     */
+    protected List<ILayerEvent> queue = Collections.synchronizedList(new LinkedList<ILayerEvent>());
 
     @Override
     public void addEvent(ILayerEvent event) {
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.conflation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ColumnVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowVisualChangeEvent;
+
+/**
+ * Collects visual change events and merges the changed positions into a
+ * minimal set of row ranges, column ranges and cell ranges per row. Adjacent
+ * and overlapping ranges are merged on insert, so the number of regions only
+ * depends on the changed area and not on the number of events.
+ * <p>
+ * Events that can not be expressed as a set of regions switch the change to a
+ * full refresh. This is the case for all {@link IStructuralChangeEvent}s, as
+ * they can change the position or the size of rows and columns, for events
+ * that are not row, column or cell related and if the number of regions
+ * exceeds the configured maximum.
+ * </p>
+ * <p>
+ * This class is not thread safe. It is intended to be filled by a single
+ * thread that drains the event queue of a conflater.
+ * </p>
+ *
+ * @see RangeMergingEventConflater
+ * @since 2.0
+ */
+public class MergedVisualChange {
+
+    /**
+     * The default number of regions after which a full refresh is performed.
+     */
+    public static final int DEFAULT_MAX_REGIONS = 32;
+
+    private final int maxRegions;
+
+    /**
+     * Changed row ranges, start position to exclusive end position.
+     */
+    private final TreeMap<Integer, Integer> rows = new TreeMap<Integer, Integer>();
+
+    /**
+     * Changed column ranges, start position to exclusive end position.
+     */
+    private final TreeMap<Integer, Integer> columns = new TreeMap<Integer, Integer>();
+
+    /**
+     * Changed column ranges of single cells per row position.
+     */
+    private final TreeMap<Integer, TreeMap<Integer, Integer>> cells = new TreeMap<Integer, TreeMap<Integer, Integer>>();
+
+    private int regionCount;
+    private int eventCount;
+    private boolean fullRefresh;
+
+    /**
+     * Creates a {@link MergedVisualChange} that switches to a full refresh
+     * after {@link #DEFAULT_MAX_REGIONS} regions.
+     */
+    public MergedVisualChange() {
+        this(DEFAULT_MAX_REGIONS);
+    }
+
+    /**
+     * Creates a {@link MergedVisualChange} that switches to a full refresh
+     * after the given number of regions.
+     *
+     * @param maxRegions
+     *            The maximum number of regions that should be repainted
+     *            separately.
+     */
+    public MergedVisualChange(int maxRegions) {
+        if (maxRegions < 0) {
+            throw new IllegalArgumentException("maxRegions < 0"); //$NON-NLS-1$
+        }
+        this.maxRegions = maxRegions;
+    }
+
+    /**
+     * Merges the change described by the given event into this change.
+     *
+     * @param event
+     *            The event to merge.
+     */
+    public void add(ILayerEvent event) {
+        this.eventCount++;
+        if (this.fullRefresh) {
+            return;
+        }
+
+        if (event instanceof IStructuralChangeEvent) {
+            setFullRefresh();
+        } else if (event instanceof CellVisualChangeEvent) {
+            CellVisualChangeEvent cellEvent = (CellVisualChangeEvent) event;
+            addCell(cellEvent.getColumnPosition(), cellEvent.getRowPosition());
+        } else if (event instanceof RowVisualChangeEvent) {
+            addRows(((RowVisualChangeEvent) event).getRowPositionRanges());
+        } else if (event instanceof ColumnVisualChangeEvent) {
+            addColumns(((ColumnVisualChangeEvent) event).getColumnPositionRanges());
+        } else {
+            setFullRefresh();
+        }
+    }
+
+    /**
+     * Adds the given row position ranges.
+     *
+     * @param rowPositionRanges
+     *            The changed row position ranges.
+     */
+    public void addRows(Collection<Range> rowPositionRanges) {
+        for (Range range : rowPositionRanges) {
+            if (this.fullRefresh) {
+                return;
+            }
+            if (range.start < range.end) {
+                this.regionCount += addRange(this.rows, range.start, range.end);
+                checkRegionCount();
+            }
+        }
+    }
+
+    /**
+     * Adds the given column position ranges.
+     *
+     * @param columnPositionRanges
+     *            The changed column position ranges.
+     */
+    public void addColumns(Collection<Range> columnPositionRanges) {
+        for (Range range : columnPositionRanges) {
+            if (this.fullRefresh) {
+                return;
+            }
+            if (range.start < range.end) {
+                this.regionCount += addRange(this.columns, range.start, range.end);
+                checkRegionCount();
+            }
+        }
+    }
+
+    /**
+     * Adds a single changed cell.
+     *
+     * @param columnPosition
+     *            The column position of the changed cell.
+     * @param rowPosition
+     *            The row position of the changed cell.
+     */
+    public void addCell(int columnPosition, int rowPosition) {
+        if (this.fullRefresh || columnPosition < 0 || rowPosition < 0) {
+            return;
+        }
+        TreeMap<Integer, Integer> rowCells = this.cells.get(rowPosition);
+        if (rowCells == null) {
+            rowCells = new TreeMap<Integer, Integer>();
+            this.cells.put(rowPosition, rowCells);
+        }
+        this.regionCount += addRange(rowCells, columnPosition, columnPosition + 1);
+        checkRegionCount();
+    }
+
+    /**
+     * Switches this change to a full refresh and drops all collected regions.
+     */
+    public void setFullRefresh() {
+        this.fullRefresh = true;
+        this.rows.clear();
+        this.columns.clear();
+        this.cells.clear();
+        this.regionCount = 0;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the whole table needs to be refreshed.
+     */
+    public boolean isFullRefresh() {
+        return this.fullRefresh;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if no event was added.
+     */
+    public boolean isEmpty() {
+        return this.eventCount == 0;
+    }
+
+    /**
+     *
+     * @return The number of events that were merged into this change.
+     */
+    public int getEventCount() {
+        return this.eventCount;
+    }
+
+    /**
+     *
+     * @return The number of separate regions that need to be repainted.
+     */
+    public int getRegionCount() {
+        return this.regionCount;
+    }
+
+    /**
+     *
+     * @return The merged changed row position ranges in ascending order.
+     */
+    public List<Range> getRowRanges() {
+        return toRanges(this.rows);
+    }
+
+    /**
+     *
+     * @return The merged changed column position ranges in ascending order.
+     */
+    public List<Range> getColumnRanges() {
+        return toRanges(this.columns);
+    }
+
+    /**
+     * Returns the merged column position ranges of changed cells per row
+     * position. Rows that are contained in the changed row ranges are not
+     * included, as they are repainted completely anyway.
+     *
+     * @return The column position ranges of changed cells per row position,
+     *         ordered by row position.
+     */
+    public Map<Integer, List<Range>> getCellRanges() {
+        Map<Integer, List<Range>> result = new LinkedHashMap<Integer, List<Range>>();
+        for (Entry<Integer, TreeMap<Integer, Integer>> entry : this.cells.entrySet()) {
+            if (!containsPosition(this.rows, entry.getKey())) {
+                result.put(entry.getKey(), toRanges(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private void checkRegionCount() {
+        if (this.regionCount > this.maxRegions) {
+            setFullRefresh();
+        }
+    }
+
+    /**
+     * Adds the range [start, end) to the given set of disjoint ranges and
+     * merges it with overlapping and adjacent ranges.
+     *
+     * @return The change in the number of ranges in the set.
+     */
+    static int addRange(TreeMap<Integer, Integer> ranges, int start, int end) {
+        int removed = 0;
+        Entry<Integer, Integer> floor = ranges.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            if (floor.getValue() >= end) {
+                // already covered
+                return 0;
+            }
+            start = floor.getKey();
+            ranges.remove(start);
+            removed++;
+        }
+
+        Entry<Integer, Integer> next = ranges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            removed++;
+            next = ranges.ceilingEntry(start);
+        }
+
+        ranges.put(start, end);
+        return 1 - removed;
+    }
+
+    static boolean containsPosition(TreeMap<Integer, Integer> ranges, int position) {
+        Entry<Integer, Integer> floor = ranges.floorEntry(position);
+        return floor != null && position < floor.getValue();
+    }
+
+    private static List<Range> toRanges(TreeMap<Integer, Integer> ranges) {
+        List<Range> result = new ArrayList<Range>(ranges.size());
+        for (Entry<Integer, Integer> entry : ranges.entrySet()) {
+            result.add(new Range(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.conflation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+
+/**
+ * Gathers all the VisualChangeEvents like the
+ * {@link VisualChangeEventConflater}, but instead of refreshing the whole
+ * table on every run, the events are merged into a {@link MergedVisualChange}
+ * so only the bounds of the changed rows, columns and cells are repainted.
+ * This keeps the repaint costs low if a high number of updates hit a small
+ * number of rows, e.g. in case of ticking data.
+ * <p>
+ * Structural changes and changes that can not be expressed as row, column or
+ * cell regions still result in a full refresh via
+ * {@link NatTable#updateResize()}.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class RangeMergingEventConflater extends AbstractEventConflater {
+
+    private final NatTable natTable;
+    private final int maxRegions;
+
+    /**
+     * Creates a {@link RangeMergingEventConflater} that performs a full
+     * refresh if more than {@link MergedVisualChange#DEFAULT_MAX_REGIONS}
+     * regions are changed.
+     *
+     * @param ownerLayer
+     *            The {@link NatTable} that should be repainted.
+     */
+    public RangeMergingEventConflater(NatTable ownerLayer) {
+        this(ownerLayer, MergedVisualChange.DEFAULT_MAX_REGIONS);
+    }
+
+    /**
+     *
+     * @param ownerLayer
+     *            The {@link NatTable} that should be repainted.
+     * @param maxRegions
+     *            The maximum number of regions that are repainted separately.
+     *            If more regions are changed, a full refresh is performed.
+     */
+    public RangeMergingEventConflater(NatTable ownerLayer, int maxRegions) {
+        this.natTable = ownerLayer;
+        this.maxRegions = maxRegions;
+    }
+
+    @Override
+    public void addEvent(ILayerEvent event) {
+        if (event instanceof IVisualChangeEvent) {
+            super.addEvent(event);
+        }
+    }
+
+    @Override
+    public Runnable getConflaterTask() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                final MergedVisualChange change = drainQueue();
+                if (!change.isEmpty()) {
+                    RangeMergingEventConflater.this.natTable.getDisplay().asyncExec(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!RangeMergingEventConflater.this.natTable.isDisposed()) {
+                                repaint(change);
+                            }
+                        }
+                    });
+                }
+            }
+        };
+    }
+
+    /**
+     * Removes all events from the queue and merges them into a
+     * {@link MergedVisualChange}.
+     *
+     * @return The merged change of all events that were in the queue.
+     */
+    protected MergedVisualChange drainQueue() {
+        List<ILayerEvent> events;
+        synchronized (this.queue) {
+            events = new ArrayList<ILayerEvent>(this.queue);
+            this.queue.clear();
+        }
+        MergedVisualChange change = new MergedVisualChange(this.maxRegions);
+        for (ILayerEvent event : events) {
+            change.add(event);
+        }
+        return change;
+    }
+
+    /**
+     * Repaints the regions of the given change. Needs to be called in the UI
+     * thread.
+     *
+     * @param change
+     *            The merged change to repaint.
+     */
+    protected void repaint(MergedVisualChange change) {
+        if (change.isFullRefresh()) {
+            this.natTable.updateResize();
+            return;
+        }
+
+        for (Range range : change.getRowRanges()) {
+            repaintRows(range);
+        }
+        for (Range range : change.getColumnRanges()) {
+            repaintColumns(range);
+        }
+        int columnCount = this.natTable.getColumnCount();
+        int rowCount = this.natTable.getRowCount();
+        for (Entry<Integer, List<Range>> entry : change.getCellRanges().entrySet()) {
+            int rowPosition = entry.getKey();
+            if (rowPosition < rowCount) {
+                for (Range range : entry.getValue()) {
+                    for (int column = range.start; column < range.end && column < columnCount; column++) {
+                        this.natTable.repaintCell(column, rowPosition);
+                    }
+                }
+            }
+        }
+    }
+
+    private void repaintRows(Range range) {
+        int end = Math.min(range.end, this.natTable.getRowCount());
+        if (range.start >= end) {
+            return;
+        }
+        int y = this.natTable.getStartYOfRowPosition(range.start);
+        if (y < 0) {
+            return;
+        }
+        int height = this.natTable.getStartYOfRowPosition(end - 1)
+                + this.natTable.getRowHeightByPosition(end - 1) - y;
+        this.natTable.redraw(0, y, this.natTable.getWidth(), height, true);
+    }
+
+    private void repaintColumns(Range range) {
+        int end = Math.min(range.end, this.natTable.getColumnCount());
+        if (range.start >= end) {
+            return;
+        }
+        int x = this.natTable.getStartXOfColumnPosition(range.start);
+        if (x < 0) {
+            return;
+        }
+        int width = this.natTable.getStartXOfColumnPosition(end - 1)
+                + this.natTable.getColumnWidthByPosition(end - 1) - x;
+        this.natTable.redraw(x, 0, width, this.natTable.getHeight(), true);
+    }
+}
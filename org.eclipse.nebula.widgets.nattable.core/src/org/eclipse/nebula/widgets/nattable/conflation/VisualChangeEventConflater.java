@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,7 +40,7 @@ public Runnable getConflaterTask() {
 
             @Override
             public void run() {
-                if (VisualChangeEventConflater.this.queue.size() > 0) {
+                if (!VisualChangeEventConflater.this.queue.isEmpty()) {
                     clearQueue();
 
                     VisualChangeEventConflater.this.natTable.getDisplay().asyncExec(new Runnable() {
@@ -0,0 +1,872 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IRowDataProvider} that stores the data column wise in primitive
+ * arrays instead of one object per row. This reduces the memory footprint and
+ * avoids boxing for big tables with numeric data.
+ * <p>
+ * Every column has a {@link ColumnType}. Numeric values are stored in
+ * <code>double[]</code>, <code>long[]</code> or <code>int[]</code> arrays,
+ * strings are dictionary encoded and stored as <code>int[]</code> codes. The
+ * typed accessors like {@link #getDouble(int, int)} can be used by summary
+ * providers, comparators and filters to access the values without boxing,
+ * while {@link #getDataValue(int, int)} returns boxed values so the provider
+ * can be used in a {@link org.eclipse.nebula.widgets.nattable.layer.DataLayer}
+ * like any other {@link IDataProvider}.
+ * </p>
+ * <p>
+ * Rows can only be appended and updated. To append a row without boxing, call
+ * {@link #addRow()} and set the values via the typed setters afterwards.
+ * Values that are not set are <code>null</code>, which can be checked via
+ * {@link #isNull(int, int)}. The typed getters return 0 or <code>null</code>
+ * for such values.
+ * </p>
+ * <p>
+ * The row objects returned by {@link #getRowObject(int)} are lightweight
+ * views of a row that are equal if they reference the same row of the same
+ * provider.
+ * </p>
+ * <p>
+ * Like the {@link ListDataProvider}, this implementation is not thread safe.
+ * Modifications need to be performed in the UI thread or synchronized
+ * externally, and the corresponding layer events need to be fired by the
+ * caller.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class ColumnarDataProvider implements IRowDataProvider<ColumnarDataProvider.Row> {
+
+    /**
+     * The types of values that can be stored in a column of a
+     * {@link ColumnarDataProvider}.
+     */
+    public enum ColumnType {
+        /**
+         * Values stored in a <code>double[]</code>.
+         */
+        DOUBLE,
+        /**
+         * Values stored in a <code>long[]</code>.
+         */
+        LONG,
+        /**
+         * Values stored in an <code>int[]</code>.
+         */
+        INT,
+        /**
+         * Dictionary encoded strings.
+         */
+        STRING
+    }
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private final Column[] columns;
+    private int rowCount;
+    private int capacity;
+
+    /**
+     * Create a new {@link ColumnarDataProvider} with the given column types.
+     *
+     * @param columnTypes
+     *            The types of the columns.
+     */
+    public ColumnarDataProvider(ColumnType... columnTypes) {
+        this(DEFAULT_INITIAL_CAPACITY, columnTypes);
+    }
+
+    /**
+     * Create a new {@link ColumnarDataProvider} with the given column types.
+     *
+     * @param initialCapacity
+     *            The number of rows for which space is allocated initially.
+     * @param columnTypes
+     *            The types of the columns.
+     */
+    public ColumnarDataProvider(int initialCapacity, ColumnType... columnTypes) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0"); //$NON-NLS-1$
+        }
+        this.capacity = initialCapacity;
+        this.columns = new Column[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            switch (columnTypes[i]) {
+                case DOUBLE:
+                    this.columns[i] = new DoubleColumn(initialCapacity);
+                    break;
+                case LONG:
+                    this.columns[i] = new LongColumn(initialCapacity);
+                    break;
+                case INT:
+                    this.columns[i] = new IntColumn(initialCapacity);
+                    break;
+                case STRING:
+                    this.columns[i] = new StringColumn(initialCapacity);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported column type " + columnTypes[i]); //$NON-NLS-1$
+            }
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     *
+     * @param columnIndex
+     *            The column index.
+     * @return The type of the values stored in the given column.
+     */
+    public ColumnType getColumnType(int columnIndex) {
+        return this.columns[columnIndex].type;
+    }
+
+    /**
+     * Ensures that the given number of rows can be stored without growing the
+     * column arrays again.
+     *
+     * @param minCapacity
+     *            The number of rows that should fit in the column arrays.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > this.capacity) {
+            int newCapacity = Math.max(minCapacity, this.capacity + (this.capacity >> 1));
+            for (Column column : this.columns) {
+                column.grow(newCapacity);
+            }
+            this.capacity = newCapacity;
+        }
+    }
+
+    /**
+     * Appends a row with <code>null</code> values. The values can be set via
+     * the typed setters afterwards.
+     *
+     * @return The index of the new row.
+     */
+    public int addRow() {
+        ensureCapacity(this.rowCount + 1);
+        int rowIndex = this.rowCount++;
+        for (Column column : this.columns) {
+            column.setNull(rowIndex);
+        }
+        return rowIndex;
+    }
+
+    /**
+     * Appends a row with the given values. The values are converted as
+     * described in {@link #setDataValue(int, int, Object)}.
+     *
+     * @param values
+     *            The values of the new row, one for every column.
+     * @return The index of the new row.
+     */
+    public int addRow(Object... values) {
+        checkRowValues(values);
+        int rowIndex = addRow();
+        for (int i = 0; i < values.length; i++) {
+            this.columns[i].set(rowIndex, values[i]);
+        }
+        return rowIndex;
+    }
+
+    /**
+     * Updates all values of the given row. The values are converted as
+     * described in {@link #setDataValue(int, int, Object)}.
+     *
+     * @param rowIndex
+     *            The index of the row to update.
+     * @param values
+     *            The new values of the row, one for every column.
+     */
+    public void setRow(int rowIndex, Object... values) {
+        checkRowIndex(rowIndex);
+        checkRowValues(values);
+        for (int i = 0; i < values.length; i++) {
+            this.columns[i].set(rowIndex, values[i]);
+        }
+    }
+
+    /**
+     * Returns the boxed value of the given cell.
+     */
+    @Override
+    public Object getDataValue(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return this.columns[columnIndex].get(rowIndex);
+    }
+
+    /**
+     * Sets the value of the given cell. <code>null</code> is supported for all
+     * column types. Numeric columns accept {@link Number} values, which are
+     * converted to the column type, and Strings that are parsed. String
+     * columns accept any value and store its String representation.
+     *
+     * @throws IllegalArgumentException
+     *             if the value can not be converted to the column type.
+     */
+    @Override
+    public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        checkRowIndex(rowIndex);
+        this.columns[columnIndex].set(rowIndex, newValue);
+    }
+
+    /**
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return <code>true</code> if no value is set for the given cell.
+     */
+    public boolean isNull(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return this.columns[columnIndex].isNull(rowIndex);
+    }
+
+    /**
+     * Sets the value of the given cell to <code>null</code>.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     */
+    public void setNull(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        this.columns[columnIndex].setNull(rowIndex);
+    }
+
+    /**
+     * Returns the value of a numeric cell as double. Supported for columns of
+     * type {@link ColumnType#DOUBLE}, {@link ColumnType#LONG} and
+     * {@link ColumnType#INT}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The value of the cell, or 0 if the value is <code>null</code>.
+     */
+    public double getDouble(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        Column column = this.columns[columnIndex];
+        switch (column.type) {
+            case DOUBLE:
+                return ((DoubleColumn) column).values[rowIndex];
+            case LONG:
+                return ((LongColumn) column).values[rowIndex];
+            case INT:
+                return ((IntColumn) column).values[rowIndex];
+            default:
+                throw unsupportedType(columnIndex, "double"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the value of an integral cell as long. Supported for columns of
+     * type {@link ColumnType#LONG} and {@link ColumnType#INT}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The value of the cell, or 0 if the value is <code>null</code>.
+     */
+    public long getLong(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        Column column = this.columns[columnIndex];
+        switch (column.type) {
+            case LONG:
+                return ((LongColumn) column).values[rowIndex];
+            case INT:
+                return ((IntColumn) column).values[rowIndex];
+            default:
+                throw unsupportedType(columnIndex, "long"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the value of a cell in a column of type {@link ColumnType#INT}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The value of the cell, or 0 if the value is <code>null</code>.
+     */
+    public int getInt(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return intColumn(columnIndex).values[rowIndex];
+    }
+
+    /**
+     * Returns the value of a cell in a column of type
+     * {@link ColumnType#STRING}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The value of the cell, can be <code>null</code>.
+     */
+    public String getString(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        StringColumn column = stringColumn(columnIndex);
+        int code = column.codes[rowIndex];
+        return code < 0 ? null : column.dictionary.get(code);
+    }
+
+    /**
+     * Returns the dictionary code of a cell in a column of type
+     * {@link ColumnType#STRING}. Cells with equal values have the same code,
+     * so the code can be used for fast equality checks.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The dictionary code of the cell value, or -1 if the value is
+     *         <code>null</code>.
+     * @see #getDictionary(int)
+     */
+    public int getStringCode(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return stringColumn(columnIndex).codes[rowIndex];
+    }
+
+    /**
+     * Returns the distinct values of a column of type
+     * {@link ColumnType#STRING}. The position of a value in the returned list
+     * is its dictionary code.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @return An unmodifiable view of the dictionary of the given column.
+     */
+    public List<String> getDictionary(int columnIndex) {
+        return Collections.unmodifiableList(stringColumn(columnIndex).dictionary);
+    }
+
+    /**
+     * Sets the value of a cell in a column of type {@link ColumnType#DOUBLE}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @param value
+     *            The new value.
+     */
+    public void setDouble(int columnIndex, int rowIndex, double value) {
+        checkRowIndex(rowIndex);
+        doubleColumn(columnIndex).setDouble(rowIndex, value);
+    }
+
+    /**
+     * Sets the value of a cell in a column of type {@link ColumnType#LONG}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @param value
+     *            The new value.
+     */
+    public void setLong(int columnIndex, int rowIndex, long value) {
+        checkRowIndex(rowIndex);
+        longColumn(columnIndex).setLong(rowIndex, value);
+    }
+
+    /**
+     * Sets the value of a cell in a column of type {@link ColumnType#INT}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @param value
+     *            The new value.
+     */
+    public void setInt(int columnIndex, int rowIndex, int value) {
+        checkRowIndex(rowIndex);
+        intColumn(columnIndex).setInt(rowIndex, value);
+    }
+
+    /**
+     * Sets the value of a cell in a column of type {@link ColumnType#STRING}.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @param value
+     *            The new value, can be <code>null</code>.
+     */
+    public void setString(int columnIndex, int rowIndex, String value) {
+        checkRowIndex(rowIndex);
+        stringColumn(columnIndex).setString(rowIndex, value);
+    }
+
+    /**
+     * Compares the values of two rows in the given column without boxing. The
+     * result is the same as comparing the boxed values with the
+     * {@link org.eclipse.nebula.widgets.nattable.config.DefaultComparator},
+     * so <code>null</code> values are sorted first.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex1
+     *            The index of the first row.
+     * @param rowIndex2
+     *            The index of the second row.
+     * @return A negative integer, zero, or a positive integer as the value of
+     *         the first row is less than, equal to, or greater than the value
+     *         of the second row.
+     */
+    public int compare(int columnIndex, int rowIndex1, int rowIndex2) {
+        checkRowIndex(rowIndex1);
+        checkRowIndex(rowIndex2);
+        Column column = this.columns[columnIndex];
+        boolean null1 = column.isNull(rowIndex1);
+        boolean null2 = column.isNull(rowIndex2);
+        if (null1 || null2) {
+            return null1 == null2 ? 0 : (null1 ? -1 : 1);
+        }
+        return column.compare(rowIndex1, rowIndex2);
+    }
+
+    @Override
+    public Row getRowObject(int rowIndex) {
+        checkRowIndex(rowIndex);
+        return new Row(rowIndex);
+    }
+
+    @Override
+    public int indexOfRowObject(Row rowObject) {
+        if (rowObject != null
+                && rowObject.getProvider() == this
+                && rowObject.rowIndex < this.rowCount) {
+            return rowObject.rowIndex;
+        }
+        return -1;
+    }
+
+    private void checkRowIndex(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + this.rowCount); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private void checkRowValues(Object[] values) {
+        if (values.length != this.columns.length) {
+            throw new IllegalArgumentException("Expected " + this.columns.length + " values but got " + values.length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private IllegalArgumentException unsupportedType(int columnIndex, String type) {
+        return new IllegalArgumentException("Column " + columnIndex + " of type " + this.columns[columnIndex].type + " does not support " + type + " values"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+    private DoubleColumn doubleColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (column.type != ColumnType.DOUBLE) {
+            throw unsupportedType(columnIndex, "double"); //$NON-NLS-1$
+        }
+        return (DoubleColumn) column;
+    }
+
+    private LongColumn longColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (column.type != ColumnType.LONG) {
+            throw unsupportedType(columnIndex, "long"); //$NON-NLS-1$
+        }
+        return (LongColumn) column;
+    }
+
+    private IntColumn intColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (column.type != ColumnType.INT) {
+            throw unsupportedType(columnIndex, "int"); //$NON-NLS-1$
+        }
+        return (IntColumn) column;
+    }
+
+    private StringColumn stringColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (column.type != ColumnType.STRING) {
+            throw unsupportedType(columnIndex, "String"); //$NON-NLS-1$
+        }
+        return (StringColumn) column;
+    }
+
+    /**
+     * Lightweight view of a row in a {@link ColumnarDataProvider}.
+     */
+    public final class Row {
+
+        private final int rowIndex;
+
+        Row(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+
+        /**
+         *
+         * @return The index of the row in the {@link ColumnarDataProvider}.
+         */
+        public int getRowIndex() {
+            return this.rowIndex;
+        }
+
+        /**
+         *
+         * @return The {@link ColumnarDataProvider} this row belongs to.
+         */
+        public ColumnarDataProvider getProvider() {
+            return ColumnarDataProvider.this;
+        }
+
+        /**
+         *
+         * @param columnIndex
+         *            The column index.
+         * @return The boxed value of the given column in this row.
+         */
+        public Object getDataValue(int columnIndex) {
+            return ColumnarDataProvider.this.getDataValue(columnIndex, this.rowIndex);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(ColumnarDataProvider.this) + this.rowIndex;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Row)) {
+                return false;
+            }
+            Row other = (Row) obj;
+            return getProvider() == other.getProvider() && this.rowIndex == other.rowIndex;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + this.rowIndex; //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Storage of the values of a single column.
+     */
+    private abstract static class Column {
+
+        final ColumnType type;
+
+        Column(ColumnType type) {
+            this.type = type;
+        }
+
+        abstract void grow(int newCapacity);
+
+        abstract Object get(int rowIndex);
+
+        abstract void set(int rowIndex, Object value);
+
+        abstract boolean isNull(int rowIndex);
+
+        abstract void setNull(int rowIndex);
+
+        /**
+         * Compares the non <code>null</code> values of the given rows.
+         */
+        abstract int compare(int rowIndex1, int rowIndex2);
+
+        static IllegalArgumentException unsupportedValue(Object value, ColumnType type) {
+            return new IllegalArgumentException("Value " + value + " of " + value.getClass() + " can not be stored in a column of type " + type); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+    }
+
+    /**
+     * Base class for numeric columns that track <code>null</code> values in a
+     * {@link BitSet}.
+     */
+    private abstract static class NumericColumn extends Column {
+
+        private final BitSet nulls = new BitSet();
+
+        NumericColumn(ColumnType type) {
+            super(type);
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return this.nulls.get(rowIndex) ? null : getValue(rowIndex);
+        }
+
+        abstract Object getValue(int rowIndex);
+
+        @Override
+        void set(int rowIndex, Object value) {
+            if (value == null) {
+                setNull(rowIndex);
+            } else if (value instanceof Number) {
+                setNumber(rowIndex, (Number) value);
+            } else if (value instanceof String) {
+                setString(rowIndex, ((String) value).trim());
+            } else {
+                throw unsupportedValue(value, this.type);
+            }
+        }
+
+        abstract void setNumber(int rowIndex, Number value);
+
+        abstract void setString(int rowIndex, String value);
+
+        @Override
+        boolean isNull(int rowIndex) {
+            return this.nulls.get(rowIndex);
+        }
+
+        @Override
+        void setNull(int rowIndex) {
+            this.nulls.set(rowIndex);
+            clear(rowIndex);
+        }
+
+        abstract void clear(int rowIndex);
+
+        void setNotNull(int rowIndex) {
+            this.nulls.clear(rowIndex);
+        }
+    }
+
+    private static final class DoubleColumn extends NumericColumn {
+
+        double[] values;
+
+        DoubleColumn(int capacity) {
+            super(ColumnType.DOUBLE);
+            this.values = new double[capacity];
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+
+        @Override
+        Object getValue(int rowIndex) {
+            return Double.valueOf(this.values[rowIndex]);
+        }
+
+        @Override
+        void setNumber(int rowIndex, Number value) {
+            setDouble(rowIndex, value.doubleValue());
+        }
+
+        @Override
+        void setString(int rowIndex, String value) {
+            setDouble(rowIndex, Double.parseDouble(value));
+        }
+
+        void setDouble(int rowIndex, double value) {
+            this.values[rowIndex] = value;
+            setNotNull(rowIndex);
+        }
+
+        @Override
+        void clear(int rowIndex) {
+            this.values[rowIndex] = 0;
+        }
+
+        @Override
+        int compare(int rowIndex1, int rowIndex2) {
+            return Double.compare(this.values[rowIndex1], this.values[rowIndex2]);
+        }
+    }
+
+    private static final class LongColumn extends NumericColumn {
+
+        long[] values;
+
+        LongColumn(int capacity) {
+            super(ColumnType.LONG);
+            this.values = new long[capacity];
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+
+        @Override
+        Object getValue(int rowIndex) {
+            return Long.valueOf(this.values[rowIndex]);
+        }
+
+        @Override
+        void setNumber(int rowIndex, Number value) {
+            setLong(rowIndex, value.longValue());
+        }
+
+        @Override
+        void setString(int rowIndex, String value) {
+            setLong(rowIndex, Long.parseLong(value));
+        }
+
+        void setLong(int rowIndex, long value) {
+            this.values[rowIndex] = value;
+            setNotNull(rowIndex);
+        }
+
+        @Override
+        void clear(int rowIndex) {
+            this.values[rowIndex] = 0;
+        }
+
+        @Override
+        int compare(int rowIndex1, int rowIndex2) {
+            return Long.compare(this.values[rowIndex1], this.values[rowIndex2]);
+        }
+    }
+
+    private static final class IntColumn extends NumericColumn {
+
+        int[] values;
+
+        IntColumn(int capacity) {
+            super(ColumnType.INT);
+            this.values = new int[capacity];
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.values = Arrays.copyOf(this.values, newCapacity);
+        }
+
+        @Override
+        Object getValue(int rowIndex) {
+            return Integer.valueOf(this.values[rowIndex]);
+        }
+
+        @Override
+        void setNumber(int rowIndex, Number value) {
+            setInt(rowIndex, value.intValue());
+        }
+
+        @Override
+        void setString(int rowIndex, String value) {
+            setInt(rowIndex, Integer.parseInt(value));
+        }
+
+        void setInt(int rowIndex, int value) {
+            this.values[rowIndex] = value;
+            setNotNull(rowIndex);
+        }
+
+        @Override
+        void clear(int rowIndex) {
+            this.values[rowIndex] = 0;
+        }
+
+        @Override
+        int compare(int rowIndex1, int rowIndex2) {
+            return Integer.compare(this.values[rowIndex1], this.values[rowIndex2]);
+        }
+    }
+
+    /**
+     * Dictionary encoded String column. The codes are the positions of the
+     * values in the dictionary, -1 is used for <code>null</code>.
+     */
+    private static final class StringColumn extends Column {
+
+        int[] codes;
+        final List<String> dictionary = new ArrayList<String>();
+        private final Map<String, Integer> codeByValue = new HashMap<String, Integer>();
+
+        StringColumn(int capacity) {
+            super(ColumnType.STRING);
+            this.codes = new int[capacity];
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            this.codes = Arrays.copyOf(this.codes, newCapacity);
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            int code = this.codes[rowIndex];
+            return code < 0 ? null : this.dictionary.get(code);
+        }
+
+        @Override
+        void set(int rowIndex, Object value) {
+            setString(rowIndex, value != null ? value.toString() : null);
+        }
+
+        void setString(int rowIndex, String value) {
+            if (value == null) {
+                this.codes[rowIndex] = -1;
+                return;
+            }
+            Integer code = this.codeByValue.get(value);
+            if (code == null) {
+                code = this.dictionary.size();
+                this.dictionary.add(value);
+                this.codeByValue.put(value, code);
+            }
+            this.codes[rowIndex] = code;
+        }
+
+        @Override
+        boolean isNull(int rowIndex) {
+            return this.codes[rowIndex] < 0;
+        }
+
+        @Override
+        void setNull(int rowIndex) {
+            this.codes[rowIndex] = -1;
+        }
+
+        @Override
+        int compare(int rowIndex1, int rowIndex2) {
+            int code1 = this.codes[rowIndex1];
+            int code2 = this.codes[rowIndex2];
+            return code1 == code2 ? 0 : this.dictionary.get(code1).compareTo(this.dictionary.get(code2));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.data.PropertyAccessorFactory.PropertyAccessor;
+
+/**
+ * {@link IColumnPropertyAccessor} that accesses the properties of the row
+ * objects via compiled getter and setter calls created by the
+ * {@link PropertyAccessorFactory}, instead of reflection on every access.
+ * <p>
+ * It can be used as a replacement for the
+ * {@link ReflectiveColumnPropertyAccessor} and the
+ * {@link ExtendedReflectiveColumnPropertyAccessor}, as it supports the same
+ * property names, including dot separated property paths to access properties
+ * anywhere within the object graph. The getter and setter methods are resolved
+ * via the Java Bean conventions in both cases.
+ * </p>
+ *
+ * @param <R>
+ *            type of the row object/bean
+ * @since 2.0
+ */
+public class CompiledColumnPropertyAccessor<R> implements IColumnPropertyAccessor<R> {
+
+    private static final Log LOG = LogFactory.getLog(CompiledColumnPropertyAccessor.class);
+
+    private final List<String> propertyNames;
+
+    /**
+     * The property paths per column, split by the dot separator.
+     */
+    private final String[][] propertyPaths;
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public CompiledColumnPropertyAccessor(String... propertyNames) {
+        this(Arrays.asList(propertyNames));
+    }
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public CompiledColumnPropertyAccessor(List<String> propertyNames) {
+        this.propertyNames = propertyNames;
+        this.propertyPaths = new String[propertyNames.size()][];
+        for (int i = 0; i < propertyNames.size(); i++) {
+            this.propertyPaths[i] = propertyNames.get(i).split("\\."); //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.propertyNames.size();
+    }
+
+    @Override
+    public Object getDataValue(R rowObj, int columnIndex) {
+        String[] path = this.propertyPaths[columnIndex];
+        if (path.length > 1) {
+            return getPropertyValue(rowObj, path, path.length);
+        }
+
+        try {
+            return getPropertyAccessor(rowObj, path[0]).getValue(rowObj);
+        } catch (Exception e) {
+            LOG.warn(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void setDataValue(R rowObj, int columnIndex, Object newValue) {
+        String[] path = this.propertyPaths[columnIndex];
+        if (path.length > 1) {
+            setPropertyValue(rowObj, path, newValue);
+            return;
+        }
+
+        try {
+            PropertyAccessor accessor = getPropertyAccessor(rowObj, path[0]);
+            if (accessor == null || !accessor.isWritable()) {
+                throw new RuntimeException(
+                        "Setter method not found in backing bean for value at column index: " + columnIndex); //$NON-NLS-1$
+            }
+            accessor.setValue(rowObj, newValue);
+        } catch (IllegalArgumentException ex) {
+            LOG.error("Data type being set does not match the data type of the setter method in the backing bean", ex); //$NON-NLS-1$
+        } catch (Exception e) {
+            LOG.error(e);
+            throw new RuntimeException("Error while setting data value"); //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    public String getColumnProperty(int columnIndex) {
+        return this.propertyNames.get(columnIndex);
+    }
+
+    @Override
+    public int getColumnIndex(String propertyName) {
+        return this.propertyNames.indexOf(propertyName);
+    }
+
+    /**
+     *
+     * @param bean
+     *            The Java Bean for which the {@link PropertyAccessor} is
+     *            requested.
+     * @param propertyName
+     *            The name of the property for which the
+     *            {@link PropertyAccessor} is requested.
+     * @return The {@link PropertyAccessor} for the property with the given
+     *         name in the class of the given bean, or <code>null</code> if
+     *         there is no such property.
+     */
+    protected PropertyAccessor getPropertyAccessor(Object bean, String propertyName) {
+        return PropertyAccessorFactory.getPropertyAccessor(bean.getClass(), propertyName);
+    }
+
+    /**
+     * Reads the value of a property path out of the given bean.
+     *
+     * @param object
+     *            the bean out of which the property value should be read
+     * @param path
+     *            the segments of the property path
+     * @param length
+     *            the number of segments of the path that should be resolved
+     * @return the property value of the bean, or <code>null</code> if a
+     *         segment of the path is <code>null</code>
+     */
+    private Object getPropertyValue(Object object, String[] path, int length) {
+        Object child = object;
+        for (int i = 0; i < length && child != null; i++) {
+            try {
+                PropertyAccessor accessor = getPropertyAccessor(child, path[i]);
+                if (accessor == null || !accessor.isReadable()) {
+                    throw new IllegalArgumentException("No getter for property " + path[i] + " in " + child.getClass()); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                child = accessor.getValue(child);
+            } catch (Exception e) {
+                LOG.error("Error on accessing the data model", e); //$NON-NLS-1$
+                throw new RuntimeException(e);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Sets a value to the last property of a property path.
+     *
+     * @param object
+     *            the bean where the property value should be set
+     * @param path
+     *            the segments of the property path
+     * @param value
+     *            the value to set
+     */
+    private void setPropertyValue(Object object, String[] path, Object value) {
+        Object parent = getPropertyValue(object, path, path.length - 1);
+        String propertyName = path[path.length - 1];
+        try {
+            PropertyAccessor accessor = getPropertyAccessor(parent, propertyName);
+            if (accessor == null || !accessor.isWritable()) {
+                throw new IllegalArgumentException("No setter for property " + propertyName + " in " + parent.getClass()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            accessor.setValue(parent, value);
+        } catch (Exception e) {
+            LOG.error("Error on accessing the data model", e); //$NON-NLS-1$
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Factory for {@link PropertyAccessor}s that read and write Java Bean
+ * properties without reflection on every access. The getter and setter
+ * methods are resolved once per class via the {@link Introspector}, the same
+ * way as in the {@link ReflectiveColumnPropertyAccessor}, and compiled to
+ * direct calls via the {@link LambdaMetafactory}.
+ * <p>
+ * If a method can not be compiled, e.g. because the bean class is not visible
+ * to the class loader of NatTable in an OSGi environment, the
+ * {@link PropertyAccessor} falls back to reflection for that method.
+ * </p>
+ * <p>
+ * The accessors are cached per class and property name. The cache is attached
+ * to the bean class via a {@link ClassValue}, so it does not prevent the bean
+ * classes from being unloaded.
+ * </p>
+ *
+ * @since 2.0
+ */
+public final class PropertyAccessorFactory {
+
+    private static final Log LOG = LogFactory.getLog(PropertyAccessorFactory.class);
+
+    private static final ClassValue<Map<String, PropertyAccessor>> ACCESSORS = new ClassValue<Map<String, PropertyAccessor>>() {
+
+        @Override
+        protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+            return createAccessors(type);
+        }
+    };
+
+    private PropertyAccessorFactory() {
+        // private default constructor for helper class
+    }
+
+    /**
+     * Returns the {@link PropertyAccessor} for the property with the given
+     * name in the given class.
+     *
+     * @param beanClass
+     *            The class of the Java Bean.
+     * @param propertyName
+     *            The name of the property. Nested property paths are not
+     *            supported, they need to be resolved per path segment.
+     * @return The {@link PropertyAccessor} for the given property or
+     *         <code>null</code> if the class does not have such a property.
+     */
+    public static PropertyAccessor getPropertyAccessor(Class<?> beanClass, String propertyName) {
+        return ACCESSORS.get(beanClass).get(propertyName);
+    }
+
+    private static Map<String, PropertyAccessor> createAccessors(Class<?> type) {
+        PropertyDescriptor[] propertyDescriptors;
+        try {
+            propertyDescriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            LOG.warn("Failed to introspect " + type, e); //$NON-NLS-1$
+            return Collections.emptyMap();
+        }
+
+        Map<String, PropertyAccessor> accessors = new HashMap<String, PropertyAccessor>();
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            accessors.put(
+                    propertyDescriptor.getName(),
+                    new CompiledPropertyAccessor(
+                            propertyDescriptor.getReadMethod(),
+                            propertyDescriptor.getWriteMethod()));
+        }
+        return accessors;
+    }
+
+    /**
+     * Compiles the given getter method to a {@link Function}.
+     *
+     * @return The compiled getter or <code>null</code> if the method can not
+     *         be compiled.
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> compileGetter(Method readMethod) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(readMethod);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply", //$NON-NLS-1$
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(wrap(readMethod.getReturnType()), readMethod.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable t) {
+            LOG.debug("Failed to compile " + readMethod + ", using reflection", t); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the given setter method to a {@link BiConsumer}.
+     *
+     * @return The compiled setter or <code>null</code> if the method can not
+     *         be compiled.
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> compileSetter(Method writeMethod) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(writeMethod);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept", //$NON-NLS-1$
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(
+                            void.class,
+                            writeMethod.getDeclaringClass(),
+                            wrap(writeMethod.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable t) {
+            LOG.debug("Failed to compile " + writeMethod + ", using reflection", t); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+    }
+
+    /**
+     * @return The wrapper type for the given type if it is primitive, or the
+     *         given type.
+     */
+    static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == short.class) {
+            return Short.class;
+        }
+        return Void.class;
+    }
+
+    /**
+     * Accessor for a single Java Bean property. The methods behave like
+     * {@link Method#invoke(Object, Object...)} on the getter and setter
+     * methods, e.g. exceptions thrown by the bean are wrapped in an
+     * {@link InvocationTargetException}.
+     */
+    public interface PropertyAccessor {
+
+        /**
+         *
+         * @return <code>true</code> if the property has a getter method.
+         */
+        boolean isReadable();
+
+        /**
+         *
+         * @return <code>true</code> if the property has a setter method.
+         */
+        boolean isWritable();
+
+        /**
+         * Reads the property value of the given bean.
+         *
+         * @param bean
+         *            The bean whose property value should be read.
+         * @return The property value.
+         * @throws IllegalAccessException
+         *             if the getter is not accessible.
+         * @throws InvocationTargetException
+         *             if the getter throws an exception.
+         * @throws UnsupportedOperationException
+         *             if the property does not have a getter.
+         */
+        Object getValue(Object bean) throws IllegalAccessException, InvocationTargetException;
+
+        /**
+         * Sets the property value of the given bean.
+         *
+         * @param bean
+         *            The bean whose property value should be set.
+         * @param value
+         *            The value to set.
+         * @throws IllegalAccessException
+         *             if the setter is not accessible.
+         * @throws IllegalArgumentException
+         *             if the value does not match the type of the property.
+         * @throws InvocationTargetException
+         *             if the setter throws an exception.
+         * @throws UnsupportedOperationException
+         *             if the property does not have a setter.
+         */
+        void setValue(Object bean, Object value) throws IllegalAccessException, InvocationTargetException;
+    }
+
+    /**
+     * {@link PropertyAccessor} that compiles the getter and setter lazily on
+     * first access and falls back to reflection if that is not possible.
+     */
+    private static final class CompiledPropertyAccessor implements PropertyAccessor {
+
+        /**
+         * The method was not compiled yet.
+         */
+        private static final int NEW = 0;
+        /**
+         * The method was compiled, but the compiled lambda was not called
+         * successfully yet.
+         */
+        private static final int COMPILED = 1;
+        /**
+         * The compiled lambda was called successfully.
+         */
+        private static final int VERIFIED = 2;
+        /**
+         * The method could not be compiled, reflection is used.
+         */
+        private static final int REFLECTIVE = 3;
+
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Class<?> valueType;
+        private final boolean primitive;
+
+        private volatile Function<Object, Object> getter;
+        private volatile BiConsumer<Object, Object> setter;
+
+        private volatile int getterState = NEW;
+        private volatile int setterState = NEW;
+
+        CompiledPropertyAccessor(Method readMethod, Method writeMethod) {
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            if (writeMethod != null) {
+                Class<?> parameterType = writeMethod.getParameterTypes()[0];
+                this.valueType = wrap(parameterType);
+                this.primitive = parameterType.isPrimitive();
+            } else {
+                this.valueType = null;
+                this.primitive = false;
+            }
+        }
+
+        @Override
+        public boolean isReadable() {
+            return this.readMethod != null;
+        }
+
+        @Override
+        public boolean isWritable() {
+            return this.writeMethod != null;
+        }
+
+        @Override
+        public Object getValue(Object bean) throws IllegalAccessException, InvocationTargetException {
+            if (this.readMethod == null) {
+                throw new UnsupportedOperationException("No getter"); //$NON-NLS-1$
+            }
+
+            int state = this.getterState;
+            if (state == NEW) {
+                this.getter = compileGetter(this.readMethod);
+                state = this.getter != null ? COMPILED : REFLECTIVE;
+                this.getterState = state;
+            }
+            if (state == REFLECTIVE) {
+                return this.readMethod.invoke(bean);
+            }
+
+            try {
+                Object result = this.getter.apply(bean);
+                if (state == COMPILED) {
+                    this.getterState = VERIFIED;
+                }
+                return result;
+            } catch (LinkageError e) {
+                if (state == COMPILED) {
+                    // the compiled lambda could not be linked, e.g. because
+                    // the bean class is not visible for the NatTable class
+                    // loader
+                    this.getterState = REFLECTIVE;
+                    return this.readMethod.invoke(bean);
+                }
+                throw new InvocationTargetException(e);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        @Override
+        public void setValue(Object bean, Object value) throws IllegalAccessException, InvocationTargetException {
+            if (this.writeMethod == null) {
+                throw new UnsupportedOperationException("No setter"); //$NON-NLS-1$
+            }
+
+            if (value == null ? this.primitive : !this.valueType.isInstance(value)) {
+                // let reflection handle widening conversions and report
+                // mismatching types
+                this.writeMethod.invoke(bean, value);
+                return;
+            }
+
+            int state = this.setterState;
+            if (state == NEW) {
+                this.setter = compileSetter(this.writeMethod);
+                state = this.setter != null ? COMPILED : REFLECTIVE;
+                this.setterState = state;
+            }
+            if (state == REFLECTIVE) {
+                this.writeMethod.invoke(bean, value);
+                return;
+            }
+
+            try {
+                this.setter.accept(bean, value);
+                if (state == COMPILED) {
+                    this.setterState = VERIFIED;
+                }
+            } catch (LinkageError e) {
+                if (state == COMPILED) {
+                    this.setterState = REFLECTIVE;
+                    this.writeMethod.invoke(bean, value);
+                    return;
+                }
+                throw new InvocationTargetException(e);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,19 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.export;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +42,7 @@
 import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
 import org.eclipse.nebula.widgets.nattable.ui.ExceptionDialog;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.util.ObjectUtils;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.program.Program;
@@ -92,6 +102,26 @@ public class NatExporter {
      */
     private boolean runAsynchronously = true;
 
+    /**
+     * The default number of rows that are processed together in streaming
+     * mode.
+     *
+     * @since 2.0
+     */
+    public static final int DEFAULT_STREAMING_CHUNK_SIZE = 1000;
+
+    /**
+     * The number of rows that are processed together in streaming mode, or 0
+     * if the streaming mode is disabled.
+     */
+    private int streamingChunkSize = 0;
+
+    /**
+     * The number of threads that are used to format the cell values in
+     * streaming mode.
+     */
+    private int streamingThreads = 1;
+
     /**
      * Create a new {@link NatExporter}.
      *
@@ -471,6 +501,11 @@ protected void exportLayer(
             final IConfigRegistry configRegistry,
             final boolean initExportLayer) {
 
+        if (this.streamingChunkSize > 0) {
+            exportLayerStreaming(exporter, outputStream, layerName, layer, configRegistry, initExportLayer);
+            return;
+        }
+
         exportLayer(new ITableExporter() {
 
             @Override
@@ -568,6 +603,33 @@ protected void exportLayer(
         // instead of the calculated value
         layer.doCommand(new DisableFormulaEvaluationCommand());
 
+        ProgressBar progressBar = openProgressBar(layer);
+
+        try {
+            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            // These must be fired at the end of the thread execution
+            layer.setClientAreaProvider(originalClientAreaProvider);
+            layer.doCommand(new TurnViewportOnCommand());
+
+            layer.doCommand(new EnableFormulaEvaluationCommand());
+
+            closeProgressBar(progressBar);
+        }
+    }
+
+    /**
+     * Opens a dialog with a {@link ProgressBar} for the export of the given
+     * {@link ILayer} if a {@link Shell} is set.
+     *
+     * @param layer
+     *            The {@link ILayer} that is exported.
+     * @return The {@link ProgressBar} or <code>null</code> if no {@link Shell}
+     *         is set.
+     */
+    private ProgressBar openProgressBar(ILayer layer) {
         ProgressBar progressBar = null;
 
         if (this.shell != null) {
@@ -585,22 +647,257 @@ protected void exportLayer(
             childShell.pack();
             childShell.open();
         }
+        return progressBar;
+    }
+
+    /**
+     * Disposes the given {@link ProgressBar} and its dialog.
+     *
+     * @param progressBar
+     *            The {@link ProgressBar} to close, can be <code>null</code>.
+     */
+    private void closeProgressBar(ProgressBar progressBar) {
+        if (progressBar != null) {
+            Shell childShell = progressBar.getShell();
+            progressBar.dispose();
+            childShell.dispose();
+        }
+    }
+
+    /**
+     * Exports the given layer to the outputStream using the provided exporter
+     * in streaming mode. Compared to
+     * {@link #exportLayer(ILayerExporter, OutputStream, String, ILayer, IConfigRegistry, boolean)}
+     * the layer is not pre-rendered and its client area is not increased to
+     * the full size. Instead the rows are processed in chunks:
+     * <ol>
+     * <li>the cells of a chunk are collected and their data values, labels
+     * and display modes are resolved in the calling thread, so the layers are
+     * only accessed by a single thread</li>
+     * <li>the cells are formatted via the {@link IExportFormatter} in
+     * parallel worker threads, while the cells of the next chunk are
+     * collected</li>
+     * <li>the formatted values are written in row order via a buffered
+     * {@link OutputStream}</li>
+     * </ol>
+     * At most two chunks are held in memory at the same time.
+     * <p>
+     * <b>Note:</b> As the {@link IExportFormatter} and the display converters
+     * it uses are called from multiple threads, they need to be thread safe
+     * if more than one thread is configured.
+     * </p>
+     *
+     * @param exporter
+     *            The {@link ILayerExporter} that should be used for exporting.
+     * @param outputStream
+     *            The {@link OutputStream} that should be used to write the
+     *            export to.
+     * @param layerName
+     *            The name that should be set as sheet name of the export.
+     * @param layer
+     *            The {@link ILayer} that should be exported.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} needed to retrieve the export
+     *            configurations.
+     * @param initExportLayer
+     *            flag to configure whether
+     *            {@link ILayerExporter#exportLayerBegin(OutputStream, String)}
+     *            and
+     *            {@link ILayerExporter#exportLayerEnd(OutputStream, String)}
+     *            should be called or not.
+     * @see #enableStreaming(int, int)
+     * @since 2.0
+     */
+    protected void exportLayerStreaming(
+            final ILayerExporter exporter,
+            final OutputStream outputStream,
+            final String layerName,
+            final ILayer layer,
+            final IConfigRegistry configRegistry,
+            final boolean initExportLayer) {
+
+        // This needs to be done so that the layer can return all the cells
+        // not just the ones visible in the viewport
+        layer.doCommand(new TurnViewportOffCommand());
+
+        // if a SummaryRowLayer is in the layer stack, we need to ensure that
+        // the values are calculated
+        layer.doCommand(new CalculateSummaryRowValuesCommand());
+
+        // if a FormulaDataProvider is involved, we need to ensure that the
+        // formula evaluation is disabled so the formula itself is exported
+        // instead of the calculated value
+        layer.doCommand(new DisableFormulaEvaluationCommand());
+
+        ProgressBar progressBar = openProgressBar(layer);
+
+        ExecutorService executor = null;
+        if (this.streamingThreads > 1) {
+            final AtomicInteger threadCounter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(this.streamingThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(ObjectUtils.getNatTableThreadGroup(), r,
+                            "NatExporter-" + threadCounter.incrementAndGet()); //$NON-NLS-1$
+                }
+            });
+        }
 
         try {
-            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
-        } catch (Exception e) {
+            OutputStream bufferedStream = new BufferedOutputStream(outputStream, 64 * 1024);
+
+            if (initExportLayer) {
+                exporter.exportLayerBegin(bufferedStream, layerName);
+            }
+
+            int rowCount = layer.getRowCount();
+            ExportChunk previous = null;
+            for (int start = 0; start < rowCount; start += this.streamingChunkSize) {
+                ExportChunk chunk = new ExportChunk(layer, start, Math.min(rowCount, start + this.streamingChunkSize));
+                chunk.format(executor, this.streamingThreads, configRegistry);
+
+                if (previous != null) {
+                    previous.write(exporter, bufferedStream, configRegistry, progressBar);
+                }
+                previous = chunk;
+            }
+            if (previous != null) {
+                previous.write(exporter, bufferedStream, configRegistry, progressBar);
+            }
+
+            if (initExportLayer) {
+                exporter.exportLayerEnd(bufferedStream, layerName);
+            }
+            bufferedStream.flush();
+        } catch (IOException e) {
             throw new RuntimeException(e);
         } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+
             // These must be fired at the end of the thread execution
-            layer.setClientAreaProvider(originalClientAreaProvider);
             layer.doCommand(new TurnViewportOnCommand());
-
             layer.doCommand(new EnableFormulaEvaluationCommand());
 
+            closeProgressBar(progressBar);
+        }
+    }
+
+    /**
+     * A chunk of rows that is exported in streaming mode.
+     */
+    private static class ExportChunk {
+
+        private final int startRow;
+        private final ILayerCell[][] cells;
+        private final Object[][] values;
+        private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        /**
+         * Collects the cells of the given rows and resolves the information
+         * needed for formatting, so the layer is not accessed by the
+         * formatting threads.
+         */
+        ExportChunk(ILayer layer, int startRow, int endRow) {
+            this.startRow = startRow;
+            int columnCount = layer.getColumnCount();
+            this.cells = new ILayerCell[endRow - startRow][];
+            this.values = new Object[endRow - startRow][];
+            for (int rowPosition = startRow; rowPosition < endRow; rowPosition++) {
+                if (layer.getRowHeightByPosition(rowPosition) > 0) {
+                    ILayerCell[] rowCells = new ILayerCell[columnCount];
+                    for (int columnPosition = 0; columnPosition < columnCount; columnPosition++) {
+                        ILayerCell cell = layer.getCellByPosition(columnPosition, rowPosition);
+                        if (cell != null) {
+                            cell.getDisplayMode();
+                            cell.getConfigLabels();
+                            cell.getDataValue();
+                            rowCells[columnPosition] = cell;
+                        }
+                    }
+                    this.cells[rowPosition - startRow] = rowCells;
+                    this.values[rowPosition - startRow] = new Object[columnCount];
+                }
+            }
+        }
+
+        /**
+         * Formats the cells of this chunk. If an executor is given, the rows
+         * are split into the given number of slices that are formatted in
+         * parallel.
+         */
+        void format(ExecutorService executor, int threads, final IConfigRegistry configRegistry) {
+            if (executor == null) {
+                format(0, this.cells.length, configRegistry);
+                return;
+            }
+
+            int sliceSize = (this.cells.length + threads - 1) / threads;
+            for (int start = 0; start < this.cells.length; start += sliceSize) {
+                final int sliceStart = start;
+                final int sliceEnd = Math.min(this.cells.length, start + sliceSize);
+                this.futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        format(sliceStart, sliceEnd, configRegistry);
+                    }
+                }));
+            }
+        }
+
+        private void format(int start, int end, IConfigRegistry configRegistry) {
+            for (int row = start; row < end; row++) {
+                ILayerCell[] rowCells = this.cells[row];
+                if (rowCells != null) {
+                    for (int column = 0; column < rowCells.length; column++) {
+                        ILayerCell cell = rowCells[column];
+                        if (cell != null) {
+                            IExportFormatter exportFormatter = configRegistry.getConfigAttribute(
+                                    ExportConfigAttributes.EXPORT_FORMATTER,
+                                    cell.getDisplayMode(),
+                                    cell.getConfigLabels().getLabels());
+                            this.values[row][column] = exportFormatter.formatForExport(cell, configRegistry);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Waits for the formatting to finish and writes the rows of this
+         * chunk in order.
+         */
+        void write(ILayerExporter exporter, OutputStream outputStream,
+                IConfigRegistry configRegistry, ProgressBar progressBar) throws IOException {
+
+            for (Future<?> future : this.futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+
+            for (int row = 0; row < this.cells.length; row++) {
+                ILayerCell[] rowCells = this.cells[row];
+                if (rowCells != null) {
+                    int rowPosition = this.startRow + row;
+                    exporter.exportRowBegin(outputStream, rowPosition);
+                    for (int column = 0; column < rowCells.length; column++) {
+                        if (rowCells[column] != null) {
+                            exporter.exportCell(outputStream, this.values[row][column], rowCells[column], configRegistry);
+                        }
+                    }
+                    exporter.exportRowEnd(outputStream, rowPosition);
+                }
+            }
+
             if (progressBar != null) {
-                Shell childShell = progressBar.getShell();
-                progressBar.dispose();
-                childShell.dispose();
+                progressBar.setSelection(this.startRow + this.cells.length - 1);
             }
         }
     }
@@ -721,4 +1018,59 @@ public void enablePreRendering() {
     public void disablePreRendering() {
         this.preRender = false;
     }
+
+    /**
+     * Enable the streaming mode for exports via {@link ILayerExporter} with
+     * {@link #DEFAULT_STREAMING_CHUNK_SIZE} rows per chunk and one formatting
+     * thread per available processor.
+     *
+     * @see #enableStreaming(int, int)
+     * @since 2.0
+     */
+    public void enableStreaming() {
+        enableStreaming(DEFAULT_STREAMING_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Enable the streaming mode for exports via {@link ILayerExporter}. In
+     * streaming mode the layer is not pre-rendered and not resized to its full
+     * size. The rows are processed in chunks, the cell values are formatted in
+     * parallel and written in row order, so the memory consumption is bounded
+     * by the chunk size. As there is no pre-rendering, content based
+     * auto-resizing is not applied and row heights of 0 are the only
+     * criterion for skipping rows.
+     * <p>
+     * <b>Note:</b> If more than one thread is used, the configured
+     * {@link IExportFormatter}s and display converters need to be thread
+     * safe.
+     * </p>
+     *
+     * @param chunkSize
+     *            The number of rows that are processed together.
+     * @param formatterThreads
+     *            The number of threads that are used to format the cell
+     *            values. With a value of 1 the values are formatted in the
+     *            calling thread.
+     * @since 2.0
+     */
+    public void enableStreaming(int chunkSize, int formatterThreads) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize <= 0"); //$NON-NLS-1$
+        }
+        if (formatterThreads <= 0) {
+            throw new IllegalArgumentException("formatterThreads <= 0"); //$NON-NLS-1$
+        }
+        this.streamingChunkSize = chunkSize;
+        this.streamingThreads = formatterThreads;
+    }
+
+    /**
+     * Disable the streaming mode, which is the default.
+     *
+     * @since 2.0
+     */
+    public void disableStreaming() {
+        this.streamingChunkSize = 0;
+        this.streamingThreads = 1;
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Dirk Fauth and others.
+ * Copyright (c) 2014, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.nebula.widgets.nattable.edit.editor.TextCellEditor;
@@ -30,13 +31,36 @@
  * intended to be used in a FilterRow, so filtering is triggered immediately on
  * entering a value. To optimize execution, the commit is triggered with a small
  * delay, so if a user enters multiple characters, the filter execution is not
- * executed for each key stroke, but only for the combination.
+ * executed for each key stroke, but only for the combination. A pending
+ * commit is cancelled on the next key stroke, and key strokes that do not
+ * change the value, e.g. cursor navigation, do not trigger a commit.
  *
  * @author Dirk Fauth
  *
  */
 public class FilterRowTextCellEditor extends TextCellEditor {
 
+    /**
+     * The default delay in milliseconds after the last key stroke before the
+     * value is committed.
+     *
+     * @since 2.0
+     */
+    public static final long DEFAULT_COMMIT_DELAY = 150L;
+
+    private long commitDelay = DEFAULT_COMMIT_DELAY;
+
+    /**
+     * The scheduled commit of the last key stroke. Only accessed in the
+     * display thread.
+     */
+    private ScheduledFuture<?> pendingCommit;
+
+    /**
+     * The value that was committed last. Only accessed in the display thread.
+     */
+    private String lastCommitted;
+
     @Override
     protected Text createEditorControl(Composite parent, int style) {
         Text text = super.createEditorControl(parent, style);
@@ -44,12 +68,22 @@ protected Text createEditorControl(Composite parent, int style) {
         final ScheduledExecutorService service = Executors
                 .newScheduledThreadPool(1);
 
+        this.lastCommitted = null;
+
         text.addKeyListener(new KeyAdapter() {
 
             @Override
             public void keyReleased(KeyEvent e) {
-                service.schedule(new KeyPressCommitRunnable(getEditorValue()),
-                        150L, TimeUnit.MILLISECONDS);
+                String value = getEditorValue();
+                if (FilterRowTextCellEditor.this.pendingCommit != null) {
+                    FilterRowTextCellEditor.this.pendingCommit.cancel(false);
+                    FilterRowTextCellEditor.this.pendingCommit = null;
+                }
+                if (value != null && !value.equals(FilterRowTextCellEditor.this.lastCommitted)) {
+                    FilterRowTextCellEditor.this.pendingCommit = service.schedule(
+                            new KeyPressCommitRunnable(value),
+                            FilterRowTextCellEditor.this.commitDelay, TimeUnit.MILLISECONDS);
+                }
             }
         });
 
@@ -63,6 +97,32 @@ public void widgetDisposed(DisposeEvent e) {
         return text;
     }
 
+    /**
+     *
+     * @return The delay in milliseconds after the last key stroke before the
+     *         value is committed.
+     * @since 2.0
+     */
+    public long getCommitDelay() {
+        return this.commitDelay;
+    }
+
+    /**
+     * Set the delay after the last key stroke before the value is committed
+     * and the filter is applied. Increasing the delay reduces the number of
+     * filter operations on large data sets if users type fast.
+     *
+     * @param commitDelay
+     *            The delay in milliseconds.
+     * @since 2.0
+     */
+    public void setCommitDelay(long commitDelay) {
+        if (commitDelay < 0) {
+            throw new IllegalArgumentException("commitDelay < 0"); //$NON-NLS-1$
+        }
+        this.commitDelay = commitDelay;
+    }
+
     /**
      * Runnable that gets started if a key is released and commits the data that
      * is currently set to the editor control. If the value which was used to
@@ -92,6 +152,7 @@ public void run() {
                             && !getEditorControl().isDisposed()
                             && KeyPressCommitRunnable.this.toCommit != null
                             && KeyPressCommitRunnable.this.toCommit.equals(getEditorValue())) {
+                        FilterRowTextCellEditor.this.lastCommitted = KeyPressCommitRunnable.this.toCommit;
                         commit(MoveDirectionEnum.NONE, false);
                     }
                 }
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow.combobox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counted multiset of the values of a column. Tracks how often every distinct
+ * value occurs, so the distinct values can be updated for single inserted,
+ * deleted or updated rows without iterating over all rows.
+ * <p>
+ * The sorted list of distinct values is only created on request via
+ * {@link #getValues()}. If the distinct values changed since the last
+ * request, the previous list is updated with the added and removed values
+ * instead of sorting all values again.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class DistinctValueCounter {
+
+    private static final Comparator<Object> NULLS_FIRST_NATURAL = Comparator.nullsFirst(new Comparator<Object>() {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public int compare(Object o1, Object o2) {
+            return ((Comparable) o1).compareTo(o2);
+        }
+    });
+
+    private final Map<Object, int[]> counts = new HashMap<Object, int[]>();
+
+    /**
+     * The distinct values that were added since the last call to
+     * {@link #getValues()}.
+     */
+    private final Set<Object> added = new HashSet<Object>();
+    /**
+     * The distinct values that were removed since the last call to
+     * {@link #getValues()}.
+     */
+    private final Set<Object> removed = new HashSet<Object>();
+
+    private List<Object> values;
+
+    /**
+     * Adds an occurrence of the given value.
+     *
+     * @param value
+     *            The value to add, can be <code>null</code>.
+     * @return <code>true</code> if the value was not contained before.
+     */
+    public boolean add(Object value) {
+        int[] count = this.counts.get(value);
+        if (count != null) {
+            count[0]++;
+            return false;
+        }
+
+        this.counts.put(value, new int[] { 1 });
+        if (!this.removed.remove(value)) {
+            this.added.add(value);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an occurrence of the given value.
+     *
+     * @param value
+     *            The value to remove, can be <code>null</code>.
+     * @return <code>true</code> if the last occurrence of the value was
+     *         removed.
+     */
+    public boolean remove(Object value) {
+        int[] count = this.counts.get(value);
+        if (count == null || --count[0] > 0) {
+            return false;
+        }
+
+        this.counts.remove(value);
+        if (!this.added.remove(value)) {
+            this.removed.add(value);
+        }
+        return true;
+    }
+
+    /**
+     *
+     * @param value
+     *            The value to check.
+     * @return The number of occurrences of the given value.
+     */
+    public int getCount(Object value) {
+        int[] count = this.counts.get(value);
+        return (count != null) ? count[0] : 0;
+    }
+
+    /**
+     *
+     * @return The number of distinct values.
+     */
+    public int size() {
+        return this.counts.size();
+    }
+
+    /**
+     *
+     * @return The distinct values that were added since the last call to
+     *         {@link #getValues()}.
+     */
+    public Set<Object> getAddedValues() {
+        return Collections.unmodifiableSet(this.added);
+    }
+
+    /**
+     *
+     * @return The distinct values that were removed since the last call to
+     *         {@link #getValues()}.
+     */
+    public Set<Object> getRemovedValues() {
+        return Collections.unmodifiableSet(this.removed);
+    }
+
+    /**
+     * Returns the distinct values. If the values are {@link Comparable} they
+     * are sorted in natural order, otherwise they are returned in insertion
+     * order. <code>null</code> is always at the first position.
+     * <p>
+     * The returned list is not modified by subsequent changes of this
+     * counter, a new list is created if the distinct values changed.
+     * </p>
+     *
+     * @return The distinct values.
+     */
+    public List<?> getValues() {
+        if (this.values == null) {
+            this.values = new ArrayList<Object>(this.counts.keySet());
+            sortValues(this.values);
+        } else if (!this.added.isEmpty() || !this.removed.isEmpty()) {
+            List<Object> result = new ArrayList<Object>(this.values.size() + this.added.size());
+            for (Object value : this.values) {
+                if (!this.removed.contains(value)) {
+                    result.add(value);
+                }
+            }
+
+            if (isComparable(result) && isComparable(this.added)) {
+                for (Object value : this.added) {
+                    int index = Collections.binarySearch(result, value, NULLS_FIRST_NATURAL);
+                    result.add((index < 0) ? -index - 1 : index, value);
+                }
+            } else {
+                result.addAll(this.added);
+                sortValues(result);
+            }
+            this.values = result;
+        }
+
+        this.added.clear();
+        this.removed.clear();
+        return Collections.unmodifiableList(this.values);
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        this.counts.clear();
+        this.added.clear();
+        this.removed.clear();
+        this.values = null;
+    }
+
+    /**
+     * Sorts the given values in natural order if they are {@link Comparable}.
+     * Otherwise only ensures that <code>null</code> is at the first position.
+     *
+     * @param values
+     *            The values to sort.
+     */
+    static void sortValues(List<Object> values) {
+        if (isComparable(values)) {
+            values.sort(NULLS_FIRST_NATURAL);
+        } else {
+            // always ensure that null is at the first position
+            int index = values.indexOf(null);
+            if (index >= 0) {
+                values.remove(index);
+                values.add(0, null);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the first non-null value is
+     *         {@link Comparable} or there is none.
+     */
+    private static boolean isComparable(Iterable<Object> values) {
+        for (Object value : values) {
+            if (value != null) {
+                return value instanceof Comparable;
+            }
+        }
+        return true;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2019 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,9 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -45,6 +45,14 @@
  * As the values are cached in here, this IComboBoxDataProvider registers itself
  * as ILayerListener to the body DataLayer. If values are updated or rows get
  * added/deleted, it will update the cache accordingly.
+ * <p>
+ * Subclasses that get informed about the changed row objects, e.g. via list
+ * change events, can enable the value tracking via
+ * {@link #setValueTrackingEnabled(boolean)}. In that case the occurrences of
+ * every value are counted per column, so the cache can be updated via
+ * {@link #rowInserted(Object)}, {@link #rowDeleted(Object)} and
+ * {@link #rowUpdated(Object, Object)} without iterating over the whole base
+ * collection.
  *
  * @param <T>
  *            The type of the objects shown within the NatTable. Needed to
@@ -107,6 +115,22 @@
      */
     private final ReadWriteLock valueCacheLock = new ReentrantReadWriteLock();
 
+    /**
+     * Flag to indicate whether the occurrences of the values are tracked per
+     * column to support incremental cache updates.
+     *
+     * @since 2.0
+     */
+    private boolean valueTrackingEnabled = false;
+
+    /**
+     * The value counts and the tracked values of the row objects per column.
+     * Only contains entries for cached columns if value tracking is enabled.
+     *
+     * @since 2.0
+     */
+    private final Map<Integer, ValueTracker> valueTrackers = new HashMap<Integer, ValueTracker>();
+
     /**
      * @param bodyLayer
      *            A layer in the body region. Usually the DataLayer or a layer
@@ -183,7 +207,7 @@ public List<?> getValues(int columnIndex, int rowIndex) {
             if (result == null) {
                 this.valueCacheLock.writeLock().lock();
                 try {
-                    result = collectValues(columnIndex);
+                    result = buildColumnValues(columnIndex);
                     this.valueCache.put(columnIndex, result);
                 } finally {
                     this.valueCacheLock.writeLock().unlock();
@@ -204,8 +228,36 @@ public List<?> getValues(int columnIndex, int rowIndex) {
      */
     protected void buildValueCache() {
         for (int i = 0; i < this.columnAccessor.getColumnCount(); i++) {
-            this.valueCache.put(i, collectValues(i));
+            this.valueCache.put(i, buildColumnValues(i));
+        }
+    }
+
+    /**
+     * Collects the unique values for the given column index to be stored in
+     * the value cache. If value tracking is enabled, the occurrences of the
+     * values are counted so subsequent row changes can be applied
+     * incrementally.
+     * <p>
+     * Needs to be called while holding the write lock of the value cache.
+     * </p>
+     *
+     * @param columnIndex
+     *            The column index for which the values should be collected
+     * @return List of all unique values that are contained in the base
+     *         collection for the given column.
+     * @since 2.0
+     */
+    protected List<?> buildColumnValues(int columnIndex) {
+        if (!this.valueTrackingEnabled) {
+            return collectValues(columnIndex);
+        }
+
+        ValueTracker tracker = new ValueTracker();
+        for (T rowObject : this.baseCollection) {
+            tracker.add(rowObject, this.columnAccessor.getDataValue(rowObject, columnIndex));
         }
+        this.valueTrackers.put(columnIndex, tracker);
+        return new ArrayList<Object>(tracker.counter.getValues());
     }
 
     /**
@@ -242,20 +294,7 @@ protected List<?> collectValues(int columnIndex) {
                 .distinct()
                 .collect(Collectors.toList());
 
-        Object firstNonNull = result.stream()
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
-        if (firstNonNull instanceof Comparable) {
-            result.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
-        } else {
-            // always ensure that null is at the first position
-            int index = result.indexOf(null);
-            if (index >= 0) {
-                result.remove(index);
-                result.add(0, null);
-            }
-        }
+        DistinctValueCounter.sortValues(result);
 
         return result;
     }
@@ -274,7 +313,7 @@ public void handleLayerEvent(ILayerEvent event) {
                     List<?> cacheBefore = this.valueCache.get(column);
 
                     if (!this.lazyLoading || cacheBefore != null) {
-                        this.valueCache.put(column, collectValues(column));
+                        this.valueCache.put(column, buildColumnValues(column));
                     }
 
                     if (isUpdateEventsEnabled()) {
@@ -294,6 +333,7 @@ public void handleLayerEvent(ILayerEvent event) {
 
                     // perform a refresh of the whole cache
                     this.valueCache.clear();
+                    this.valueTrackers.clear();
                     if (!this.lazyLoading) {
                         buildValueCache();
                     }
@@ -311,6 +351,151 @@ public void handleLayerEvent(ILayerEvent event) {
         }
     }
 
+    /**
+     *
+     * @return <code>true</code> if the occurrences of the values are tracked
+     *         per column to support incremental cache updates via
+     *         {@link #rowInserted(Object)}, {@link #rowDeleted(Object)} and
+     *         {@link #rowUpdated(Object, Object)}.
+     * @since 2.0
+     */
+    public boolean isValueTrackingEnabled() {
+        return this.valueTrackingEnabled;
+    }
+
+    /**
+     * Enable/disable the tracking of value occurrences per column. Needed to
+     * update the value cache incrementally via {@link #rowInserted(Object)},
+     * {@link #rowDeleted(Object)} and {@link #rowUpdated(Object, Object)}. By
+     * default the value tracking is disabled, as it needs to keep the values
+     * of every row object for every cached column.
+     * <p>
+     * On enabling, the tracking information is collected for the columns
+     * that are already cached.
+     * </p>
+     *
+     * @param enabled
+     *            <code>true</code> to enable the value tracking,
+     *            <code>false</code> to disable it.
+     * @since 2.0
+     */
+    public void setValueTrackingEnabled(boolean enabled) {
+        this.valueCacheLock.writeLock().lock();
+        try {
+            if (this.valueTrackingEnabled != enabled) {
+                this.valueTrackingEnabled = enabled;
+                this.valueTrackers.clear();
+                if (enabled) {
+                    for (Integer column : new ArrayList<Integer>(this.valueCache.keySet())) {
+                        this.valueCache.put(column, buildColumnValues(column));
+                    }
+                }
+            }
+        } finally {
+            this.valueCacheLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the values of the given row object that was inserted to the base
+     * collection to the value counts of the cached columns. The changes are
+     * applied to the value cache on {@link #commitRowChanges()}.
+     * <p>
+     * Needs to be called while holding the write lock of the value cache and
+     * only has an effect if value tracking is enabled.
+     * </p>
+     *
+     * @param rowObject
+     *            The inserted row object.
+     * @since 2.0
+     */
+    protected void rowInserted(T rowObject) {
+        for (Map.Entry<Integer, ValueTracker> entry : this.valueTrackers.entrySet()) {
+            entry.getValue().add(rowObject, this.columnAccessor.getDataValue(rowObject, entry.getKey()));
+        }
+    }
+
+    /**
+     * Removes the values of the given row object that was deleted from the
+     * base collection from the value counts of the cached columns. The values
+     * that were tracked for the row object are removed, so the row object
+     * might have been modified before. The changes are applied to the value
+     * cache on {@link #commitRowChanges()}.
+     * <p>
+     * Needs to be called while holding the write lock of the value cache and
+     * only has an effect if value tracking is enabled.
+     * </p>
+     *
+     * @param rowObject
+     *            The deleted row object.
+     * @since 2.0
+     */
+    protected void rowDeleted(T rowObject) {
+        for (ValueTracker tracker : this.valueTrackers.values()) {
+            tracker.remove(rowObject);
+        }
+    }
+
+    /**
+     * Updates the value counts of the cached columns for a row object that was
+     * replaced or modified in the base collection. The changes are applied to
+     * the value cache on {@link #commitRowChanges()}.
+     * <p>
+     * Needs to be called while holding the write lock of the value cache and
+     * only has an effect if value tracking is enabled.
+     * </p>
+     *
+     * @param oldRowObject
+     *            The row object that was replaced, the same as
+     *            <code>newRowObject</code> if the row object was modified.
+     * @param newRowObject
+     *            The row object that is contained in the base collection now.
+     * @since 2.0
+     */
+    protected void rowUpdated(T oldRowObject, T newRowObject) {
+        if (oldRowObject != newRowObject) {
+            rowDeleted(oldRowObject);
+            rowInserted(newRowObject);
+        } else {
+            for (Map.Entry<Integer, ValueTracker> entry : this.valueTrackers.entrySet()) {
+                entry.getValue().update(newRowObject, this.columnAccessor.getDataValue(newRowObject, entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Applies the row changes that were collected via
+     * {@link #rowInserted(Object)}, {@link #rowDeleted(Object)} and
+     * {@link #rowUpdated(Object, Object)} to the value cache. The cached
+     * values of a column are only recreated if the unique values of that
+     * column changed.
+     * <p>
+     * Needs to be called while holding the write lock of the value cache.
+     * </p>
+     *
+     * @return The events for the columns whose unique values changed, ordered
+     *         by column index. Need to be fired via
+     *         {@link #fireCacheUpdateEvent(FilterRowComboUpdateEvent)} after
+     *         the lock is released.
+     * @since 2.0
+     */
+    protected List<FilterRowComboUpdateEvent> commitRowChanges() {
+        List<FilterRowComboUpdateEvent> events = new ArrayList<FilterRowComboUpdateEvent>();
+        List<Integer> columns = new ArrayList<Integer>(this.valueTrackers.keySet());
+        columns.sort(null);
+        for (Integer column : columns) {
+            DistinctValueCounter counter = this.valueTrackers.get(column).counter;
+            if (!counter.getAddedValues().isEmpty() || !counter.getRemovedValues().isEmpty()) {
+                events.add(new FilterRowComboUpdateEvent(
+                        column,
+                        new HashSet<Object>(counter.getAddedValues()),
+                        new HashSet<Object>(counter.getRemovedValues())));
+                this.valueCache.put(column, new ArrayList<Object>(counter.getValues()));
+            }
+        }
+        return events;
+    }
+
     /**
      * Creates a FilterRowComboUpdateEvent for the given column index.
      * Calculates the diffs of the value cache for that column based on the
@@ -333,16 +518,19 @@ protected FilterRowComboUpdateEvent buildUpdateEvent(int columnIndex, List<?> ca
 
         // find the added values
         if (cacheAfter != null && cacheBefore != null) {
-            for (Object after : cacheAfter) {
-                if (!cacheBefore.contains(after)) {
-                    addedValues.add(after);
+            // use sets for the lookup to avoid quadratic costs
+            Set<Object> before = new HashSet<Object>(cacheBefore);
+            Set<Object> after = new HashSet<Object>(cacheAfter);
+            for (Object value : cacheAfter) {
+                if (!before.contains(value)) {
+                    addedValues.add(value);
                 }
             }
 
             // find the removed values
-            for (Object before : cacheBefore) {
-                if (!cacheAfter.contains(before)) {
-                    removedValues.add(before);
+            for (Object value : cacheBefore) {
+                if (!after.contains(value)) {
+                    removedValues.add(value);
                 }
             }
         } else if ((cacheBefore == null || cacheBefore.isEmpty()) && cacheAfter != null) {
@@ -528,4 +716,62 @@ public ReadWriteLock getValueCacheLock() {
         return this.valueCacheLock;
     }
 
+    /**
+     * The value counts of a column together with the tracked value per row
+     * object, needed to know the previous value of modified or deleted row
+     * objects. Row objects are tracked by identity.
+     */
+    private static class ValueTracker {
+
+        final DistinctValueCounter counter = new DistinctValueCounter();
+
+        /**
+         * The tracked value and the number of occurrences per row object.
+         */
+        private final Map<Object, TrackedValue> values = new IdentityHashMap<Object, TrackedValue>();
+
+        void add(Object rowObject, Object value) {
+            TrackedValue tracked = this.values.get(rowObject);
+            if (tracked == null) {
+                tracked = new TrackedValue(value);
+                this.values.put(rowObject, tracked);
+            } else {
+                tracked.count++;
+            }
+            this.counter.add(tracked.value);
+        }
+
+        void remove(Object rowObject) {
+            TrackedValue tracked = this.values.get(rowObject);
+            if (tracked != null) {
+                if (--tracked.count == 0) {
+                    this.values.remove(rowObject);
+                }
+                this.counter.remove(tracked.value);
+            }
+        }
+
+        void update(Object rowObject, Object value) {
+            TrackedValue tracked = this.values.get(rowObject);
+            if (tracked == null) {
+                add(rowObject, value);
+            } else if (!Objects.equals(tracked.value, value)) {
+                // all occurrences of the row object are modified
+                for (int i = 0; i < tracked.count; i++) {
+                    this.counter.remove(tracked.value);
+                    this.counter.add(value);
+                }
+                tracked.value = value;
+            }
+        }
+    }
+
+    private static class TrackedValue {
+        Object value;
+        int count = 1;
+
+        TrackedValue(Object value) {
+            this.value = value;
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Dirk Fauth.
+ * Copyright (c) 2019, 2020 Dirk Fauth.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -101,8 +101,11 @@ public RowGroupHeaderGridLineCellLayerPainter(RowGroupHeaderLayer rowGroupHeader
         this.rowGroupHeaderLayer = rowGroupHeaderLayer;
     }
 
+    /**
+     * @since 2.0
+     */
     @Override
-    public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle bounds) {
+    protected Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle bounds, Rectangle target) {
         ILayerCell cell = this.rowGroupHeaderLayer.getCellByPosition(columnPosition, rowPosition);
         if (this.rowGroupHeaderLayer.isShowAlwaysGroupNames()
                 && cell.getOriginColumnPosition() < this.rowGroupHeaderLayer.getLevelCount()
@@ -111,7 +114,7 @@ public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle
             bounds.height += bounds.y;
             bounds.y = 0;
         }
-        return super.adjustCellBounds(columnPosition, rowPosition, bounds);
+        return super.adjustCellBounds(columnPosition, rowPosition, bounds, target);
     }
 
 }
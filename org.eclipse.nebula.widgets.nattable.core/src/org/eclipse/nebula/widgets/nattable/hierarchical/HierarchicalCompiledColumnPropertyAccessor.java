@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.hierarchical;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.data.CompiledColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.PropertyAccessorFactory.PropertyAccessor;
+
+/**
+ * Specialization of {@link CompiledColumnPropertyAccessor} to access fields in
+ * a {@link HierarchicalWrapper}. It supports the same property names as the
+ * {@link HierarchicalReflectiveColumnPropertyAccessor}, but uses compiled
+ * getter and setter calls instead of reflection.
+ *
+ * @since 2.0
+ */
+public class HierarchicalCompiledColumnPropertyAccessor extends CompiledColumnPropertyAccessor<HierarchicalWrapper> {
+
+    private static final Log LOG = LogFactory.getLog(HierarchicalCompiledColumnPropertyAccessor.class);
+
+    /**
+     * The level of the object in the {@link HierarchicalWrapper} per column.
+     */
+    private final int[] levels;
+
+    /**
+     * The name of the property in the level object per column.
+     */
+    private final String[] levelPropertyNames;
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public HierarchicalCompiledColumnPropertyAccessor(String... propertyNames) {
+        this(Arrays.asList(propertyNames));
+    }
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public HierarchicalCompiledColumnPropertyAccessor(List<String> propertyNames) {
+        super(propertyNames);
+        this.levels = new int[propertyNames.size()];
+        this.levelPropertyNames = new String[propertyNames.size()];
+        for (int i = 0; i < propertyNames.size(); i++) {
+            String[] split = propertyNames.get(i).split(HierarchicalHelper.PROPERTY_SEPARATOR_REGEX);
+            this.levels[i] = split.length - 1;
+            this.levelPropertyNames[i] = split[split.length - 1];
+        }
+    }
+
+    @Override
+    public Object getDataValue(HierarchicalWrapper rowObj, int columnIndex) {
+        Object levelObject = rowObj.getObject(this.levels[columnIndex]);
+
+        if (levelObject != null) {
+            try {
+                return getPropertyAccessor(levelObject, this.levelPropertyNames[columnIndex]).getValue(levelObject);
+            } catch (Exception e) {
+                LOG.warn(e);
+                throw new RuntimeException(e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void setDataValue(HierarchicalWrapper rowObj, int columnIndex, Object newValue) {
+        Object levelObject = rowObj.getObject(this.levels[columnIndex]);
+
+        if (levelObject != null) {
+            try {
+                PropertyAccessor accessor = getPropertyAccessor(levelObject, this.levelPropertyNames[columnIndex]);
+                if (accessor == null || !accessor.isWritable()) {
+                    throw new RuntimeException(
+                            "Setter method not found in backing bean for value at column index: " + columnIndex); //$NON-NLS-1$
+                }
+                accessor.setValue(levelObject, newValue);
+            } catch (IllegalArgumentException ex) {
+                LOG.error("Data type being set does not match the data type of the setter method in the backing bean", ex); //$NON-NLS-1$
+            } catch (Exception e) {
+                LOG.error(e);
+                throw new RuntimeException("Error while setting data value"); //$NON-NLS-1$
+            }
+        }
+    }
+}
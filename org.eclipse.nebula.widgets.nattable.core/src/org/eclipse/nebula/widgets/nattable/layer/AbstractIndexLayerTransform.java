@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,7 @@
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.cell.IConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
-import org.eclipse.nebula.widgets.nattable.layer.cell.TranslatedLayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCellPool;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
@@ -323,7 +323,7 @@ public ILayerCell getCellByPosition(int columnPosition, int rowPosition) {
         if (cell == null) {
             return null;
         }
-        return new TranslatedLayerCell(cell, this,
+        return LayerCellPool.createTranslatedLayerCell(cell, this,
                 underlyingToLocalColumnPosition(this.underlyingLayer, cell.getOriginColumnPosition()),
                 underlyingToLocalRowPosition(this.underlyingLayer, cell.getOriginRowPosition()),
                 underlyingToLocalColumnPosition(this.underlyingLayer, cell.getColumnPosition()),
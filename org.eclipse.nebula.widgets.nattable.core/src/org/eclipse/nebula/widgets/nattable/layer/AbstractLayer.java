@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,7 +35,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.cell.IConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.cell.IConfigLabelProvider;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
-import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCellPool;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEventHandler;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
@@ -349,7 +349,7 @@ public ILayerCell getCellByPosition(int columnPosition, int rowPosition) {
             return null;
         }
 
-        return new LayerCell(this, columnPosition, rowPosition);
+        return LayerCellPool.createLayerCell(this, columnPosition, rowPosition);
     }
 
     @Override
@@ -405,7 +405,7 @@ public ICellPainter getCellPainter(
         return configRegistry.getConfigAttribute(
                 CellConfigAttributes.CELL_PAINTER,
                 cell.getDisplayMode(),
-                cell.getConfigLabels().getLabels());
+                cell.getConfigLabels().getInternedLabels());
     }
 
     /**
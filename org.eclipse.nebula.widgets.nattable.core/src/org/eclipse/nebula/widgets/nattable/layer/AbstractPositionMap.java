@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link Map} implementation for position based values that stores the values
+ * in primitive arrays instead of boxed map entries. Used by {@link SizeConfig}
+ * to reduce the memory consumption for huge tables.
+ * <p>
+ * Depending on the fill ratio the values are either stored
+ * </p>
+ * <ul>
+ * <li>dense - in an array that is indexed by the position itself, together
+ * with a {@link BitSet} that marks the positions that have a value</li>
+ * <li>sparse - in an array of sorted positions and a parallel array of
+ * values</li>
+ * </ul>
+ * <p>
+ * The storage switches to dense if at least half of the positions up to the
+ * highest position have a value, and back to sparse if less than an eighth of
+ * the dense array is used. In both cases the iteration order is ascending by
+ * position like it is with a {@link java.util.TreeMap}. <code>null</code>
+ * values are not supported.
+ * </p>
+ * <p>
+ * The sparse storage is optimized for adding positions in ascending order,
+ * e.g. when loading a persisted state or copying another sorted map, which
+ * appends at the end of the arrays. Adding a new position in front of
+ * existing positions shifts all following entries, so filling a sparse map
+ * with positions in descending or random order has quadratic cost. Positions
+ * that already have a value are updated in place in both storages.
+ * </p>
+ *
+ * @param <V>
+ *            The type of the values.
+ *
+ * @since 2.0
+ */
+public abstract class AbstractPositionMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The minimum number of entries before switching to the dense storage.
+     */
+    private static final int MIN_DENSE_SIZE = 64;
+
+    /**
+     * The number of entries in this map.
+     */
+    private int size;
+
+    /**
+     * Flag to indicate whether the values are stored dense or sparse.
+     */
+    private boolean dense;
+
+    /**
+     * The positions that have a value in dense storage.
+     */
+    private BitSet present;
+
+    /**
+     * The sorted positions in sparse storage.
+     */
+    private int[] keys;
+
+    /**
+     * The primitive value array. In dense storage indexed by position, in
+     * sparse storage parallel to {@link #keys}.
+     */
+    private Object values;
+
+    /**
+     * The length of the {@link #values} array.
+     */
+    private int capacity;
+
+    private EntrySet entrySet;
+
+    /**
+     * Creates an empty map with sparse storage.
+     */
+    public AbstractPositionMap() {
+        clear();
+    }
+
+    /**
+     * Creates a primitive array for the values of this map.
+     *
+     * @param length
+     *            The length of the array to create.
+     * @return The new primitive array.
+     */
+    protected abstract Object newValueArray(int length);
+
+    /**
+     * Returns the boxed value at the given slot of the given value array.
+     *
+     * @param valueArray
+     *            The primitive value array created via
+     *            {@link #newValueArray(int)}.
+     * @param slot
+     *            The slot in the array.
+     * @return The boxed value.
+     */
+    protected abstract V getValue(Object valueArray, int slot);
+
+    /**
+     * Sets the given value at the given slot of the given value array.
+     *
+     * @param valueArray
+     *            The primitive value array created via
+     *            {@link #newValueArray(int)}.
+     * @param slot
+     *            The slot in the array.
+     * @param value
+     *            The value to set.
+     */
+    protected abstract void setValue(Object valueArray, int slot, V value);
+
+    /**
+     *
+     * @return <code>true</code> if the values are currently stored in an array
+     *         that is indexed by position, <code>false</code> if they are
+     *         stored sparse.
+     */
+    public boolean isDense() {
+        return this.dense;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof Integer) && findSlot((Integer) key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key instanceof Integer) {
+            int slot = findSlot((Integer) key);
+            if (slot >= 0) {
+                return getValue(this.values, slot);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("null keys and values are not supported"); //$NON-NLS-1$
+        }
+        int position = key;
+
+        if (this.dense) {
+            if (position >= 0 && position < this.capacity && this.present.get(position)) {
+                V oldValue = getValue(this.values, position);
+                setValue(this.values, position, value);
+                return oldValue;
+            }
+            if (position < 0 || ((long) this.size + 1) * 2 < (long) position + 1) {
+                // the new position would make the dense storage too sparse
+                toSparse();
+            } else {
+                if (position >= this.capacity) {
+                    growValues(Math.max(position + 1, this.capacity * 2));
+                }
+                this.present.set(position);
+                setValue(this.values, position, value);
+                this.size++;
+                return null;
+            }
+        }
+
+        int index = Arrays.binarySearch(this.keys, 0, this.size, position);
+        if (index >= 0) {
+            V oldValue = getValue(this.values, index);
+            setValue(this.values, index, value);
+            return oldValue;
+        }
+
+        // appending in ascending order does not shift, out of order inserts
+        // shift all following entries
+        index = -(index + 1);
+        if (this.size == this.keys.length) {
+            int newCapacity = this.keys.length * 2;
+            this.keys = Arrays.copyOf(this.keys, newCapacity);
+            growValues(newCapacity);
+        }
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.keys[index] = position;
+        setValue(this.values, index, value);
+        this.size++;
+
+        if (this.size >= MIN_DENSE_SIZE
+                && this.keys[0] >= 0
+                && (long) this.size * 2 >= (long) this.keys[this.size - 1] + 1) {
+            toDense();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key instanceof Integer) {
+            int slot = findSlot((Integer) key);
+            if (slot >= 0) {
+                V oldValue = getValue(this.values, slot);
+                removeSlot(slot);
+                if (this.dense && this.capacity > MIN_DENSE_SIZE && this.size * 8 < this.capacity) {
+                    toSparse();
+                }
+                return oldValue;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        this.dense = false;
+        this.present = null;
+        this.keys = new int[INITIAL_CAPACITY];
+        this.values = newValueArray(INITIAL_CAPACITY);
+        this.capacity = INITIAL_CAPACITY;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    private int findSlot(int position) {
+        if (this.dense) {
+            return (position >= 0 && position < this.capacity && this.present.get(position)) ? position : -1;
+        }
+        int index = Arrays.binarySearch(this.keys, 0, this.size, position);
+        return index >= 0 ? index : -1;
+    }
+
+    private void removeSlot(int slot) {
+        if (this.dense) {
+            this.present.clear(slot);
+        } else {
+            int moved = this.size - slot - 1;
+            System.arraycopy(this.keys, slot + 1, this.keys, slot, moved);
+            System.arraycopy(this.values, slot + 1, this.values, slot, moved);
+        }
+        this.size--;
+    }
+
+    private void growValues(int newCapacity) {
+        Object newValues = newValueArray(newCapacity);
+        System.arraycopy(this.values, 0, newValues, 0, this.capacity);
+        this.values = newValues;
+        this.capacity = newCapacity;
+    }
+
+    private void toDense() {
+        int newCapacity = this.keys[this.size - 1] + 1;
+        BitSet newPresent = new BitSet(newCapacity);
+        Object newValues = newValueArray(newCapacity);
+        for (int i = 0; i < this.size; i++) {
+            int position = this.keys[i];
+            newPresent.set(position);
+            setValue(newValues, position, getValue(this.values, i));
+        }
+        this.present = newPresent;
+        this.values = newValues;
+        this.capacity = newCapacity;
+        this.keys = null;
+        this.dense = true;
+    }
+
+    private void toSparse() {
+        int newCapacity = Math.max(INITIAL_CAPACITY, this.size * 2);
+        int[] newKeys = new int[newCapacity];
+        Object newValues = newValueArray(newCapacity);
+        int index = 0;
+        for (int position = this.present.nextSetBit(0); position >= 0; position = this.present.nextSetBit(position + 1)) {
+            newKeys[index] = position;
+            setValue(newValues, index, getValue(this.values, position));
+            index++;
+        }
+        this.keys = newKeys;
+        this.values = newValues;
+        this.capacity = newCapacity;
+        this.present = null;
+        this.dense = false;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<Integer, V>> {
+
+        @Override
+        public Iterator<Map.Entry<Integer, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return AbstractPositionMap.this.size;
+        }
+
+        @Override
+        public void clear() {
+            AbstractPositionMap.this.clear();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+        /**
+         * The next slot to return, position in dense, index in sparse storage.
+         */
+        private int next;
+        private int last = -1;
+        private int returned = 0;
+
+        EntryIterator() {
+            this.next = AbstractPositionMap.this.dense ? AbstractPositionMap.this.present.nextSetBit(0) : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.returned < AbstractPositionMap.this.size;
+        }
+
+        @Override
+        public Map.Entry<Integer, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AbstractPositionMap<V> map = AbstractPositionMap.this;
+            Map.Entry<Integer, V> entry;
+            this.last = this.next;
+            if (map.dense) {
+                entry = new SimpleImmutableEntry<Integer, V>(this.next, getValue(map.values, this.next));
+                this.next = map.present.nextSetBit(this.next + 1);
+            } else {
+                entry = new SimpleImmutableEntry<Integer, V>(map.keys[this.next], getValue(map.values, this.next));
+                this.next++;
+            }
+            this.returned++;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            // remove without switching the storage to keep the iteration valid
+            removeSlot(this.last);
+            if (!AbstractPositionMap.this.dense) {
+                this.next--;
+            }
+            this.returned--;
+            this.last = -1;
+        }
+    }
+}
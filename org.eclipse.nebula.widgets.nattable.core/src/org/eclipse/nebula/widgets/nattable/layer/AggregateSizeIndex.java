@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+/**
+ * Index for the sizes of positions that differ from a default size. Used by
+ * {@link SizeConfig} to calculate aggregated sizes and to find a position by
+ * pixel value in O(log n) instead of iterating over all configured sizes.
+ * <p>
+ * The index is implemented via two Fenwick trees (binary indexed trees). One
+ * counts the positions that have a specific size configured, the other sums up
+ * those specific sizes. The aggregated size up to a position is then
+ * calculated by adding the default size for every position without a specific
+ * size. As the default size is not part of the index, changing the default
+ * size does not require any update of the index.
+ * </p>
+ * <p>
+ * The index only grows up to the highest position that has a specific size
+ * configured, which means the memory consumption is two <code>int</code>
+ * values per position up to that position.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class AggregateSizeIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Fenwick tree that counts the positions with a specific size. 1-based.
+     */
+    private int[] counts;
+
+    /**
+     * Fenwick tree that sums the specific sizes. 1-based.
+     */
+    private int[] sizes;
+
+    /**
+     * The number of positions that are covered by the Fenwick trees.
+     */
+    private int capacity;
+
+    /**
+     * Creates an empty {@link AggregateSizeIndex}.
+     */
+    public AggregateSizeIndex() {
+        clear();
+    }
+
+    /**
+     * Removes all specific sizes from this index.
+     */
+    public void clear() {
+        this.capacity = INITIAL_CAPACITY;
+        this.counts = new int[this.capacity + 1];
+        this.sizes = new int[this.capacity + 1];
+    }
+
+    /**
+     * Set a specific size for the given position.
+     *
+     * @param position
+     *            The position for which the size should be set.
+     * @param size
+     *            The size to set. Needs to be already scaled as the index does
+     *            not perform any scaling calculations.
+     */
+    public void setSize(int position, int size) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position < 0"); //$NON-NLS-1$
+        }
+        ensureCapacity(position + 1);
+        int i = position + 1;
+        add(this.counts, i, 1 - pointValue(this.counts, i));
+        add(this.sizes, i, size - pointValue(this.sizes, i));
+    }
+
+    /**
+     * Removes the specific size for the given position, so the default size
+     * will be used for that position again.
+     *
+     * @param position
+     *            The position for which the specific size should be removed.
+     */
+    public void removeSize(int position) {
+        if (position >= 0 && position < this.capacity) {
+            int i = position + 1;
+            add(this.counts, i, -pointValue(this.counts, i));
+            add(this.sizes, i, -pointValue(this.sizes, i));
+        }
+    }
+
+    /**
+     * Returns the aggregated size of all positions before the given position.
+     *
+     * @param position
+     *            The position up to which the sizes should be aggregated
+     *            (exclusive).
+     * @param defaultSize
+     *            The size of positions without a specific size.
+     * @return The aggregated size of all positions before the given position.
+     */
+    public int getAggregateSize(int position, int defaultSize) {
+        if (position <= 0) {
+            return 0;
+        }
+        int n = Math.min(position, this.capacity);
+        long result = (long) (position - prefixSum(this.counts, n)) * defaultSize + prefixSum(this.sizes, n);
+        return (int) result;
+    }
+
+    /**
+     * Returns the position that contains the given pixel value, which means the
+     * position whose aggregated start size is less than or equal to the given
+     * value and whose end is greater than the given value.
+     *
+     * @param pixel
+     *            The pixel value for which the position is requested. Needs to
+     *            be greater than or equal to 0.
+     * @param defaultSize
+     *            The size of positions without a specific size.
+     * @return The position that contains the given pixel value.
+     */
+    public int getPosition(int pixel, int defaultSize) {
+        // binary lifting on the Fenwick trees, the aggregated size is monotonic
+        // as sizes can not be negative
+        int position = 0;
+        int count = 0;
+        long size = 0;
+        for (int step = Integer.highestOneBit(this.capacity); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= this.capacity) {
+                int nextCount = count + this.counts[next];
+                long nextSize = size + this.sizes[next];
+                if ((long) (next - nextCount) * defaultSize + nextSize <= pixel) {
+                    position = next;
+                    count = nextCount;
+                    size = nextSize;
+                }
+            }
+        }
+
+        if (position == this.capacity && defaultSize > 0) {
+            // all remaining positions have the default size
+            long aggregate = (long) (position - count) * defaultSize + size;
+            position += (int) ((pixel - aggregate) / defaultSize);
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > this.capacity) {
+            int newCapacity = Math.max(minCapacity, this.capacity * 2);
+            this.counts = grow(this.counts, this.capacity, newCapacity);
+            this.sizes = grow(this.sizes, this.capacity, newCapacity);
+            this.capacity = newCapacity;
+        }
+    }
+
+    private static int[] grow(int[] tree, int oldCapacity, int newCapacity) {
+        // convert the tree back to point values in O(n)
+        for (int i = oldCapacity; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent <= oldCapacity) {
+                tree[parent] -= tree[i];
+            }
+        }
+
+        int[] result = new int[newCapacity + 1];
+        System.arraycopy(tree, 1, result, 1, oldCapacity);
+
+        // build the tree for the new capacity in O(n)
+        for (int i = 1; i <= newCapacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= newCapacity) {
+                result[parent] += result[i];
+            }
+        }
+        return result;
+    }
+
+    private static void add(int[] tree, int i, int delta) {
+        if (delta != 0) {
+            for (; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    private static int prefixSum(int[] tree, int i) {
+        int sum = 0;
+        for (; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static int pointValue(int[] tree, int i) {
+        return prefixSum(tree, i) - prefixSum(tree, i - 1);
+    }
+
+}
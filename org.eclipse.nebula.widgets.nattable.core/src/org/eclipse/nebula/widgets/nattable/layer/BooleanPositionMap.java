@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+/**
+ * {@link AbstractPositionMap} that stores boolean values in a
+ * <code>boolean[]</code>.
+ *
+ * @since 2.0
+ */
+public class BooleanPositionMap extends AbstractPositionMap<Boolean> {
+
+    @Override
+    protected Object newValueArray(int length) {
+        return new boolean[length];
+    }
+
+    @Override
+    protected Boolean getValue(Object valueArray, int slot) {
+        return ((boolean[]) valueArray)[slot];
+    }
+
+    @Override
+    protected void setValue(Object valueArray, int slot, Boolean value) {
+        ((boolean[]) valueArray)[slot] = value;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,13 +72,55 @@ public DataLayer(IDataProvider dataProvider, int defaultColumnWidth, int default
         setDataProvider(dataProvider);
     }
 
+    /**
+     * Creates a {@link DataLayer} whose column width and row height
+     * configurations optionally store the position based size configurations
+     * in primitive arrays. This reduces the memory consumption for huge tables,
+     * e.g. if the row heights of millions of rows are configured via
+     * auto-sizing.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used.
+     * @param defaultColumnWidth
+     *            The default column width.
+     * @param defaultRowHeight
+     *            The default row height.
+     * @param primitiveSizeStorage
+     *            <code>true</code> if the {@link SizeConfig}s should use
+     *            primitive storage, <code>false</code> if not.
+     *
+     * @see SizeConfig#SizeConfig(int, boolean)
+     * @since 2.0
+     */
+    public DataLayer(IDataProvider dataProvider, int defaultColumnWidth, int defaultRowHeight, boolean primitiveSizeStorage) {
+
+        this(defaultColumnWidth, defaultRowHeight, primitiveSizeStorage);
+
+        setDataProvider(dataProvider);
+    }
+
     protected DataLayer() {
         this(DEFAULT_COLUMN_WIDTH, DEFAULT_ROW_HEIGHT);
     }
 
     protected DataLayer(int defaultColumnWidth, int defaultRowHeight) {
-        this.columnWidthConfig = new SizeConfig(defaultColumnWidth);
-        this.rowHeightConfig = new SizeConfig(defaultRowHeight);
+        this(defaultColumnWidth, defaultRowHeight, false);
+    }
+
+    /**
+     *
+     * @param defaultColumnWidth
+     *            The default column width.
+     * @param defaultRowHeight
+     *            The default row height.
+     * @param primitiveSizeStorage
+     *            <code>true</code> if the {@link SizeConfig}s should use
+     *            primitive storage, <code>false</code> if not.
+     * @since 2.0
+     */
+    protected DataLayer(int defaultColumnWidth, int defaultRowHeight, boolean primitiveSizeStorage) {
+        this.columnWidthConfig = new SizeConfig(defaultColumnWidth, primitiveSizeStorage);
+        this.rowHeightConfig = new SizeConfig(defaultRowHeight, primitiveSizeStorage);
 
         registerCommandHandlers();
     }
@@ -492,11 +534,23 @@ public void setDataValueByPosition(int columnPosition, int rowPosition, Object n
 
     @Override
     public int getColumnPositionByX(int x) {
+        if (this.columnWidthConfig.isAggregateSizeIndexed()) {
+            if (x < 0 || x >= getWidth()) {
+                return -1;
+            }
+            return this.columnWidthConfig.getPositionByAggregateSize(x);
+        }
         return LayerUtil.getColumnPositionByX(this, x);
     }
 
     @Override
     public int getRowPositionByY(int y) {
+        if (this.rowHeightConfig.isAggregateSizeIndexed()) {
+            if (y < 0 || y >= getHeight()) {
+                return -1;
+            }
+            return this.rowHeightConfig.getPositionByAggregateSize(y);
+        }
         return LayerUtil.getRowPositionByY(this, y);
     }
 
@@ -670,6 +724,38 @@ public void setRowPercentageSizing(int position, boolean percentageSizing) {
         this.rowHeightConfig.setPercentageSizing(position, percentageSizing);
     }
 
+    /**
+     * Enable or disable the indexed mode for column widths. In indexed mode
+     * the start x coordinate of a column and the column position for a x
+     * coordinate are calculated in O(log n) via an {@link AggregateSizeIndex},
+     * which is recommended for a huge number of columns with custom widths.
+     *
+     * @param indexed
+     *            <code>true</code> to enable the indexed mode for column
+     *            widths, <code>false</code> to disable it.
+     * @see SizeConfig#setAggregateSizeIndexed(boolean)
+     * @since 2.0
+     */
+    public void setColumnWidthIndexed(boolean indexed) {
+        this.columnWidthConfig.setAggregateSizeIndexed(indexed);
+    }
+
+    /**
+     * Enable or disable the indexed mode for row heights. In indexed mode the
+     * start y coordinate of a row and the row position for a y coordinate are
+     * calculated in O(log n) via an {@link AggregateSizeIndex}, which is
+     * recommended for a huge number of rows with custom heights.
+     *
+     * @param indexed
+     *            <code>true</code> to enable the indexed mode for row heights,
+     *            <code>false</code> to disable it.
+     * @see SizeConfig#setAggregateSizeIndexed(boolean)
+     * @since 2.0
+     */
+    public void setRowHeightIndexed(boolean indexed) {
+        this.rowHeightConfig.setAggregateSizeIndexed(indexed);
+    }
+
     /**
      * This method will reset all column width customizations, e.g. set column
      * widths and whether columns can be resizable.
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+/**
+ * {@link AbstractPositionMap} that stores integer values in an
+ * <code>int[]</code>.
+ *
+ * @since 2.0
+ */
+public class IntPositionMap extends AbstractPositionMap<Integer> {
+
+    @Override
+    protected Object newValueArray(int length) {
+        return new int[length];
+    }
+
+    @Override
+    protected Integer getValue(Object valueArray, int slot) {
+        return ((int[]) valueArray)[slot];
+    }
+
+    @Override
+    protected void setValue(Object valueArray, int slot, Integer value) {
+        ((int[]) valueArray)[slot] = value;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,21 +10,53 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.layer;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LabelStack {
 
     /**
-     * List implementation saves the overhead of popping labels off in the
-     * {@link #getLabels()} method
+     * The maximum number of label combinations that are kept by
+     * {@link #intern(List)}. If the maximum is exceeded, the pool is cleared.
      */
-    private final List<String> labels = new LinkedList<String>();
+    private static final int MAX_INTERNED = 4096;
+
+    private static final String[] EMPTY = new String[0];
+
+    private static final Map<List<String>, List<String>> INTERNED = new ConcurrentHashMap<List<String>, List<String>>();
+
+    /**
+     * The labels of this stack, top of the stack first. The array is shared
+     * with a {@link InternedLabels} instance until the stack is modified.
+     */
+    private String[] labels = EMPTY;
+    private int size;
+
+    /**
+     * Flag to indicate that {@link #labels} is shared with an interned label
+     * list and needs to be copied before modification.
+     */
+    private boolean shared;
+
+    /**
+     * The canonical label list of the current state, cleared on modification.
+     */
+    private List<String> interned;
+
+    /**
+     * The live list view returned by {@link #getLabels()}.
+     */
+    private LabelList labelList;
 
     public LabelStack(String... labelNames) {
         for (String label : labelNames) {
             if (label != null) {
-                this.labels.add(label);
+                insert(this.size, label);
             }
         }
     }
@@ -36,7 +68,7 @@ public LabelStack(String... labelNames) {
      */
     public void addLabel(String label) {
         if (!hasLabel(label)) {
-            this.labels.add(label);
+            insert(this.size, label);
         }
     }
 
@@ -47,25 +79,105 @@ public void addLabel(String label) {
      */
     public void addLabelOnTop(String label) {
         if (!hasLabel(label)) {
-            this.labels.add(0, label);
+            insert(0, label);
         }
     }
 
+    /**
+     * Returns a modifiable view of the labels of this stack. Modifications of
+     * the returned list are reflected in this stack and vice versa.
+     *
+     * @return The labels of this stack, top of the stack first.
+     */
     public List<String> getLabels() {
-        return this.labels;
+        if (this.labelList == null) {
+            this.labelList = new LabelList();
+        }
+        return this.labelList;
+    }
+
+    /**
+     * Returns the canonical unmodifiable list for the current labels of this
+     * stack. Stacks with the same labels in the same order return the same
+     * instance, which makes the result suitable as key for caches that use the
+     * labels, e.g. the resolution cache of the
+     * {@link org.eclipse.nebula.widgets.nattable.config.ConfigRegistry}.
+     *
+     * @return The canonical list for the current labels of this stack.
+     * @since 2.0
+     */
+    public List<String> getInternedLabels() {
+        if (this.interned == null) {
+            this.interned = intern(getLabels());
+            if (this.interned instanceof InternedLabels) {
+                // share the array to avoid a copy, copy on next modification
+                this.labels = ((InternedLabels) this.interned).labels;
+                this.shared = true;
+            }
+        }
+        return this.interned;
     }
 
     public boolean hasLabel(String label) {
-        return this.labels.contains(label);
+        return indexOf(label) >= 0;
     }
 
     public boolean removeLabel(String label) {
-        return this.labels.remove(label);
+        int index = indexOf(label);
+        if (index >= 0) {
+            delete(index);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @return The number of labels in this stack.
+     * @since 2.0
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private int indexOf(Object label) {
+        String[] values = this.labels;
+        for (int i = 0; i < this.size; i++) {
+            String value = values[i];
+            if (value == label || (value != null && value.equals(label))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void prepareModification(int minCapacity) {
+        if (this.shared || minCapacity > this.labels.length) {
+            int capacity = Math.max(minCapacity, this.shared ? this.labels.length : this.labels.length * 2);
+            this.labels = Arrays.copyOf(this.labels, Math.max(capacity, 4));
+            this.shared = false;
+        }
+        this.interned = null;
+    }
+
+    private void insert(int index, String label) {
+        prepareModification(this.size + 1);
+        System.arraycopy(this.labels, index, this.labels, index + 1, this.size - index);
+        this.labels[index] = label;
+        this.size++;
+    }
+
+    private String delete(int index) {
+        prepareModification(this.size);
+        String old = this.labels[index];
+        System.arraycopy(this.labels, index + 1, this.labels, index, this.size - index - 1);
+        this.labels[--this.size] = null;
+        return old;
     }
 
     @Override
     public String toString() {
-        return this.labels.toString();
+        return getLabels().toString();
     }
 
     @Override
@@ -80,12 +192,139 @@ public boolean equals(Object obj) {
 
         LabelStack that = (LabelStack) obj;
 
-        return this.labels.equals(that.labels);
+        return getLabels().equals(that.getLabels());
     }
 
     @Override
     public int hashCode() {
-        return this.labels.hashCode();
+        return getLabels().hashCode();
     }
 
+    /**
+     * Returns the canonical unmodifiable list for the given labels. Lists with
+     * the same labels in the same order return the same instance. The number
+     * of kept combinations is bounded, so there might be several instances for
+     * the same labels over time, which is fine for the purpose of reducing the
+     * memory consumption and speeding up cache lookups.
+     *
+     * @param labels
+     *            The labels to intern.
+     * @return The canonical unmodifiable list for the given labels.
+     * @since 2.0
+     */
+    public static List<String> intern(List<String> labels) {
+        if (labels instanceof InternedLabels) {
+            return labels;
+        }
+        if (labels.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = INTERNED.get(labels);
+        if (result == null) {
+            if (INTERNED.size() >= MAX_INTERNED) {
+                INTERNED.clear();
+            }
+            result = new InternedLabels(labels.toArray(new String[labels.size()]));
+            List<String> existing = INTERNED.putIfAbsent(result, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Live list view on the labels of the enclosing stack.
+     */
+    private final class LabelList extends AbstractList<String> implements RandomAccess {
+
+        @Override
+        public String get(int index) {
+            if (index >= LabelStack.this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + LabelStack.this.size); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            return LabelStack.this.labels[index];
+        }
+
+        @Override
+        public int size() {
+            return LabelStack.this.size;
+        }
+
+        @Override
+        public String set(int index, String element) {
+            String old = get(index);
+            prepareModification(LabelStack.this.size);
+            LabelStack.this.labels[index] = element;
+            return old;
+        }
+
+        @Override
+        public void add(int index, String element) {
+            if (index < 0 || index > LabelStack.this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + LabelStack.this.size); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            insert(index, element);
+            this.modCount++;
+        }
+
+        @Override
+        public String remove(int index) {
+            get(index);
+            this.modCount++;
+            return delete(index);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return LabelStack.this.indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return LabelStack.this.indexOf(o) >= 0;
+        }
+    }
+
+    /**
+     * Immutable label list with a precalculated hash code that is returned by
+     * {@link LabelStack#intern(List)}.
+     */
+    private static final class InternedLabels extends AbstractList<String> implements RandomAccess {
+
+        private final String[] labels;
+        private final int hash;
+
+        InternedLabels(String[] labels) {
+            this.labels = labels;
+            this.hash = Arrays.hashCode(labels);
+        }
+
+        @Override
+        public String get(int index) {
+            return this.labels[index];
+        }
+
+        @Override
+        public int size() {
+            return this.labels.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o instanceof InternedLabels) {
+                InternedLabels other = (InternedLabels) o;
+                return this.hash == other.hash && Arrays.equals(this.labels, other.labels);
+            }
+            return super.equals(o);
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,15 +72,15 @@ public class SizeConfig implements IPersistable {
     /**
      * Map that contains default sizes per column.
      */
-    protected final Map<Integer, Integer> defaultSizeMap = new TreeMap<Integer, Integer>();
+    protected final Map<Integer, Integer> defaultSizeMap;
     /**
      * Map that contains sizes per column.
      */
-    protected final Map<Integer, Integer> sizeMap = new TreeMap<Integer, Integer>();
+    protected final Map<Integer, Integer> sizeMap;
     /**
      * Map that contains the resizable information per row/column.
      */
-    protected final Map<Integer, Boolean> resizablesMap = new TreeMap<Integer, Boolean>();
+    protected final Map<Integer, Boolean> resizablesMap;
     /**
      * The global resizable information of this {@link SizeConfig}.
      */
@@ -90,11 +90,11 @@ public class SizeConfig implements IPersistable {
      *
      * @since 1.6
      */
-    protected final Map<Integer, Double> percentageSizeMap = new TreeMap<Integer, Double>();
+    protected final Map<Integer, Double> percentageSizeMap;
     /**
      * Map that contains the percentage sizing information per row/column.
      */
-    protected final Map<Integer, Boolean> percentageSizingMap = new TreeMap<Integer, Boolean>();
+    protected final Map<Integer, Boolean> percentageSizingMap;
     /**
      * Flag to tell whether the sizing is done for pixel or percentage values.
      */
@@ -107,7 +107,7 @@ public class SizeConfig implements IPersistable {
      * Map that contains the real pixel size. Will only be used on percentage
      * sizing. This map is not persisted as it will be calculated on resize.
      */
-    protected final Map<Integer, Integer> realSizeMap = new TreeMap<Integer, Integer>();
+    protected final Map<Integer, Integer> realSizeMap;
     /**
      * Map that contains the cached aggregated sizes.
      */
@@ -145,7 +145,7 @@ public class SizeConfig implements IPersistable {
      *
      * @since 1.6
      */
-    private final Map<Integer, Integer> minSizeMap = new TreeMap<Integer, Integer>();
+    private final Map<Integer, Integer> minSizeMap;
     /**
      * Flag to configure whether dynamic percentage sized positions should be
      * fixed on any resize or not. This means, if positions are configured for
@@ -164,6 +164,24 @@ public class SizeConfig implements IPersistable {
      * @since 1.6
      */
     private boolean fixPercentageValuesOnResize = true;
+    /**
+     * Index that is used to calculate aggregated sizes and positions by pixel
+     * value in O(log n). Only set if the indexed mode is enabled.
+     *
+     * @see #setAggregateSizeIndexed(boolean)
+     * @since 2.0
+     */
+    protected AggregateSizeIndex aggregateSizeIndex;
+    /**
+     * Flag that indicates if the {@link AggregateSizeIndex} is in sync with the
+     * size configuration or if it needs to be rebuilt on next access.
+     */
+    private boolean isAggregateSizeIndexValid = false;
+    /**
+     * Flag that indicates if the {@link AggregateSizeIndex} was built from the
+     * real pixel sizes of percentage sizing or from the configured sizes.
+     */
+    private boolean isAggregateSizeIndexPercentage = false;
 
     /**
      * Create a new {@link SizeConfig} with the given default size.
@@ -172,7 +190,60 @@ public class SizeConfig implements IPersistable {
      *            The default size to use.
      */
     public SizeConfig(int defaultSize) {
+        this(defaultSize, false);
+    }
+
+    /**
+     * Create a new {@link SizeConfig} with the given default size and the
+     * given storage type for the position based configurations.
+     * <p>
+     * Using the primitive storage reduces the memory consumption for huge
+     * tables with a lot of position based configurations, e.g. on auto-sizing
+     * millions of rows. The values are then stored in primitive arrays that
+     * are either indexed by position or sparse, dependent on the fill ratio.
+     * The persisted state is the same for both storage types.
+     * </p>
+     *
+     * @param defaultSize
+     *            The default size to use.
+     * @param primitiveStorage
+     *            <code>true</code> if the position based configurations should
+     *            be stored in primitive arrays, <code>false</code> if they
+     *            should be stored in {@link TreeMap}s.
+     *
+     * @see AbstractPositionMap
+     * @since 2.0
+     */
+    public SizeConfig(int defaultSize, boolean primitiveStorage) {
         this.defaultSize = defaultSize;
+        if (primitiveStorage) {
+            this.defaultSizeMap = new IntPositionMap();
+            this.sizeMap = new IntPositionMap();
+            this.resizablesMap = new BooleanPositionMap();
+            this.percentageSizeMap = new DoublePositionMap();
+            this.percentageSizingMap = new BooleanPositionMap();
+            this.realSizeMap = new IntPositionMap();
+            this.minSizeMap = new IntPositionMap();
+        } else {
+            this.defaultSizeMap = new TreeMap<Integer, Integer>();
+            this.sizeMap = new TreeMap<Integer, Integer>();
+            this.resizablesMap = new TreeMap<Integer, Boolean>();
+            this.percentageSizeMap = new TreeMap<Integer, Double>();
+            this.percentageSizingMap = new TreeMap<Integer, Boolean>();
+            this.realSizeMap = new TreeMap<Integer, Integer>();
+            this.minSizeMap = new TreeMap<Integer, Integer>();
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the position based configurations are
+     *         stored in primitive arrays, <code>false</code> if they are stored
+     *         in {@link TreeMap}s.
+     * @since 2.0
+     */
+    public boolean isPrimitiveStorage() {
+        return this.sizeMap instanceof AbstractPositionMap;
     }
 
     // Persistence
@@ -220,6 +291,7 @@ public void loadState(String prefix, Properties properties) {
         this.percentageSizing = false;
         this.distributeRemainingSpace = false;
         this.isAggregatedSizeCacheValid = false;
+        this.isAggregateSizeIndexValid = false;
         this.defaultMinSize = 0;
 
         String persistedDefaultSize = properties.getProperty(prefix + PERSISTENCE_KEY_DEFAULT_SIZE);
@@ -332,6 +404,7 @@ public void setDefaultSize(int position, int size) {
         }
         this.defaultSizeMap.put(position, size);
         this.isAggregatedSizeCacheValid = false;
+        updateAggregateSizeIndex(position);
     }
 
     private int getDefaultSize(int position) {
@@ -355,6 +428,8 @@ public int getAggregateSize(int position) {
             // as percentage values and not as pixel values, therefore another
             // value needs to be considered
             return position * upScale(this.defaultSize);
+        } else if (this.aggregateSizeIndex != null) {
+            return getAggregateSizeIndex().getAggregateSize(position, upScale(this.defaultSize));
         } else {
             // See if the cache is valid, if not clear it.
             if (!this.isAggregatedSizeCacheValid) {
@@ -515,6 +590,7 @@ public void setSize(int position, int size) {
                 Integer oldValue = this.sizeMap.get(position);
                 int diff = (oldValue != null) ? size - oldValue : size - getDefaultSize(position);
                 this.sizeMap.put(position, size);
+                updateAggregateSizeIndex(position);
 
                 // if percentage sizing is enabled and percentage values should
                 // be fixed on resize, we recalculate percentages to the left
@@ -747,7 +823,7 @@ public void setPercentage(int position, double percentage) {
         if (isPositionResizable(position)) {
             this.percentageSizingMap.put(position, Boolean.TRUE);
             this.percentageSizeMap.put(position, percentage);
-            this.realSizeMap.put(position, calculatePercentageValue(percentage, this.availableSpace));
+            putRealSize(position, calculatePercentageValue(percentage, this.availableSpace));
             calculatePercentages(this.availableSpace, this.realSizeMap.size());
         }
     }
@@ -938,12 +1014,12 @@ public void calculatePercentages(int space, int positionCount) {
                     }
                     fixedPercentagePositions.add(i);
                     realSum += real;
-                    this.realSizeMap.put(i, real);
+                    putRealSize(i, real);
                 } else if (positionValue != null) {
                     real = upScale(positionValue);
                     fixedSum += real;
                     realSum += real;
-                    this.realSizeMap.put(i, real);
+                    putRealSize(i, real);
                 }
             }
 
@@ -975,7 +1051,7 @@ public void calculatePercentages(int space, int positionCount) {
                     int newValue = this.realSizeMap.get(pos) - dist;
                     newValue = (newValue > 0) ? newValue : 0;
                     realSum -= (this.realSizeMap.get(pos) - newValue);
-                    this.realSizeMap.put(pos, newValue);
+                    putRealSize(pos, newValue);
                 }
                 // update the sum to contain also the min size using position
                 // values
@@ -995,7 +1071,7 @@ public void calculatePercentages(int space, int positionCount) {
                         // a configured min size is bigger than the remaining
                         // space so treat the min size like a fixed value
                         realSum += minSize;
-                        this.realSizeMap.put(position, minSize);
+                        putRealSize(position, minSize);
                         it.remove();
                     }
                 }
@@ -1019,7 +1095,7 @@ public void calculatePercentages(int space, int positionCount) {
                         int newValue = this.realSizeMap.get(pos) - dist;
                         newValue = (newValue > 0) ? newValue : 0;
                         realSum -= (this.realSizeMap.get(pos) - newValue);
-                        this.realSizeMap.put(pos, newValue);
+                        putRealSize(pos, newValue);
                     }
                 }
             }
@@ -1031,7 +1107,7 @@ public void calculatePercentages(int space, int positionCount) {
                 for (Integer position : noInfoPositions) {
                     sum += (remainingColSpace / space) * 100;
                     int minSize = getMinSize(position);
-                    this.realSizeMap.put(position, remainingColSpace < minSize ? minSize : remainingColSpace.intValue());
+                    putRealSize(position, remainingColSpace < minSize ? minSize : remainingColSpace.intValue());
                 }
 
                 // If there are positions for which no size information exist,
@@ -1061,7 +1137,7 @@ public void calculatePercentages(int space, int positionCount) {
                             Double percentage = this.percentageSizeMap.get(pos);
                             double ratio = percentage / eligibleSum;
                             int dist = (int) (remaining * ratio);
-                            this.realSizeMap.put(pos, this.realSizeMap.get(pos) + dist);
+                            putRealSize(pos, this.realSizeMap.get(pos) + dist);
                         }
                     }
                     sum = 100;
@@ -1100,7 +1176,7 @@ public void calculatePercentages(int space, int positionCount) {
                         }
 
                         if (posValue != null) {
-                            this.realSizeMap.put(pos, posValue + 1);
+                            putRealSize(pos, posValue + 1);
                             pos++;
                         }
                     }
@@ -1239,7 +1315,7 @@ protected int[] correctPercentageValues(double sum, int positionCount) {
                 newPercentageSum += newPercentage;
 
                 realSum += newValue;
-                this.realSizeMap.put(mod.getKey(), newValue);
+                putRealSize(mod.getKey(), newValue);
             }
 
             // if there are no excessPixels but the sum is greater than 100, we
@@ -1294,6 +1370,23 @@ private int calculateAggregatedSize(int position) {
         return result;
     }
 
+    /**
+     * Sets the real pixel size for the given position that is calculated for
+     * percentage sizing. Updates the {@link AggregateSizeIndex} if the value
+     * changed.
+     *
+     * @param position
+     *            The position for which the real size should be set.
+     * @param size
+     *            The calculated real pixel size.
+     */
+    private void putRealSize(int position, int size) {
+        Integer oldValue = this.realSizeMap.put(position, size);
+        if (oldValue == null || oldValue.intValue() != size) {
+            updateAggregateSizeIndex(position);
+        }
+    }
+
     private int correctExtend(int extend, List<Integer> fixedPercentagePositions) {
         int remainingExtend = extend;
         double eligibleSum = 0;
@@ -1317,13 +1410,160 @@ private int correctExtend(int extend, List<Integer> fixedPercentagePositions) {
                     newValue = 0;
                     dist = oldValue;
                 }
-                this.realSizeMap.put(pos, newValue);
+                putRealSize(pos, newValue);
                 remainingExtend -= dist;
             }
         }
         return remainingExtend;
     }
 
+    /**
+     * Returns the {@link AggregateSizeIndex} and rebuilds it if it is not in
+     * sync with the current size configuration anymore.
+     *
+     * @return The {@link AggregateSizeIndex} that reflects the current size
+     *         configuration.
+     */
+    private AggregateSizeIndex getAggregateSizeIndex() {
+        boolean percentageSizing = isPercentageSizing();
+        if (!this.isAggregateSizeIndexValid || this.isAggregateSizeIndexPercentage != percentageSizing) {
+            this.aggregateSizeIndex.clear();
+            this.isAggregateSizeIndexPercentage = percentageSizing;
+            this.isAggregateSizeIndexValid = true;
+
+            Map<Integer, Integer> mapToUse = percentageSizing ? this.realSizeMap : this.sizeMap;
+            for (Map.Entry<Integer, Integer> entry : mapToUse.entrySet()) {
+                int size = entry.getValue();
+                this.aggregateSizeIndex.setSize(entry.getKey(), percentageSizing ? size : upScale(size));
+            }
+            for (Map.Entry<Integer, Integer> entry : this.defaultSizeMap.entrySet()) {
+                if (!mapToUse.containsKey(entry.getKey())) {
+                    this.aggregateSizeIndex.setSize(entry.getKey(), upScale(entry.getValue()));
+                }
+            }
+        }
+        return this.aggregateSizeIndex;
+    }
+
+    /**
+     * Updates the {@link AggregateSizeIndex} for the given position if the
+     * indexed mode is enabled. If the index was built for a different sizing
+     * mode, it is marked to be rebuilt on next access.
+     *
+     * @param position
+     *            The position whose size configuration changed.
+     */
+    private void updateAggregateSizeIndex(int position) {
+        if (this.aggregateSizeIndex == null || !this.isAggregateSizeIndexValid) {
+            return;
+        }
+        if (this.isAggregateSizeIndexPercentage != isPercentageSizing()) {
+            this.isAggregateSizeIndexValid = false;
+            return;
+        }
+
+        Integer size = this.isAggregateSizeIndexPercentage ? this.realSizeMap.get(position) : this.sizeMap.get(position);
+        if (size != null) {
+            this.aggregateSizeIndex.setSize(position, this.isAggregateSizeIndexPercentage ? size : upScale(size));
+        } else {
+            Integer defaultPositionSize = this.defaultSizeMap.get(position);
+            if (defaultPositionSize != null) {
+                this.aggregateSizeIndex.setSize(position, upScale(defaultPositionSize));
+            } else {
+                this.aggregateSizeIndex.removeSize(position);
+            }
+        }
+    }
+
+    /**
+     * Enable or disable the indexed mode for aggregated size calculations. In
+     * indexed mode the sizes that differ from the default size are tracked in
+     * an {@link AggregateSizeIndex}, which makes
+     * {@link #getAggregateSize(int)} and
+     * {@link #getPositionByAggregateSize(int)} O(log n) operations that do not
+     * need to iterate over the configured sizes or cache intermediate results.
+     * The index is updated incrementally on size changes. It is recommended
+     * to enable the indexed mode for huge tables with many individually sized
+     * positions.
+     *
+     * @param indexed
+     *            <code>true</code> to enable the indexed mode,
+     *            <code>false</code> to use the default aggregated size cache.
+     * @since 2.0
+     */
+    public void setAggregateSizeIndexed(boolean indexed) {
+        if (indexed && this.aggregateSizeIndex == null) {
+            this.aggregateSizeIndex = new AggregateSizeIndex();
+            this.isAggregateSizeIndexValid = false;
+        } else if (!indexed) {
+            this.aggregateSizeIndex = null;
+            this.isAggregatedSizeCacheValid = false;
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the indexed mode for aggregated size
+     *         calculations is enabled, <code>false</code> if not.
+     * @see #setAggregateSizeIndexed(boolean)
+     * @since 2.0
+     */
+    public boolean isAggregateSizeIndexed() {
+        return this.aggregateSizeIndex != null;
+    }
+
+    /**
+     * Returns the position that contains the given aggregated size, e.g. the
+     * row position that contains a y coordinate. That is the position whose
+     * aggregated size is less than or equal to the given value and whose
+     * aggregated size plus its own size is greater than the given value. The
+     * number of positions is not known to the {@link SizeConfig}, so callers
+     * need to check the bounds of the result.
+     * <p>
+     * In indexed mode the position is calculated in O(log n), otherwise a
+     * binary search via {@link #getAggregateSize(int)} is performed.
+     * </p>
+     *
+     * @param aggregateSize
+     *            The aggregated size, e.g. a pixel coordinate, for which the
+     *            position is requested.
+     * @return The position that contains the given aggregated size or -1 if
+     *         the given value is negative.
+     * @since 2.0
+     */
+    public int getPositionByAggregateSize(int aggregateSize) {
+        if (aggregateSize < 0) {
+            return -1;
+        }
+        int defaultPositionSize = upScale(this.defaultSize);
+        if (isAllPositionsSameSize() && !isPercentageSizing()) {
+            return defaultPositionSize > 0 ? aggregateSize / defaultPositionSize : 0;
+        } else if (this.aggregateSizeIndex != null) {
+            return getAggregateSizeIndex().getPosition(aggregateSize, defaultPositionSize);
+        }
+
+        // search for the upper bound, then perform a binary search on the
+        // aggregated sizes
+        int low = 0;
+        int high = 1;
+        while (getAggregateSize(high) <= aggregateSize) {
+            low = high;
+            if (high > Integer.MAX_VALUE / 2) {
+                return high;
+            }
+            high *= 2;
+        }
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (getAggregateSize(mid) <= aggregateSize) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Recalculate the percentage values for the given amount of columns. Needed
      * for structural changes that aren't caused by a client are resize, e.g.
@@ -1387,6 +1627,14 @@ public int downScale(int value) {
     public void setDpiConverter(IDpiConverter dpiConverter) {
         this.dpiConverter = dpiConverter;
         this.isAggregatedSizeCacheValid = false;
+        // only the configured sizes need to be re-scaled in the index, the
+        // default size is scaled on access
+        for (Integer position : this.sizeMap.keySet()) {
+            updateAggregateSizeIndex(position);
+        }
+        for (Integer position : this.defaultSizeMap.keySet()) {
+            updateAggregateSizeIndex(position);
+        }
     }
 
     /**
@@ -1403,6 +1651,7 @@ public void reset() {
         this.realSizeMap.clear();
         this.aggregatedSizeCacheMap.clear();
         this.minSizeMap.clear();
+        this.isAggregateSizeIndexValid = false;
     }
 
     /**
@@ -1418,6 +1667,7 @@ public void resetConfiguredSize(int position) {
         this.sizeMap.remove(position);
         this.percentageSizeMap.remove(position);
         this.isAggregatedSizeCacheValid = false;
+        updateAggregateSizeIndex(position);
         calculatePercentages(this.availableSpace, this.realSizeMap.size());
     }
 
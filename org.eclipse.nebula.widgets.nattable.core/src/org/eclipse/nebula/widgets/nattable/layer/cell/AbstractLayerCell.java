@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Edwin Park and others.
+ * Copyright (c) 2012, 2020 Edwin Park and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,21 @@ public abstract class AbstractLayerCell implements ILayerCell {
     private boolean isBoundsCached = false;
     private Rectangle bounds = null;
 
+    /**
+     * Resets the cached display mode, config labels, data value and bounds.
+     * Needed if a cell instance is reused by the {@link LayerCellPool}.
+     */
+    void clearCachedValues() {
+        this.isDisplayModeCached = false;
+        this.displayMode = null;
+        this.isConfigLabelsCached = false;
+        this.configLabels = null;
+        this.isDataValueCached = false;
+        this.dataValue = null;
+        this.isBoundsCached = false;
+        this.bounds = null;
+    }
+
     @Override
     public boolean isSpannedCell() {
         return getColumnSpan() > 1 || getRowSpan() > 1;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,6 +51,30 @@ public LayerCell(ILayer layer, int originColumnPosition,
         this.rowSpan = rowSpan;
     }
 
+    /**
+     * Reinitializes this cell for the given layer and positions. Used by the
+     * {@link LayerCellPool} to reuse cell instances.
+     */
+    void reset(ILayer layer, int columnPosition, int rowPosition) {
+        clearCachedValues();
+        this.layer = layer;
+        this.originColumnPosition = columnPosition;
+        this.originRowPosition = rowPosition;
+        this.columnPosition = columnPosition;
+        this.rowPosition = rowPosition;
+        this.columnSpan = 1;
+        this.rowSpan = 1;
+    }
+
+    /**
+     * Removes the references to the layer, so a pooled cell does not keep a
+     * layer stack alive.
+     */
+    void release() {
+        clearCachedValues();
+        this.layer = null;
+    }
+
     @Override
     public int getOriginColumnPosition() {
         return this.originColumnPosition;
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.cell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+
+/**
+ * Pool of {@link LayerCell} and {@link TranslatedLayerCell} instances that is
+ * used to avoid the creation of new cell instances for every cell that is
+ * painted.
+ * <p>
+ * A pool is only used while it is active for the current thread, which is
+ * typically only the case while a NatTable paints itself. Outside of an active
+ * pool the factory methods {@link #createLayerCell(ILayer, int, int)} and
+ * {@link #createTranslatedLayerCell(ILayerCell, ILayer, int, int, int, int)}
+ * create new instances, so cells that are retained by callers, e.g. by a cell
+ * editor or a command, are never reused.
+ * </p>
+ * <p>
+ * Pooled cells are handed out in a stack like manner. A caller that knows
+ * that it does not retain the cells it requested, like the
+ * {@link org.eclipse.nebula.widgets.nattable.painter.layer.CellLayerPainter},
+ * can request a {@link #mark()} before requesting cells and give them back
+ * via {@link #release(long)} afterwards. Cells that are not explicitly
+ * released are valid until the pool is deactivated. A pool is not thread-safe
+ * and should only be used by the thread that activated it.
+ * </p>
+ *
+ * @since 2.0
+ */
+public final class LayerCellPool {
+
+    private static final ThreadLocal<LayerCellPool> ACTIVE_POOL = new ThreadLocal<LayerCellPool>();
+
+    /**
+     * The number of pools that are currently active on any thread. Used to
+     * skip the {@link ThreadLocal} lookup on every cell request if pooling is
+     * not enabled at all, which is the default.
+     */
+    private static final AtomicInteger ACTIVE_POOL_COUNT = new AtomicInteger();
+
+    private final List<LayerCell> layerCells = new ArrayList<LayerCell>();
+    private final List<TranslatedLayerCell> translatedCells = new ArrayList<TranslatedLayerCell>();
+
+    /**
+     * The number of {@link LayerCell} instances that are currently in use.
+     */
+    private int layerCellsInUse;
+
+    /**
+     * The number of {@link TranslatedLayerCell} instances that are currently
+     * in use.
+     */
+    private int translatedCellsInUse;
+
+    /**
+     * The number of nested activations of this pool.
+     */
+    private int activations;
+
+    /**
+     * The pool that was active before this pool was activated, in case a
+     * NatTable is painted while another NatTable is painting.
+     */
+    private LayerCellPool previousPool;
+
+    /**
+     *
+     * @return The pool that is active for the current thread or
+     *         <code>null</code> if no pool is active.
+     */
+    public static LayerCellPool getActivePool() {
+        return (ACTIVE_POOL_COUNT.get() > 0) ? ACTIVE_POOL.get() : null;
+    }
+
+    /**
+     * Activates this pool for the current thread. Every call needs to be
+     * followed by a call to {@link #deactivate()}, typically in a finally
+     * block.
+     */
+    public void activate() {
+        if (this.activations++ == 0) {
+            this.previousPool = ACTIVE_POOL.get();
+            ACTIVE_POOL.set(this);
+            ACTIVE_POOL_COUNT.incrementAndGet();
+        }
+    }
+
+    /**
+     * Deactivates this pool for the current thread. On the last nested
+     * deactivation all handed out cells are given back to the pool and the
+     * references they hold are cleared.
+     */
+    public void deactivate() {
+        if (this.activations == 0) {
+            throw new IllegalStateException("pool is not active"); //$NON-NLS-1$
+        }
+        if (--this.activations == 0) {
+            release(0);
+            if (this.previousPool != null) {
+                ACTIVE_POOL.set(this.previousPool);
+                this.previousPool = null;
+            } else {
+                ACTIVE_POOL.remove();
+            }
+            ACTIVE_POOL_COUNT.decrementAndGet();
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if this pool is active for the current thread.
+     */
+    public boolean isActive() {
+        return ACTIVE_POOL.get() == this;
+    }
+
+    /**
+     * Returns a mark that can be used to give back all cells that are
+     * requested after this call via {@link #release(long)}.
+     *
+     * @return The current state of the pool.
+     */
+    public long mark() {
+        return ((long) this.layerCellsInUse << 32) | (this.translatedCellsInUse & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gives back all cells that were requested after the given mark was
+     * created. The caller needs to ensure that those cells are not used
+     * anymore.
+     *
+     * @param mark
+     *            A mark created via {@link #mark()}.
+     */
+    public void release(long mark) {
+        int layerCellMark = (int) (mark >>> 32);
+        int translatedCellMark = (int) mark;
+        for (int i = layerCellMark; i < this.layerCellsInUse; i++) {
+            this.layerCells.get(i).release();
+        }
+        for (int i = translatedCellMark; i < this.translatedCellsInUse; i++) {
+            this.translatedCells.get(i).release();
+        }
+        this.layerCellsInUse = Math.min(this.layerCellsInUse, layerCellMark);
+        this.translatedCellsInUse = Math.min(this.translatedCellsInUse, translatedCellMark);
+    }
+
+    /**
+     *
+     * @return The number of cell instances that are held by this pool.
+     */
+    public int getPooledCellCount() {
+        return this.layerCells.size() + this.translatedCells.size();
+    }
+
+    private LayerCell obtainLayerCell(ILayer layer, int columnPosition, int rowPosition) {
+        LayerCell cell;
+        if (this.layerCellsInUse < this.layerCells.size()) {
+            cell = this.layerCells.get(this.layerCellsInUse);
+            cell.reset(layer, columnPosition, rowPosition);
+        } else {
+            cell = new LayerCell(layer, columnPosition, rowPosition);
+            this.layerCells.add(cell);
+        }
+        this.layerCellsInUse++;
+        return cell;
+    }
+
+    private TranslatedLayerCell obtainTranslatedCell(ILayerCell cell, ILayer layer,
+            int originColumnPosition, int originRowPosition,
+            int columnPosition, int rowPosition) {
+        TranslatedLayerCell result;
+        if (this.translatedCellsInUse < this.translatedCells.size()) {
+            result = this.translatedCells.get(this.translatedCellsInUse);
+            result.reset(cell, layer, originColumnPosition, originRowPosition, columnPosition, rowPosition);
+        } else {
+            result = new TranslatedLayerCell(cell, layer, originColumnPosition, originRowPosition, columnPosition, rowPosition);
+            this.translatedCells.add(result);
+        }
+        this.translatedCellsInUse++;
+        return result;
+    }
+
+    /**
+     * Returns a {@link LayerCell} for the given layer and position that is not
+     * spanned. If a pool is active for the current thread, a pooled instance
+     * is returned, otherwise a new instance is created.
+     *
+     * @param layer
+     *            The layer the cell belongs to.
+     * @param columnPosition
+     *            The column position of the cell.
+     * @param rowPosition
+     *            The row position of the cell.
+     * @return The {@link LayerCell} for the given layer and position.
+     */
+    public static LayerCell createLayerCell(ILayer layer, int columnPosition, int rowPosition) {
+        LayerCellPool pool = getActivePool();
+        if (pool != null) {
+            return pool.obtainLayerCell(layer, columnPosition, rowPosition);
+        }
+        return new LayerCell(layer, columnPosition, rowPosition);
+    }
+
+    /**
+     * Returns a {@link TranslatedLayerCell} for the given underlying cell. If a
+     * pool is active for the current thread, a pooled instance is returned,
+     * otherwise a new instance is created.
+     *
+     * @param cell
+     *            The underlying cell.
+     * @param layer
+     *            The layer the translated cell belongs to.
+     * @param originColumnPosition
+     *            The translated origin column position.
+     * @param originRowPosition
+     *            The translated origin row position.
+     * @param columnPosition
+     *            The translated column position.
+     * @param rowPosition
+     *            The translated row position.
+     * @return The {@link TranslatedLayerCell} for the given underlying cell.
+     */
+    public static TranslatedLayerCell createTranslatedLayerCell(ILayerCell cell, ILayer layer,
+            int originColumnPosition, int originRowPosition,
+            int columnPosition, int rowPosition) {
+        LayerCellPool pool = getActivePool();
+        if (pool != null) {
+            return pool.obtainTranslatedCell(cell, layer, originColumnPosition, originRowPosition, columnPosition, rowPosition);
+        }
+        return new TranslatedLayerCell(cell, layer, originColumnPosition, originRowPosition, columnPosition, rowPosition);
+    }
+}
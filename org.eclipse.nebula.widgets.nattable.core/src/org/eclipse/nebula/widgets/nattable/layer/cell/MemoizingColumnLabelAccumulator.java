@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.cell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.painter.layer.PaintPass;
+
+/**
+ * {@link IConfigLabelAccumulator} that wraps an accumulator whose labels only
+ * depend on the column position, like a {@link ColumnOverrideLabelAccumulator}
+ * or a {@link ColumnLabelAccumulator}. While painting, the labels of the
+ * wrapped accumulator are calculated once per column and paint pass instead
+ * of once per cell. Outside of a paint pass the wrapped accumulator is called
+ * directly.
+ * <p>
+ * The wrapped accumulator must only add labels via
+ * {@link LabelStack#addLabel(String)}, {@link LabelStack#addLabelOnTop(String)}
+ * or by adding them to {@link LabelStack#getLabels()}, and the added labels
+ * must not depend on the row position or on the labels that are already
+ * applied to the cell.
+ * </p>
+ * <p>
+ * The labels are memoized per column position. As column positions change on
+ * structural changes, e.g. reordering or hiding columns, this class also
+ * implements the {@link ILayerListener} to clear the memoized labels on
+ * {@link IStructuralChangeEvent}s if registered on the layer the accumulator
+ * is set to via {@link ILayer#addLayerListener(ILayerListener)}.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class MemoizingColumnLabelAccumulator implements IConfigLabelProvider, ILayerListener {
+
+    private static final String[] NO_LABELS = new String[0];
+
+    private final IConfigLabelAccumulator accumulator;
+
+    /**
+     * The paint pass for which the memoized labels are valid.
+     */
+    private long paintPass;
+
+    /**
+     * The labels added at the bottom per column position, <code>null</code> if
+     * not calculated yet.
+     */
+    private String[][] bottomLabels = new String[0][];
+
+    /**
+     * The labels added on top per column position, in the order they were
+     * added.
+     */
+    private String[][] topLabels = new String[0][];
+
+    /**
+     *
+     * @param accumulator
+     *            The accumulator whose labels only depend on the column
+     *            position.
+     */
+    public MemoizingColumnLabelAccumulator(IConfigLabelAccumulator accumulator) {
+        if (accumulator == null) {
+            throw new IllegalArgumentException("IConfigLabelAccumulator can not be null"); //$NON-NLS-1$
+        }
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public void accumulateConfigLabels(LabelStack configLabels, int columnPosition, int rowPosition) {
+        long pass = PaintPass.current();
+        if (pass == 0 || columnPosition < 0) {
+            this.accumulator.accumulateConfigLabels(configLabels, columnPosition, rowPosition);
+            return;
+        }
+
+        if (pass != this.paintPass) {
+            this.paintPass = pass;
+            Arrays.fill(this.bottomLabels, null);
+            Arrays.fill(this.topLabels, null);
+        }
+        if (columnPosition >= this.bottomLabels.length) {
+            int length = Math.max(columnPosition + 1, this.bottomLabels.length * 2);
+            this.bottomLabels = Arrays.copyOf(this.bottomLabels, length);
+            this.topLabels = Arrays.copyOf(this.topLabels, length);
+        }
+
+        if (this.bottomLabels[columnPosition] == null) {
+            RecordingLabelStack recorder = new RecordingLabelStack();
+            this.accumulator.accumulateConfigLabels(recorder, columnPosition, rowPosition);
+            List<String> bottom = new ArrayList<String>(recorder.getLabels());
+            bottom.removeAll(recorder.top);
+            this.bottomLabels[columnPosition] = bottom.isEmpty() ? NO_LABELS : bottom.toArray(new String[bottom.size()]);
+            this.topLabels[columnPosition] = recorder.top.isEmpty() ? NO_LABELS : recorder.top.toArray(new String[recorder.top.size()]);
+        }
+
+        for (String label : this.topLabels[columnPosition]) {
+            configLabels.addLabelOnTop(label);
+        }
+        for (String label : this.bottomLabels[columnPosition]) {
+            configLabels.addLabel(label);
+        }
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof IStructuralChangeEvent) {
+            clearCache();
+        }
+    }
+
+    /**
+     * Clears the memoized labels, so they are calculated again on the next
+     * access, even within the same paint pass.
+     */
+    public void clearCache() {
+        this.paintPass = 0;
+        Arrays.fill(this.bottomLabels, null);
+        Arrays.fill(this.topLabels, null);
+    }
+
+    /**
+     *
+     * @return The wrapped accumulator.
+     */
+    public IConfigLabelAccumulator getAccumulator() {
+        return this.accumulator;
+    }
+
+    @Override
+    public Collection<String> getProvidedLabels() {
+        if (this.accumulator instanceof IConfigLabelProvider) {
+            return ((IConfigLabelProvider) this.accumulator).getProvidedLabels();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * {@link LabelStack} that records the labels that are added on top.
+     */
+    private static class RecordingLabelStack extends LabelStack {
+
+        private final List<String> top = new ArrayList<String>();
+
+        @Override
+        public void addLabelOnTop(String label) {
+            if (!hasLabel(label)) {
+                this.top.add(label);
+            }
+            super.addLabelOnTop(label);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Edwin Park and others.
+ * Copyright (c) 2012, 2020 Edwin Park and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,15 @@ public TransformedLayerCell(ILayerCell cell) {
         this.cell = cell;
     }
 
+    /**
+     * Exchanges the underlying cell. Used by the {@link LayerCellPool} to reuse
+     * cell instances.
+     */
+    void setUnderlyingCell(ILayerCell cell) {
+        clearCachedValues();
+        this.cell = cell;
+    }
+
     @Override
     public int getOriginColumnPosition() {
         return this.cell.getOriginColumnPosition();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Edwin Park and others.
+ * Copyright (c) 2012, 2020 Edwin Park and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,6 +34,30 @@ public TranslatedLayerCell(ILayerCell cell, ILayer layer,
         this.rowPosition = rowPosition;
     }
 
+    /**
+     * Reinitializes this cell for the given underlying cell, layer and
+     * positions. Used by the {@link LayerCellPool} to reuse cell instances.
+     */
+    void reset(ILayerCell cell, ILayer layer,
+            int originColumnPosition, int originRowPosition,
+            int columnPosition, int rowPosition) {
+        setUnderlyingCell(cell);
+        this.layer = layer;
+        this.originColumnPosition = originColumnPosition;
+        this.originRowPosition = originRowPosition;
+        this.columnPosition = columnPosition;
+        this.rowPosition = rowPosition;
+    }
+
+    /**
+     * Removes the references to the underlying cell and the layer, so a pooled
+     * cell does not keep a layer stack alive.
+     */
+    void release() {
+        setUnderlyingCell(null);
+        this.layer = null;
+    }
+
     @Override
     public ILayer getLayer() {
         return this.layer;
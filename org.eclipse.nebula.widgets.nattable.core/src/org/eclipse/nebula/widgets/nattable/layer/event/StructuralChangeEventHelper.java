@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2018 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,10 @@
 package org.eclipse.nebula.widgets.nattable.layer.event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
@@ -49,46 +51,7 @@ public class StructuralChangeEventHelper {
     public static void handleRowDelete(
             Collection<StructuralDiff> rowDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedRowIndexes, boolean handleNotFound) {
-
-        // the number of all deleted rows that don't have a corresponding index
-        // anymore (last row cases)
-        int numberOfNoIndex = 0;
-        List<Integer> toRemove = new ArrayList<Integer>();
-        for (StructuralDiff rowDiff : rowDiffs) {
-            if (rowDiff.getDiffType() != null
-                    && rowDiff.getDiffType().equals(DiffTypeEnum.DELETE)) {
-                Range beforePositionRange = rowDiff.getBeforePositionRange();
-                for (int i = beforePositionRange.start; i < beforePositionRange.end; i++) {
-                    int index = i;// underlyingLayer.getRowIndexByPosition(i);
-                    if (index >= 0) {
-                        toRemove.add(index);
-                    } else {
-                        numberOfNoIndex++;
-                    }
-                }
-            }
-        }
-        // remove the row indexes that are deleted
-        cachedRowIndexes.removeAll(toRemove);
-
-        // modify row indexes regarding the deleted rows
-        List<Integer> modifiedRows = new ArrayList<Integer>();
-        for (Integer row : cachedRowIndexes) {
-            // check number of removed indexes that are lower than the current
-            // one
-            int deletedBefore = handleNotFound ? numberOfNoIndex : 0;
-            for (Integer removed : toRemove) {
-                if (removed < row) {
-                    deletedBefore++;
-                }
-            }
-            int modRow = row - deletedBefore;
-            if (modRow >= 0) {
-                modifiedRows.add(modRow);
-            }
-        }
-        cachedRowIndexes.clear();
-        cachedRowIndexes.addAll(modifiedRows);
+        handleDelete(rowDiffs, cachedRowIndexes, handleNotFound);
     }
 
     /**
@@ -120,29 +83,7 @@ public static void handleRowDelete(
     public static void handleRowInsert(
             Collection<StructuralDiff> rowDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedRowIndexes, boolean addToCache) {
-
-        for (StructuralDiff rowDiff : rowDiffs) {
-            if (rowDiff.getDiffType() != null
-                    && rowDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = rowDiff.getBeforePositionRange();
-                List<Integer> modifiedRows = new ArrayList<Integer>();
-                int beforeIndex = underlyingLayer.getRowIndexByPosition(beforePositionRange.start);
-                for (Integer row : cachedRowIndexes) {
-                    if (row >= beforeIndex) {
-                        modifiedRows.add(row + 1);
-                    } else {
-                        modifiedRows.add(row);
-                    }
-                }
-
-                if (addToCache) {
-                    modifiedRows.add(beforeIndex, beforePositionRange.start);
-                }
-
-                cachedRowIndexes.clear();
-                cachedRowIndexes.addAll(modifiedRows);
-            }
-        }
+        handleInsert(rowDiffs, underlyingLayer::getRowIndexByPosition, cachedRowIndexes, addToCache);
     }
 
     /**
@@ -170,46 +111,7 @@ public static void handleRowInsert(
     public static void handleColumnDelete(
             Collection<StructuralDiff> columnDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedColumnIndexes, boolean handleNotFound) {
-
-        // the number of all deleted columns that don't have a corresponding
-        // index anymore (last column cases)
-        int numberOfNoIndex = 0;
-        List<Integer> toRemove = new ArrayList<Integer>();
-        for (StructuralDiff columnDiff : columnDiffs) {
-            if (columnDiff.getDiffType() != null
-                    && columnDiff.getDiffType().equals(DiffTypeEnum.DELETE)) {
-                Range beforePositionRange = columnDiff.getBeforePositionRange();
-                for (int i = beforePositionRange.start; i < beforePositionRange.end; i++) {
-                    int index = i;// underlyingLayer.getColumnIndexByPosition(i);
-                    if (index >= 0) {
-                        toRemove.add(index);
-                    } else {
-                        numberOfNoIndex++;
-                    }
-                }
-            }
-        }
-        // remove the column indexes that are deleted
-        cachedColumnIndexes.removeAll(toRemove);
-
-        // modify column indexes regarding the deleted columns
-        List<Integer> modifiedColumns = new ArrayList<Integer>();
-        for (Integer column : cachedColumnIndexes) {
-            // check number of removed indexes that are lower than the current
-            // one
-            int deletedBefore = handleNotFound ? numberOfNoIndex : 0;
-            for (Integer removed : toRemove) {
-                if (removed < column) {
-                    deletedBefore++;
-                }
-            }
-            int modColumn = column - deletedBefore;
-            if (modColumn >= 0) {
-                modifiedColumns.add(modColumn);
-            }
-        }
-        cachedColumnIndexes.clear();
-        cachedColumnIndexes.addAll(modifiedColumns);
+        handleDelete(columnDiffs, cachedColumnIndexes, handleNotFound);
     }
 
     /**
@@ -241,29 +143,7 @@ public static void handleColumnDelete(
     public static void handleColumnInsert(
             Collection<StructuralDiff> columnDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedColumnIndexes, boolean addToCache) {
-
-        for (StructuralDiff columnDiff : columnDiffs) {
-            if (columnDiff.getDiffType() != null
-                    && columnDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = columnDiff.getBeforePositionRange();
-                List<Integer> modifiedColumns = new ArrayList<Integer>();
-                int beforeIndex = underlyingLayer.getColumnIndexByPosition(beforePositionRange.start);
-                for (Integer column : cachedColumnIndexes) {
-                    if (column >= beforeIndex) {
-                        modifiedColumns.add(column + 1);
-                    } else {
-                        modifiedColumns.add(column);
-                    }
-                }
-
-                if (addToCache) {
-                    modifiedColumns.add(beforeIndex, beforePositionRange.start);
-                }
-
-                cachedColumnIndexes.clear();
-                cachedColumnIndexes.addAll(modifiedColumns);
-            }
-        }
+        handleInsert(columnDiffs, underlyingLayer::getColumnIndexByPosition, cachedColumnIndexes, addToCache);
     }
 
     /**
@@ -322,4 +202,191 @@ public static boolean isReorder(Collection<StructuralDiff> structuralDiffs) {
         return false;
     }
 
+    /**
+     * Removes the indexes of the DELETE diffs from the given cached indexes
+     * and reduces the remaining indexes by the number of deleted indexes that
+     * are lower. The deleted indexes are sorted once, so the cached indexes
+     * are processed in a single pass.
+     */
+    private static void handleDelete(
+            Collection<StructuralDiff> diffs, Collection<Integer> cachedIndexes, boolean handleNotFound) {
+
+        // the number of all deleted items that don't have a corresponding
+        // index anymore (last row/column cases)
+        int numberOfNoIndex = 0;
+        int[] toRemove = new int[8];
+        int removeCount = 0;
+        for (StructuralDiff diff : diffs) {
+            if (diff.getDiffType() != null
+                    && diff.getDiffType().equals(DiffTypeEnum.DELETE)) {
+                Range beforePositionRange = diff.getBeforePositionRange();
+                for (int index = beforePositionRange.start; index < beforePositionRange.end; index++) {
+                    if (index >= 0) {
+                        if (removeCount == toRemove.length) {
+                            toRemove = Arrays.copyOf(toRemove, removeCount * 2);
+                        }
+                        toRemove[removeCount++] = index;
+                    } else {
+                        numberOfNoIndex++;
+                    }
+                }
+            }
+        }
+
+        int offset = handleNotFound ? numberOfNoIndex : 0;
+        if (removeCount == 0 && offset == 0) {
+            // nothing to remove or to modify
+            return;
+        }
+        Arrays.sort(toRemove, 0, removeCount);
+
+        List<Integer> modifiedIndexes = new ArrayList<Integer>(cachedIndexes.size());
+        for (Integer index : cachedIndexes) {
+            int lower = lowerBound(toRemove, removeCount, index);
+            if (lower < removeCount && toRemove[lower] == index) {
+                // the index is deleted
+                continue;
+            }
+            // lower is the number of removed indexes that are lower than the
+            // current one
+            int modIndex = index - offset - lower;
+            if (modIndex >= 0) {
+                modifiedIndexes.add(modIndex);
+            }
+        }
+        cachedIndexes.clear();
+        cachedIndexes.addAll(modifiedIndexes);
+    }
+
+    /**
+     * Increases the cached indexes for every ADD diff and optionally adds the
+     * inserted indexes. ADD diffs are applied one after the other. If the
+     * insert indexes are ascending, which is the common case, all diffs are
+     * applied in a single pass over the cached indexes.
+     */
+    private static void handleInsert(
+            Collection<StructuralDiff> diffs, IntUnaryOperator indexByPosition,
+            Collection<Integer> cachedIndexes, boolean addToCache) {
+
+        int addCount = 0;
+        int[] beforeIndexes = new int[diffs.size()];
+        int[] beforePositions = new int[diffs.size()];
+        boolean ascending = true;
+        for (StructuralDiff diff : diffs) {
+            if (diff.getDiffType() != null
+                    && diff.getDiffType().equals(DiffTypeEnum.ADD)) {
+                int beforePosition = diff.getBeforePositionRange().start;
+                int beforeIndex = indexByPosition.applyAsInt(beforePosition);
+                if (addCount == 0 ? beforeIndex < 0 : beforeIndex <= beforeIndexes[addCount - 1]) {
+                    ascending = false;
+                }
+                if (addToCache && beforeIndex > cachedIndexes.size() + addCount) {
+                    ascending = false;
+                }
+                beforeIndexes[addCount] = beforeIndex;
+                beforePositions[addCount] = beforePosition;
+                addCount++;
+            }
+        }
+
+        if (addCount == 0) {
+            return;
+        } else if (!ascending) {
+            for (int i = 0; i < addCount; i++) {
+                List<Integer> modifiedIndexes = new ArrayList<Integer>(cachedIndexes.size() + 1);
+                for (Integer index : cachedIndexes) {
+                    if (index >= beforeIndexes[i]) {
+                        modifiedIndexes.add(index + 1);
+                    } else {
+                        modifiedIndexes.add(index);
+                    }
+                }
+
+                if (addToCache) {
+                    modifiedIndexes.add(beforeIndexes[i], beforePositions[i]);
+                }
+
+                cachedIndexes.clear();
+                cachedIndexes.addAll(modifiedIndexes);
+            }
+            return;
+        }
+
+        // With strictly ascending insert indexes, an index is increased by a
+        // prefix of the diffs: it is increased by diff i if
+        // index + i >= beforeIndexes[i]. As beforeIndexes[i] - i is
+        // ascending, the length of that prefix can be found via binary search.
+        int[] thresholds = new int[addCount];
+        for (int i = 0; i < addCount; i++) {
+            thresholds[i] = beforeIndexes[i] - i;
+        }
+
+        List<Integer> modifiedIndexes = new ArrayList<Integer>(cachedIndexes.size() + (addToCache ? addCount : 0));
+        int next = 0;
+        for (Integer index : cachedIndexes) {
+            if (addToCache) {
+                // the inserted index ends up at the position of its insert
+                // index, as subsequent inserts are added behind it
+                while (next < addCount && beforeIndexes[next] == modifiedIndexes.size()) {
+                    modifiedIndexes.add(getInsertedValue(beforePositions, thresholds, addCount, next++));
+                }
+            }
+            modifiedIndexes.add(index + upperBound(thresholds, addCount, index));
+        }
+        if (addToCache) {
+            while (next < addCount) {
+                modifiedIndexes.add(getInsertedValue(beforePositions, thresholds, addCount, next++));
+            }
+        }
+
+        cachedIndexes.clear();
+        cachedIndexes.addAll(modifiedIndexes);
+    }
+
+    /**
+     * @return The value that is added to the cache by the ADD diff at the
+     *         given position. Like the cached indexes, it is increased by
+     *         a prefix of the subsequent diffs: diff k is applied if
+     *         value + (k - i - 1) &gt;= beforeIndexes[k].
+     */
+    private static int getInsertedValue(int[] beforePositions, int[] thresholds, int addCount, int i) {
+        int value = beforePositions[i];
+        return value + Math.max(0, upperBound(thresholds, addCount, value - i - 1) - i - 1);
+    }
+
+    /**
+     * @return The number of values in the sorted array that are lower than
+     *         the given value.
+     */
+    private static int lowerBound(int[] values, int length, int value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The number of values in the sorted array that are lower than or
+     *         equal to the given value.
+     */
+    private static int upperBound(int[] values, int length, int value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,6 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.cell;
 
-import java.util.Map;
-import java.util.WeakHashMap;
-
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.layer.cell.CellDisplayConversionUtils;
@@ -25,7 +22,6 @@
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.GC;
 
 /**
@@ -73,9 +69,6 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
     private Color originalForeground;
     private Font originalFont;
 
-    private static Map<String, Integer> temporaryMap = new WeakHashMap<String, Integer>();
-    private static Map<org.eclipse.swt.graphics.Font, FontData[]> fontDataCache = new WeakHashMap<org.eclipse.swt.graphics.Font, FontData[]>();
-
     public AbstractTextPainter() {
         this(false, true);
     }
@@ -277,9 +270,10 @@ protected int getNumberOfNewLines(String text) {
 
     /**
      * Calculates the length of a given text by using the GC. To minimize the
-     * count of calculations, the calculation result will be stored within a
-     * Map, so the next time the length of the same text is asked for, the
-     * result is only returned by cache and is not calculated again.
+     * count of calculations, the calculation result will be stored in the
+     * shared {@link TextExtentCache} per font and text, so the next time the
+     * length of the same text is asked for, the result is only returned by
+     * cache and is not calculated again.
      *
      * @param gc
      *            the current GC
@@ -288,31 +282,22 @@ protected int getNumberOfNewLines(String text) {
      * @return the length of the text
      */
     protected int getLengthFromCache(GC gc, String text) {
-        String originalString = text;
-        StringBuilder buffer = new StringBuilder();
-        buffer.append(text);
-        if (gc.getFont() != null) {
-            FontData[] datas = fontDataCache.get(gc.getFont());
-            if (datas == null) {
-                datas = gc.getFont().getFontData();
-                fontDataCache.put(gc.getFont(), datas);
-            }
-            if (datas != null && datas.length > 0) {
-                buffer.append(datas[0].getName());
-                buffer.append(","); //$NON-NLS-1$
-                buffer.append(datas[0].getHeight());
-                buffer.append(","); //$NON-NLS-1$
-                buffer.append(datas[0].getStyle());
-            }
-        }
-        text = buffer.toString();
-        Integer width = temporaryMap.get(text);
-        if (width == null) {
-            width = Integer.valueOf(gc.textExtent(originalString).x);
-            temporaryMap.put(text, width);
-        }
+        return TextExtentCache.getInstance().getTextWidth(gc, text);
+    }
 
-        return width.intValue();
+    /**
+     * Calculates the height of a given text by using the GC. The result is
+     * cached in the shared {@link TextExtentCache} per font and text.
+     *
+     * @param gc
+     *            the current GC
+     * @param text
+     *            the text to get the height for
+     * @return the height of the text
+     * @since 2.0
+     */
+    protected int getHeightFromCache(GC gc, String text) {
+        return TextExtentCache.getInstance().getTextHeight(gc, text);
     }
 
     /**
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Bounded cache for text extents that are calculated via
+ * {@link GC#textExtent(String)}. The extents are cached per font and text, and
+ * the least recently used entries are evicted if the maximum size is reached.
+ * <p>
+ * The shared instance returned by {@link #getInstance()} is used by the text
+ * painters of NatTable, so the extents calculated while painting are reused
+ * e.g. for auto resizing via the
+ * {@link org.eclipse.nebula.widgets.nattable.resize.MaxCellBoundsHelper} and
+ * vice versa.
+ * </p>
+ * <p>
+ * Fonts are compared by identity, so entries of a disposed font are never
+ * returned for a new font, even if the native handle is reused. Those entries
+ * are removed by the LRU eviction.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class TextExtentCache {
+
+    /**
+     * The default maximum number of cached text extents.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final TextExtentCache INSTANCE = new TextExtentCache(DEFAULT_MAXIMUM_SIZE);
+
+    private int maximumSize;
+
+    private final LinkedHashMap<Key, Point> cache = new LinkedHashMap<Key, Point>(256, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Point> eldest) {
+            if (size() > TextExtentCache.this.maximumSize) {
+                TextExtentCache.this.evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     *
+     * @return The text extent cache that is shared by the NatTable text
+     *         painters.
+     */
+    public static TextExtentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a new {@link TextExtentCache}.
+     *
+     * @param maximumSize
+     *            The maximum number of cached text extents.
+     */
+    public TextExtentCache(int maximumSize) {
+        setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Returns the width of the given text for the font currently set to the
+     * given {@link GC}.
+     *
+     * @param gc
+     *            The {@link GC} used to calculate the text extent if it is not
+     *            cached.
+     * @param text
+     *            The text whose width is requested.
+     * @return The width of the given text.
+     */
+    public int getTextWidth(GC gc, String text) {
+        return getExtent(gc, text).x;
+    }
+
+    /**
+     * Returns the height of the given text for the font currently set to the
+     * given {@link GC}.
+     *
+     * @param gc
+     *            The {@link GC} used to calculate the text extent if it is not
+     *            cached.
+     * @param text
+     *            The text whose height is requested.
+     * @return The height of the given text.
+     */
+    public int getTextHeight(GC gc, String text) {
+        return getExtent(gc, text).y;
+    }
+
+    /**
+     * Returns the extent of the given text for the font currently set to the
+     * given {@link GC}.
+     *
+     * @param gc
+     *            The {@link GC} used to calculate the text extent if it is not
+     *            cached.
+     * @param text
+     *            The text whose extent is requested.
+     * @return A copy of the cached extent of the given text.
+     */
+    public Point getTextExtent(GC gc, String text) {
+        Point extent = getExtent(gc, text);
+        return new Point(extent.x, extent.y);
+    }
+
+    private synchronized Point getExtent(GC gc, String text) {
+        Key key = new Key(gc.getFont(), text);
+        Point extent = this.cache.get(key);
+        if (extent == null) {
+            this.misses++;
+            extent = gc.textExtent(text);
+            this.cache.put(key, extent);
+        } else {
+            this.hits++;
+        }
+        return extent;
+    }
+
+    /**
+     * Set the maximum number of cached text extents. If the cache currently
+     * contains more entries, the least recently used entries are removed.
+     *
+     * @param maximumSize
+     *            The maximum number of cached text extents.
+     */
+    public synchronized void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize < 0"); //$NON-NLS-1$
+        }
+        this.maximumSize = maximumSize;
+        Iterator<Key> it = this.cache.keySet().iterator();
+        while (this.cache.size() > maximumSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            this.evictions++;
+        }
+    }
+
+    /**
+     *
+     * @return The maximum number of cached text extents.
+     */
+    public synchronized int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     *
+     * @return The number of currently cached text extents.
+     */
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Removes all cached text extents.
+     */
+    public synchronized void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     *
+     * @return The number of requests that were answered from the cache.
+     */
+    public synchronized long getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     *
+     * @return The number of requests that needed to calculate the text
+     *         extent.
+     */
+    public synchronized long getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     *
+     * @return The number of entries that were removed because the maximum
+     *         size was reached.
+     */
+    public synchronized long getEvictionCount() {
+        return this.evictions;
+    }
+
+    /**
+     *
+     * @return The ratio of requests that were answered from the cache, or 0 if
+     *         there were no requests yet.
+     */
+    public synchronized double getHitRate() {
+        long requests = this.hits + this.misses;
+        return requests == 0 ? 0 : (double) this.hits / requests;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public synchronized void resetStatistics() {
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * Cache key that compares the font by identity.
+     */
+    private static final class Key {
+
+        private final Font font;
+        private final String text;
+        private final int hash;
+
+        Key(Font font, String text) {
+            this.font = font;
+            this.text = text;
+            this.hash = 31 * System.identityHashCode(font) + text.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.font == other.font && this.text.equals(other.text);
+        }
+    }
+}
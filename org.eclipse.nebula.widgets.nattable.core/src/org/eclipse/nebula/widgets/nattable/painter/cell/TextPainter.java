@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -149,7 +149,7 @@ public int getPreferredHeight(ILayerCell cell, GC gc, IConfigRegistry configRegi
         setupGCFromConfig(gc, CellStyleUtil.getCellStyle(cell, configRegistry));
         String text = convertDataType(cell, configRegistry);
         if (!this.calculateWrappedHeight) {
-            return gc.textExtent(text).y + (this.spacing * 2) + 1 + (getNumberOfNewLines(text) - 1) * this.lineSpacing;
+            return getHeightFromCache(gc, text) + (this.spacing * 2) + 1 + (getNumberOfNewLines(text) - 1) * this.lineSpacing;
         } else {
             Rectangle adjustedBounds = cell.getLayer().getLayerPainter().adjustCellBounds(
                     cell.getColumnPosition(),
@@ -219,7 +219,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
                 int y = rectangle.y
                         + CellStyleUtil.getVerticalAlignmentPadding(cellStyle, rectangle, contentHeight)
                         + this.spacing;
-                int length = gc.textExtent(text).x;
+                int length = getLengthFromCache(gc, text);
                 paintDecoration(cellStyle, gc, x, y, length, fontHeight);
             } else {
                 // draw every line by itself because of the alignment, otherwise
@@ -241,7 +241,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
                             + this.spacing;
                     // y = start y of text
                     int y = yStartPos + this.spacing;
-                    int length = gc.textExtent(line).x;
+                    int length = getLengthFromCache(gc, line);
                     paintDecoration(cellStyle, gc, x, y, length, fontHeight);
 
                     // after every line calculate the y start pos new
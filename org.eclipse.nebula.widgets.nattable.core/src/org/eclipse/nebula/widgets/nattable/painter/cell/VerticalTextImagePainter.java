@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2017 Dirk Fauth and others.
+ * Copyright (c) 2014, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -140,7 +140,7 @@ public VerticalTextImagePainter(boolean wrapText, boolean paintBg, int spacing,
     public int getPreferredWidth(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
         setupGCFromConfig(gc, CellStyleUtil.getCellStyle(cell, configRegistry));
         String value = convertDataType(cell, configRegistry);
-        return gc.textExtent(value).y + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
+        return getHeightFromCache(gc, value) + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -149,7 +149,7 @@ public VerticalTextPainter(boolean wrapText, boolean paintBg, int spacing,
     public int getPreferredWidth(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
         setupGCFromConfig(gc, CellStyleUtil.getCellStyle(cell, configRegistry));
         String value = convertDataType(cell, configRegistry);
-        return gc.textExtent(value).y + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
+        return getHeightFromCache(gc, value) + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
     }
 
     @Override
@@ -244,7 +244,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
 
                     gc.drawText(text, rectangle.x, rectangle.y, SWT.DRAW_TRANSPARENT | SWT.DRAW_DELIMITER | SWT.DRAW_TAB);
 
-                    int length = gc.textExtent(text).x;
+                    int length = getLengthFromCache(gc, text);
                     paintDecoration(cellStyle, gc, rectangle.x, rectangle.y, length, fontHeight);
                 } else {
                     // draw every line by itself because of the alignment,
@@ -310,7 +310,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
 
                         gc.drawText(line, rectangle.x, rectangle.y, SWT.DRAW_TRANSPARENT | SWT.DRAW_DELIMITER | SWT.DRAW_TAB);
 
-                        int length = gc.textExtent(line).x;
+                        int length = getLengthFromCache(gc, line);
                         paintDecoration(cellStyle, gc, rectangle.x, rectangle.y, length, fontHeight);
                     }
                 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,23 +10,98 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.layer;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCellPool;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Rectangle;
 
+/**
+ * {@link ILayerPainter} that paints the cells of a layer by calling the
+ * {@link ICellPainter} of every visible cell.
+ * <p>
+ * The painter does not create objects per painted cell. The start pixels of
+ * the visible positions are stored in primitive arrays that are reused
+ * between paint passes and only grow if more positions are visible. Spanned
+ * cells are collected in a reused list and are painted after the other cells.
+ * Because of this state a {@link CellLayerPainter} instance is not reentrant
+ * and should only be used for one layer.
+ * </p>
+ * <p>
+ * If a {@link LayerCellPool} is active while painting, the cells are given
+ * back to the pool directly after they are painted, so the cell instances are
+ * reused for the following cells.
+ * </p>
+ */
 public class CellLayerPainter implements ILayerPainter {
 
+    /**
+     * Caches per painter class whether
+     * {@link #adjustCellBounds(int, int, Rectangle)} is overridden by a
+     * subclass, so the allocation free adjustment can not be used on painting.
+     */
+    private static final ClassValue<Boolean> ADJUST_CELL_BOUNDS_OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Class<?> declaringClass = type.getMethod(
+                        "adjustCellBounds", int.class, int.class, Rectangle.class).getDeclaringClass(); //$NON-NLS-1$
+                return declaringClass != CellLayerPainter.class
+                        && declaringClass != GridLineCellLayerPainter.class;
+            } catch (NoSuchMethodException e) {
+                return Boolean.TRUE;
+            }
+        }
+    };
+
     private ILayer natLayer;
-    private Map<Integer, Integer> horizontalPositionToPixelMap;
-    private Map<Integer, Integer> verticalPositionToPixelMap;
+
+    /**
+     * The start x pixel of the visible column positions, indexed by column
+     * position minus {@link #horizontalStartPosition}.
+     */
+    private int[] horizontalPositionToPixel = new int[0];
+    private int horizontalStartPosition;
+    private int horizontalPixelCount;
+
+    /**
+     * The start y pixel of the visible row positions, indexed by row position
+     * minus {@link #verticalStartPosition}.
+     */
+    private int[] verticalPositionToPixel = new int[0];
+    private int verticalStartPosition;
+    private int verticalPixelCount;
+
+    /**
+     * The spanned cells collected in the current paint pass.
+     */
+    private final List<ILayerCell> spannedCells = new ArrayList<ILayerCell>();
+
+    /**
+     * The clipping of the GC at the start of the current paint pass.
+     */
+    private Rectangle paintClipping;
+
+    /**
+     * Reused rectangle for the calculation of the cell clipping.
+     */
+    private final Rectangle cellClipBounds = new Rectangle(0, 0, 0, 0);
+
+    /**
+     * Reused rectangle for the adjusted bounds of the painted cell.
+     */
+    private final Rectangle adjustedCellBounds = new Rectangle(0, 0, 0, 0);
+
+    /**
+     * Whether {@link #adjustCellBounds(int, int, Rectangle)} is overridden by
+     * the class of this painter.
+     */
+    private final boolean adjustCellBoundsOverridden = ADJUST_CELL_BOUNDS_OVERRIDDEN.get(getClass());
 
     private final boolean clipLeft;
     private final boolean clipTop;
@@ -69,28 +144,53 @@ public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset,
 
         calculateDimensionInfo(positionRectangle);
 
-        Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
+        // if cell pooling is active, cells that are not kept for painting
+        // spanned cells later are given back to the pool directly after
+        // painting
+        LayerCellPool cellPool = LayerCellPool.getActivePool();
+        long passMark = (cellPool != null) ? cellPool.mark() : 0;
 
-        for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x
-                + positionRectangle.width; columnPosition++) {
-            for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y
-                    + positionRectangle.height; rowPosition++) {
-                if (columnPosition == -1 || rowPosition == -1) {
-                    continue;
-                }
-                ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
-                if (cell != null) {
-                    if (cell.isSpannedCell()) {
-                        spannedCells.add(cell);
-                    } else {
-                        paintCell(cell, gc, configRegistry);
+        this.paintClipping = gc.getClipping();
+        try {
+            for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x
+                    + positionRectangle.width; columnPosition++) {
+                for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y
+                        + positionRectangle.height; rowPosition++) {
+                    if (columnPosition == -1 || rowPosition == -1) {
+                        continue;
+                    }
+                    long cellMark = (cellPool != null) ? cellPool.mark() : 0;
+                    boolean keepCell = false;
+                    ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
+                    if (cell != null) {
+                        if (cell.isSpannedCell()) {
+                            // collect a spanned cell only once, at its first
+                            // position inside the painted area
+                            if (columnPosition == Math.max(cell.getOriginColumnPosition(), positionRectangle.x)
+                                    && rowPosition == Math.max(cell.getOriginRowPosition(), positionRectangle.y)) {
+                                this.spannedCells.add(cell);
+                                keepCell = true;
+                            }
+                        } else {
+                            paintCell(cell, gc, configRegistry);
+                        }
+                    }
+                    if (cellPool != null && !keepCell) {
+                        cellPool.release(cellMark);
                     }
                 }
             }
-        }
 
-        for (ILayerCell cell : spannedCells) {
-            paintCell(cell, gc, configRegistry);
+            for (int i = 0; i < this.spannedCells.size(); i++) {
+                paintCell(this.spannedCells.get(i), gc, configRegistry);
+            }
+        } finally {
+            // do not keep references to cells or the clipping
+            this.spannedCells.clear();
+            this.paintClipping = null;
+            if (cellPool != null) {
+                cellPool.release(passMark);
+            }
         }
     }
 
@@ -129,49 +229,86 @@ protected boolean isClipTop(int position) {
 
     private void calculateDimensionInfo(Rectangle positionRectangle) {
         {
-            this.horizontalPositionToPixelMap = new HashMap<Integer, Integer>();
             final int startPosition = positionRectangle.x;
             final int endPosition = startPosition + positionRectangle.width;
+            if (this.horizontalPositionToPixel.length < positionRectangle.width + 1) {
+                this.horizontalPositionToPixel = new int[positionRectangle.width + 1];
+            }
+            this.horizontalStartPosition = startPosition;
+            this.horizontalPixelCount = 0;
+
             int previousEndX = (startPosition > 0)
                     ? this.natLayer.getStartXOfColumnPosition(startPosition - 1)
                             + this.natLayer.getColumnWidthByPosition(startPosition - 1)
                     : Integer.MIN_VALUE;
             for (int position = startPosition; position < endPosition; position++) {
                 int startX = this.natLayer.getStartXOfColumnPosition(position);
-                this.horizontalPositionToPixelMap.put(
-                        position,
-                        isClipLeft(position) ? startX : Math.max(startX, previousEndX));
+                this.horizontalPositionToPixel[this.horizontalPixelCount++] =
+                        isClipLeft(position) ? startX : Math.max(startX, previousEndX);
                 previousEndX = startX + this.natLayer.getColumnWidthByPosition(position);
             }
             if (endPosition < this.natLayer.getColumnCount()) {
                 int startX = this.natLayer.getStartXOfColumnPosition(endPosition);
-                this.horizontalPositionToPixelMap.put(endPosition, Math.max(startX, previousEndX));
+                this.horizontalPositionToPixel[this.horizontalPixelCount++] = Math.max(startX, previousEndX);
             }
         }
         {
-            this.verticalPositionToPixelMap = new HashMap<Integer, Integer>();
             final int startPosition = positionRectangle.y;
             final int endPosition = startPosition + positionRectangle.height;
+            if (this.verticalPositionToPixel.length < positionRectangle.height + 1) {
+                this.verticalPositionToPixel = new int[positionRectangle.height + 1];
+            }
+            this.verticalStartPosition = startPosition;
+            this.verticalPixelCount = 0;
+
             int previousEndY = (startPosition > 0)
                     ? this.natLayer.getStartYOfRowPosition(startPosition - 1)
                             + this.natLayer.getRowHeightByPosition(startPosition - 1)
                     : Integer.MIN_VALUE;
             for (int position = startPosition; position < endPosition; position++) {
                 int startY = this.natLayer.getStartYOfRowPosition(position);
-                this.verticalPositionToPixelMap.put(
-                        position,
-                        isClipTop(position) ? startY : Math.max(startY, previousEndY));
+                this.verticalPositionToPixel[this.verticalPixelCount++] =
+                        isClipTop(position) ? startY : Math.max(startY, previousEndY);
                 previousEndY = startY + this.natLayer.getRowHeightByPosition(position);
             }
             if (endPosition < this.natLayer.getRowCount()) {
                 int startY = this.natLayer.getStartYOfRowPosition(endPosition);
-                this.verticalPositionToPixelMap.put(endPosition, Math.max(startY, previousEndY));
+                this.verticalPositionToPixel[this.verticalPixelCount++] = Math.max(startY, previousEndY);
             }
         }
     }
 
     @Override
     public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle cellBounds) {
+        return adjustCellBounds(columnPosition, rowPosition, cellBounds, cellBounds);
+    }
+
+    /**
+     * Adjusts the cell bounds like
+     * {@link #adjustCellBounds(int, int, Rectangle)}, but is allowed to write
+     * the result to the given target rectangle instead of creating a new one.
+     * Used on painting to avoid an allocation per cell, so the returned
+     * rectangle is only valid until the next cell is painted.
+     * <p>
+     * Subclasses that implement an adjustment should override this method,
+     * as {@link #adjustCellBounds(int, int, Rectangle)} delegates to it. If a
+     * subclass overrides {@link #adjustCellBounds(int, int, Rectangle)}, that
+     * method is used on painting instead.
+     * </p>
+     *
+     * @param columnPosition
+     *            The column position of the cell.
+     * @param rowPosition
+     *            The row position of the cell.
+     * @param cellBounds
+     *            The bounds of the cell.
+     * @param target
+     *            The rectangle the adjusted bounds can be written to, can be
+     *            the same instance as the cell bounds.
+     * @return The adjusted cell bounds.
+     * @since 2.0
+     */
+    protected Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle cellBounds, Rectangle target) {
         return cellBounds;
     }
 
@@ -197,11 +334,14 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
         int columnPosition = cell.getColumnPosition();
         int rowPosition = cell.getRowPosition();
         ICellPainter cellPainter = layer.getCellPainter(columnPosition, rowPosition, cell, configRegistry);
-        Rectangle adjustedCellBounds = layer
-                .getLayerPainter()
-                .adjustCellBounds(columnPosition, rowPosition, cell.getBounds());
+        ILayerPainter layerPainter = layer.getLayerPainter();
+        Rectangle adjustedCellBounds = (layerPainter instanceof CellLayerPainter
+                && !((CellLayerPainter) layerPainter).adjustCellBoundsOverridden)
+                ? ((CellLayerPainter) layerPainter).adjustCellBounds(
+                        columnPosition, rowPosition, cell.getBounds(), this.adjustedCellBounds)
+                : layerPainter.adjustCellBounds(columnPosition, rowPosition, cell.getBounds());
         if (cellPainter != null) {
-            Rectangle originalClipping = gc.getClipping();
+            Rectangle originalClipping = (this.paintClipping != null) ? this.paintClipping : gc.getClipping();
 
             int startX = getStartXOfColumnPosition(columnPosition);
             int startY = getStartYOfRowPosition(rowPosition);
@@ -209,9 +349,14 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
             int endX = getStartXOfColumnPosition(cell.getOriginColumnPosition() + cell.getColumnSpan());
             int endY = getStartYOfRowPosition(cell.getOriginRowPosition() + cell.getRowSpan());
 
-            Rectangle cellClipBounds = originalClipping.intersection(
-                    new Rectangle(startX, startY, endX - startX, endY - startY));
-            gc.setClipping(cellClipBounds.intersection(adjustedCellBounds));
+            Rectangle cellClip = this.cellClipBounds;
+            cellClip.x = startX;
+            cellClip.y = startY;
+            cellClip.width = endX - startX;
+            cellClip.height = endY - startY;
+            cellClip.intersect(originalClipping);
+            cellClip.intersect(adjustedCellBounds);
+            gc.setClipping(cellClip);
 
             cellPainter.paintCell(cell, gc, adjustedCellBounds, configRegistry);
 
@@ -221,19 +366,19 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
 
     protected int getStartXOfColumnPosition(final int columnPosition) {
         if (columnPosition < this.natLayer.getColumnCount()) {
-            Integer start = this.horizontalPositionToPixelMap.get(columnPosition);
-            if (start == null) {
-                start = this.natLayer.getStartXOfColumnPosition(columnPosition);
-                if (columnPosition > 0) {
-                    int start2 = this.natLayer.getStartXOfColumnPosition(columnPosition - 1)
-                            + this.natLayer.getColumnWidthByPosition(columnPosition - 1);
-                    if (start2 > start.intValue()) {
-                        start = start2;
-                    }
+            int index = columnPosition - this.horizontalStartPosition;
+            if (index >= 0 && index < this.horizontalPixelCount) {
+                return this.horizontalPositionToPixel[index];
+            }
+            int start = this.natLayer.getStartXOfColumnPosition(columnPosition);
+            if (columnPosition > 0) {
+                int start2 = this.natLayer.getStartXOfColumnPosition(columnPosition - 1)
+                        + this.natLayer.getColumnWidthByPosition(columnPosition - 1);
+                if (start2 > start) {
+                    start = start2;
                 }
-                this.horizontalPositionToPixelMap.put(columnPosition, start);
             }
-            return start.intValue();
+            return start;
         } else {
             return this.natLayer.getWidth();
         }
@@ -241,19 +386,19 @@ protected int getStartXOfColumnPosition(final int columnPosition) {
 
     protected int getStartYOfRowPosition(final int rowPosition) {
         if (rowPosition < this.natLayer.getRowCount()) {
-            Integer start = this.verticalPositionToPixelMap.get(rowPosition);
-            if (start == null) {
-                start = this.natLayer.getStartYOfRowPosition(rowPosition);
-                if (rowPosition > 0) {
-                    int start2 = this.natLayer.getStartYOfRowPosition(rowPosition - 1)
-                            + this.natLayer.getRowHeightByPosition(rowPosition - 1);
-                    if (start2 > start.intValue()) {
-                        start = start2;
-                    }
+            int index = rowPosition - this.verticalStartPosition;
+            if (index >= 0 && index < this.verticalPixelCount) {
+                return this.verticalPositionToPixel[index];
+            }
+            int start = this.natLayer.getStartYOfRowPosition(rowPosition);
+            if (rowPosition > 0) {
+                int start2 = this.natLayer.getStartYOfRowPosition(rowPosition - 1)
+                        + this.natLayer.getRowHeightByPosition(rowPosition - 1);
+                if (start2 > start) {
+                    start = start2;
                 }
-                this.verticalPositionToPixelMap.put(rowPosition, start);
             }
-            return start.intValue();
+            return start;
         } else {
             return this.natLayer.getHeight();
         }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
 package org.eclipse.nebula.widgets.nattable.painter.layer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
@@ -110,7 +111,7 @@ public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset,
             Rectangle rectangle, IConfigRegistry configRegistry) {
         Boolean renderConfig = null;
         LabelStack stack = natLayer.getRegionLabelsByXY(xOffset, yOffset);
-        List<String> labels = new ArrayList<String>();
+        List<String> labels = Collections.emptyList();
         if (stack != null) {
             labels = stack.getLabels();
             // check if there is a configuration telling to not rendering grid
@@ -143,16 +144,29 @@ public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset,
 
     @Override
     public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle bounds) {
-        Integer adjustment = this.renderGridLines ? this.gridLineWidth : 0;
-
-        int startAdjustment = (adjustment == 1) ? 0 : Math.round(adjustment.floatValue() / 2);
-        int sizeAdjustment = (adjustment == 1) ? 1 : Math.round(adjustment.floatValue() / 2);
+        return adjustCellBounds(columnPosition, rowPosition, bounds, new Rectangle(0, 0, 0, 0));
+    }
 
-        return new Rectangle(
-                bounds.x - startAdjustment,
-                bounds.y - startAdjustment,
-                Math.max(bounds.width - sizeAdjustment, 0),
-                Math.max(bounds.height - sizeAdjustment, 0));
+    /**
+     * @since 2.0
+     */
+    @Override
+    protected Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle bounds, Rectangle target) {
+        int adjustment = this.renderGridLines ? this.gridLineWidth : 0;
+
+        int startAdjustment = (adjustment == 1) ? 0 : Math.round(adjustment / 2f);
+        int sizeAdjustment = (adjustment == 1) ? 1 : Math.round(adjustment / 2f);
+
+        int x = bounds.x - startAdjustment;
+        int y = bounds.y - startAdjustment;
+        int width = Math.max(bounds.width - sizeAdjustment, 0);
+        int height = Math.max(bounds.height - sizeAdjustment, 0);
+
+        target.x = x;
+        target.y = y;
+        target.width = width;
+        target.height = height;
+        return target;
     }
 
     /**
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the paint pass that is currently performed by the current thread.
+ * Components that memoize values which are stable while painting, like the
+ * {@link org.eclipse.nebula.widgets.nattable.layer.cell.MemoizingColumnLabelAccumulator},
+ * can use the id returned by {@link #current()} to detect that a new paint
+ * pass started and the memoized values need to be discarded.
+ * <p>
+ * A paint pass is started by the NatTable on every paint operation. Nested
+ * calls of {@link #begin()} are part of the outer paint pass.
+ * </p>
+ *
+ * @since 2.0
+ */
+public final class PaintPass {
+
+    private static final AtomicLong PASS_COUNTER = new AtomicLong();
+
+    /**
+     * Per thread state, index 0 is the id of the current pass, index 1 the
+     * nesting depth.
+     */
+    private static final ThreadLocal<long[]> STATE = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    private PaintPass() {
+        // private default constructor for helper class
+    }
+
+    /**
+     * Starts a paint pass for the current thread. Every call needs to be
+     * followed by a call to {@link #end()}, typically in a finally block.
+     */
+    public static void begin() {
+        long[] state = STATE.get();
+        if (state[1]++ == 0) {
+            state[0] = PASS_COUNTER.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the paint pass for the current thread.
+     */
+    public static void end() {
+        long[] state = STATE.get();
+        if (state[1] > 0 && --state[1] == 0) {
+            state[0] = 0;
+        }
+    }
+
+    /**
+     *
+     * @return The id of the paint pass that is currently performed by the
+     *         current thread, or 0 if the current thread is not painting.
+     */
+    public static long current() {
+        return STATE.get()[0];
+    }
+}
@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * {@link SelectionModel} that answers the selection queries via an index
+ * instead of scanning all selected rectangles on every call. This is useful
+ * for big tables with a lot of independent selections, e.g. created via
+ * CTRL + click, where {@link #isCellPositionSelected(int, int)} is called
+ * for every visible cell on painting.
+ * <p>
+ * The index consists of interval trees over the row and the column ranges of
+ * the selected rectangles, and of the merged row and column ranges. It is
+ * created lazily on the first query after the selections were modified, so a
+ * sequence of modifications only triggers a single rebuild. Modifications of
+ * the list returned by {@link #getSelections()} are not tracked and need to be
+ * avoided.
+ * </p>
+ * <p>
+ * The results of all queries are the same as the ones of the
+ * {@link SelectionModel}, and the adjustments on structural changes are
+ * inherited.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class IntervalSelectionModel extends SelectionModel {
+
+    private volatile SelectionIndex index;
+
+    public IntervalSelectionModel(SelectionLayer selectionLayer) {
+        super(selectionLayer);
+    }
+
+    public IntervalSelectionModel(SelectionLayer selectionLayer, boolean multipleSelectionAllowed) {
+        super(selectionLayer, multipleSelectionAllowed);
+    }
+
+    @Override
+    protected void selectionsChanged() {
+        this.index = null;
+    }
+
+    /**
+     *
+     * @return The index for the current selections, created if necessary.
+     */
+    private SelectionIndex getIndex() {
+        SelectionIndex result = this.index;
+        if (result == null) {
+            getSelectionsLock().readLock().lock();
+            try {
+                result = this.index;
+                if (result == null) {
+                    result = new SelectionIndex(getSelections());
+                    this.index = result;
+                }
+            } finally {
+                getSelectionsLock().readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    // Cell features
+
+    @Override
+    public boolean isCellPositionSelected(int columnPosition, int rowPosition) {
+        SelectionIndex selectionIndex = getIndex();
+        if (selectionIndex.isEmpty()) {
+            return false;
+        }
+
+        ILayerCell cell = this.selectionLayer.getCellByPosition(columnPosition, rowPosition);
+        if (cell != null) {
+            int x = cell.getOriginColumnPosition();
+            int y = cell.getOriginRowPosition();
+            return selectionIndex.rows.intersects(
+                    y, y + cell.getRowSpan(),
+                    x, x + cell.getColumnSpan());
+        }
+        return false;
+    }
+
+    // Column features
+
+    @Override
+    public int[] getSelectedColumnPositions() {
+        RangeIndex columns = getIndex().getColumnRanges(this.selectionLayer.getColumnCount());
+
+        int count = 0;
+        for (int i = 0; i < columns.starts.length; i++) {
+            count += columns.ends[i] - columns.starts[i];
+        }
+
+        int[] result = new int[count];
+        int pos = 0;
+        for (int i = 0; i < columns.starts.length; i++) {
+            for (int column = columns.starts[i]; column < columns.ends[i]; column++) {
+                result[pos++] = column;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected Set<Range> internalGetSelectedColumnPositions() {
+        return getIndex().getColumnRanges(this.selectionLayer.getColumnCount()).copyUniqueRanges();
+    }
+
+    @Override
+    public boolean isColumnPositionSelected(int columnPosition) {
+        return getIndex().getColumnRanges(this.selectionLayer.getColumnCount()).contains(columnPosition);
+    }
+
+    @Override
+    public boolean isColumnPositionFullySelected(int columnPosition, int columnHeight) {
+        SelectionIndex selectionIndex = getIndex();
+        int[] ids = selectionIndex.columns.stab(columnPosition);
+
+        List<Rectangle> selectedRectanglesInColumn = new ArrayList<Rectangle>(ids.length);
+        for (int id : ids) {
+            Rectangle r = selectionIndex.rectangles[id];
+            selectedRectanglesInColumn.add(new Rectangle(
+                    columnPosition,
+                    r.y,
+                    1,
+                    r.height));
+        }
+        return isColumnCovered(selectedRectanglesInColumn, columnPosition, columnHeight);
+    }
+
+    // Row features
+
+    @Override
+    public int getSelectedRowCount() {
+        return getIndex().getRowRanges(this.selectionLayer.getRowCount()).uniqueCount;
+    }
+
+    @Override
+    public Set<Range> getSelectedRowPositions() {
+        return getIndex().getRowRanges(this.selectionLayer.getRowCount()).copyUniqueRanges();
+    }
+
+    @Override
+    public boolean isRowPositionSelected(int rowPosition) {
+        return getIndex().getRowRanges(this.selectionLayer.getRowCount()).contains(rowPosition);
+    }
+
+    @Override
+    public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
+        SelectionIndex selectionIndex = getIndex();
+        int[] ids = selectionIndex.rows.stab(rowPosition);
+
+        List<Rectangle> selectedRectanglesInRow = new ArrayList<Rectangle>(ids.length);
+        for (int id : ids) {
+            Rectangle r = selectionIndex.rectangles[id];
+            selectedRectanglesInRow.add(new Rectangle(
+                    r.x,
+                    rowPosition,
+                    r.width,
+                    1));
+        }
+        return isRowCovered(selectedRectanglesInRow, rowPosition, rowWidth);
+    }
+
+    /**
+     * Immutable snapshot of the selections with the interval trees for the
+     * row and column ranges. The merged ranges depend on the row and column
+     * count of the {@link SelectionLayer} and are cached for the last
+     * requested count.
+     */
+    private static final class SelectionIndex {
+
+        private final Rectangle[] rectangles;
+        private final IntervalTree rows;
+        private final IntervalTree columns;
+
+        private volatile RangeIndex rowRanges;
+        private volatile RangeIndex columnRanges;
+
+        SelectionIndex(List<Rectangle> selections) {
+            this.rectangles = new Rectangle[selections.size()];
+            int i = 0;
+            for (Rectangle r : selections) {
+                this.rectangles[i++] = new Rectangle(r.x, r.y, r.width, r.height);
+            }
+            this.rows = new IntervalTree(this.rectangles, true);
+            this.columns = new IntervalTree(this.rectangles, false);
+        }
+
+        boolean isEmpty() {
+            return this.rectangles.length == 0;
+        }
+
+        RangeIndex getRowRanges(int rowCount) {
+            RangeIndex result = this.rowRanges;
+            if (result == null || result.count != rowCount) {
+                result = new RangeIndex(this.rectangles, true, rowCount);
+                this.rowRanges = result;
+            }
+            return result;
+        }
+
+        RangeIndex getColumnRanges(int columnCount) {
+            RangeIndex result = this.columnRanges;
+            if (result == null || result.count != columnCount) {
+                result = new RangeIndex(this.rectangles, false, columnCount);
+                this.columnRanges = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The merged ranges of the selections in one dimension, reduced to the
+     * row or column count.
+     */
+    private static final class RangeIndex {
+
+        /**
+         * The row or column count this index was created for.
+         */
+        private final int count;
+
+        /**
+         * The merged ranges as calculated by the {@link SelectionModel}.
+         */
+        private final Range[] uniqueRanges;
+        private final int uniqueCount;
+
+        /**
+         * The union of the non empty ranges, sorted and disjoint, for the
+         * contains checks.
+         */
+        private final int[] starts;
+        private final int[] ends;
+
+        RangeIndex(Rectangle[] rectangles, boolean vertical, int count) {
+            this.count = count;
+
+            // the same calculation as in the SelectionModel, so the results
+            // are equal also for corner cases like empty selections
+            Set<Range> selectedRanges = new HashSet<Range>();
+            for (Rectangle r : rectangles) {
+                int start = vertical ? r.y : r.x;
+                int length = vertical ? r.height : r.width;
+                if (start < count) {
+                    int end = (start + length <= count) ? start + length : count;
+                    selectedRanges.add(new Range(start, end));
+                }
+            }
+            List<Range> unique = getUniqueRanges(selectedRanges);
+            this.uniqueRanges = unique.toArray(new Range[unique.size()]);
+
+            // sum up via a set like the SelectionModel, as merged ranges
+            // might be equal for corner cases
+            int sum = 0;
+            for (Range range : new HashSet<Range>(unique)) {
+                sum += range.end - range.start;
+            }
+            this.uniqueCount = sum;
+
+            Range[] sorted = this.uniqueRanges.clone();
+            Arrays.sort(sorted, (r1, r2) -> Integer.compare(r1.start, r2.start));
+            int[] s = new int[sorted.length];
+            int[] e = new int[sorted.length];
+            int size = 0;
+            for (Range range : sorted) {
+                if (range.start >= range.end) {
+                    continue;
+                }
+                if (size > 0 && range.start <= e[size - 1]) {
+                    e[size - 1] = Math.max(e[size - 1], range.end);
+                } else {
+                    s[size] = range.start;
+                    e[size] = range.end;
+                    size++;
+                }
+            }
+            this.starts = Arrays.copyOf(s, size);
+            this.ends = Arrays.copyOf(e, size);
+        }
+
+        boolean contains(int position) {
+            // index of the last range that starts at or before the position
+            int low = 0;
+            int high = this.starts.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (this.starts[mid] <= position) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found >= 0 && position < this.ends[found];
+        }
+
+        Set<Range> copyUniqueRanges() {
+            List<Range> copy = new ArrayList<Range>(this.uniqueRanges.length);
+            for (Range range : this.uniqueRanges) {
+                copy.add(new Range(range.start, range.end));
+            }
+            return new HashSet<Range>(copy);
+        }
+    }
+
+    /**
+     * Static interval tree over the row or column ranges of the selected
+     * rectangles. The intervals are stored in an array sorted by start, where
+     * the middle element of every sub array is the root of the corresponding
+     * subtree and holds the maximum end of that subtree.
+     */
+    private static final class IntervalTree {
+
+        private final int[] ids;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+
+        /**
+         * The range of the other dimension, used for intersection checks.
+         */
+        private final int[] otherStarts;
+        private final int[] otherEnds;
+
+        IntervalTree(Rectangle[] rectangles, boolean vertical) {
+            int size = rectangles.length;
+
+            // sort by start and then by the position in the selections
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                int start = vertical ? rectangles[i].y : rectangles[i].x;
+                keys[i] = ((long) start << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            this.ids = new int[size];
+            this.starts = new int[size];
+            this.ends = new int[size];
+            this.maxEnds = new int[size];
+            this.otherStarts = new int[size];
+            this.otherEnds = new int[size];
+            for (int i = 0; i < size; i++) {
+                int id = (int) keys[i];
+                Rectangle r = rectangles[id];
+                this.ids[i] = id;
+                if (vertical) {
+                    this.starts[i] = r.y;
+                    this.ends[i] = r.y + r.height;
+                    this.otherStarts[i] = r.x;
+                    this.otherEnds[i] = r.x + r.width;
+                } else {
+                    this.starts[i] = r.x;
+                    this.ends[i] = r.x + r.width;
+                    this.otherStarts[i] = r.y;
+                    this.otherEnds[i] = r.y + r.height;
+                }
+            }
+            buildMaxEnds(0, size);
+        }
+
+        private int buildMaxEnds(int low, int high) {
+            if (low >= high) {
+                return Integer.MIN_VALUE;
+            }
+            int mid = (low + high) >>> 1;
+            int max = Math.max(this.ends[mid],
+                    Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+            this.maxEnds[mid] = max;
+            return max;
+        }
+
+        /**
+         * Checks if there is an interval that overlaps [from, to) and whose
+         * range in the other dimension overlaps [otherFrom, otherTo). This is
+         * the same check as {@link Rectangle#intersects(Rectangle)}.
+         */
+        boolean intersects(int from, int to, int otherFrom, int otherTo) {
+            return intersects(0, this.starts.length, from, to, otherFrom, otherTo);
+        }
+
+        private boolean intersects(int low, int high, int from, int to, int otherFrom, int otherTo) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.maxEnds[mid] <= from) {
+                    // no interval in this subtree ends after from
+                    return false;
+                }
+                if (intersects(low, mid, from, to, otherFrom, otherTo)) {
+                    return true;
+                }
+                if (this.starts[mid] >= to) {
+                    // all intervals in the right subtree start after to
+                    return false;
+                }
+                if (this.ends[mid] > from
+                        && this.otherStarts[mid] < otherTo
+                        && this.otherEnds[mid] > otherFrom) {
+                    return true;
+                }
+                low = mid + 1;
+            }
+            return false;
+        }
+
+        /**
+         * Collects the intervals that contain the given position.
+         *
+         * @return The positions in the selections of the matching rectangles,
+         *         in ascending order.
+         */
+        int[] stab(int position) {
+            int[] result = new int[8];
+            int size = stab(0, this.starts.length, position, result, 0);
+            if (size < 0) {
+                // the buffer was too small, collect again with the maximum
+                result = new int[this.starts.length];
+                size = stab(0, this.starts.length, position, result, 0);
+            }
+            result = Arrays.copyOf(result, size);
+            Arrays.sort(result);
+            return result;
+        }
+
+        /**
+         * @return The new size of the result, or -1 if the result buffer is
+         *         too small.
+         */
+        private int stab(int low, int high, int position, int[] result, int size) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.maxEnds[mid] <= position) {
+                    return size;
+                }
+                size = stab(low, mid, position, result, size);
+                if (size < 0 || this.starts[mid] > position) {
+                    return size;
+                }
+                if (this.ends[mid] > position) {
+                    if (size == result.length) {
+                        return -1;
+                    }
+                    result[size++] = this.ids[mid];
+                }
+                low = mid + 1;
+            }
+            return size;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -127,6 +127,7 @@ private void addSelectionIntoList(Rectangle selection) {
             }
 
             this.selections.add(selection);
+            selectionsChanged();
         } finally {
             this.selectionsLock.writeLock().unlock();
         }
@@ -138,6 +139,7 @@ public void clearSelection() {
         this.selectionsLock.writeLock().lock();
         try {
             this.selections.clear();
+            selectionsChanged();
         } finally {
             this.selectionsLock.writeLock().unlock();
         }
@@ -190,6 +192,7 @@ public void clearSelection(Rectangle removedSelection) {
             this.selectionsLock.writeLock().lock();
             try {
                 this.selections.removeAll(removedItems);
+                selectionsChanged();
             } finally {
                 this.selectionsLock.writeLock().unlock();
             }
@@ -201,6 +204,7 @@ public void clearSelection(Rectangle removedSelection) {
             this.selectionsLock.writeLock().lock();
             try {
                 this.selections.addAll(addedItems);
+                selectionsChanged();
             } finally {
                 this.selectionsLock.writeLock().unlock();
             }
@@ -225,6 +229,30 @@ public List<Rectangle> getSelections() {
         return this.selections;
     }
 
+    /**
+     * Callback that is triggered after the selections were modified via the
+     * methods of this model, while the write lock is held. Subclasses can
+     * override this to invalidate data that is derived from the selections.
+     * <p>
+     * Note that modifications of the list returned by
+     * {@link #getSelections()} are not tracked.
+     * </p>
+     *
+     * @since 2.0
+     */
+    protected void selectionsChanged() {
+        // nothing to do by default
+    }
+
+    /**
+     *
+     * @return The lock that guards the access to the selections.
+     * @since 2.0
+     */
+    protected ReadWriteLock getSelectionsLock() {
+        return this.selectionsLock;
+    }
+
     // Cell features
 
     @Override
@@ -301,7 +329,19 @@ protected Set<Range> internalGetSelectedColumnPositions() {
             this.selectionsLock.readLock().unlock();
         }
 
-        ArrayList<Range> ranges = new ArrayList<Range>(selectedColumnsRange);
+        return new HashSet<Range>(getUniqueRanges(selectedColumnsRange));
+    }
+
+    /**
+     * Merges overlapping and adjacent ranges.
+     *
+     * @param selectedRanges
+     *            The ranges to merge. The contained {@link Range} objects are
+     *            modified.
+     * @return The merged ranges sorted by start.
+     */
+    static List<Range> getUniqueRanges(Collection<Range> selectedRanges) {
+        ArrayList<Range> ranges = new ArrayList<Range>(selectedRanges);
         Range.sortByStart(ranges);
         List<Range> uniqueRanges = new ArrayList<Range>(ranges.size());
 
@@ -322,7 +362,7 @@ protected Set<Range> internalGetSelectedColumnPositions() {
                 uniqueRanges.add(ranges.get(i));
             }
         }
-        return new HashSet<Range>(uniqueRanges);
+        return uniqueRanges;
     }
 
     @Override
@@ -383,35 +423,7 @@ public boolean isColumnPositionFullySelected(int columnPosition, int columnHeigh
                             r.height));
                 }
             }
-            if (selectedRectanglesInColumn.isEmpty()) {
-                return false;
-            }
-            sortByY(selectedRectanglesInColumn);
-            Rectangle finalRectangle = new Rectangle(
-                    columnPosition,
-                    selectedRectanglesInColumn.get(0).y,
-                    0,
-                    0);
-
-            // Ensure that selections in the column are contiguous and cover the
-            // entire column
-            for (int i = 0; i < selectedRectanglesInColumn.size(); i++) {
-                Rectangle rectangle = selectedRectanglesInColumn.get(i);
-                if (contains(finalRectangle, rectangle)) {
-                    continue;
-                }
-                if (i > 0) {
-                    Rectangle previousRect = selectedRectanglesInColumn
-                            .get(i - 1);
-                    if (rectangle.union(previousRect).height > (rectangle.height + previousRect.height)) {
-                        // Rectangles not contiguous
-                        return false;
-                    }
-                }
-                // Union will resolve any overlapping area
-                finalRectangle = finalRectangle.union(rectangle);
-            }
-            return finalRectangle.height >= columnHeight;
+            return isColumnCovered(selectedRectanglesInColumn, columnPosition, columnHeight);
         } finally {
             this.selectionsLock.readLock().unlock();
         }
@@ -447,28 +459,7 @@ public Set<Range> getSelectedRowPositions() {
             this.selectionsLock.readLock().unlock();
         }
 
-        ArrayList<Range> ranges = new ArrayList<Range>(selectedRowsRange);
-        Range.sortByStart(ranges);
-        List<Range> uniqueRanges = new ArrayList<Range>(ranges.size());
-
-        // Adjust for overlaps - between consecutive selections
-        for (int i = 0; i < ranges.size(); i++) {
-            if (i > 0) {
-                Range previousRange = ranges.get(i - 1);
-                Range currentRange = ranges.get(i);
-                if (previousRange.overlap(currentRange)
-                        || (previousRange.end == currentRange.start)) {
-                    int largerRangeEnd = (previousRange.end > currentRange.end) ? previousRange.end : currentRange.end;
-                    uniqueRanges.get(uniqueRanges.size() - 1).end = largerRangeEnd;
-                    ranges.get(i).end = largerRangeEnd;
-                } else {
-                    uniqueRanges.add(ranges.get(i));
-                }
-            } else {
-                uniqueRanges.add(ranges.get(i));
-            }
-        }
-        return new HashSet<Range>(uniqueRanges);
+        return new HashSet<Range>(getUniqueRanges(selectedRowsRange));
     }
 
     @Override
@@ -525,37 +516,99 @@ public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
                             1));
                 }
             }
-            if (selectedRectanglesInRow.isEmpty()) {
-                return false;
+            return isRowCovered(selectedRectanglesInRow, rowPosition, rowWidth);
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if the given rectangles of a column are contiguous and cover the
+     * whole column height.
+     *
+     * @param selectedRectanglesInColumn
+     *            The selected rectangles in the column, in the order of the
+     *            selections, reduced to the width of the column.
+     * @param columnPosition
+     *            The column position to check.
+     * @param columnHeight
+     *            The height of the column.
+     * @return <code>true</code> if the rectangles cover the whole column.
+     */
+    boolean isColumnCovered(List<Rectangle> selectedRectanglesInColumn, int columnPosition, int columnHeight) {
+        if (selectedRectanglesInColumn.isEmpty()) {
+            return false;
+        }
+        sortByY(selectedRectanglesInColumn);
+        Rectangle finalRectangle = new Rectangle(
+                columnPosition,
+                selectedRectanglesInColumn.get(0).y,
+                0,
+                0);
+
+        // Ensure that selections in the column are contiguous and cover the
+        // entire column
+        for (int i = 0; i < selectedRectanglesInColumn.size(); i++) {
+            Rectangle rectangle = selectedRectanglesInColumn.get(i);
+            if (contains(finalRectangle, rectangle)) {
+                continue;
             }
-            sortByX(selectedRectanglesInRow);
-            Rectangle finalRectangle = new Rectangle(
-                    selectedRectanglesInRow.get(0).x,
-                    rowPosition,
-                    0,
-                    0);
-
-            // Ensure that selections in the row are contiguous and cover the
-            // entire row
-            for (int i = 0; i < selectedRectanglesInRow.size(); i++) {
-                Rectangle rectangle = selectedRectanglesInRow.get(i);
-                if (contains(finalRectangle, rectangle)) {
-                    continue;
+            if (i > 0) {
+                Rectangle previousRect = selectedRectanglesInColumn
+                        .get(i - 1);
+                if (rectangle.union(previousRect).height > (rectangle.height + previousRect.height)) {
+                    // Rectangles not contiguous
+                    return false;
                 }
-                if (i > 0) {
-                    Rectangle previousRect = selectedRectanglesInRow.get(i - 1);
-                    if (rectangle.union(previousRect).width > (rectangle.width + previousRect.width)) {
-                        // Rectangles not contiguous
-                        return false;
-                    }
+            }
+            // Union will resolve any overlapping area
+            finalRectangle = finalRectangle.union(rectangle);
+        }
+        return finalRectangle.height >= columnHeight;
+    }
+
+    /**
+     * Checks if the given rectangles of a row are contiguous and cover the
+     * whole row width.
+     *
+     * @param selectedRectanglesInRow
+     *            The selected rectangles in the row, in the order of the
+     *            selections, reduced to the height of the row.
+     * @param rowPosition
+     *            The row position to check.
+     * @param rowWidth
+     *            The width of the row.
+     * @return <code>true</code> if the rectangles cover the whole row.
+     */
+    boolean isRowCovered(List<Rectangle> selectedRectanglesInRow, int rowPosition, int rowWidth) {
+        if (selectedRectanglesInRow.isEmpty()) {
+            return false;
+        }
+        sortByX(selectedRectanglesInRow);
+        Rectangle finalRectangle = new Rectangle(
+                selectedRectanglesInRow.get(0).x,
+                rowPosition,
+                0,
+                0);
+
+        // Ensure that selections in the row are contiguous and cover the
+        // entire row
+        for (int i = 0; i < selectedRectanglesInRow.size(); i++) {
+            Rectangle rectangle = selectedRectanglesInRow.get(i);
+            if (contains(finalRectangle, rectangle)) {
+                continue;
+            }
+            if (i > 0) {
+                Rectangle previousRect = selectedRectanglesInRow.get(i - 1);
+                if (rectangle.union(previousRect).width > (rectangle.width + previousRect.width)) {
+                    // Rectangles not contiguous
+                    return false;
                 }
-                // Union will resolve any overlapping area
-                finalRectangle = finalRectangle.union(rectangle);
             }
-            return finalRectangle.width >= rowWidth;
-        } finally {
-            this.selectionsLock.readLock().unlock();
+            // Union will resolve any overlapping area
+            finalRectangle = finalRectangle.union(rectangle);
         }
+        return finalRectangle.width >= rowWidth;
     }
 
     protected boolean contains(Rectangle containerRectangle, Rectangle rectangle) {
@@ -0,0 +1,534 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.NullComparator;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+
+/**
+ * {@link ISortModel} implementation that does not depend on GlazedLists. It
+ * sorts the rows of any {@link IRowDataProvider} by maintaining a permutation
+ * of the row indexes in a primitive <code>int[]</code>, the underlying data is
+ * not modified. The sorted view on the data is provided by
+ * {@link #getSortedRowDataProvider()}, which needs to be used as data provider
+ * of the body DataLayer.
+ * <p>
+ * On sorting, the values of the sorted columns are extracted once into
+ * arrays, so the comparators are applied to the cached values instead of
+ * requesting the values from the data provider for every comparison. Large
+ * inputs are sorted via a parallel merge sort on the common
+ * {@link ForkJoinPool}. Rows with equal values keep the order of the
+ * underlying data provider.
+ * </p>
+ * <p>
+ * Updated rows can be re-inserted at their new position via
+ * {@link #updateRows(int...)} without sorting all rows again. Values that are
+ * set via the sorted data provider are re-inserted automatically. If the
+ * number of rows of the underlying data provider changes, all rows are sorted
+ * again on the next access.
+ * </p>
+ * <p>
+ * The comparators are retrieved from the {@link IConfigRegistry} via
+ * {@link SortConfigAttributes#SORT_COMPARATOR} for the labels of the column
+ * header cells. As they are called from multiple threads on parallel
+ * sorting, they need to be thread safe. Otherwise parallel sorting needs to
+ * be disabled via {@link #setParallelSortEnabled(boolean)}.
+ * </p>
+ * <p>
+ * This class is not thread safe, it is intended to be used in the UI thread.
+ * </p>
+ *
+ * @param <T>
+ *            Type of the row objects.
+ * @since 2.0
+ */
+public class PermutationSortModel<T> implements ISortModel {
+
+    /**
+     * The minimum number of rows that are sorted in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * The number of rows below which insertion sort is used.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    protected final IRowDataProvider<T> rowDataProvider;
+    protected final IConfigRegistry configRegistry;
+    protected final ILayer columnHeaderDataLayer;
+
+    private final IRowDataProvider<T> sortedRowDataProvider = new SortedRowDataProvider();
+
+    /**
+     * The sorted columns in the order they were added.
+     */
+    private final List<SortKey> sortKeys = new ArrayList<SortKey>();
+
+    /**
+     * The source row index for every sorted row index, <code>null</code> if
+     * no column is sorted.
+     */
+    private int[] sortedToSource;
+
+    /**
+     * The sorted row index for every source row index, <code>null</code> if
+     * no column is sorted.
+     */
+    private int[] sourceToSorted;
+
+    private boolean parallelSortEnabled = true;
+
+    /**
+     *
+     * @param rowDataProvider
+     *            The {@link IRowDataProvider} that provides the unsorted data.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to retrieve the comparators of
+     *            the columns.
+     * @param columnHeaderDataLayer
+     *            The DataLayer of the column header, needed to retrieve the
+     *            labels of the column header cells to determine the
+     *            comparators.
+     */
+    public PermutationSortModel(
+            IRowDataProvider<T> rowDataProvider,
+            IConfigRegistry configRegistry,
+            ILayer columnHeaderDataLayer) {
+        if (rowDataProvider == null) {
+            throw new IllegalArgumentException("rowDataProvider can not be null"); //$NON-NLS-1$
+        }
+        this.rowDataProvider = rowDataProvider;
+        this.configRegistry = configRegistry;
+        this.columnHeaderDataLayer = columnHeaderDataLayer;
+    }
+
+    /**
+     *
+     * @return The {@link IRowDataProvider} that provides the data of the
+     *         underlying {@link IRowDataProvider} in the current sort order.
+     */
+    public IRowDataProvider<T> getSortedRowDataProvider() {
+        return this.sortedRowDataProvider;
+    }
+
+    @Override
+    public List<Integer> getSortedColumnIndexes() {
+        List<Integer> result = new ArrayList<Integer>(this.sortKeys.size());
+        for (SortKey key : this.sortKeys) {
+            result.add(key.columnIndex);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isColumnIndexSorted(int columnIndex) {
+        return getSortKey(columnIndex) != null;
+    }
+
+    @Override
+    public SortDirectionEnum getSortDirection(int columnIndex) {
+        SortKey key = getSortKey(columnIndex);
+        return (key != null) ? key.direction : SortDirectionEnum.NONE;
+    }
+
+    @Override
+    public int getSortOrder(int columnIndex) {
+        SortKey key = getSortKey(columnIndex);
+        return (key != null) ? this.sortKeys.indexOf(key) : -1;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List<Comparator> getComparatorsForColumnIndex(int columnIndex) {
+        Comparator<?> comparator = getColumnComparator(columnIndex);
+        if (comparator == null) {
+            return Collections.emptyList();
+        }
+        List<Comparator> result = new ArrayList<Comparator>(1);
+        result.add(comparator);
+        return result;
+    }
+
+    @Override
+    public Comparator<?> getColumnComparator(int columnIndex) {
+        ILayerCell cell = this.columnHeaderDataLayer.getCellByPosition(columnIndex, 0);
+        if (cell == null) {
+            return null;
+        }
+        Comparator<?> comparator = this.configRegistry.getConfigAttribute(
+                SortConfigAttributes.SORT_COMPARATOR,
+                cell.getDisplayMode(),
+                cell.getConfigLabels().getLabels());
+
+        return (comparator instanceof NullComparator) ? null : comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void sort(int columnIndex, SortDirectionEnum sortDirection, boolean accumulate) {
+        Comparator<Object> comparator = (Comparator<Object>) getColumnComparator(columnIndex);
+        if (comparator == null) {
+            return;
+        }
+
+        if (!accumulate) {
+            this.sortKeys.clear();
+        }
+
+        SortKey key = getSortKey(columnIndex);
+        if (key != null) {
+            this.sortKeys.remove(key);
+        }
+        if (sortDirection != null && sortDirection != SortDirectionEnum.NONE) {
+            this.sortKeys.add(new SortKey(columnIndex, sortDirection, comparator));
+        }
+
+        refresh();
+    }
+
+    @Override
+    public void clear() {
+        this.sortKeys.clear();
+        refresh();
+    }
+
+    /**
+     * Extracts the values of the sorted columns again and sorts all rows.
+     * Needs to be called if the underlying data was modified without
+     * notifying this model via {@link #updateRows(int...)}.
+     */
+    public void refresh() {
+        if (this.sortKeys.isEmpty()) {
+            this.sortedToSource = null;
+            this.sourceToSorted = null;
+            return;
+        }
+
+        int rowCount = this.rowDataProvider.getRowCount();
+        for (SortKey key : this.sortKeys) {
+            key.values = new Object[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                key.values[row] = this.rowDataProvider.getDataValue(key.columnIndex, row);
+            }
+        }
+
+        int[] permutation = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            permutation[row] = row;
+        }
+
+        int[] buffer = new int[rowCount];
+        if (this.parallelSortEnabled && rowCount >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new SortTask(permutation, buffer, 0, rowCount));
+        } else {
+            mergeSort(permutation, buffer, 0, rowCount);
+        }
+
+        this.sortedToSource = permutation;
+        this.sourceToSorted = buffer;
+        for (int i = 0; i < rowCount; i++) {
+            this.sourceToSorted[permutation[i]] = i;
+        }
+    }
+
+    /**
+     * Moves the given rows to the position that matches their current values
+     * without sorting all rows again. Needs to be called if values of sorted
+     * columns were modified in the underlying data.
+     *
+     * @param sourceRowIndexes
+     *            The indexes of the updated rows in the underlying
+     *            {@link IRowDataProvider}.
+     */
+    public void updateRows(int... sourceRowIndexes) {
+        if (this.sortedToSource == null) {
+            return;
+        }
+        if (this.sortedToSource.length != this.rowDataProvider.getRowCount()
+                || sourceRowIndexes.length > this.sortedToSource.length / 16) {
+            // re-inserting every row is more expensive than sorting all rows
+            refresh();
+            return;
+        }
+
+        for (int source : sourceRowIndexes) {
+            for (SortKey key : this.sortKeys) {
+                key.values[source] = this.rowDataProvider.getDataValue(key.columnIndex, source);
+            }
+
+            int from = this.sourceToSorted[source];
+            int to = insertionPoint(source, from);
+            if (to > from) {
+                System.arraycopy(this.sortedToSource, from + 1, this.sortedToSource, from, to - from);
+            } else if (to < from) {
+                System.arraycopy(this.sortedToSource, to, this.sortedToSource, to + 1, from - to);
+            }
+            this.sortedToSource[to] = source;
+
+            for (int i = Math.min(from, to); i <= Math.max(from, to); i++) {
+                this.sourceToSorted[this.sortedToSource[i]] = i;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if large inputs are sorted in parallel.
+     */
+    public boolean isParallelSortEnabled() {
+        return this.parallelSortEnabled;
+    }
+
+    /**
+     * Enable/disable parallel sorting of large inputs. Needs to be disabled if
+     * the configured comparators are not thread safe.
+     *
+     * @param parallelSortEnabled
+     *            <code>true</code> to sort large inputs in parallel,
+     *            <code>false</code> to always sort in the calling thread.
+     */
+    public void setParallelSortEnabled(boolean parallelSortEnabled) {
+        this.parallelSortEnabled = parallelSortEnabled;
+    }
+
+    /**
+     *
+     * @param sortedRowIndex
+     *            The row index in the sorted view.
+     * @return The corresponding row index in the underlying
+     *         {@link IRowDataProvider}.
+     */
+    public int getSourceRowIndex(int sortedRowIndex) {
+        ensureRowCount();
+        return (this.sortedToSource != null) ? this.sortedToSource[sortedRowIndex] : sortedRowIndex;
+    }
+
+    /**
+     *
+     * @param sourceRowIndex
+     *            The row index in the underlying {@link IRowDataProvider}.
+     * @return The corresponding row index in the sorted view.
+     */
+    public int getSortedRowIndex(int sourceRowIndex) {
+        ensureRowCount();
+        return (this.sourceToSorted != null && sourceRowIndex >= 0)
+                ? this.sourceToSorted[sourceRowIndex]
+                : sourceRowIndex;
+    }
+
+    /**
+     * Sorts all rows again if the number of rows in the underlying
+     * {@link IRowDataProvider} changed.
+     */
+    private void ensureRowCount() {
+        if (this.sortedToSource != null
+                && this.sortedToSource.length != this.rowDataProvider.getRowCount()) {
+            refresh();
+        }
+    }
+
+    private SortKey getSortKey(int columnIndex) {
+        for (SortKey key : this.sortKeys) {
+            if (key.columnIndex == columnIndex) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares two rows by the cached values of the sorted columns. Rows with
+     * equal values are ordered by their source row index, which keeps the
+     * sorting stable and makes the position of every row unique.
+     */
+    private int compare(int source1, int source2) {
+        for (SortKey key : this.sortKeys) {
+            int result = key.comparator.compare(key.values[source1], key.values[source2]);
+            if (result != 0) {
+                return (key.direction == SortDirectionEnum.DESC) ? -result : result;
+            }
+        }
+        return Integer.compare(source1, source2);
+    }
+
+    /**
+     *
+     * @return The sorted row index the given source row needs to be moved
+     *         to, in the permutation without the given source row.
+     */
+    private int insertionPoint(int source, int currentPosition) {
+        int low = 0;
+        int high = this.sortedToSource.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            // skip the current position of the row itself
+            int other = this.sortedToSource[(mid < currentPosition) ? mid : mid + 1];
+            if (compare(other, source) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts the given range of the permutation, uses the same range of the
+     * buffer as temporary storage.
+     */
+    private void mergeSort(int[] values, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(values, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(values, buffer, from, mid);
+        mergeSort(values, buffer, mid, to);
+        merge(values, buffer, from, mid, to);
+    }
+
+    private void insertionSort(int[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges <code>[from, mid)</code> and
+     * <code>[mid, to)</code>.
+     */
+    private void merge(int[] values, int[] buffer, int from, int mid, int to) {
+        if (compare(values[mid - 1], values[mid]) <= 0) {
+            // already in order
+            return;
+        }
+        System.arraycopy(values, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compare(buffer[left], buffer[right]) <= 0)) {
+                values[i] = buffer[left++];
+            } else {
+                values[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Sorts a range of the permutation by sorting both halves in parallel and
+     * merging them afterwards.
+     */
+    private class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] values;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        SortTask(int[] values, int[] buffer, int from, int to) {
+            this.values = values;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from < PARALLEL_THRESHOLD) {
+                mergeSort(this.values, this.buffer, this.from, this.to);
+                return;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            invokeAll(
+                    new SortTask(this.values, this.buffer, this.from, mid),
+                    new SortTask(this.values, this.buffer, mid, this.to));
+            merge(this.values, this.buffer, this.from, mid, this.to);
+        }
+    }
+
+    /**
+     * A sorted column with the cached values of all rows.
+     */
+    private static class SortKey {
+
+        final int columnIndex;
+        final SortDirectionEnum direction;
+        final Comparator<Object> comparator;
+
+        Object[] values;
+
+        SortKey(int columnIndex, SortDirectionEnum direction, Comparator<Object> comparator) {
+            this.columnIndex = columnIndex;
+            this.direction = direction;
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * {@link IRowDataProvider} that maps the row indexes of the sorted view to
+     * the underlying {@link IRowDataProvider}.
+     */
+    private class SortedRowDataProvider implements IRowDataProvider<T> {
+
+        @Override
+        public Object getDataValue(int columnIndex, int rowIndex) {
+            return PermutationSortModel.this.rowDataProvider.getDataValue(columnIndex, getSourceRowIndex(rowIndex));
+        }
+
+        @Override
+        public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+            int source = getSourceRowIndex(rowIndex);
+            PermutationSortModel.this.rowDataProvider.setDataValue(columnIndex, source, newValue);
+            if (isColumnIndexSorted(columnIndex)) {
+                updateRows(source);
+            }
+        }
+
+        @Override
+        public int getColumnCount() {
+            return PermutationSortModel.this.rowDataProvider.getColumnCount();
+        }
+
+        @Override
+        public int getRowCount() {
+            return PermutationSortModel.this.rowDataProvider.getRowCount();
+        }
+
+        @Override
+        public T getRowObject(int rowIndex) {
+            return PermutationSortModel.this.rowDataProvider.getRowObject(getSourceRowIndex(rowIndex));
+        }
+
+        @Override
+        public int indexOfRowObject(T rowObject) {
+            return getSortedRowIndex(PermutationSortModel.this.rowDataProvider.indexOfRowObject(rowObject));
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,7 +24,7 @@ public class CellStyleUtil {
     public static IStyle getCellStyle(ILayerCell cell,
             IConfigRegistry configRegistry) {
         return new CellStyleProxy(configRegistry, cell.getDisplayMode(), cell
-                .getConfigLabels().getLabels());
+                .getConfigLabels().getInternedLabels());
     }
 
     public static int getHorizontalAlignmentPadding(IStyle cellStyle,
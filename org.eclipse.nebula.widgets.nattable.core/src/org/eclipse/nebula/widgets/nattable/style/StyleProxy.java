@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
 
 import java.util.List;
 
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 
 public abstract class StyleProxy implements IStyle {
@@ -32,6 +33,20 @@ public StyleProxy(ConfigAttribute<IStyle> styleConfigAttribute,
 
     @Override
     public <T> T getAttributeValue(ConfigAttribute<T> styleAttribute) {
+        if (this.configRegistry instanceof ConfigRegistry) {
+            // use the cached resolution of all matching styles instead of
+            // inspecting the registry for every display mode and label
+            List<IStyle> styles = ((ConfigRegistry) this.configRegistry).getConfigAttributeResolution(
+                    this.styleConfigAttribute, this.targetDisplayMode, this.configLabels);
+            for (int i = 0; i < styles.size(); i++) {
+                T styleAttributeValue = styles.get(i).getAttributeValue(styleAttribute);
+                if (styleAttributeValue != null) {
+                    return styleAttributeValue;
+                }
+            }
+            return null;
+        }
+
         T styleAttributeValue = null;
         IDisplayModeOrdering displayModeOrdering = this.configRegistry
                 .getDisplayModeOrdering();
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider.ColumnType;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+
+/**
+ * Base class for {@link IIncrementalSummaryProvider} implementations. The
+ * first calculation for a column scans all rows and stores a copy of the
+ * numeric values. Afterwards changes are applied as deltas to an
+ * {@link Aggregate}, which only needs to support adding and removing single
+ * values. The copy of the values is needed to know the values of changed and
+ * deleted rows, as they are not available in the data provider anymore.
+ * <p>
+ * If the number of rows in the data provider does not match the number of
+ * collected values, e.g. because a structural change was not reported, the
+ * column is scanned again as a fallback.
+ * </p>
+ * <p>
+ * Cell changes are applied in constant time. Inserted and deleted rows are
+ * applied to the aggregate in constant time per row, but the copy of the
+ * values is kept in a plain array, so the following values need to be
+ * shifted, which is O(n) per insert or delete operation. This is still far
+ * cheaper than a full scan via the data provider, but for huge lists with
+ * frequent structural changes at the beginning, a reset might be the better
+ * choice.
+ * </p>
+ * <p>
+ * As in the {@link SummationSummaryProvider}, values that are not of type
+ * Number result in {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} in strict
+ * mode and are ignored otherwise.
+ * </p>
+ *
+ * @since 2.0
+ */
+public abstract class AbstractIncrementalSummaryProvider implements IIncrementalSummaryProvider {
+
+    protected final IDataProvider dataProvider;
+    protected final boolean strict;
+
+    private final Map<Integer, ColumnSummary> columns = new HashMap<Integer, ColumnSummary>();
+
+    /**
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            summary.
+     * @param strict
+     *            <code>true</code> if
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be
+     *            returned in case a column contains non Number values,
+     *            <code>false</code> if non Number values should be ignored.
+     */
+    public AbstractIncrementalSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        this.dataProvider = dataProvider;
+        this.strict = strict;
+    }
+
+    @Override
+    public synchronized Object summarize(int columnIndex) {
+        ColumnSummary summary = this.columns.get(columnIndex);
+        if (summary == null || summary.size != this.dataProvider.getRowCount()) {
+            summary = scan(columnIndex);
+            this.columns.put(columnIndex, summary);
+        }
+
+        if (this.strict && summary.invalidCount > 0) {
+            return DEFAULT_SUMMARY_VALUE;
+        }
+        return summary.aggregate.getResult();
+    }
+
+    @Override
+    public synchronized void cellChanged(int columnIndex, int rowIndex) {
+        ColumnSummary summary = this.columns.get(columnIndex);
+        if (summary != null) {
+            if (rowIndex < 0 || rowIndex >= summary.size) {
+                this.columns.remove(columnIndex);
+            } else {
+                summary.remove(rowIndex);
+                read(summary, columnIndex, rowIndex);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean rowObjectChanged(Object rowObject) {
+        if (this.columns.isEmpty()) {
+            return true;
+        }
+        if (!(this.dataProvider instanceof IRowDataProvider)) {
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        int rowIndex = ((IRowDataProvider<Object>) this.dataProvider).indexOfRowObject(rowObject);
+        if (rowIndex < 0) {
+            return false;
+        }
+        for (Integer columnIndex : this.columns.keySet().toArray(new Integer[this.columns.size()])) {
+            cellChanged(columnIndex, rowIndex);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void rowsInserted(int rowIndex, int count) {
+        for (Map.Entry<Integer, ColumnSummary> entry : this.columns.entrySet()) {
+            ColumnSummary summary = entry.getValue();
+            if (rowIndex < 0 || rowIndex > summary.size) {
+                // will be scanned again on the next calculation
+                summary.size = -1;
+                continue;
+            }
+            summary.insert(rowIndex, count);
+            for (int row = rowIndex; row < rowIndex + count; row++) {
+                read(summary, entry.getKey(), row);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void rowsDeleted(int rowIndex, int count) {
+        for (ColumnSummary summary : this.columns.values()) {
+            if (rowIndex < 0 || rowIndex + count > summary.size) {
+                summary.size = -1;
+                continue;
+            }
+            for (int row = rowIndex; row < rowIndex + count; row++) {
+                summary.remove(row);
+            }
+            summary.delete(rowIndex, count);
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.columns.clear();
+    }
+
+    /**
+     *
+     * @return A new and empty {@link Aggregate} for a column.
+     */
+    protected abstract Aggregate createAggregate();
+
+    private ColumnSummary scan(int columnIndex) {
+        int rowCount = this.dataProvider.getRowCount();
+        ColumnSummary summary = new ColumnSummary(createAggregate(), rowCount);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            read(summary, columnIndex, rowIndex);
+        }
+        return summary;
+    }
+
+    /**
+     * Reads the value of the given cell from the data provider and adds it to
+     * the summary.
+     */
+    private void read(ColumnSummary summary, int columnIndex, int rowIndex) {
+        if (this.dataProvider instanceof ColumnarDataProvider
+                && ((ColumnarDataProvider) this.dataProvider).getColumnType(columnIndex) != ColumnType.STRING) {
+            ColumnarDataProvider columnar = (ColumnarDataProvider) this.dataProvider;
+            if (columnar.isNull(columnIndex, rowIndex)) {
+                summary.setInvalid(rowIndex);
+            } else {
+                summary.set(rowIndex, columnar.getDouble(columnIndex, rowIndex));
+            }
+        } else {
+            Object dataValue = this.dataProvider.getDataValue(columnIndex, rowIndex);
+            if (dataValue instanceof Number) {
+                summary.set(rowIndex, ((Number) dataValue).doubleValue());
+            } else {
+                summary.setInvalid(rowIndex);
+            }
+        }
+    }
+
+    /**
+     * The incrementally maintained summary of a single column.
+     */
+    protected interface Aggregate {
+
+        /**
+         * Adds a value to the summary.
+         *
+         * @param value
+         *            The value to add.
+         */
+        void add(double value);
+
+        /**
+         * Removes a value that was added before from the summary.
+         *
+         * @param value
+         *            The value to remove.
+         */
+        void remove(double value);
+
+        /**
+         *
+         * @return The summary value of all values currently contained.
+         */
+        Object getResult();
+    }
+
+    /**
+     * The copy of the values of a column together with its {@link Aggregate}.
+     * Inserting and deleting rows shifts the following values, which is
+     * O(n).
+     */
+    private static class ColumnSummary {
+
+        final Aggregate aggregate;
+        double[] values;
+        boolean[] invalid;
+        int size;
+        int invalidCount;
+
+        ColumnSummary(Aggregate aggregate, int size) {
+            this.aggregate = aggregate;
+            this.values = new double[Math.max(size, 16)];
+            this.invalid = new boolean[this.values.length];
+            this.size = size;
+        }
+
+        void set(int row, double value) {
+            this.values[row] = value;
+            this.invalid[row] = false;
+            this.aggregate.add(value);
+        }
+
+        void setInvalid(int row) {
+            this.invalid[row] = true;
+            this.invalidCount++;
+        }
+
+        void remove(int row) {
+            if (this.invalid[row]) {
+                this.invalidCount--;
+            } else {
+                this.aggregate.remove(this.values[row]);
+            }
+        }
+
+        void insert(int row, int count) {
+            if (this.size + count > this.values.length) {
+                int capacity = Math.max(this.size + count, this.values.length + (this.values.length >> 1));
+                double[] newValues = new double[capacity];
+                boolean[] newInvalid = new boolean[capacity];
+                System.arraycopy(this.values, 0, newValues, 0, this.size);
+                System.arraycopy(this.invalid, 0, newInvalid, 0, this.size);
+                this.values = newValues;
+                this.invalid = newInvalid;
+            }
+            System.arraycopy(this.values, row, this.values, row + count, this.size - row);
+            System.arraycopy(this.invalid, row, this.invalid, row + count, this.size - row);
+            this.size += count;
+        }
+
+        void delete(int row, int count) {
+            System.arraycopy(this.values, row + count, this.values, row, this.size - row - count);
+            System.arraycopy(this.invalid, row + count, this.invalid, row, this.size - row - count);
+            this.size -= count;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+/**
+ * An {@link ISummaryProvider} that keeps its summary values up to date by
+ * applying the changes of single cells and rows, instead of scanning all rows
+ * of a column on every calculation. The {@link SummaryRowLayer} informs
+ * registered instances about data updates and structural changes of the rows.
+ * <p>
+ * Implementations need to be thread safe, as the summary values are
+ * calculated in background threads while the changes are applied in the
+ * thread that fires the layer events.
+ * </p>
+ *
+ * @since 2.0
+ */
+public interface IIncrementalSummaryProvider extends ISummaryProvider {
+
+    /**
+     * Applies the change of a single cell. The new value is read from the data
+     * provider and compared with the last known value of the cell.
+     *
+     * @param columnIndex
+     *            The column index of the changed cell.
+     * @param rowIndex
+     *            The row index of the changed cell.
+     */
+    void cellChanged(int columnIndex, int rowIndex);
+
+    /**
+     * Applies the change of all cells of the row that shows the given row
+     * object.
+     *
+     * @param rowObject
+     *            The row object whose properties have changed.
+     * @return <code>true</code> if the row of the row object could be
+     *         determined and the change was applied, <code>false</code> if the
+     *         change could not be applied incrementally and {@link #reset()}
+     *         needs to be called.
+     */
+    boolean rowObjectChanged(Object rowObject);
+
+    /**
+     * Applies the insert of rows.
+     *
+     * @param rowIndex
+     *            The index of the first inserted row.
+     * @param count
+     *            The number of inserted rows.
+     */
+    void rowsInserted(int rowIndex, int count);
+
+    /**
+     * Applies the delete of rows.
+     *
+     * @param rowIndex
+     *            The index of the first deleted row, related to the state
+     *            before the delete.
+     * @param count
+     *            The number of deleted rows.
+     */
+    void rowsDeleted(int rowIndex, int count);
+
+    /**
+     * Discards all incrementally maintained state, so the next calculation
+     * performs a full scan of the column.
+     */
+    void reset();
+}
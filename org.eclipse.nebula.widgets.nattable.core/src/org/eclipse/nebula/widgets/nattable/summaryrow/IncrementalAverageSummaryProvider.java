@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * Incremental {@link ISummaryProvider} that returns the average of all Number
+ * values in a column as Double value, or <code>null</code> if the column does
+ * not contain Number values. Every cell update is applied in constant time.
+ *
+ * @see AbstractIncrementalSummaryProvider
+ * @since 2.0
+ */
+public class IncrementalAverageSummaryProvider extends AbstractIncrementalSummaryProvider {
+
+    /**
+     * Create a new {@link IncrementalAverageSummaryProvider} in strict mode.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            average.
+     */
+    public IncrementalAverageSummaryProvider(IDataProvider dataProvider) {
+        this(dataProvider, true);
+    }
+
+    /**
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            average.
+     * @param strict
+     *            <code>true</code> if
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be
+     *            returned in case a column contains non Number values,
+     *            <code>false</code> if non Number values should be ignored.
+     */
+    public IncrementalAverageSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        super(dataProvider, strict);
+    }
+
+    @Override
+    protected Aggregate createAggregate() {
+        return new SumAggregate() {
+            @Override
+            public Object getResult() {
+                return getCount() > 0 ? getSum() / getCount() : null;
+            }
+        };
+    }
+}
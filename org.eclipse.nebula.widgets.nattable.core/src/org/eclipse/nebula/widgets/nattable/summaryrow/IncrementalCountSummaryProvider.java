@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * Incremental {@link ISummaryProvider} that returns the number of Number
+ * values in a column as Integer value. Every cell update is applied in
+ * constant time.
+ *
+ * @see AbstractIncrementalSummaryProvider
+ * @since 2.0
+ */
+public class IncrementalCountSummaryProvider extends AbstractIncrementalSummaryProvider {
+
+    /**
+     * Create a new {@link IncrementalCountSummaryProvider} that ignores non
+     * Number values.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to count the
+     *            values.
+     */
+    public IncrementalCountSummaryProvider(IDataProvider dataProvider) {
+        this(dataProvider, false);
+    }
+
+    /**
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to count the
+     *            values.
+     * @param strict
+     *            <code>true</code> if
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be
+     *            returned in case a column contains non Number values,
+     *            <code>false</code> if non Number values should be ignored.
+     */
+    public IncrementalCountSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        super(dataProvider, strict);
+    }
+
+    @Override
+    protected Aggregate createAggregate() {
+        return new Aggregate() {
+
+            private int count;
+
+            @Override
+            public void add(double value) {
+                this.count++;
+            }
+
+            @Override
+            public void remove(double value) {
+                this.count--;
+            }
+
+            @Override
+            public Object getResult() {
+                return this.count;
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.TreeMap;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * Incremental {@link ISummaryProvider} that returns the minimum or the maximum
+ * of all Number values in a column as Double value, or <code>null</code> if
+ * the column does not contain Number values. The values are kept in a sorted
+ * multiset, so every cell update is applied in O(log n) and removing the
+ * current extreme value does not require a rescan.
+ *
+ * @see AbstractIncrementalSummaryProvider
+ * @since 2.0
+ */
+public class IncrementalMinMaxSummaryProvider extends AbstractIncrementalSummaryProvider {
+
+    private final boolean max;
+
+    /**
+     * Create a new {@link IncrementalMinMaxSummaryProvider} in strict mode.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            minimum or maximum.
+     * @param max
+     *            <code>true</code> to calculate the maximum, <code>false</code>
+     *            to calculate the minimum.
+     */
+    public IncrementalMinMaxSummaryProvider(IDataProvider dataProvider, boolean max) {
+        this(dataProvider, max, true);
+    }
+
+    /**
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            minimum or maximum.
+     * @param max
+     *            <code>true</code> to calculate the maximum, <code>false</code>
+     *            to calculate the minimum.
+     * @param strict
+     *            <code>true</code> if
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be
+     *            returned in case a column contains non Number values,
+     *            <code>false</code> if non Number values should be ignored.
+     */
+    public IncrementalMinMaxSummaryProvider(IDataProvider dataProvider, boolean max, boolean strict) {
+        super(dataProvider, strict);
+        this.max = max;
+    }
+
+    @Override
+    protected Aggregate createAggregate() {
+        return new Aggregate() {
+
+            /**
+             * Value to number of occurrences.
+             */
+            private final TreeMap<Double, int[]> values = new TreeMap<Double, int[]>();
+
+            @Override
+            public void add(double value) {
+                int[] count = this.values.get(value);
+                if (count == null) {
+                    this.values.put(value, new int[] { 1 });
+                } else {
+                    count[0]++;
+                }
+            }
+
+            @Override
+            public void remove(double value) {
+                int[] count = this.values.get(value);
+                if (count != null && --count[0] == 0) {
+                    this.values.remove(value);
+                }
+            }
+
+            @Override
+            public Object getResult() {
+                if (this.values.isEmpty()) {
+                    return null;
+                }
+                return IncrementalMinMaxSummaryProvider.this.max ? this.values.lastKey() : this.values.firstKey();
+            }
+        };
+    }
+}
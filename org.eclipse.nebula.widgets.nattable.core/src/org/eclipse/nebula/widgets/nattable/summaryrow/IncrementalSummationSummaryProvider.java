@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * Incremental variant of the {@link SummationSummaryProvider}. Returns the sum
+ * of all Number values in a column as Double value. Every cell update is
+ * applied in constant time.
+ *
+ * @see AbstractIncrementalSummaryProvider
+ * @since 2.0
+ */
+public class IncrementalSummationSummaryProvider extends AbstractIncrementalSummaryProvider {
+
+    /**
+     * Create a new {@link IncrementalSummationSummaryProvider} in strict mode.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            sum.
+     */
+    public IncrementalSummationSummaryProvider(IDataProvider dataProvider) {
+        this(dataProvider, true);
+    }
+
+    /**
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            sum.
+     * @param strict
+     *            <code>true</code> if
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be
+     *            returned in case a column contains non Number values,
+     *            <code>false</code> if non Number values should be ignored.
+     */
+    public IncrementalSummationSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        super(dataProvider, strict);
+    }
+
+    @Override
+    protected Aggregate createAggregate() {
+        return new SumAggregate();
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import org.eclipse.nebula.widgets.nattable.summaryrow.AbstractIncrementalSummaryProvider.Aggregate;
+
+/**
+ * Sum that supports removing values. Uses compensated summation to keep the
+ * rounding errors of many add and remove operations low. Infinite and NaN
+ * values are counted separately, as they can not be removed from a sum.
+ */
+class SumAggregate implements Aggregate {
+
+    private double sum;
+    private double compensation;
+    private int count;
+    private int positiveInfinityCount;
+    private int negativeInfinityCount;
+    private int nanCount;
+
+    @Override
+    public void add(double value) {
+        this.count++;
+        if (!addSpecial(value, 1)) {
+            addFinite(value);
+        }
+    }
+
+    @Override
+    public void remove(double value) {
+        this.count--;
+        if (!addSpecial(value, -1)) {
+            addFinite(-value);
+        }
+    }
+
+    private boolean addSpecial(double value, int delta) {
+        if (Double.isNaN(value)) {
+            this.nanCount += delta;
+        } else if (value == Double.POSITIVE_INFINITY) {
+            this.positiveInfinityCount += delta;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            this.negativeInfinityCount += delta;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Neumaier variant of the Kahan summation.
+     */
+    private void addFinite(double value) {
+        double t = this.sum + value;
+        if (Math.abs(this.sum) >= Math.abs(value)) {
+            this.compensation += (this.sum - t) + value;
+        } else {
+            this.compensation += (value - t) + this.sum;
+        }
+        this.sum = t;
+    }
+
+    /**
+     *
+     * @return The number of values contained in the sum.
+     */
+    int getCount() {
+        return this.count;
+    }
+
+    /**
+     *
+     * @return The sum of all values contained.
+     */
+    double getSum() {
+        if (this.nanCount > 0 || (this.positiveInfinityCount > 0 && this.negativeInfinityCount > 0)) {
+            return Double.NaN;
+        } else if (this.positiveInfinityCount > 0) {
+            return Double.POSITIVE_INFINITY;
+        } else if (this.negativeInfinityCount > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return this.sum + this.compensation;
+    }
+
+    @Override
+    public Object getResult() {
+        return getSum();
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2017 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,13 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
@@ -26,11 +32,17 @@
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.command.ConfigureScalingCommand;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
 import org.eclipse.nebula.widgets.nattable.resize.command.MultiRowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
 import org.eclipse.nebula.widgets.nattable.util.ArrayUtil;
@@ -243,13 +255,7 @@ private Object calculateNewSummaryValue(final int columnPosition, boolean calcul
 
                     @Override
                     public Object executeCalculation() {
-                        LabelStack labelStack = getConfigLabelsByPositionWithoutTransformation(columnPosition, getSummaryRowPosition());
-                        String[] configLabels = labelStack.getLabels().toArray(ArrayUtil.STRING_TYPE_ARRAY);
-
-                        final ISummaryProvider summaryProvider = SummaryRowLayer.this.configRegistry.getConfigAttribute(
-                                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
-                                DisplayMode.NORMAL,
-                                configLabels);
+                        final ISummaryProvider summaryProvider = getSummaryProvider(columnPosition);
 
                         // If there is no Summary provider - skip processing
                         if (summaryProvider == ISummaryProvider.NONE || summaryProvider == null) {
@@ -261,6 +267,27 @@ public Object executeCalculation() {
                 });
     }
 
+    /**
+     * Returns the {@link ISummaryProvider} that is registered for the given
+     * column.
+     *
+     * @param columnPosition
+     *            The column position for which the {@link ISummaryProvider} is
+     *            requested. If transformations are necessary, this value
+     *            should be already transformed.
+     * @return The {@link ISummaryProvider} for the given column or
+     *         <code>null</code> if none is registered.
+     */
+    private ISummaryProvider getSummaryProvider(int columnPosition) {
+        LabelStack labelStack = getConfigLabelsByPositionWithoutTransformation(columnPosition, getSummaryRowPosition());
+        String[] configLabels = labelStack.getLabels().toArray(ArrayUtil.STRING_TYPE_ARRAY);
+
+        return this.configRegistry.getConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                DisplayMode.NORMAL,
+                configLabels);
+    }
+
     /**
      * Checks if the given row position is the position of the summary row.
      *
@@ -330,11 +357,157 @@ public boolean doCommand(ILayerCommand command) {
     @Override
     public void handleLayerEvent(ILayerEvent event) {
         if (event instanceof IVisualChangeEvent) {
+            updateIncrementalSummaryProviders(event);
             clearCache();
         }
         super.handleLayerEvent(event);
     }
 
+    /**
+     * Applies the changes described by the given event to the registered
+     * {@link IIncrementalSummaryProvider}s, so the following re-calculation
+     * does not need to scan all rows:
+     * <ul>
+     * <li>a {@link CellVisualChangeEvent}, e.g. a data update, is applied to
+     * the changed cell</li>
+     * <li>a {@link PropertyUpdateEvent} is applied to the row of the changed
+     * row object</li>
+     * <li>the row diffs of an {@link IStructuralChangeEvent} are applied as
+     * inserted and deleted rows</li>
+     * </ul>
+     * Structural changes without row diffs, column structure changes and all
+     * other visual changes except selection changes reset the providers,
+     * which results in a full scan on the next calculation.
+     * <p>
+     * NOTE: As this layer is sitting close to the {@link DataLayer}, the row
+     * positions of structural changes are treated as row indexes.
+     * </p>
+     *
+     * @param event
+     *            The {@link IVisualChangeEvent} to process, not yet converted
+     *            to this layer.
+     * @since 2.0
+     */
+    protected void updateIncrementalSummaryProviders(ILayerEvent event) {
+        if (event instanceof CellVisualChangeEvent) {
+            CellVisualChangeEvent cellEvent = (CellVisualChangeEvent) event;
+            ILayer eventLayer = cellEvent.getLayer();
+            if (eventLayer == this || eventLayer == null) {
+                // events of the summary row itself
+                return;
+            }
+            // the summary providers are registered and calculated by the
+            // column positions of this layer, which are the column positions
+            // of the underlying layer
+            int columnPosition = cellEvent.getColumnPosition();
+            if (eventLayer != this.underlyingLayer) {
+                int columnIndex = eventLayer.getColumnIndexByPosition(columnPosition);
+                columnPosition = (columnIndex >= 0)
+                        ? ((IUniqueIndexLayer) this.underlyingLayer).getColumnPositionByIndex(columnIndex)
+                        : -1;
+            }
+            int rowIndex = eventLayer.getRowIndexByPosition(cellEvent.getRowPosition());
+            if (columnPosition >= 0 && rowIndex >= 0) {
+                ISummaryProvider summaryProvider = getSummaryProvider(columnPosition);
+                if (summaryProvider instanceof IIncrementalSummaryProvider) {
+                    ((IIncrementalSummaryProvider) summaryProvider).cellChanged(columnPosition, rowIndex);
+                }
+            }
+        } else if (event instanceof PropertyUpdateEvent) {
+            Object rowObject = ((PropertyUpdateEvent<?>) event).getSourceBean();
+            for (IIncrementalSummaryProvider summaryProvider : getIncrementalSummaryProviders()) {
+                if (!summaryProvider.rowObjectChanged(rowObject)) {
+                    summaryProvider.reset();
+                }
+            }
+        } else if (event instanceof IStructuralChangeEvent) {
+            IStructuralChangeEvent structuralEvent = (IStructuralChangeEvent) event;
+            if (!structuralEvent.isHorizontalStructureChanged() && !structuralEvent.isVerticalStructureChanged()) {
+                return;
+            }
+
+            Collection<IIncrementalSummaryProvider> summaryProviders = getIncrementalSummaryProviders();
+            if (summaryProviders.isEmpty()) {
+                return;
+            }
+
+            Collection<StructuralDiff> rowDiffs = structuralEvent.getRowDiffs();
+            if (structuralEvent.isHorizontalStructureChanged() || rowDiffs == null) {
+                for (IIncrementalSummaryProvider summaryProvider : summaryProviders) {
+                    summaryProvider.reset();
+                }
+                return;
+            }
+
+            List<StructuralDiff> deletes = new ArrayList<StructuralDiff>();
+            List<StructuralDiff> inserts = new ArrayList<StructuralDiff>();
+            for (StructuralDiff diff : rowDiffs) {
+                if (diff.getDiffType() == DiffTypeEnum.DELETE) {
+                    deletes.add(diff);
+                } else if (diff.getDiffType() == DiffTypeEnum.ADD) {
+                    inserts.add(diff);
+                } else {
+                    for (IIncrementalSummaryProvider summaryProvider : summaryProviders) {
+                        summaryProvider.reset();
+                    }
+                    return;
+                }
+            }
+
+            // delete from bottom to top so the positions of the remaining
+            // deletes are still valid, insert from top to bottom as the after
+            // positions already contain the previous inserts
+            Collections.sort(deletes, new Comparator<StructuralDiff>() {
+                @Override
+                public int compare(StructuralDiff o1, StructuralDiff o2) {
+                    return Integer.compare(o2.getBeforePositionRange().start, o1.getBeforePositionRange().start);
+                }
+            });
+            Collections.sort(inserts, new Comparator<StructuralDiff>() {
+                @Override
+                public int compare(StructuralDiff o1, StructuralDiff o2) {
+                    return Integer.compare(o1.getAfterPositionRange().start, o2.getAfterPositionRange().start);
+                }
+            });
+
+            for (IIncrementalSummaryProvider summaryProvider : summaryProviders) {
+                for (StructuralDiff diff : deletes) {
+                    summaryProvider.rowsDeleted(
+                            diff.getBeforePositionRange().start,
+                            diff.getBeforePositionRange().size());
+                }
+                for (StructuralDiff diff : inserts) {
+                    summaryProvider.rowsInserted(
+                            diff.getAfterPositionRange().start,
+                            diff.getAfterPositionRange().size());
+                }
+            }
+        } else if (!(event instanceof ISelectionEvent)) {
+            // other visual changes, e.g. a VisualRefreshEvent on list updates,
+            // don't tell which values have changed
+            for (IIncrementalSummaryProvider summaryProvider : getIncrementalSummaryProviders()) {
+                summaryProvider.reset();
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The distinct {@link IIncrementalSummaryProvider}s registered for
+     *         the columns of this layer.
+     */
+    private Collection<IIncrementalSummaryProvider> getIncrementalSummaryProviders() {
+        Set<IIncrementalSummaryProvider> result =
+                Collections.newSetFromMap(new IdentityHashMap<IIncrementalSummaryProvider, Boolean>());
+        for (int column = 0; column < getColumnCount(); column++) {
+            ISummaryProvider summaryProvider = getSummaryProvider(column);
+            if (summaryProvider instanceof IIncrementalSummaryProvider) {
+                result.add((IIncrementalSummaryProvider) summaryProvider);
+            }
+        }
+        return result;
+    }
+
     /**
      * Clear the internal cache to trigger new calculations.
      * <p>
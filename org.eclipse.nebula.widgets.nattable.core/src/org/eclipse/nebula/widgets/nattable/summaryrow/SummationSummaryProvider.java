@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider.ColumnType;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 
 /**
@@ -22,6 +24,9 @@
  * not possible this way. You are able to change that behaviour by creating the
  * SummationSummaryProvider with the parameter strict set to <code>false</code>.
  * In that case the non Number values will be ignored.
+ * <p>
+ * If the {@link IDataProvider} is a {@link ColumnarDataProvider}, the values of
+ * numeric columns are summarized without boxing.
  */
 public class SummationSummaryProvider implements ISummaryProvider {
 
@@ -78,6 +83,13 @@ public SummationSummaryProvider(IDataProvider dataProvider, boolean strict) {
      */
     @Override
     public Object summarize(int columnIndex) {
+        if (this.dataProvider instanceof ColumnarDataProvider) {
+            ColumnarDataProvider columnar = (ColumnarDataProvider) this.dataProvider;
+            if (columnar.getColumnType(columnIndex) != ColumnType.STRING) {
+                return summarize(columnar, columnIndex);
+            }
+        }
+
         int rowCount = this.dataProvider.getRowCount();
         double summaryValue = 0;
 
@@ -93,4 +105,19 @@ public Object summarize(int columnIndex) {
 
         return summaryValue;
     }
+
+    private Object summarize(ColumnarDataProvider columnar, int columnIndex) {
+        int rowCount = columnar.getRowCount();
+        double summaryValue = 0;
+
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            if (!columnar.isNull(columnIndex, rowIndex)) {
+                summaryValue += columnar.getDouble(columnIndex, rowIndex);
+            } else if (this.strict) {
+                return DEFAULT_SUMMARY_VALUE;
+            }
+        }
+
+        return summaryValue;
+    }
 }
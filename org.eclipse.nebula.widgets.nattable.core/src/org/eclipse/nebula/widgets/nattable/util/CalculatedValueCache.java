@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2016 Dirk Fauth and others.
+ * Copyright (c) 2014, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,10 +14,9 @@
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
@@ -32,6 +31,13 @@
  * {@link ICalculatedValueCacheKey} as the key for the value cache. Usually the
  * internal default implementations for column or row position, or the
  * column-row coordinates should fit most of the use cases.
+ * <p>
+ * The background calculations are executed by a {@link CalculationExecutor},
+ * by default the one shared by all caches. There is at most one queued
+ * calculation per key, further requests for the same key are de-duplicated. A
+ * calculation that was started before the cache was cleared is superseded by
+ * a new calculation. Its result is only used to update the displayed value.
+ * Killing the cache cancels all calculations.
  */
 public class CalculatedValueCache implements ICalculatedValueCache {
 
@@ -42,10 +48,26 @@ public class CalculatedValueCache implements ICalculatedValueCache {
     private ILayer layer;
 
     /**
-     * ExecutorService that is used to create background threads to process
-     * calculations.
+     * The executor that is used to process calculations in background threads.
+     */
+    private final CalculationExecutor executor;
+
+    /**
+     * The calculations that are queued or running, per cache key.
+     */
+    private final Map<ICalculatedValueCacheKey, Calculation> calculations = new ConcurrentHashMap<ICalculatedValueCacheKey, Calculation>();
+
+    /**
+     * Incremented whenever the cache is cleared, to detect calculations that
+     * were started on outdated data.
      */
-    private ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * The number of background calculation requests that were de-duplicated
+     * because a calculation for the same key was already queued or running.
+     */
+    private final AtomicLong deduplicatedCount = new AtomicLong();
 
     /**
      * Cache that contains the calculated values. Introduced for performance
@@ -147,15 +169,37 @@ public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRow
      *            be performed smoothly.
      */
     public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates) {
-        this.layer = layer;
-        this.executor = new ThreadPoolExecutor(
-                Runtime.getRuntime().availableProcessors() + 1,
-                Runtime.getRuntime().availableProcessors() + 1,
-                5000,
-                TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<Runnable>());
+        this(layer, useColumnAsKey, useRowAsKey, smoothUpdates, CalculationExecutor.getDefault());
+    }
 
-        ((ThreadPoolExecutor) this.executor).allowCoreThreadTimeOut(true);
+    /**
+     * Creates a new CalculatedValueCache for the specified layer that uses the
+     * given {@link CalculationExecutor} for background calculations.
+     *
+     * @param layer
+     *            The layer to which the CalculatedValueCache is connected.
+     * @param useColumnAsKey
+     *            Flag to specify if the column position should be used as cache
+     *            key.
+     * @param useRowAsKey
+     *            Flag to specify if the row position should be used as cache
+     *            key.
+     * @param smoothUpdates
+     *            Flag to specify if the update of the calculated values should
+     *            be performed smoothly.
+     * @param executor
+     *            The {@link CalculationExecutor} that should be used for
+     *            background calculations. It is not shut down on
+     *            {@link #dispose()}, as it might be shared.
+     * @since 2.0
+     */
+    public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates,
+            CalculationExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null"); //$NON-NLS-1$
+        }
+        this.layer = layer;
+        this.executor = executor;
 
         this.useColumnAsKey = useColumnAsKey;
         this.useRowAsKey = useRowAsKey;
@@ -206,21 +250,7 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
                     result = null;
                 }
 
-                this.executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        Object summaryValue = calculator.executeCalculation();
-                        addToCache(key, summaryValue);
-
-                        // only fire an update event if the new calculated value
-                        // is different to the value in the cache copy
-                        if (!cacheValuesEqual(summaryValue, cacheCopyValue)
-                                && CalculatedValueCache.this.layer != null) {
-                            CalculatedValueCache.this.layer.fireLayerEvent(new CellVisualChangeEvent(
-                                    CalculatedValueCache.this.layer, columnPosition, rowPosition));
-                        }
-                    }
-                });
+                scheduleCalculation(columnPosition, rowPosition, key, calculator, cacheCopyValue);
             }
         } else {
             // Execute the calculation in the same thread to make printing and
@@ -234,17 +264,87 @@ public void run() {
         return result;
     }
 
+    /**
+     * Schedules the calculation for the given key, unless a calculation for
+     * the key is already queued or was started after the last clear.
+     */
+    private void scheduleCalculation(int columnPosition, int rowPosition,
+            ICalculatedValueCacheKey key, ICalculator calculator, Object cacheCopyValue) {
+
+        Calculation existing = this.calculations.get(key);
+        if (existing != null && !existing.isSuperseded()) {
+            this.deduplicatedCount.incrementAndGet();
+            return;
+        }
+
+        Calculation calculation = new Calculation(columnPosition, rowPosition, key, calculator, cacheCopyValue);
+        boolean registered = (existing == null)
+                ? this.calculations.putIfAbsent(key, calculation) == null
+                : this.calculations.replace(key, existing, calculation);
+        if (registered) {
+            calculation.future = this.executor.submit(calculation);
+        } else {
+            // a concurrent request registered a calculation for the key
+            this.deduplicatedCount.incrementAndGet();
+        }
+    }
+
     @Override
     public void clearCache() {
+        this.generation.incrementAndGet();
         this.cache.clear();
     }
 
     @Override
     public void killCache() {
+        this.generation.incrementAndGet();
+        cancelCalculations();
         this.cache.clear();
         this.cacheCopy.clear();
     }
 
+    /**
+     * Cancels all queued and running calculations. The results of running
+     * calculations are discarded.
+     */
+    private void cancelCalculations() {
+        for (Calculation calculation : this.calculations.values()) {
+            calculation.cancel();
+        }
+        this.calculations.clear();
+    }
+
+    /**
+     *
+     * @return The number of calculations of this cache that are queued or
+     *         running.
+     * @since 2.0
+     */
+    public int getPendingCalculationCount() {
+        return this.calculations.size();
+    }
+
+    /**
+     *
+     * @return The number of background calculation requests that were not
+     *         executed because a calculation for the same key was already
+     *         queued or running.
+     * @since 2.0
+     */
+    public long getDeduplicatedCount() {
+        return this.deduplicatedCount.get();
+    }
+
+    /**
+     *
+     * @return The {@link CalculationExecutor} that is used for background
+     *         calculations.
+     * @since 2.0
+     */
+    public CalculationExecutor getExecutor() {
+        return this.executor;
+    }
+
     /**
      * Adds the given value to the cache and the cache-copy. This way the new
      * calculated value gets propagated to both cache instances.
@@ -264,9 +364,29 @@ protected void addToCache(ICalculatedValueCacheKey key, Object value) {
         }
     }
 
+    /**
+     * Adds the given value to the cache copy only. Used for results of
+     * superseded calculations, which are newer than the currently displayed
+     * value but need to be re-calculated.
+     *
+     * @param key
+     *            The key to which the calculated value belongs to.
+     * @param value
+     *            The value for the given coordinates to be displayed.
+     */
+    private void addToCacheCopy(ICalculatedValueCacheKey key, Object value) {
+        if (value != null) {
+            this.cacheCopy.put(key, value);
+        }
+    }
+
+    /**
+     * Cancels all calculations of this cache. The {@link CalculationExecutor}
+     * is not shut down, as it is shared.
+     */
     @Override
     public void dispose() {
-        this.executor.shutdownNow();
+        cancelCalculations();
     }
 
     /**
@@ -289,6 +409,83 @@ public void setLayer(ILayer layer) {
         this.layer = layer;
     }
 
+    /**
+     * A background calculation for a cache key.
+     */
+    private class Calculation implements Runnable {
+
+        private final int columnPosition;
+        private final int rowPosition;
+        private final ICalculatedValueCacheKey key;
+        private final ICalculator calculator;
+        private final Object cacheCopyValue;
+
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private volatile int startGeneration;
+        private volatile Future<?> future;
+
+        Calculation(int columnPosition, int rowPosition,
+                ICalculatedValueCacheKey key, ICalculator calculator, Object cacheCopyValue) {
+            this.columnPosition = columnPosition;
+            this.rowPosition = rowPosition;
+            this.key = key;
+            this.calculator = calculator;
+            this.cacheCopyValue = cacheCopyValue;
+        }
+
+        /**
+         *
+         * @return <code>true</code> if this calculation was started before the
+         *         last clear of the cache and therefore operates on outdated
+         *         data.
+         */
+        boolean isSuperseded() {
+            return this.started && this.startGeneration != CalculatedValueCache.this.generation.get();
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            Future<?> f = this.future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            this.startGeneration = CalculatedValueCache.this.generation.get();
+            this.started = true;
+            try {
+                if (this.cancelled) {
+                    return;
+                }
+
+                Object summaryValue = this.calculator.executeCalculation();
+                if (this.cancelled) {
+                    return;
+                }
+
+                if (isSuperseded()) {
+                    // the value is newer than the displayed one, but a
+                    // re-calculation is necessary
+                    addToCacheCopy(this.key, summaryValue);
+                } else {
+                    addToCache(this.key, summaryValue);
+                }
+
+                // only fire an update event if the new calculated value
+                // is different to the value in the cache copy
+                ILayer l = CalculatedValueCache.this.layer;
+                if (!cacheValuesEqual(summaryValue, this.cacheCopyValue) && l != null) {
+                    l.fireLayerEvent(new CellVisualChangeEvent(l, this.columnPosition, this.rowPosition));
+                }
+            } finally {
+                CalculatedValueCache.this.calculations.remove(this.key, this);
+            }
+        }
+    }
+
     /**
      * ICalculatedValueCacheKey that uses either the column or row position as
      * key.
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Bounded thread pool for background calculations, e.g. of the
+ * {@link CalculatedValueCache}. By default all caches share the instance
+ * returned by {@link #getDefault()}, so the number of calculation threads does
+ * not grow with the number of caches.
+ * <p>
+ * The executor collects metrics about the submitted calculations, which can
+ * be used to monitor whether the calculations keep up with the updates.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class CalculationExecutor implements ThreadFactory {
+
+    private static final Log LOG = LogFactory.getLog(CalculationExecutor.class);
+
+    private static CalculationExecutor defaultExecutor;
+
+    private final String threadNamePrefix;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong totalQueueLatency = new AtomicLong();
+    private final AtomicLong totalExecutionTime = new AtomicLong();
+    private final AtomicLong maxQueueLatency = new AtomicLong();
+
+    /**
+     *
+     * @return The shared {@link CalculationExecutor} with one thread per
+     *         available processor.
+     */
+    public static synchronized CalculationExecutor getDefault() {
+        if (defaultExecutor == null) {
+            defaultExecutor = new CalculationExecutor(
+                    "NatTable-Calculation", //$NON-NLS-1$
+                    Runtime.getRuntime().availableProcessors());
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     *
+     * @param threadNamePrefix
+     *            The prefix for the names of the calculation threads.
+     * @param threadCount
+     *            The maximum number of calculation threads. Idle threads are
+     *            terminated after some time.
+     */
+    public CalculationExecutor(String threadNamePrefix, int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("threadCount <= 0"); //$NON-NLS-1$
+        }
+        this.threadNamePrefix = threadNamePrefix;
+        this.executor = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                5000,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                this);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(ObjectUtils.getNatTableThreadGroup(), r,
+                this.threadNamePrefix + "-" + this.threadCounter.incrementAndGet()); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Submits a calculation for execution.
+     *
+     * @param calculation
+     *            The calculation to execute.
+     * @return The {@link Future} that can be used to cancel the calculation.
+     *         Cancelling a calculation that is still queued removes it from
+     *         the queue.
+     */
+    public Future<?> submit(Runnable calculation) {
+        MeasuredTask task = new MeasuredTask(calculation);
+        this.submittedCount.incrementAndGet();
+        this.executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Terminates the calculation threads. Calculations that are submitted
+     * afterwards are rejected. Should not be called for the shared default
+     * instance.
+     */
+    public void shutdownNow() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     *
+     * @return The number of calculations that are waiting for execution.
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     *
+     * @return The number of calculations that are currently executed.
+     */
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     *
+     * @return The number of threads currently in the pool.
+     */
+    public int getPoolSize() {
+        return this.executor.getPoolSize();
+    }
+
+    /**
+     *
+     * @return The number of submitted calculations.
+     */
+    public long getSubmittedCount() {
+        return this.submittedCount.get();
+    }
+
+    /**
+     *
+     * @return The number of calculations that finished execution.
+     */
+    public long getCompletedCount() {
+        return this.completedCount.get();
+    }
+
+    /**
+     *
+     * @return The number of calculations that were cancelled before they
+     *         finished.
+     */
+    public long getCancelledCount() {
+        return this.cancelledCount.get();
+    }
+
+    /**
+     *
+     * @return The average time in milliseconds the executed calculations
+     *         waited in the queue.
+     */
+    public double getAverageQueueLatency() {
+        long completed = this.completedCount.get();
+        return completed > 0 ? this.totalQueueLatency.get() / (completed * 1000000d) : 0;
+    }
+
+    /**
+     *
+     * @return The maximum time in milliseconds an executed calculation waited
+     *         in the queue.
+     */
+    public double getMaxQueueLatency() {
+        return this.maxQueueLatency.get() / 1000000d;
+    }
+
+    /**
+     *
+     * @return The average execution time of the calculations in milliseconds.
+     */
+    public double getAverageExecutionTime() {
+        long completed = this.completedCount.get();
+        return completed > 0 ? this.totalExecutionTime.get() / (completed * 1000000d) : 0;
+    }
+
+    /**
+     * Resets the counters and latency metrics.
+     */
+    public void resetMetrics() {
+        this.submittedCount.set(0);
+        this.completedCount.set(0);
+        this.cancelledCount.set(0);
+        this.totalQueueLatency.set(0);
+        this.totalExecutionTime.set(0);
+        this.maxQueueLatency.set(0);
+    }
+
+    /**
+     * Task that records its queue latency and execution time.
+     */
+    private class MeasuredTask extends FutureTask<Object> {
+
+        private final long submitTime = System.nanoTime();
+        private long startTime;
+
+        MeasuredTask(Runnable calculation) {
+            super(calculation, null);
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled()) {
+                return;
+            }
+            this.startTime = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void set(Object v) {
+            // record the metrics before waiting threads are released, a
+            // calculation that was cancelled while running is already counted
+            if (!isCancelled()) {
+                recordExecution();
+            }
+            super.set(v);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            // the result of a calculation is typically not requested, so the
+            // exception would be lost otherwise
+            LOG.error("Error on executing calculation", t); //$NON-NLS-1$
+            if (!isCancelled()) {
+                recordExecution();
+            }
+            super.setException(t);
+        }
+
+        private void recordExecution() {
+            long latency = this.startTime - this.submitTime;
+            CalculationExecutor.this.completedCount.incrementAndGet();
+            CalculationExecutor.this.totalQueueLatency.addAndGet(latency);
+            CalculationExecutor.this.totalExecutionTime.addAndGet(System.nanoTime() - this.startTime);
+            long max;
+            while (latency > (max = CalculationExecutor.this.maxQueueLatency.get())
+                    && !CalculationExecutor.this.maxQueueLatency.compareAndSet(max, latency)) {
+                // retry
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                CalculationExecutor.this.executor.remove(this);
+                CalculationExecutor.this.cancelledCount.incrementAndGet();
+            }
+            return cancelled;
+        }
+    }
+}
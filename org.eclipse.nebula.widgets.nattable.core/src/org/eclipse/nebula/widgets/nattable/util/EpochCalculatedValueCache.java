@@ -0,0 +1,547 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+
+/**
+ * {@link ICalculatedValueCache} that versions the cached values with an epoch
+ * counter instead of copying and clearing maps.
+ * <p>
+ * Every invalidation increments the epoch. A calculated value remembers the
+ * epoch at which its calculation was started and is valid as long as no
+ * invalidation that affects it happened afterwards. Next to the complete
+ * invalidation via {@link #clearCache()}, single cells, rows, columns, row and
+ * column ranges and single keys can be invalidated. This way a change only
+ * triggers the re-calculation of the affected values.
+ * </p>
+ * <p>
+ * Invalidated values are kept until they are replaced by the result of a
+ * re-calculation, so smooth updates do not need a copy of the cache. Only
+ * {@link #killCache()} removes the values. Values cached via row and column
+ * position are stored with a primitive key that packs both positions into a
+ * <code>long</code>.
+ * </p>
+ * <p>
+ * Background calculations are executed by a {@link CalculationExecutor}. There
+ * is at most one pending calculation per value that is still valid.
+ * </p>
+ *
+ * @see CalculatedValueCache
+ * @since 2.0
+ */
+public class EpochCalculatedValueCache implements ICalculatedValueCache {
+
+    /**
+     * The layer that should be used to fire the update events after the
+     * background calculation is done.
+     */
+    private ILayer layer;
+
+    /**
+     * The executor that is used to process calculations in background threads.
+     */
+    private final CalculationExecutor executor;
+
+    /**
+     * Flag to specify if the column position should be used as cache key.
+     */
+    private final boolean useColumnAsKey;
+
+    /**
+     * Flag to specify if the row position should be used as cache key.
+     */
+    private final boolean useRowAsKey;
+
+    /**
+     * Flag to specify if invalidated values should be returned until the
+     * re-calculation is done.
+     */
+    private final boolean smoothUpdates;
+
+    /**
+     * Lock that guards the entries and the epochs.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The entries that are cached via packed row and column position.
+     */
+    private final LongEntryMap coordinateEntries = new LongEntryMap();
+
+    /**
+     * The entries that are cached via {@link ICalculatedValueCacheKey}.
+     */
+    private final Map<ICalculatedValueCacheKey, Entry> keyEntries = new HashMap<ICalculatedValueCacheKey, Entry>();
+
+    /**
+     * The current epoch, incremented on every invalidation.
+     */
+    private long epoch;
+
+    /**
+     * The epoch of the last complete invalidation.
+     */
+    private long clearEpoch;
+
+    /**
+     * The epoch of the last {@link #killCache()}. Results of calculations
+     * started before are discarded.
+     */
+    private long killEpoch;
+
+    /**
+     * The epoch of the last invalidation per row position.
+     */
+    private long[] rowEpochs = new long[0];
+
+    /**
+     * The epoch of the last invalidation per column position.
+     */
+    private long[] columnEpochs = new long[0];
+
+    /**
+     * Creates a new EpochCalculatedValueCache for the specified layer that
+     * performs smooth updates of the calculated values and uses the shared
+     * {@link CalculationExecutor}.
+     *
+     * @param layer
+     *            The layer to which the cache is connected.
+     * @param useColumnAsKey
+     *            Flag to specify if the column position should be used as cache
+     *            key.
+     * @param useRowAsKey
+     *            Flag to specify if the row position should be used as cache
+     *            key.
+     */
+    public EpochCalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey) {
+        this(layer, useColumnAsKey, useRowAsKey, true);
+    }
+
+    /**
+     * Creates a new EpochCalculatedValueCache for the specified layer that
+     * uses the shared {@link CalculationExecutor}.
+     *
+     * @param layer
+     *            The layer to which the cache is connected.
+     * @param useColumnAsKey
+     *            Flag to specify if the column position should be used as cache
+     *            key.
+     * @param useRowAsKey
+     *            Flag to specify if the row position should be used as cache
+     *            key.
+     * @param smoothUpdates
+     *            Flag to specify if invalidated values should be returned
+     *            until the re-calculation is done.
+     */
+    public EpochCalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates) {
+        this(layer, useColumnAsKey, useRowAsKey, smoothUpdates, CalculationExecutor.getDefault());
+    }
+
+    /**
+     * Creates a new EpochCalculatedValueCache for the specified layer.
+     *
+     * @param layer
+     *            The layer to which the cache is connected.
+     * @param useColumnAsKey
+     *            Flag to specify if the column position should be used as cache
+     *            key.
+     * @param useRowAsKey
+     *            Flag to specify if the row position should be used as cache
+     *            key.
+     * @param smoothUpdates
+     *            Flag to specify if invalidated values should be returned
+     *            until the re-calculation is done.
+     * @param executor
+     *            The {@link CalculationExecutor} that should be used for
+     *            background calculations.
+     */
+    public EpochCalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates,
+            CalculationExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null"); //$NON-NLS-1$
+        }
+        this.layer = layer;
+        this.useColumnAsKey = useColumnAsKey;
+        this.useRowAsKey = useRowAsKey;
+        this.smoothUpdates = smoothUpdates;
+        this.executor = executor;
+    }
+
+    @Override
+    public Object getCalculatedValue(int columnPosition, int rowPosition,
+            boolean calculateInBackground, ICalculator calculator) {
+        return getCalculatedValue(columnPosition, rowPosition, null, calculateInBackground, calculator);
+    }
+
+    @Override
+    public Object getCalculatedValue(final int columnPosition, final int rowPosition,
+            final ICalculatedValueCacheKey key, boolean calculateInBackground, final ICalculator calculator) {
+
+        final long packedKey = (key == null) ? getPackedKey(columnPosition, rowPosition) : 0;
+
+        final long start;
+        Object result = null;
+        synchronized (this.lock) {
+            Entry entry = getOrCreateEntry(key, packedKey);
+            entry.columnPosition = columnPosition;
+            entry.rowPosition = rowPosition;
+
+            long required = getRequiredEpoch(entry);
+            if (entry.epoch >= required) {
+                return entry.value;
+            }
+
+            start = this.epoch;
+            if (calculateInBackground) {
+                if (this.smoothUpdates && entry.epoch >= 0) {
+                    result = entry.value;
+                }
+                if (entry.scheduledEpoch >= required) {
+                    // a valid calculation is already pending
+                    return result;
+                }
+                entry.scheduledEpoch = start;
+            }
+        }
+
+        if (!calculateInBackground) {
+            Object value = calculator.executeCalculation();
+            storeResult(key, packedKey, value, start);
+            return value;
+        }
+
+        this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (EpochCalculatedValueCache.this.lock) {
+                    if (start < EpochCalculatedValueCache.this.killEpoch) {
+                        return;
+                    }
+                }
+                Object value = calculator.executeCalculation();
+                Entry changed = storeResult(key, packedKey, value, start);
+                ILayer l = EpochCalculatedValueCache.this.layer;
+                if (changed != null && l != null) {
+                    l.fireLayerEvent(new CellVisualChangeEvent(l, changed.columnPosition, changed.rowPosition));
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stores the result of a calculation that was started at the given epoch.
+     *
+     * @return The entry if its value has changed and an update needs to be
+     *         rendered, <code>null</code> otherwise.
+     */
+    private Entry storeResult(ICalculatedValueCacheKey key, long packedKey, Object value, long start) {
+        synchronized (this.lock) {
+            if (start < this.killEpoch) {
+                return null;
+            }
+            Entry entry = getOrCreateEntry(key, packedKey);
+            if (entry.scheduledEpoch == start) {
+                entry.scheduledEpoch = -1;
+            }
+            if (start < entry.epoch) {
+                // a newer result is already stored
+                return null;
+            }
+            boolean changed = entry.epoch < 0 || !valuesEqual(entry.value, value);
+            entry.value = value;
+            entry.epoch = start;
+            return changed ? entry : null;
+        }
+    }
+
+    private Entry getOrCreateEntry(ICalculatedValueCacheKey key, long packedKey) {
+        Entry entry = (key == null) ? this.coordinateEntries.get(packedKey) : this.keyEntries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            if (key == null) {
+                this.coordinateEntries.put(packedKey, entry);
+            } else {
+                this.keyEntries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the epoch a calculation of the given entry needs to be started
+     * at to be valid.
+     */
+    private long getRequiredEpoch(Entry entry) {
+        long required = Math.max(this.clearEpoch, entry.minEpoch);
+        if (entry.rowPosition >= 0 && entry.rowPosition < this.rowEpochs.length) {
+            required = Math.max(required, this.rowEpochs[entry.rowPosition]);
+        }
+        if (entry.columnPosition >= 0 && entry.columnPosition < this.columnEpochs.length) {
+            required = Math.max(required, this.columnEpochs[entry.columnPosition]);
+        }
+        return required;
+    }
+
+    private long getPackedKey(int columnPosition, int rowPosition) {
+        if (!this.useColumnAsKey && !this.useRowAsKey) {
+            throw new IllegalStateException(
+                    "CalculatedValueCacheKey is configured to not use column or row position. " //$NON-NLS-1$
+                            + "Use getCalculatedValue() with ICalculatedValueCacheKey parameter instead."); //$NON-NLS-1$
+        }
+        long column = this.useColumnAsKey ? columnPosition : 0;
+        long row = this.useRowAsKey ? rowPosition : 0;
+        return (column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private static boolean valuesEqual(Object value1, Object value2) {
+        return (value1 == null) ? value2 == null : value1.equals(value2);
+    }
+
+    @Override
+    public void clearCache() {
+        synchronized (this.lock) {
+            this.clearEpoch = ++this.epoch;
+        }
+    }
+
+    @Override
+    public void killCache() {
+        synchronized (this.lock) {
+            this.clearEpoch = ++this.epoch;
+            this.killEpoch = this.epoch;
+            this.coordinateEntries.clear();
+            this.keyEntries.clear();
+            this.rowEpochs = new long[0];
+            this.columnEpochs = new long[0];
+        }
+    }
+
+    /**
+     * Invalidates the value cached for the given cell. Needs to be called for
+     * caches that use the column and/or row position as key.
+     *
+     * @param columnPosition
+     *            The column position of the value to invalidate.
+     * @param rowPosition
+     *            The row position of the value to invalidate.
+     *
+     * @throws IllegalStateException
+     *             if this cache is configured to not use the column and row
+     *             position for cache key definition.
+     */
+    public void invalidateCell(int columnPosition, int rowPosition) {
+        long packedKey = getPackedKey(columnPosition, rowPosition);
+        synchronized (this.lock) {
+            Entry entry = this.coordinateEntries.get(packedKey);
+            if (entry != null) {
+                entry.minEpoch = ++this.epoch;
+            }
+        }
+    }
+
+    /**
+     * Invalidates the value cached for the given key.
+     *
+     * @param key
+     *            The key of the value to invalidate.
+     */
+    public void invalidateKey(ICalculatedValueCacheKey key) {
+        synchronized (this.lock) {
+            Entry entry = this.keyEntries.get(key);
+            if (entry != null) {
+                entry.minEpoch = ++this.epoch;
+            }
+        }
+    }
+
+    /**
+     * Invalidates all values that were requested for the given row position.
+     *
+     * @param rowPosition
+     *            The row position of the values to invalidate.
+     */
+    public void invalidateRow(int rowPosition) {
+        invalidateRows(new Range(rowPosition, rowPosition + 1));
+    }
+
+    /**
+     * Invalidates all values that were requested for the row positions in the
+     * given range.
+     *
+     * @param rowPositions
+     *            The range of row positions of the values to invalidate.
+     */
+    public void invalidateRows(Range rowPositions) {
+        synchronized (this.lock) {
+            this.rowEpochs = markRange(this.rowEpochs, rowPositions, ++this.epoch);
+        }
+    }
+
+    /**
+     * Invalidates all values that were requested for the given column
+     * position.
+     *
+     * @param columnPosition
+     *            The column position of the values to invalidate.
+     */
+    public void invalidateColumn(int columnPosition) {
+        invalidateColumns(new Range(columnPosition, columnPosition + 1));
+    }
+
+    /**
+     * Invalidates all values that were requested for the column positions in
+     * the given range.
+     *
+     * @param columnPositions
+     *            The range of column positions of the values to invalidate.
+     */
+    public void invalidateColumns(Range columnPositions) {
+        synchronized (this.lock) {
+            this.columnEpochs = markRange(this.columnEpochs, columnPositions, ++this.epoch);
+        }
+    }
+
+    private static long[] markRange(long[] epochs, Range range, long epoch) {
+        int start = Math.max(0, range.start);
+        if (start >= range.end) {
+            return epochs;
+        }
+        long[] result = epochs;
+        if (range.end > epochs.length) {
+            result = Arrays.copyOf(epochs, Math.max(range.end, epochs.length * 2));
+        }
+        Arrays.fill(result, start, range.end, epoch);
+        return result;
+    }
+
+    /**
+     *
+     * @return The number of values that are currently cached, including the
+     *         invalidated ones.
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.coordinateEntries.size() + this.keyEntries.size();
+        }
+    }
+
+    /**
+     * Discards all cached values. Background calculations that were already
+     * started are not cancelled, but their results are discarded.
+     */
+    @Override
+    public void dispose() {
+        killCache();
+    }
+
+    @Override
+    public void setLayer(ILayer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * A cached value together with the epoch information needed to check its
+     * validity. Guarded by the lock of the cache.
+     */
+    private static final class Entry {
+        Object value;
+        /**
+         * The epoch at which the calculation of the value was started, -1 if
+         * there is no value yet.
+         */
+        long epoch = -1;
+        /**
+         * The epoch of the last invalidation of this single entry.
+         */
+        long minEpoch;
+        /**
+         * The epoch at which the pending background calculation was started,
+         * -1 if there is none.
+         */
+        long scheduledEpoch = -1;
+        int columnPosition = -1;
+        int rowPosition = -1;
+    }
+
+    /**
+     * Minimal open addressing hash map with primitive <code>long</code> keys,
+     * to avoid creating key objects for every lookup. Entries can not be
+     * removed separately.
+     */
+    private static final class LongEntryMap {
+
+        private long[] keys = new long[16];
+        private Entry[] values = new Entry[16];
+        private int size;
+
+        Entry get(long key) {
+            int mask = this.keys.length - 1;
+            for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+                Entry value = this.values[i];
+                if (value == null || this.keys[i] == key) {
+                    return value;
+                }
+            }
+        }
+
+        void put(long key, Entry value) {
+            if ((this.size + 1) * 4 > this.keys.length * 3) {
+                rehash(this.keys.length * 2);
+            }
+            int mask = this.keys.length - 1;
+            int i = hash(key) & mask;
+            while (this.values[i] != null && this.keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (this.values[i] == null) {
+                this.size++;
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        void clear() {
+            this.keys = new long[16];
+            this.values = new Entry[16];
+            this.size = 0;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = this.keys;
+            Entry[] oldValues = this.values;
+            this.keys = new long[capacity];
+            this.values = new Entry[capacity];
+            this.size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
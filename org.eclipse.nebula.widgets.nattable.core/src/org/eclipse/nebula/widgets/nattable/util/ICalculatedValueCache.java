@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Dirk Fauth and others.
+ * Copyright (c) 2015, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -99,7 +99,7 @@ public abstract Object getCalculatedValue(int columnPosition,
     public abstract void killCache();
 
     /**
-     * Cleaning up internal resources like shutting down the ExecutorService.
+     * Cleaning up internal resources like cancelling pending calculations.
      */
     public abstract void dispose();
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2018 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -724,12 +724,14 @@ public BodyLayerStack(List<T> values,
             // NatTable change events and fires the event the layer stack
             // upwards. But as it sits on top of the GroupByDataLayer, the
             // GroupByDataLayer never gets informed about the change.
+            // Passing the event only re-calculates the summary values of the
+            // groups that contain an edited cell.
             glazedListsEventLayer.addLayerListener(new ILayerListener() {
 
                 @Override
                 public void handleLayerEvent(ILayerEvent event) {
                     if (event instanceof IVisualChangeEvent) {
-                        BodyLayerStack.this.bodyDataLayer.clearCache();
+                        BodyLayerStack.this.bodyDataLayer.clearCache((IVisualChangeEvent) event);
                     }
                 }
             });
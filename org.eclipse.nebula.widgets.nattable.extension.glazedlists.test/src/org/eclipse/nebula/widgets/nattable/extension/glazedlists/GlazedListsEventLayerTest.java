@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -26,6 +27,7 @@
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.fixture.LayerListenerFixture;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.util.Scheduler;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -96,4 +98,53 @@ public void propertyChangeEventshouldBePropagatedImmediately() throws Exception
 
         assertNotNull(this.listenerFixture.getReceivedEvent(PropertyUpdateEvent.class));
     }
+
+    @Test
+    public void shouldCountConflatedChanges() throws Exception {
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        this.listenerFixture.setCountDownLatch(countDownLatch);
+
+        for (int i = 0; i < 100; i++) {
+            this.listFixture.add(RowDataFixture.getInstance("T" + i, "A"));
+        }
+        countDownLatch.await(500, TimeUnit.MILLISECONDS);
+        // wait until all pending changes are flushed
+        Thread.sleep(GlazedListsEventLayer.DEFAULT_MAX_LATENCY + 100);
+
+        assertNotNull(this.listenerFixture.getReceivedEvent(RowStructuralRefreshEvent.class));
+        assertEquals(100, this.layerUnderTest.getReceivedEventCount());
+        assertTrue(this.layerUnderTest.getFlushCount() >= 1);
+        assertTrue(this.layerUnderTest.getFlushCount() < 100);
+        assertEquals(100, this.layerUnderTest.getFlushCount() + this.layerUnderTest.getCoalescedChangeCount());
+    }
+
+    @Test
+    public void shouldFlushOnDedicatedScheduler() throws Exception {
+        Scheduler scheduler = new Scheduler("TestScheduler");
+        GlazedListsEventLayer<RowDataFixture> layer =
+                new GlazedListsEventLayer<>(new DataLayerFixture(), this.listFixture, scheduler, 10L);
+        layer.setTestMode(true);
+        layer.setMaxLatency(50L);
+        LayerListenerFixture listener = new LayerListenerFixture();
+        layer.addLayerListener(listener);
+
+        try {
+            CountDownLatch countDownLatch = new CountDownLatch(1);
+            listener.setCountDownLatch(countDownLatch);
+            this.listFixture.add(RowDataFixture.getInstance("T1", "A"));
+
+            assertTrue(countDownLatch.await(500, TimeUnit.MILLISECONDS));
+            assertNotNull(listener.getReceivedEvent(RowStructuralRefreshEvent.class));
+            assertEquals(1, layer.getFlushCount());
+            assertEquals(50L, layer.getMaxLatency());
+        } finally {
+            layer.doCommand(new DisposeResourcesCommand());
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaxLatency() {
+        this.layerUnderTest.setMaxLatency(-1);
+    }
 }
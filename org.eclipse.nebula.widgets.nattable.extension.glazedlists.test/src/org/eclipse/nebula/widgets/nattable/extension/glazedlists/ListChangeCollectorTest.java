@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.junit.Test;
+
+public class ListChangeCollectorTest {
+
+    private ListChangeCollector collector = new ListChangeCollector();
+
+    @Test
+    public void shouldMergeConsecutiveDeletes() {
+        // GlazedLists reports deleting rows 2-4 as three deletes at index 2
+        this.collector.delete(2);
+        this.collector.delete(2);
+        this.collector.delete(2);
+        this.collector.delete(5);
+
+        assertEquals(Arrays.asList(new Range(2, 5), new Range(8, 9)), this.collector.getDeletedRanges());
+        assertTrue(this.collector.getInsertedRanges().isEmpty());
+    }
+
+    @Test
+    public void shouldShiftInsertsAtTop() {
+        this.collector.insert(0);
+        this.collector.insert(0);
+        this.collector.insert(0);
+
+        assertEquals(
+                Arrays.asList(new Range(0, 1), new Range(1, 2), new Range(2, 3)),
+                this.collector.getInsertedRanges());
+    }
+
+    @Test
+    public void shouldCancelInsertedAndDeletedRows() {
+        this.collector.insert(3);
+        this.collector.delete(1);
+        this.collector.delete(2);
+
+        assertEquals(Arrays.asList(new Range(1, 2)), this.collector.getDeletedRanges());
+        assertTrue(this.collector.getInsertedRanges().isEmpty());
+
+        this.collector.clear();
+        assertTrue(this.collector.isEmpty());
+    }
+
+    @Test
+    public void shouldMatchSequentialChanges() {
+        Random random = new Random(42);
+        for (int run = 0; run < 1000; run++) {
+            this.collector.clear();
+
+            // originals are represented by their position, inserted rows by -1
+            List<Integer> list = new ArrayList<>();
+            int size = random.nextInt(20);
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+
+            int changes = random.nextInt(30);
+            for (int i = 0; i < changes; i++) {
+                if (list.isEmpty() || random.nextBoolean()) {
+                    int position = random.nextInt(list.size() + 1);
+                    list.add(position, -1);
+                    this.collector.insert(position);
+                } else {
+                    int position = random.nextInt(list.size());
+                    list.remove(position);
+                    this.collector.delete(position);
+                }
+            }
+
+            List<Range> expectedInserts = new ArrayList<>();
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) < 0) {
+                    expectedInserts.add(new Range(i, i + 1));
+                }
+            }
+            List<Integer> expectedDeletes = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (!list.contains(i)) {
+                    expectedDeletes.add(i);
+                }
+            }
+            List<Integer> deletes = new ArrayList<>();
+            for (Range range : this.collector.getDeletedRanges()) {
+                for (int i = range.start; i < range.end; i++) {
+                    deletes.add(i);
+                }
+            }
+
+            assertEquals(expectedInserts, this.collector.getInsertedRanges());
+            assertEquals(expectedDeletes, deletes);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Dirk Fauth.
+ * Copyright (c) 2018, 2020 Dirk Fauth.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,18 +11,32 @@
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
 import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
 import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultIntegerDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataFixture;
 import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
 import org.eclipse.nebula.widgets.nattable.dataset.person.Person;
 import org.eclipse.nebula.widgets.nattable.dataset.person.PersonService;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.fixture.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
 import org.eclipse.nebula.widgets.nattable.filterrow.config.DefaultFilterRowConfiguration;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -30,6 +44,8 @@
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.FilterList;
 import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.matchers.MatcherEditor;
+import ca.odell.glazedlists.matchers.ThresholdMatcherEditor;
 
 public class DefaultGlazedListsFilterStrategyTest {
 
@@ -209,4 +225,141 @@ public void shouldReEvaluateWithChange() {
         assertEquals(8, persons.size());
     }
 
+    @Test
+    public void shouldNarrowFilterInPlaceWhileTyping() {
+        FilterList<Person> persons = new FilterList<>(GlazedLists.eventList(PersonService.getFixedPersons()));
+        DataLayerFixture columnHeaderLayer = new DataLayerFixture(5, 2, 100, 50);
+        DefaultGlazedListsFilterStrategy<Person> filterStrategy = new DefaultGlazedListsFilterStrategy<>(
+                persons,
+                new ReflectiveColumnPropertyAccessor<Person>(personPropertyNames),
+                configRegistry);
+        FilterRowDataProvider<Person> dataProvider = new FilterRowDataProvider<>(
+                filterStrategy,
+                columnHeaderLayer,
+                columnHeaderLayer.getDataProvider(), configRegistry);
+
+        // per fixed we have 3 Homer, 2 Marge, 2 Maude
+        dataProvider.setDataValue(0, 1, "m");
+        assertEquals(7, persons.size());
+        MatcherEditor<Person> installed = filterStrategy.getMatcherEditor().getMatcherEditors().get(0);
+
+        dataProvider.setDataValue(0, 1, "ma");
+        assertEquals(4, persons.size());
+        assertEquals(1, filterStrategy.getMatcherEditor().getMatcherEditors().size());
+        assertSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+
+        dataProvider.setDataValue(0, 1, "mar");
+        assertEquals(2, persons.size());
+        assertSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+
+        // relaxing the filter replaces the matcher editor
+        dataProvider.setDataValue(0, 1, "ma");
+        assertEquals(4, persons.size());
+        assertNotSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+
+        dataProvider.setDataValue(0, 1, null);
+        assertEquals(18, persons.size());
+    }
+
+    @Test
+    public void shouldNarrowThresholdFilterInPlace() {
+        FilterList<Integer> values = new FilterList<>(GlazedLists.eventList(createValues(20)));
+        DefaultGlazedListsFilterStrategy<Integer> filterStrategy = createThresholdFilterStrategy(values);
+        Map<Integer, Object> filter = new HashMap<>();
+
+        filter.put(0, ">5");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(14, values.size());
+        MatcherEditor<Integer> installed = filterStrategy.getMatcherEditor().getMatcherEditors().get(0);
+
+        filter.put(0, ">6");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(1, filterStrategy.getMatcherEditor().getMatcherEditors().size());
+        assertSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+        assertEquals(6, ((ThresholdMatcherEditor<?, ?>) installed).getThreshold());
+        assertEquals(13, values.size());
+        assertEquals(Integer.valueOf(7), values.get(0));
+
+        // a different match type replaces the matcher editor
+        filter.put(0, "<10");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(10, values.size());
+        installed = filterStrategy.getMatcherEditor().getMatcherEditors().get(0);
+
+        filter.put(0, "<8");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(1, filterStrategy.getMatcherEditor().getMatcherEditors().size());
+        assertSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+        assertEquals(8, ((ThresholdMatcherEditor<?, ?>) installed).getThreshold());
+        assertEquals(createValues(8), values);
+    }
+
+    @Test
+    public void shouldReplaceThresholdFilterOnRelax() {
+        FilterList<Integer> values = new FilterList<>(GlazedLists.eventList(createValues(20)));
+        DefaultGlazedListsFilterStrategy<Integer> filterStrategy = createThresholdFilterStrategy(values);
+        Map<Integer, Object> filter = new HashMap<>();
+
+        filter.put(0, ">6");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(13, values.size());
+        MatcherEditor<Integer> installed = filterStrategy.getMatcherEditor().getMatcherEditors().get(0);
+
+        filter.put(0, ">5");
+        filterStrategy.applyFilter(new HashMap<>(filter));
+        assertEquals(1, filterStrategy.getMatcherEditor().getMatcherEditors().size());
+        assertNotSame(installed, filterStrategy.getMatcherEditor().getMatcherEditors().get(0));
+        assertEquals(6, ((ThresholdMatcherEditor<?, ?>) installed).getThreshold());
+        assertEquals(14, values.size());
+        assertEquals(Integer.valueOf(6), values.get(0));
+    }
+
+    private static List<Integer> createValues(int count) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static DefaultGlazedListsFilterStrategy<Integer> createThresholdFilterStrategy(FilterList<Integer> values) {
+        // threshold filters are only parsed with regular expressions
+        ConfigRegistry registry = new ConfigRegistry();
+        registry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_DELIMITER,
+                "&");
+        registry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                TextMatchingMode.REGULAR_EXPRESSION);
+        registry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                new DefaultDisplayConverter());
+        registry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_CONTENT_DISPLAY_CONVERTER,
+                new DefaultIntegerDisplayConverter());
+        registry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_COMPARATOR,
+                DefaultComparator.getInstance(),
+                DisplayMode.NORMAL);
+
+        return new DefaultGlazedListsFilterStrategy<>(
+                values,
+                new IColumnAccessor<Integer>() {
+
+                    @Override
+                    public Object getDataValue(Integer rowObject, int columnIndex) {
+                        return rowObject;
+                    }
+
+                    @Override
+                    public void setDataValue(Integer rowObject, int columnIndex, Object newValue) {}
+
+                    @Override
+                    public int getColumnCount() {
+                        return 1;
+                    }
+                },
+                registry);
+    }
+
 }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultIntegerDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.FilterValueIndex.Condition;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+
+public class FilterValueIndexTest {
+
+    private EventList<Item> base;
+    private FilterValueIndex<Item> index;
+
+    @Before
+    public void setup() {
+        this.base = new BasicEventList<>();
+        for (int i = 0; i < 100; i++) {
+            this.base.add(new Item(i, i % 10));
+        }
+        this.index = new FilterValueIndex<>(this.base, new ItemAccessor());
+        this.index.addColumn(0, DefaultComparator.getInstance());
+        this.index.addColumn(1, DefaultComparator.getInstance());
+    }
+
+    @After
+    public void tearDown() {
+        this.index.dispose();
+    }
+
+    @Test
+    public void shouldEvaluateAllMatchTypes() {
+        assertEquals(49, count(new Condition(0, MatchType.GREATER_THAN, 50)));
+        assertEquals(50, count(new Condition(0, MatchType.GREATER_THAN_OR_EQUAL, 50)));
+        assertEquals(50, count(new Condition(0, MatchType.LESS_THAN, 50)));
+        assertEquals(51, count(new Condition(0, MatchType.LESS_THAN_OR_EQUAL, 50)));
+        assertEquals(10, count(new Condition(1, MatchType.EQUAL, 3)));
+        assertEquals(90, count(new Condition(1, MatchType.NOT_EQUAL, 3)));
+        assertEquals(0, count(new Condition(1, MatchType.EQUAL, 42)));
+        assertTrue(this.index.isIndexed(1));
+        assertFalse(this.index.isIndexed(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailForNotIndexedColumn() {
+        this.index.getMatchingRowIds(new Condition(2, MatchType.EQUAL, 3));
+    }
+
+    @Test
+    public void shouldIntersectConditions() {
+        FilterList<Item> filterList = new FilterList<>(this.index, this.index.createMatcher(Arrays.asList(
+                new Condition(0, MatchType.GREATER_THAN, 50),
+                new Condition(1, MatchType.EQUAL, 3))));
+
+        assertEquals(Arrays.asList(53, 63, 73, 83, 93), values(filterList));
+    }
+
+    @Test
+    public void shouldUpdateIncrementally() {
+        FilterList<Item> filterList = new FilterList<>(this.index);
+
+        this.base.add(new Item(200, 3));
+        this.base.remove(53);
+        Item duplicate = this.base.get(62);
+        this.base.add(duplicate);
+
+        filterList.setMatcher(this.index.createMatcher(Arrays.asList(
+                new Condition(0, MatchType.GREATER_THAN, 50),
+                new Condition(1, MatchType.EQUAL, 3))));
+        assertEquals(Arrays.asList(63, 73, 83, 93, 200, 63), values(filterList));
+
+        // one occurrence of the duplicate is removed, the other one stays
+        this.base.remove(this.base.size() - 1);
+        assertEquals(Arrays.asList(63, 73, 83, 93, 200), values(filterList));
+
+        // the changed values are indexed on update
+        Item item = this.base.get(10);
+        item.a = 300;
+        item.b = 3;
+        this.base.set(10, item);
+        filterList.setMatcher(this.index.createMatcher(Arrays.asList(
+                new Condition(0, MatchType.GREATER_THAN, 250))));
+        assertEquals(Arrays.asList(300), values(filterList));
+    }
+
+    @Test
+    public void shouldEvaluateRowsChangedAfterMatcherCreation() {
+        FilterValueIndex<Item>.IndexMatcher matcher = this.index.createMatcher(Arrays.asList(
+                new Condition(0, MatchType.GREATER_THAN, 95)));
+        FilterList<Item> filterList = new FilterList<>(this.index, matcher);
+        assertEquals(Arrays.asList(96, 97, 98, 99), values(filterList));
+
+        // the rows are re-evaluated by the FilterList with the existing
+        // matcher, which does not know about the changed values
+        Item item = this.base.get(5);
+        item.a = 500;
+        this.base.set(5, item);
+        this.base.add(new Item(600, 0));
+        this.base.add(new Item(1, 0));
+
+        assertEquals(Arrays.asList(500, 96, 97, 98, 99, 600), values(filterList));
+    }
+
+    @Test
+    public void shouldMatchNonIndexedStrategy() {
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_DELIMITER,
+                "&");
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                TextMatchingMode.REGULAR_EXPRESSION);
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                new DefaultDisplayConverter());
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_CONTENT_DISPLAY_CONVERTER,
+                new DefaultIntegerDisplayConverter());
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_COMPARATOR,
+                DefaultComparator.getInstance(),
+                DisplayMode.NORMAL);
+
+        FilterList<Item> indexedList = new FilterList<>(this.index);
+        DefaultGlazedListsFilterStrategy<Item> indexed =
+                new DefaultGlazedListsFilterStrategy<>(indexedList, new ItemAccessor(), configRegistry);
+        indexed.setFilterValueIndex(this.index);
+        assertSame(this.index, indexed.getFilterValueIndex());
+
+        FilterList<Item> plainList = new FilterList<>(this.base);
+        DefaultGlazedListsFilterStrategy<Item> plain =
+                new DefaultGlazedListsFilterStrategy<>(plainList, new ItemAccessor(), configRegistry);
+
+        Map<Integer, Object> filter = new HashMap<>();
+        filter.put(0, ">50");
+        applyFilter(filter, indexed, plain);
+        assertEquals(49, indexedList.size());
+        assertEquals(values(plainList), values(indexedList));
+
+        filter.put(1, "<=3");
+        applyFilter(filter, indexed, plain);
+        assertEquals(values(plainList), values(indexedList));
+
+        // text and threshold filters are combined
+        filter.put(0, ">50&5");
+        applyFilter(filter, indexed, plain);
+        assertEquals(values(plainList), values(indexedList));
+
+        filter.remove(0);
+        applyFilter(filter, indexed, plain);
+        assertEquals(40, indexedList.size());
+        assertEquals(values(plainList), values(indexedList));
+
+        this.base.add(new Item(1000, 0));
+        this.base.remove(0);
+        assertEquals(values(plainList), values(indexedList));
+
+        filter.clear();
+        applyFilter(filter, indexed, plain);
+        assertEquals(100, indexedList.size());
+        assertEquals(values(plainList), values(indexedList));
+    }
+
+    private void applyFilter(Map<Integer, Object> filter, DefaultGlazedListsFilterStrategy<?>... strategies) {
+        for (DefaultGlazedListsFilterStrategy<?> strategy : strategies) {
+            strategy.applyFilter(new HashMap<>(filter));
+        }
+    }
+
+    private int count(Condition condition) {
+        BitSet result = this.index.getMatchingRowIds(condition);
+        return result.cardinality();
+    }
+
+    private static List<Integer> values(List<Item> items) {
+        List<Integer> result = new ArrayList<>();
+        for (Item item : items) {
+            result.add(item.a);
+        }
+        return result;
+    }
+
+    private static class Item {
+        int a;
+        int b;
+
+        Item(int a, int b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    private static class ItemAccessor implements IColumnAccessor<Item> {
+
+        @Override
+        public Object getDataValue(Item rowObject, int columnIndex) {
+            return (columnIndex == 0) ? rowObject.a : rowObject.b;
+        }
+
+        @Override
+        public void setDataValue(Item rowObject, int columnIndex, Object newValue) {
+            if (columnIndex == 0) {
+                rowObject.a = (Integer) newValue;
+            } else {
+                rowObject.b = (Integer) newValue;
+            }
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+    }
+}
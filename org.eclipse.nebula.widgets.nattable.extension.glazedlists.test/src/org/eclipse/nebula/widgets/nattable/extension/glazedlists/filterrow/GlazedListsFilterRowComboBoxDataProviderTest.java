@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+
+public class GlazedListsFilterRowComboBoxDataProviderTest {
+
+    private EventList<int[]> base;
+    private GlazedListsFilterRowComboBoxDataProvider<int[]> provider;
+
+    @Before
+    public void setup() {
+        this.base = new BasicEventList<>();
+        for (int i = 0; i < 100; i++) {
+            this.base.add(new int[] { i, i % 10 });
+        }
+
+        IColumnAccessor<int[]> accessor = new ArrayAccessor();
+        DataLayer dataLayer = new DataLayer(new ListDataProvider<>(this.base, accessor));
+        this.provider = new GlazedListsFilterRowComboBoxDataProvider<>(dataLayer, this.base, accessor);
+    }
+
+    @After
+    public void tearDown() {
+        this.provider.dispose();
+    }
+
+    @Test
+    public void shouldTrackValuesByDefault() {
+        assertTrue(this.provider.isValueTrackingEnabled());
+        assertEquals(10, this.provider.getValues(1, 0).size());
+
+        this.base.add(new int[] { 100, 42 });
+        this.base.remove(0);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 42), this.provider.getValues(1, 0));
+
+        // replace all rows with value 9
+        this.base.getReadWriteLock().writeLock().lock();
+        try {
+            for (int i = 0; i < this.base.size(); i++) {
+                if (this.base.get(i)[1] == 9) {
+                    this.base.set(i, new int[] { i, 8 });
+                }
+            }
+        } finally {
+            this.base.getReadWriteLock().writeLock().unlock();
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 42), this.provider.getValues(1, 0));
+    }
+
+    @Test
+    public void shouldTrackRandomChanges() {
+        this.provider.getValues(0, 0);
+        this.provider.getValues(1, 0);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int op = random.nextInt(3);
+            int[] row = new int[] { random.nextInt(200), random.nextInt(20) };
+            if (op == 0 || this.base.isEmpty()) {
+                this.base.add(random.nextInt(this.base.size() + 1), row);
+            } else if (op == 1) {
+                this.base.remove(random.nextInt(this.base.size()));
+            } else {
+                this.base.set(random.nextInt(this.base.size()), row);
+            }
+        }
+
+        assertEquals(distinct(0), this.provider.getValues(0, 0));
+        assertEquals(distinct(1), this.provider.getValues(1, 0));
+    }
+
+    private List<Integer> distinct(int column) {
+        TreeSet<Integer> result = new TreeSet<>();
+        for (int[] row : this.base) {
+            result.add(row[column]);
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static class ArrayAccessor implements IColumnAccessor<int[]> {
+
+        @Override
+        public Object getDataValue(int[] rowObject, int columnIndex) {
+            return rowObject[columnIndex];
+        }
+
+        @Override
+        public void setDataValue(int[] rowObject, int columnIndex, Object newValue) {
+            rowObject[columnIndex] = (Integer) newValue;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+    }
+}
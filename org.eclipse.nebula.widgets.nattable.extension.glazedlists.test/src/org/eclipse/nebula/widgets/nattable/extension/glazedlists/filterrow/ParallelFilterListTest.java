@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.SortedList;
+import ca.odell.glazedlists.TransformedList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.matchers.Matcher;
+
+public class ParallelFilterListTest {
+
+    private static final Matcher<Integer> EVEN = new Matcher<Integer>() {
+        @Override
+        public boolean matches(Integer item) {
+            return item % 2 == 0;
+        }
+    };
+
+    private EventList<Integer> base;
+    private ParallelFilterList<Integer> filterList;
+    private FilterList<Integer> expected;
+    private ReplayListener replay;
+
+    @Before
+    public void setup() {
+        this.base = new BasicEventList<>();
+        for (int i = 0; i < 100; i++) {
+            this.base.add(i);
+        }
+        this.filterList = new ParallelFilterList<>(this.base);
+        this.expected = new FilterList<>(this.base);
+        this.replay = new ReplayListener(this.filterList);
+    }
+
+    @Test
+    public void shouldContainAllRowsInitially() {
+        assertEquals(100, this.filterList.size());
+        assertEquals(this.base, this.filterList);
+    }
+
+    @Test
+    public void shouldPublishMatcherAsSingleEvent() {
+        this.filterList.setMatcher(EVEN);
+        this.expected.setMatcher(EVEN);
+
+        assertEquals(50, this.filterList.size());
+        assertEquals(this.expected, this.filterList);
+        assertEquals(this.expected, this.replay.rows);
+        assertEquals(1, this.replay.eventCount);
+
+        this.filterList.setMatcher(null);
+        assertEquals(this.base, this.filterList);
+        assertEquals(this.base, this.replay.rows);
+        assertEquals(2, this.replay.eventCount);
+    }
+
+    @Test
+    public void shouldPublishDifferences() {
+        this.filterList.setMatcher(EVEN);
+        this.filterList.publish(EVEN, new int[] { 1, 2, 4, 98, 99 }, 5);
+
+        assertEquals(Arrays.asList(1, 2, 4, 98, 99), this.filterList);
+        assertEquals(this.filterList, this.replay.rows);
+    }
+
+    @Test
+    public void shouldEvaluateSourceChanges() {
+        this.filterList.setMatcher(EVEN);
+        this.expected.setMatcher(EVEN);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || this.base.isEmpty()) {
+                this.base.add(random.nextInt(this.base.size() + 1), random.nextInt(1000));
+            } else if (op == 1) {
+                this.base.remove(random.nextInt(this.base.size()));
+            } else {
+                this.base.set(random.nextInt(this.base.size()), random.nextInt(1000));
+            }
+            assertEquals(this.expected, this.filterList);
+        }
+        assertEquals(this.expected, this.replay.rows);
+
+        // bulk changes in a single event
+        this.base.addAll(50, Arrays.asList(2, 3, 4, 5));
+        this.base.removeAll(Arrays.asList(4, 6, 7));
+        this.base.subList(10, 40).clear();
+        assertEquals(this.expected, this.filterList);
+        assertEquals(this.expected, this.replay.rows);
+    }
+
+    @Test
+    public void shouldShiftUpdatedRowsAfterDelete() {
+        final EventList<String> source = new BasicEventList<>();
+        source.addAll(Arrays.asList("a", "b1", "c1"));
+        BatchList<String> batchList = new BatchList<>(source);
+        ParallelFilterList<String> list = new ParallelFilterList<>(batchList);
+        list.setMatcher(new Matcher<String>() {
+            @Override
+            public boolean matches(String item) {
+                return item.length() > 1;
+            }
+        });
+
+        // delete a non matching row and update a matching row in one event
+        batchList.batch(new Runnable() {
+            @Override
+            public void run() {
+                source.remove(0);
+                source.set(1, "c2");
+            }
+        });
+
+        assertEquals(2, list.size());
+        assertEquals(0, list.getSourceIndex(0));
+        assertEquals(1, list.getSourceIndex(1));
+        assertEquals(Arrays.asList("b1", "c2"), list);
+    }
+
+    @Test
+    public void shouldReorderWithSource() {
+        SortedList<Integer> sorted = new SortedList<>(this.base, null);
+        ParallelFilterList<Integer> sortedFilterList = new ParallelFilterList<>(sorted);
+        sortedFilterList.setMatcher(EVEN);
+        ReplayListener sortedReplay = new ReplayListener(sortedFilterList);
+
+        sorted.setComparator(Collections.reverseOrder());
+        List<Integer> result = new ArrayList<>();
+        for (int i = 98; i >= 0; i -= 2) {
+            result.add(i);
+        }
+        assertEquals(result, sortedFilterList);
+        assertEquals(result, sortedReplay.rows);
+    }
+
+    /**
+     * Forwards the changes of the source list and combines all changes that
+     * are performed within {@link #batch(Runnable)} into a single event.
+     */
+    private static class BatchList<E> extends TransformedList<E, E> {
+
+        BatchList(EventList<E> source) {
+            super(source);
+            source.addListEventListener(this);
+        }
+
+        @Override
+        protected boolean isWritable() {
+            return true;
+        }
+
+        @Override
+        public void listChanged(ListEvent<E> listChanges) {
+            this.updates.forwardEvent(listChanges);
+        }
+
+        void batch(Runnable changes) {
+            getReadWriteLock().writeLock().lock();
+            this.updates.beginEvent(true);
+            try {
+                changes.run();
+            } finally {
+                this.updates.commitEvent();
+                getReadWriteLock().writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies the received list changes to a copy of the list to verify the
+     * fired events.
+     */
+    private static class ReplayListener implements ListEventListener<Integer> {
+
+        final List<Integer> rows;
+        int eventCount;
+
+        ReplayListener(EventList<Integer> list) {
+            this.rows = new ArrayList<>(list);
+            list.addListEventListener(this);
+        }
+
+        @Override
+        public void listChanged(ListEvent<Integer> listChanges) {
+            this.eventCount++;
+            EventList<Integer> source = listChanges.getSourceList();
+            if (listChanges.isReordering()) {
+                int[] reorderMap = listChanges.getReorderMap();
+                List<Integer> reordered = new ArrayList<>();
+                for (int previous : reorderMap) {
+                    reordered.add(this.rows.get(previous));
+                }
+                this.rows.clear();
+                this.rows.addAll(reordered);
+                return;
+            }
+            while (listChanges.next()) {
+                int index = listChanges.getIndex();
+                switch (listChanges.getType()) {
+                    case ListEvent.INSERT:
+                        this.rows.add(index, source.get(index));
+                        break;
+                    case ListEvent.DELETE:
+                        this.rows.remove(index);
+                        break;
+                    case ListEvent.UPDATE:
+                        this.rows.set(index, source.get(index));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultIntegerDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+public class ParallelGlazedListsFilterStrategyTest {
+
+    private ForkJoinPool pool;
+    private EventList<int[]> base;
+
+    private ParallelFilterList<int[]> filterList;
+    private ParallelGlazedListsFilterStrategy<int[]> strategy;
+
+    private FilterList<int[]> expectedList;
+    private DefaultGlazedListsFilterStrategy<int[]> expected;
+
+    @Before
+    public void setup() {
+        this.pool = new ForkJoinPool(4);
+        this.base = new BasicEventList<>();
+        for (int i = 0; i < 100000; i++) {
+            this.base.add(new int[] { i, i % 10 });
+        }
+
+        ConfigRegistry configRegistry = createConfigRegistry(TextMatchingMode.REGULAR_EXPRESSION);
+
+        this.filterList = new ParallelFilterList<>(this.base);
+        this.strategy = new ParallelGlazedListsFilterStrategy<>(
+                this.filterList, this.pool, new ArrayAccessor(), configRegistry);
+
+        this.expectedList = new FilterList<>(this.base);
+        this.expected = new DefaultGlazedListsFilterStrategy<>(
+                this.expectedList, new ArrayAccessor(), configRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    public void shouldFilterInParallel() {
+        Map<Integer, Object> filter = new HashMap<>();
+        filter.put(0, ">50000");
+        filter.put(1, "<=3");
+        applyFilter(filter);
+
+        assertEquals(19999, this.filterList.size());
+        assertEquals(values(this.expectedList), values(this.filterList));
+
+        filter.remove(1);
+        applyFilter(filter);
+        assertEquals(49999, this.filterList.size());
+        assertEquals(values(this.expectedList), values(this.filterList));
+
+        filter.clear();
+        applyFilter(filter);
+        assertEquals(100000, this.filterList.size());
+    }
+
+    @Test
+    public void shouldPublishOnlyTheLatestFilter() {
+        AtomicInteger events = new AtomicInteger();
+        this.filterList.addListEventListener(new ListEventListener<int[]>() {
+            @Override
+            public void listChanged(ListEvent<int[]> listChanges) {
+                events.incrementAndGet();
+            }
+        });
+
+        // simulate typing
+        Map<Integer, Object> filter = new HashMap<>();
+        for (String text : new String[] { ">9", ">99", ">999", ">9999", ">99999" }) {
+            filter.put(0, text);
+            this.strategy.applyFilter(filter);
+        }
+        this.strategy.awaitFilter();
+        this.expected.applyFilter(filter);
+
+        assertFalse(this.strategy.isFiltering());
+        assertEquals(0, this.filterList.size());
+        assertEquals(values(this.expectedList), values(this.filterList));
+        assertTrue(events.get() >= 1 && events.get() <= 5);
+    }
+
+    @Test
+    public void shouldEvaluateSourceChangesWithCurrentFilter() {
+        Map<Integer, Object> filter = new HashMap<>();
+        filter.put(1, "=3");
+        this.strategy.applyFilter(filter);
+
+        this.base.getReadWriteLock().writeLock().lock();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                this.base.set(i, new int[] { i, 3 });
+            }
+            this.base.add(new int[] { -1, 3 });
+            this.base.add(new int[] { -2, 4 });
+        } finally {
+            this.base.getReadWriteLock().writeLock().unlock();
+        }
+
+        this.strategy.awaitFilter();
+        this.expected.applyFilter(filter);
+
+        assertEquals(10900 + 1, this.filterList.size());
+        assertEquals(values(this.expectedList), values(this.filterList));
+    }
+
+    @Test
+    public void shouldFilterTextInParallel() {
+        // text matchers are not thread safe and need to be evaluated with a
+        // separate instance per task
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            rows.add(new int[] { i, i % 10 });
+        }
+        this.base = new BasicEventList<>();
+        this.base.addAll(rows);
+        ConfigRegistry configRegistry = createConfigRegistry(TextMatchingMode.CONTAINS);
+        this.filterList = new ParallelFilterList<>(this.base);
+        this.strategy = new ParallelGlazedListsFilterStrategy<>(
+                this.filterList, this.pool, new ArrayAccessor(), configRegistry);
+        this.expectedList = new FilterList<>(this.base);
+        this.expected = new DefaultGlazedListsFilterStrategy<>(
+                this.expectedList, new ArrayAccessor(), configRegistry);
+
+        Map<Integer, Object> filter = new HashMap<>();
+        for (String text : new String[] { "7", "71", "12345", "9&42" }) {
+            filter.put(0, text);
+            applyFilter(filter);
+            assertEquals(text, values(this.expectedList), values(this.filterList));
+        }
+
+        // text and threshold filters are combined
+        filter.put(1, ">4");
+        applyFilter(filter);
+        assertEquals(values(this.expectedList), values(this.filterList));
+    }
+
+    private static ConfigRegistry createConfigRegistry(TextMatchingMode textMatchingMode) {
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_DELIMITER,
+                "&");
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                textMatchingMode);
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                new DefaultDisplayConverter());
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_CONTENT_DISPLAY_CONVERTER,
+                new DefaultIntegerDisplayConverter());
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_COMPARATOR,
+                DefaultComparator.getInstance(),
+                DisplayMode.NORMAL);
+        return configRegistry;
+    }
+
+    private void applyFilter(Map<Integer, Object> filter) {
+        this.strategy.applyFilter(new HashMap<>(filter));
+        this.strategy.awaitFilter();
+        this.expected.applyFilter(new HashMap<>(filter));
+    }
+
+    private static List<Integer> values(List<int[]> rows) {
+        List<Integer> result = new ArrayList<>();
+        for (int[] row : rows) {
+            result.add(row[0]);
+        }
+        return result;
+    }
+
+    private static class ArrayAccessor implements IColumnAccessor<int[]> {
+
+        @Override
+        public Object getDataValue(int[] rowObject, int columnIndex) {
+            return rowObject[columnIndex];
+        }
+
+        @Override
+        public void setDataValue(int[] rowObject, int columnIndex, Object newValue) {
+            rowObject[columnIndex] = (Integer) newValue;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+    }
+}
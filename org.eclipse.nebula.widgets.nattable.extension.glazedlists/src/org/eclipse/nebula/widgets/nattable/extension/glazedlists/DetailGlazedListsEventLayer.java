@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2019 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,13 @@
  * and only fire a single RowStructuralRefreshEvent for all events within 100ms.
  * Instead it will fire a corresponding NatTable event with the detail
  * information for every {@link ListEvent} fired by the GlazedLists immediately.
+ * <p>
+ * In batch mode, which can be enabled via
+ * {@link #setBatchListEvents(boolean)}, the changes of all {@link ListEvent}s
+ * that are received until the UI thread processes the next event loop
+ * iteration are merged, and at most a single {@link RowDeleteEvent} and a
+ * single {@link RowInsertEvent} are fired for them.
+ * </p>
  *
  * @param <T>
  *            Type of the bean in the backing list.
@@ -70,6 +77,23 @@
      */
     private boolean active = true;
 
+    /**
+     * Flag that indicates whether the changes of consecutive {@link ListEvent}s
+     * are merged and fired together.
+     */
+    private volatile boolean batchListEvents = false;
+
+    /**
+     * The changes collected in batch mode that are not fired yet.
+     */
+    private final ListChangeCollector collectedChanges = new ListChangeCollector();
+
+    /**
+     * Flag to indicate whether firing the collected changes is already
+     * scheduled. Guarded by {@link #collectedChanges}.
+     */
+    private boolean fireScheduled = false;
+
     /**
      * Create a new {@link DetailGlazedListsEventLayer} which is in fact a
      * {@link ListEventListener} that listens to GlazedLists events and
@@ -101,7 +125,9 @@ public DetailGlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<
      */
     @Override
     public void listChanged(final ListEvent<T> event) {
-        if (this.active) {
+        if (this.active && this.batchListEvents) {
+            collectEvents(event);
+        } else if (this.active) {
             try {
                 this.eventList.getReadWriteLock().readLock().lock();
 
@@ -149,6 +175,64 @@ public void listChanged(final ListEvent<T> event) {
         }
     }
 
+    /**
+     * Collects the changes of the given {@link ListEvent} and schedules firing
+     * them in the UI thread, if that is not scheduled yet.
+     *
+     * @param event
+     *            The {@link ListEvent} whose changes should be collected.
+     */
+    private void collectEvents(ListEvent<T> event) {
+        boolean schedule = false;
+        synchronized (this.collectedChanges) {
+            while (event.next()) {
+                int eventType = event.getType();
+                if (eventType == ListEvent.DELETE) {
+                    this.collectedChanges.delete(event.getIndex());
+                } else if (eventType == ListEvent.INSERT) {
+                    this.collectedChanges.insert(event.getIndex());
+                }
+            }
+            if (!this.fireScheduled) {
+                this.fireScheduled = true;
+                schedule = true;
+            }
+        }
+
+        if (schedule) {
+            Display.getDefault().asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    fireCollectedEvents();
+                }
+            });
+        }
+    }
+
+    /**
+     * Fires the changes collected in batch mode. Needs to be called in the UI
+     * thread. The read lock of the {@link EventList} is held while firing, so
+     * the collected changes match the current state of the list.
+     */
+    private void fireCollectedEvents() {
+        try {
+            this.eventList.getReadWriteLock().readLock().lock();
+
+            List<Range> deleteRanges;
+            List<Range> insertRanges;
+            synchronized (this.collectedChanges) {
+                deleteRanges = this.collectedChanges.getDeletedRanges();
+                insertRanges = this.collectedChanges.getInsertedRanges();
+                this.collectedChanges.clear();
+                this.fireScheduled = false;
+            }
+
+            internalFireEvents(deleteRanges, insertRanges);
+        } finally {
+            this.eventList.getReadWriteLock().readLock().unlock();
+        }
+    }
+
     /**
      * Create {@link RowDeleteEvent}s and {@link RowInsertEvent}s based on the
      * given information and fire them synchronously to the UI thread to update
@@ -272,6 +356,41 @@ public boolean isActive() {
         return this.active;
     }
 
+    /**
+     * Enables or disables the batch mode. In batch mode the changes of all
+     * {@link ListEvent}s that are received until the UI thread processes the
+     * next event loop iteration are merged into at most one
+     * {@link RowDeleteEvent} and one {@link RowInsertEvent}. This reduces the
+     * number of events, and therefore the number of updates of the cached
+     * information in the layers above, for data sources that change with a
+     * high frequency.
+     * <p>
+     * <b>Note:</b> In batch mode the events are fired asynchronously in the UI
+     * thread while holding the read lock of the {@link EventList}. The
+     * changes therefore must not be performed in another thread that waits for
+     * the UI thread while holding the write lock of the {@link EventList}.
+     * </p>
+     *
+     * @param batchListEvents
+     *            <code>true</code> to merge the changes of consecutive
+     *            {@link ListEvent}s, <code>false</code> to fire the events for
+     *            every {@link ListEvent} immediately.
+     * @since 2.0
+     */
+    public void setBatchListEvents(boolean batchListEvents) {
+        this.batchListEvents = batchListEvents;
+    }
+
+    /**
+     * @return <code>true</code> if the changes of consecutive
+     *         {@link ListEvent}s are merged, <code>false</code> if events are
+     *         fired for every {@link ListEvent} immediately.
+     * @since 2.0
+     */
+    public boolean isBatchListEvents() {
+        return this.batchListEvents;
+    }
+
     /**
      * Change the underlying {@link EventList} this layer is listening to.
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,10 @@
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
@@ -35,9 +39,22 @@
  * <li>GlazedLists events - {@link ListEvent}
  * <li>Bean updates - PropertyChangeEvent(s)
  * </ol>
- * GlazedLists events are conflated at a 100ms interval i.e a single
+ * GlazedLists events are conflated i.e a single
  * {@link RowStructuralRefreshEvent} is fired for any number of GlazedLists
- * events received during that interval.
+ * events received during a flush interval. The flush interval adapts to the
+ * load:
+ * <ul>
+ * <li>a small number of changes is flushed as soon as no further change is
+ * received within one check interval</li>
+ * <li>under sustained load the flush interval is doubled on every flush up to
+ * the maximum latency, which is 100ms by default</li>
+ * <li>changes are never held back longer than the maximum latency plus one
+ * check interval</li>
+ * </ul>
+ * By default all {@link GlazedListsEventLayer}s share one
+ * {@link Scheduler} thread. A dedicated {@link Scheduler} can be passed to the
+ * constructor to avoid that tables with bursty data sources delay the event
+ * handling of other tables.
  * <p>
  * PropertyChangeEvent(s) are propagated immediately as a
  * {@link PropertyUpdateEvent}.
@@ -49,63 +66,191 @@
         extends AbstractLayerTransform
         implements IUniqueIndexLayer, ListEventListener<T>, PropertyChangeListener {
 
+    /**
+     * The default maximum time in milliseconds a change is held back to be
+     * conflated with subsequent changes.
+     *
+     * @since 2.0
+     */
+    public static final long DEFAULT_MAX_LATENCY = 100L;
+
+    /**
+     * The default interval in milliseconds in which the pending changes are
+     * checked.
+     *
+     * @since 2.0
+     */
+    public static final long DEFAULT_CHECK_INTERVAL = 20L;
+
+    /**
+     * The default maximum number of pending changes that are flushed early if
+     * no further change is received.
+     *
+     * @since 2.0
+     */
+    public static final int DEFAULT_IDLE_FLUSH_THRESHOLD = 100;
+
     private static final Scheduler scheduler = new Scheduler("GlazedListsEventLayer"); //$NON-NLS-1$
     private final IUniqueIndexLayer underlyingLayer;
+    private final Scheduler eventScheduler;
     private final ScheduledFuture<?> future;
     private EventList<T> eventList;
     private boolean testMode = false;
-    private boolean structuralChangeEventsToProcess = false;
-    private boolean eventsToProcess = false;
+    private final AtomicBoolean structuralChangeEventsToProcess = new AtomicBoolean();
+    private volatile boolean eventsToProcess = false;
     private boolean terminated;
 
-    private boolean active = true;
+    private volatile boolean active = true;
+
+    private final long checkInterval;
+    private volatile long maxLatency = DEFAULT_MAX_LATENCY;
+    private volatile int idleFlushThreshold = DEFAULT_IDLE_FLUSH_THRESHOLD;
+
+    /**
+     * The current flush delay in nanoseconds, adapted between the check
+     * interval and the maximum latency. Only accessed by the event notifier.
+     */
+    private long flushDelay;
+
+    /**
+     * The number of list changes since the last flush.
+     */
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private volatile long firstPendingChangeTime;
+    private volatile long lastChangeTime;
+
+    private final AtomicLong receivedEventCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong coalescedChangeCount = new AtomicLong();
 
     public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eventList) {
+        this(underlyingLayer, eventList, scheduler, DEFAULT_CHECK_INTERVAL);
+    }
+
+    /**
+     * Creates a {@link GlazedListsEventLayer} that checks for changes on the
+     * given {@link Scheduler}. Passing a dedicated {@link Scheduler} per table
+     * avoids that the event handling of different tables influence each
+     * other.
+     *
+     * @param underlyingLayer
+     *            The underlying layer.
+     * @param eventList
+     *            The {@link EventList} to listen on.
+     * @param eventScheduler
+     *            The {@link Scheduler} that is used to check for changes.
+     * @param checkInterval
+     *            The interval in milliseconds in which the pending changes
+     *            are checked. This is also the minimum flush delay.
+     * @since 2.0
+     */
+    public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eventList,
+            Scheduler eventScheduler, long checkInterval) {
         super(underlyingLayer);
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("checkInterval <= 0"); //$NON-NLS-1$
+        }
         this.underlyingLayer = underlyingLayer;
         this.eventList = eventList;
+        this.eventScheduler = eventScheduler;
+        this.checkInterval = checkInterval;
+        this.flushDelay = TimeUnit.MILLISECONDS.toNanos(checkInterval);
 
         this.eventList.addListEventListener(this);
 
         // Start the event conflation thread
-        this.future = scheduler.scheduleAtFixedRate(getEventNotifier(), 0L, 100L);
+        this.future = this.eventScheduler.scheduleAtFixedRate(getEventNotifier(), 0L, checkInterval);
     }
 
     /**
      *
-     * @return The {@link Runnable} that is triggered all 100ms to fire a
-     *         NatTable refresh event.
+     * @return The {@link Runnable} that is triggered in the check interval to
+     *         fire a NatTable refresh event if necessary.
      */
     protected Runnable getEventNotifier() {
         return new Runnable() {
             @Override
             public void run() {
-                if (GlazedListsEventLayer.this.eventsToProcess && GlazedListsEventLayer.this.active) {
-                    ILayerEvent layerEvent;
-                    if (GlazedListsEventLayer.this.structuralChangeEventsToProcess) {
-                        layerEvent = new RowStructuralRefreshEvent(getUnderlyingLayer());
-                    } else {
-                        layerEvent = new VisualRefreshEvent(getUnderlyingLayer());
-                    }
-                    fireEventFromSWTDisplayThread(layerEvent);
-
-                    GlazedListsEventLayer.this.eventsToProcess = false;
-                    GlazedListsEventLayer.this.structuralChangeEventsToProcess = false;
+                if (GlazedListsEventLayer.this.eventsToProcess
+                        && GlazedListsEventLayer.this.active
+                        && shouldFlush(System.nanoTime())) {
+                    flush();
                 }
             }
         };
     }
 
+    /**
+     * Checks whether the pending changes should be flushed. Adapts the flush
+     * delay to the current load.
+     *
+     * @param now
+     *            The current time as returned by {@link System#nanoTime()}.
+     * @return <code>true</code> if a NatTable refresh event should be fired.
+     */
+    private boolean shouldFlush(long now) {
+        long checkNanos = TimeUnit.MILLISECONDS.toNanos(this.checkInterval);
+        long maxNanos = Math.max(checkNanos, TimeUnit.MILLISECONDS.toNanos(this.maxLatency));
+        long pendingTime = now - this.firstPendingChangeTime;
+        boolean idle = now - this.lastChangeTime >= checkNanos;
+
+        if (idle && this.pendingChanges.get() <= this.idleFlushThreshold) {
+            // the source calmed down, so flush early and reduce the delay
+            this.flushDelay = Math.max(checkNanos, this.flushDelay / 2);
+            return true;
+        } else if (pendingTime >= Math.min(this.flushDelay, maxNanos)) {
+            if (!idle) {
+                // sustained load, back off to reduce the number of refreshes
+                this.flushDelay = Math.min(maxNanos, this.flushDelay * 2);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fires a single NatTable refresh event for all pending changes.
+     */
+    private void flush() {
+        // reset the flags before firing, so changes that are received
+        // concurrently trigger another flush
+        this.eventsToProcess = false;
+        boolean structural = this.structuralChangeEventsToProcess.getAndSet(false);
+        int changes = this.pendingChanges.getAndSet(0);
+
+        this.flushCount.incrementAndGet();
+        if (changes > 1) {
+            this.coalescedChangeCount.addAndGet(changes - 1);
+        }
+
+        ILayerEvent layerEvent;
+        if (structural) {
+            layerEvent = new RowStructuralRefreshEvent(getUnderlyingLayer());
+        } else {
+            layerEvent = new VisualRefreshEvent(getUnderlyingLayer());
+        }
+        fireEventFromSWTDisplayThread(layerEvent);
+    }
+
     // GlazedLists ListEventListener
 
     @Override
     public void listChanged(ListEvent<T> event) {
+        int changes = 0;
         while (event.next()) {
+            changes++;
             int eventType = event.getType();
             if (eventType == ListEvent.DELETE || eventType == ListEvent.INSERT) {
-                this.structuralChangeEventsToProcess = true;
+                this.structuralChangeEventsToProcess.set(true);
             }
         }
+
+        long now = System.nanoTime();
+        if (this.pendingChanges.getAndAdd(Math.max(changes, 1)) == 0) {
+            this.firstPendingChangeTime = now;
+        }
+        this.lastChangeTime = now;
+        this.receivedEventCount.incrementAndGet();
         this.eventsToProcess = true;
     }
 
@@ -151,7 +296,7 @@ public void run() {
     public boolean doCommand(ILayerCommand command) {
         if (!this.terminated && command instanceof DisposeResourcesCommand) {
             this.terminated = true;
-            scheduler.unschedule(this.future);
+            this.eventScheduler.unschedule(this.future);
         }
         return super.doCommand(command);
     }
@@ -239,7 +384,91 @@ public boolean isActive() {
      */
     public void discardEventsToProcess() {
         this.eventsToProcess = false;
-        this.structuralChangeEventsToProcess = false;
+        this.structuralChangeEventsToProcess.set(false);
+        this.pendingChanges.set(0);
+    }
+
+    /**
+     *
+     * @return The maximum time in milliseconds a change is held back to be
+     *         conflated with subsequent changes.
+     * @since 2.0
+     */
+    public long getMaxLatency() {
+        return this.maxLatency;
+    }
+
+    /**
+     * Set the maximum time in milliseconds a change is held back to be
+     * conflated with subsequent changes. Under sustained load the flush delay
+     * is increased up to this value. Values smaller than the check interval
+     * are treated as the check interval.
+     *
+     * @param maxLatency
+     *            The maximum latency in milliseconds.
+     * @since 2.0
+     */
+    public void setMaxLatency(long maxLatency) {
+        if (maxLatency < 0) {
+            throw new IllegalArgumentException("maxLatency < 0"); //$NON-NLS-1$
+        }
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     *
+     * @return The maximum number of pending changes that are flushed early if
+     *         no further change is received within one check interval.
+     * @since 2.0
+     */
+    public int getIdleFlushThreshold() {
+        return this.idleFlushThreshold;
+    }
+
+    /**
+     * Set the maximum number of pending changes that are flushed early if no
+     * further change is received within one check interval. More pending
+     * changes are conflated until the current flush delay is reached.
+     *
+     * @param idleFlushThreshold
+     *            The maximum number of pending changes for an early flush.
+     * @since 2.0
+     */
+    public void setIdleFlushThreshold(int idleFlushThreshold) {
+        if (idleFlushThreshold < 0) {
+            throw new IllegalArgumentException("idleFlushThreshold < 0"); //$NON-NLS-1$
+        }
+        this.idleFlushThreshold = idleFlushThreshold;
+    }
+
+    /**
+     *
+     * @return The number of GlazedLists {@link ListEvent}s received.
+     * @since 2.0
+     */
+    public long getReceivedEventCount() {
+        return this.receivedEventCount.get();
+    }
+
+    /**
+     *
+     * @return The number of NatTable refresh events fired for the received
+     *         {@link ListEvent}s.
+     * @since 2.0
+     */
+    public long getFlushCount() {
+        return this.flushCount.get();
+    }
+
+    /**
+     *
+     * @return The number of list changes that did not cause a separate
+     *         NatTable refresh event as they were conflated with other
+     *         changes.
+     * @since 2.0
+     */
+    public long getCoalescedChangeCount() {
+        return this.coalescedChangeCount.get();
     }
 
     // Columns
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+import ca.odell.glazedlists.event.ListEvent;
+
+/**
+ * Collects a sequence of single row inserts and deletes, e.g. the changes of
+ * consecutive {@link ListEvent}s, and merges them into the minimal set of
+ * changes between the state before the first and after the last change:
+ * <ul>
+ * <li>the deleted rows, as positions in the state before the first change</li>
+ * <li>the inserted rows, as positions in the state after the last change</li>
+ * </ul>
+ * Rows that are inserted and deleted again within the sequence are not
+ * reported at all.
+ * <p>
+ * The positions of the changes are interpreted sequentially, i.e. every
+ * position is related to the state after all previous changes. This is how
+ * GlazedLists reports the changes of a {@link ListEvent}. The costs of a
+ * change only depend on the number of collected changes, not on the number
+ * of rows.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class ListChangeCollector {
+
+    /**
+     * The current positions of the inserted rows, ascending.
+     */
+    private int[] inserted = new int[8];
+    private int insertedCount;
+
+    /**
+     * The original positions of the deleted rows, ascending.
+     */
+    private int[] deleted = new int[8];
+    private int deletedCount;
+
+    /**
+     * Collects the insert of a row.
+     *
+     * @param position
+     *            The position of the inserted row, related to the state after
+     *            all previously collected changes.
+     */
+    public void insert(int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position < 0"); //$NON-NLS-1$
+        }
+        int idx = lowerBound(this.inserted, this.insertedCount, position);
+        for (int i = idx; i < this.insertedCount; i++) {
+            this.inserted[i]++;
+        }
+        this.inserted = insertAt(this.inserted, this.insertedCount++, idx, position);
+    }
+
+    /**
+     * Collects the delete of a row.
+     *
+     * @param position
+     *            The position of the deleted row, related to the state after
+     *            all previously collected changes.
+     */
+    public void delete(int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position < 0"); //$NON-NLS-1$
+        }
+        int idx = lowerBound(this.inserted, this.insertedCount, position);
+        if (idx < this.insertedCount && this.inserted[idx] == position) {
+            // a row inserted within the collected changes is deleted again
+            System.arraycopy(this.inserted, idx + 1, this.inserted, idx, this.insertedCount - idx - 1);
+            this.insertedCount--;
+        } else {
+            // idx inserted rows are before the position, the remaining rows
+            // are original rows, so search the original position that is not
+            // deleted yet
+            int original = position - idx;
+            int deletedIdx = 0;
+            while (deletedIdx < this.deletedCount && this.deleted[deletedIdx] <= original) {
+                original++;
+                deletedIdx++;
+            }
+            this.deleted = insertAt(this.deleted, this.deletedCount++, deletedIdx, original);
+        }
+        for (int i = idx; i < this.insertedCount; i++) {
+            this.inserted[i]--;
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the collected changes result in no
+     *         structural change.
+     */
+    public boolean isEmpty() {
+        return this.insertedCount == 0 && this.deletedCount == 0;
+    }
+
+    /**
+     * Removes all collected changes.
+     */
+    public void clear() {
+        this.insertedCount = 0;
+        this.deletedCount = 0;
+    }
+
+    /**
+     *
+     * @return The merged ranges of the deleted rows, as positions in the state
+     *         before the first collected change.
+     */
+    public List<Range> getDeletedRanges() {
+        List<Range> ranges = new ArrayList<Range>();
+        int i = 0;
+        while (i < this.deletedCount) {
+            int start = this.deleted[i];
+            int end = start + 1;
+            i++;
+            while (i < this.deletedCount && this.deleted[i] == end) {
+                end++;
+                i++;
+            }
+            ranges.add(new Range(start, end));
+        }
+        return ranges;
+    }
+
+    /**
+     *
+     * @return A single row range per inserted row, as positions in the state
+     *         after the last collected change, ascending.
+     */
+    public List<Range> getInsertedRanges() {
+        List<Range> ranges = new ArrayList<Range>(this.insertedCount);
+        for (int i = 0; i < this.insertedCount; i++) {
+            ranges.add(new Range(this.inserted[i], this.inserted[i] + 1));
+        }
+        return ranges;
+    }
+
+    private static int[] insertAt(int[] values, int length, int idx, int value) {
+        int[] result = values;
+        if (length == values.length) {
+            result = Arrays.copyOf(values, length * 2);
+        }
+        System.arraycopy(result, idx, result, idx + 1, length - idx);
+        result[idx] = value;
+        return result;
+    }
+
+    private static int lowerBound(int[] values, int length, int value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
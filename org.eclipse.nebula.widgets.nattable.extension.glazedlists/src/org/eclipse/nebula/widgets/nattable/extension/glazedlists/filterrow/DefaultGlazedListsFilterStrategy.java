@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,10 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +26,7 @@
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.FilterValueIndex.Condition;
 import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowDataLayer;
 import org.eclipse.nebula.widgets.nattable.filterrow.IFilterStrategy;
 import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult;
@@ -69,6 +73,25 @@
         }
     };
 
+    /**
+     * The filters of the last {@link #applyFilter(Map)} call per column index
+     * that consist of a single text or threshold matcher. Used to update the
+     * installed {@link MatcherEditor} in place if the new filter narrows the
+     * previous one.
+     */
+    private Map<Integer, ColumnFilter> columnFilters = new HashMap<Integer, ColumnFilter>();
+
+    /**
+     * Optional index that is used to evaluate threshold and equality filters.
+     */
+    private FilterValueIndex<T> filterValueIndex;
+
+    /**
+     * The {@link MatcherEditor} for all threshold and equality filters that are
+     * evaluated via the {@link FilterValueIndex}.
+     */
+    private final IndexMatcherEditor indexMatcherEditor = new IndexMatcherEditor();
+
     /**
      * Create a new DefaultGlazedListsFilterStrategy on top of the given
      * FilterList.
@@ -150,6 +173,8 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
             try {
                 this.filterLock.writeLock().lock();
                 this.matcherEditor.getMatcherEditors().clear();
+                this.columnFilters.clear();
+                this.indexMatcherEditor.setConditions(null);
             } finally {
                 this.filterLock.writeLock().unlock();
             }
@@ -159,6 +184,10 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
 
         try {
             EventList<MatcherEditor<T>> matcherEditors = new BasicEventList<MatcherEditor<T>>();
+            Map<Integer, ColumnFilter> newColumnFilters = new HashMap<Integer, ColumnFilter>();
+            List<ColumnFilter> narrowedFilters = new ArrayList<ColumnFilter>();
+            List<Condition> indexConditions = new ArrayList<Condition>();
+            Map<Integer, Comparator<Object>> indexColumns = new HashMap<Integer, Comparator<Object>>();
 
             for (Entry<Integer, Object> mapEntry : filterIndexToObjectMap.entrySet()) {
                 Integer columnIndex = mapEntry.getKey();
@@ -181,36 +210,78 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
 
                 List<ParseResult> parseResults = FilterRowUtils.parse(filterText, textDelimiter, textMatchingMode);
 
+                // if the filter narrows the previous one, the installed matcher
+                // editor is updated instead of replaced, so only the currently
+                // matching rows need to be re-evaluated
+                ColumnFilter previous = this.columnFilters.get(columnIndex);
+                if (previous != null && parseResults.size() == 1) {
+                    ColumnFilter narrowed = previous.narrow(
+                            parseResults.get(0), textMatchingMode, displayConverter, comparator);
+                    if (narrowed != null) {
+                        matcherEditors.add(narrowed.matcherEditor);
+                        newColumnFilters.put(columnIndex, narrowed);
+                        narrowedFilters.add(narrowed);
+                        continue;
+                    }
+                }
+
+                MatcherEditor<T> singleMatcherEditor = null;
                 EventList<MatcherEditor<T>> stringMatcherEditors = new BasicEventList<MatcherEditor<T>>();
                 for (ParseResult parseResult : parseResults) {
                     try {
                         MatchType matchOperation = parseResult.getMatchOperation();
                         if (matchOperation == MatchType.NONE) {
-                            stringMatcherEditors.add(getTextMatcherEditor(
+                            singleMatcherEditor = getTextMatcherEditor(
                                     columnIndex,
                                     textMatchingMode,
                                     displayConverter,
-                                    parseResult.getValueToMatch()));
+                                    parseResult.getValueToMatch());
+                            stringMatcherEditors.add(singleMatcherEditor);
+                        } else if (this.filterValueIndex != null && comparator != null) {
+                            // evaluated via the index, conditions of all
+                            // columns are combined
+                            Object threshold =
+                                    displayConverter.displayToCanonicalValue(parseResult.getValueToMatch());
+                            indexConditions.add(new Condition(columnIndex, matchOperation, threshold));
+                            indexColumns.put(columnIndex, comparator);
                         } else {
                             Object threshold =
                                     displayConverter.displayToCanonicalValue(parseResult.getValueToMatch());
-                            matcherEditors.add(getThresholdMatcherEditor(
+                            singleMatcherEditor = getThresholdMatcherEditor(
                                     columnIndex,
                                     threshold,
                                     comparator,
                                     columnValueProvider,
-                                    matchOperation));
+                                    matchOperation);
+                            matcherEditors.add(singleMatcherEditor);
                         }
                     } catch (PatternSyntaxException e) {
+                        singleMatcherEditor = null;
                         LOG.warn("Error on applying a filter: " + e.getLocalizedMessage()); //$NON-NLS-1$
                     }
                 }
 
+                MatcherEditor<T> installed = singleMatcherEditor;
                 if (stringMatcherEditors.size() > 0) {
                     final CompositeMatcherEditor<T> stringCompositeMatcherEditor =
                             new CompositeMatcherEditor<T>(stringMatcherEditors);
                     stringCompositeMatcherEditor.setMode(CompositeMatcherEditor.OR);
                     matcherEditors.add(stringCompositeMatcherEditor);
+                    installed = stringCompositeMatcherEditor;
+                }
+
+                if (parseResults.size() == 1 && singleMatcherEditor != null) {
+                    ParseResult parseResult = parseResults.get(0);
+                    newColumnFilters.put(columnIndex, new ColumnFilter(
+                            parseResult.getMatchOperation(),
+                            textMatchingMode,
+                            displayConverter,
+                            comparator,
+                            (parseResult.getMatchOperation() == MatchType.NONE)
+                                    ? parseResult.getValueToMatch()
+                                    : displayConverter.displayToCanonicalValue(parseResult.getValueToMatch()),
+                            installed,
+                            singleMatcherEditor));
                 }
             }
 
@@ -218,7 +289,26 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
             try {
                 this.filterLock.writeLock().lock();
 
-                boolean changed = false;
+                // narrowing the installed matcher editors causes constrained
+                // events, so only the rows that currently match are tested
+                boolean changed = !narrowedFilters.isEmpty();
+                for (ColumnFilter narrowed : narrowedFilters) {
+                    narrowed.apply();
+                }
+                this.columnFilters = newColumnFilters;
+
+                // update the index based matcher, the changed matching rows
+                // are calculated by bitset operations
+                if (!indexConditions.isEmpty()) {
+                    for (Entry<Integer, Comparator<Object>> column : indexColumns.entrySet()) {
+                        this.filterValueIndex.addColumn(column.getKey(), column.getValue());
+                    }
+                    if (!indexConditions.equals(this.indexMatcherEditor.getConditions())) {
+                        changed |= this.matcherEditor.getMatcherEditors().contains(this.indexMatcherEditor);
+                        this.indexMatcherEditor.setConditions(indexConditions);
+                    }
+                    matcherEditors.add(this.indexMatcherEditor);
+                }
 
                 // Remove the existing matchers that are removed from
                 // 'filterIndexToObjectMap'
@@ -246,10 +336,19 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
                 // filter was requested. To trigger the re-evaluation we need to
                 // add a MatcherEditor that matches all.
                 if (!changed) {
+                    if (!indexConditions.isEmpty()) {
+                        // the values might have been changed without an event
+                        this.filterValueIndex.refresh();
+                        this.indexMatcherEditor.setConditions(indexConditions);
+                    }
                     this.matcherEditor.getMatcherEditors().add(this.matchAll);
                     this.matcherEditor.getMatcherEditors().remove(this.matchAll);
                 }
 
+                if (indexConditions.isEmpty()) {
+                    this.indexMatcherEditor.setConditions(null);
+                }
+
             } finally {
                 this.filterLock.writeLock().unlock();
             }
@@ -259,6 +358,44 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
         }
     }
 
+    /**
+     * Set the {@link FilterValueIndex} that should be used to evaluate
+     * threshold and equality filters like <code>&gt; 1000</code>. The
+     * conditions of all columns are evaluated by range queries on the index
+     * and combined by intersecting the results, instead of evaluating a
+     * {@link ThresholdMatcherEditor} per condition for every row object.
+     * <p>
+     * The index needs to be the source of the {@link FilterList} of this
+     * strategy and use the same column values. Columns without a configured
+     * {@link FilterRowConfigAttributes#FILTER_COMPARATOR} are evaluated
+     * without the index.
+     * </p>
+     *
+     * @param filterValueIndex
+     *            The {@link FilterValueIndex} to use, <code>null</code> to
+     *            evaluate all filters via {@link MatcherEditor}s.
+     * @since 2.0
+     */
+    public void setFilterValueIndex(FilterValueIndex<T> filterValueIndex) {
+        this.filterLock.writeLock().lock();
+        try {
+            this.filterValueIndex = filterValueIndex;
+            this.columnFilters.clear();
+        } finally {
+            this.filterLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @return The {@link FilterValueIndex} that is used to evaluate threshold
+     *         and equality filters, or <code>null</code> if no index is used.
+     * @since 2.0
+     */
+    public FilterValueIndex<T> getFilterValueIndex() {
+        return this.filterValueIndex;
+    }
+
     /**
      * Retrieves the {@link IDisplayConverter} that should be used for
      * converting the body content to string for text match filter operations.
@@ -467,10 +604,10 @@ protected boolean containsMatcherEditor(
      */
     protected boolean matcherEditorEqual(final MatcherEditor<T> first, final MatcherEditor<T> second) {
 
-        boolean result = false;
+        boolean result = first == second;
 
         // Compare the matcher classes, and must be equals
-        if (first.getClass().equals(second.getClass())) {
+        if (!result && first.getClass().equals(second.getClass())) {
             if (first instanceof CompositeMatcherEditor) {
 
                 // Check that the composite matcher editors have the same number
@@ -541,6 +678,176 @@ public CompositeMatcherEditor<T> getMatcherEditor() {
         return this.matcherEditor;
     }
 
+    /**
+     * {@link MatcherEditor} for the conditions that are evaluated via the
+     * {@link FilterValueIndex}. Compares the matching rows of the previous and
+     * the new conditions to fire a constrained or relaxed event if possible.
+     */
+    private class IndexMatcherEditor extends AbstractMatcherEditor<T> {
+
+        private FilterValueIndex<T>.IndexMatcher current;
+
+        List<Condition> getConditions() {
+            return (this.current != null) ? this.current.getConditions() : null;
+        }
+
+        void setConditions(List<Condition> conditions) {
+            FilterValueIndex<T>.IndexMatcher previous = this.current;
+            if (conditions == null || conditions.isEmpty()) {
+                this.current = null;
+                if (previous != null) {
+                    fireMatchAll();
+                }
+                return;
+            }
+
+            FilterValueIndex<T>.IndexMatcher matcher = DefaultGlazedListsFilterStrategy.this.filterValueIndex.createMatcher(conditions);
+            this.current = matcher;
+            if (previous == null) {
+                fireConstrained(matcher);
+                return;
+            }
+
+            BitSet previousRows = previous.getEffectiveRowIds();
+            BitSet rows = matcher.getEffectiveRowIds();
+
+            BitSet added = (BitSet) rows.clone();
+            added.andNot(previousRows);
+            if (added.isEmpty()) {
+                fireConstrained(matcher);
+                return;
+            }
+
+            BitSet removed = (BitSet) previousRows.clone();
+            removed.andNot(rows);
+            if (removed.isEmpty()) {
+                fireRelaxed(matcher);
+            } else {
+                fireChanged(matcher);
+            }
+        }
+    }
+
+    /**
+     * The filter of a column that consists of a single text or threshold
+     * matcher, together with the {@link MatcherEditor} that is installed for
+     * it.
+     */
+    private class ColumnFilter {
+        final MatchType matchType;
+        final TextMatchingMode textMatchingMode;
+        final IDisplayConverter displayConverter;
+        final Comparator<Object> comparator;
+        /**
+         * The filter text for text matchers, the threshold otherwise.
+         */
+        final Object value;
+        /**
+         * The {@link MatcherEditor} that is added to the
+         * {@link CompositeMatcherEditor}.
+         */
+        final MatcherEditor<T> matcherEditor;
+        /**
+         * The {@link TextMatcherEditor} or {@link ThresholdMatcherEditor} that
+         * performs the matching.
+         */
+        final MatcherEditor<T> target;
+
+        ColumnFilter(MatchType matchType, TextMatchingMode textMatchingMode,
+                IDisplayConverter displayConverter, Comparator<Object> comparator,
+                Object value, MatcherEditor<T> matcherEditor, MatcherEditor<T> target) {
+            this.matchType = matchType;
+            this.textMatchingMode = textMatchingMode;
+            this.displayConverter = displayConverter;
+            this.comparator = comparator;
+            this.value = value;
+            this.matcherEditor = matcherEditor;
+            this.target = target;
+        }
+
+        /**
+         * Checks if the given filter strictly narrows this filter, i.e. a
+         * longer prefix or contained text, or a tighter threshold.
+         *
+         * @return The narrowed filter that updates the installed matcher
+         *         editor, or <code>null</code> if the given filter does not
+         *         narrow this filter.
+         */
+        ColumnFilter narrow(ParseResult parseResult, TextMatchingMode mode,
+                IDisplayConverter converter, Comparator<Object> comparator) {
+            if (parseResult.getMatchOperation() != this.matchType
+                    || mode != this.textMatchingMode
+                    || converter != this.displayConverter
+                    || comparator != this.comparator) {
+                return null;
+            }
+
+            Object newValue;
+            boolean narrows = false;
+            if (this.matchType == MatchType.NONE) {
+                if (!(this.target instanceof TextMatcherEditor)) {
+                    return null;
+                }
+                newValue = parseResult.getValueToMatch();
+                String previousText = ((String) this.value).toLowerCase();
+                String newText = ((String) newValue).toLowerCase();
+                if (newText.length() > previousText.length()) {
+                    if (mode == TextMatchingMode.STARTS_WITH) {
+                        narrows = newText.startsWith(previousText);
+                    } else if (mode == TextMatchingMode.CONTAINS) {
+                        narrows = newText.contains(previousText);
+                    }
+                }
+            } else {
+                if (!(this.target instanceof ThresholdMatcherEditor) || comparator == null) {
+                    return null;
+                }
+                newValue = converter.displayToCanonicalValue(parseResult.getValueToMatch());
+                if (newValue == null || this.value == null) {
+                    return null;
+                }
+                int compare;
+                try {
+                    compare = comparator.compare(newValue, this.value);
+                } catch (RuntimeException e) {
+                    // values that can not be compared are handled by the
+                    // regular filter processing
+                    return null;
+                }
+                switch (this.matchType) {
+                    case GREATER_THAN:
+                    case GREATER_THAN_OR_EQUAL:
+                        narrows = compare > 0;
+                        break;
+                    case LESS_THAN:
+                    case LESS_THAN_OR_EQUAL:
+                        narrows = compare < 0;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            return narrows
+                    ? new ColumnFilter(this.matchType, mode, converter, comparator,
+                            newValue, this.matcherEditor, this.target)
+                    : null;
+        }
+
+        /**
+         * Updates the installed matcher editor to the value of this filter.
+         * Needs to be called while holding the write lock of the filter list.
+         */
+        @SuppressWarnings("unchecked")
+        void apply() {
+            if (this.target instanceof TextMatcherEditor) {
+                ((TextMatcherEditor<T>) this.target).setFilterText(new String[] { (String) this.value });
+            } else {
+                ((ThresholdMatcherEditor<T, Object>) this.target).setThreshold(this.value);
+            }
+        }
+    }
+
     /**
      * {@link TextFilterator} implementation that extracts the cell value for a
      * column as String by using an {@link IDisplayConverter}.
@@ -0,0 +1,608 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.TransformedList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.matchers.Matcher;
+
+/**
+ * Pass-through {@link TransformedList} that maintains a sorted index of the
+ * values of selected columns. It is used to answer threshold and equality
+ * filters like <code>&gt; 1000</code> by range queries on the sorted values,
+ * instead of evaluating the column value and the comparator for every row
+ * object on every filter change.
+ * <p>
+ * The index needs to be placed directly below the {@link FilterList} in the
+ * GlazedLists pipeline, e.g.
+ * <code>new FilterList&lt;T&gt;(new FilterValueIndex&lt;T&gt;(eventList, columnAccessor))</code>
+ * and set to the filter strategy via
+ * {@link DefaultGlazedListsFilterStrategy#setFilterValueIndex(FilterValueIndex)}.
+ * This way the index is updated from the list change events before the
+ * {@link FilterList} re-evaluates the changed rows.
+ * </p>
+ * <p>
+ * Every distinct row object gets an internal id. The matching rows of a query
+ * are returned as a {@link BitSet} of these ids, so conditions on multiple
+ * columns are combined by intersecting the bitsets. Rows that were inserted
+ * or changed after a {@link Matcher} was created are evaluated against the
+ * indexed values.
+ * </p>
+ * <p>
+ * Values that are changed without firing a list change event are not
+ * detected. Use {@link #refresh()} to re-read all values in that case.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the row objects.
+ * @since 2.0
+ */
+public class FilterValueIndex<T> extends TransformedList<T, T> {
+
+    private final IColumnAccessor<T> columnAccessor;
+
+    /**
+     * Copy of the source list, needed to know the deleted row objects.
+     */
+    private final List<T> rows;
+
+    /**
+     * The id and the number of occurrences per distinct row object.
+     */
+    private final IdentityHashMap<T, RowId> rowIds = new IdentityHashMap<T, RowId>();
+
+    /**
+     * The ids that are assigned to a row object.
+     */
+    private final BitSet assignedIds = new BitSet();
+
+    /**
+     * The modification stamp per id, updated when the id is assigned or the
+     * indexed values of the row object changed.
+     */
+    private long[] stamps = new long[64];
+
+    private long modCount;
+
+    private final Map<Integer, ColumnValues> columns = new HashMap<Integer, ColumnValues>();
+
+    /**
+     * Creates a {@link FilterValueIndex} on top of the given source list. No
+     * column is indexed initially.
+     *
+     * @param source
+     *            The list that contains the row objects.
+     * @param columnAccessor
+     *            The {@link IColumnAccessor} to retrieve the column values of
+     *            a row object. Needs to return the same values as the column
+     *            accessor of the filter strategy.
+     */
+    public FilterValueIndex(EventList<T> source, IColumnAccessor<T> columnAccessor) {
+        super(source);
+        this.columnAccessor = columnAccessor;
+
+        this.rows = new ArrayList<T>(source);
+        for (T row : this.rows) {
+            addRow(row);
+        }
+
+        source.addListEventListener(this);
+    }
+
+    @Override
+    protected boolean isWritable() {
+        return true;
+    }
+
+    @Override
+    public void listChanged(ListEvent<T> listChanges) {
+        while (listChanges.next()) {
+            int index = listChanges.getIndex();
+            switch (listChanges.getType()) {
+                case ListEvent.INSERT:
+                    T inserted = this.source.get(index);
+                    this.rows.add(index, inserted);
+                    addRow(inserted);
+                    break;
+                case ListEvent.DELETE:
+                    removeRow(this.rows.remove(index));
+                    break;
+                case ListEvent.UPDATE:
+                    T updated = this.source.get(index);
+                    T previous = this.rows.set(index, updated);
+                    if (previous == updated) {
+                        updateRow(updated);
+                    } else {
+                        removeRow(previous);
+                        addRow(updated);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        listChanges.reset();
+        this.updates.forwardEvent(listChanges);
+    }
+
+    private void addRow(T row) {
+        RowId rowId = this.rowIds.get(row);
+        if (rowId != null) {
+            rowId.count++;
+            return;
+        }
+
+        int id = this.assignedIds.nextClearBit(0);
+        this.assignedIds.set(id);
+        this.rowIds.put(row, new RowId(id));
+        if (id >= this.stamps.length) {
+            this.stamps = Arrays.copyOf(this.stamps, Math.max(id + 1, this.stamps.length * 2));
+        }
+        this.stamps[id] = ++this.modCount;
+
+        for (ColumnValues column : this.columns.values()) {
+            column.add(id, row);
+        }
+    }
+
+    private void removeRow(T row) {
+        RowId rowId = this.rowIds.get(row);
+        if (rowId == null || --rowId.count > 0) {
+            return;
+        }
+
+        this.rowIds.remove(row);
+        this.assignedIds.clear(rowId.id);
+        for (ColumnValues column : this.columns.values()) {
+            column.remove(rowId.id);
+        }
+    }
+
+    private void updateRow(T row) {
+        RowId rowId = this.rowIds.get(row);
+        if (rowId == null) {
+            return;
+        }
+        boolean changed = false;
+        for (ColumnValues column : this.columns.values()) {
+            changed |= column.update(rowId.id, row);
+        }
+        if (changed) {
+            this.stamps[rowId.id] = ++this.modCount;
+        }
+    }
+
+    /**
+     * Re-reads the values of all indexed columns. Needed if values were
+     * changed without firing a list change event.
+     * <p>
+     * Needs to be called while holding the write lock of the list.
+     * </p>
+     */
+    public void refresh() {
+        for (Map.Entry<T, RowId> entry : this.rowIds.entrySet()) {
+            updateRow(entry.getKey());
+        }
+    }
+
+    /**
+     * Creates the index for the given column, if it is not indexed with the
+     * given {@link Comparator} yet.
+     * <p>
+     * Needs to be called while holding the write lock of the list.
+     * </p>
+     *
+     * @param columnIndex
+     *            The index of the column to index.
+     * @param comparator
+     *            The {@link Comparator} that is used to sort the values and to
+     *            evaluate the conditions.
+     */
+    public void addColumn(int columnIndex, Comparator<Object> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("comparator is null"); //$NON-NLS-1$
+        }
+        ColumnValues column = this.columns.get(columnIndex);
+        if (column != null && column.comparator == comparator) {
+            return;
+        }
+
+        column = new ColumnValues(columnIndex, comparator);
+        for (Map.Entry<T, RowId> entry : this.rowIds.entrySet()) {
+            column.add(entry.getValue().id, entry.getKey());
+        }
+        this.columns.put(columnIndex, column);
+    }
+
+    /**
+     * Removes the index of the given column.
+     *
+     * @param columnIndex
+     *            The index of the column whose index should be removed.
+     */
+    public void removeColumn(int columnIndex) {
+        this.columns.remove(columnIndex);
+    }
+
+    /**
+     *
+     * @param columnIndex
+     *            The index of the column to check.
+     * @return <code>true</code> if the given column is indexed.
+     */
+    public boolean isIndexed(int columnIndex) {
+        return this.columns.containsKey(columnIndex);
+    }
+
+    /**
+     * Returns the ids of the row objects whose value in the given column
+     * satisfies the given condition. The ids are only meaningful for this
+     * index.
+     *
+     * @param condition
+     *            The condition to evaluate.
+     * @return The ids of the matching row objects.
+     * @throws IllegalStateException
+     *             if the column of the condition is not indexed.
+     */
+    public BitSet getMatchingRowIds(Condition condition) {
+        ColumnValues column = getColumnValues(condition.columnIndex);
+        BitSet result = new BitSet();
+        switch (condition.matchType) {
+            case EQUAL:
+                column.collect(column.values.get(condition.threshold), result);
+                break;
+            case NOT_EQUAL:
+                result.or(this.assignedIds);
+                BitSet equal = new BitSet();
+                column.collect(column.values.get(condition.threshold), equal);
+                result.andNot(equal);
+                break;
+            case GREATER_THAN:
+                column.collect(column.values.tailMap(condition.threshold, false), result);
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                column.collect(column.values.tailMap(condition.threshold, true), result);
+                break;
+            case LESS_THAN:
+                column.collect(column.values.headMap(condition.threshold, false), result);
+                break;
+            case LESS_THAN_OR_EQUAL:
+                column.collect(column.values.headMap(condition.threshold, true), result);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported match type " + condition.matchType); //$NON-NLS-1$
+        }
+        return result;
+    }
+
+    /**
+     * Creates a {@link Matcher} for row objects that satisfy all of the given
+     * conditions. The matching rows are calculated by intersecting the results
+     * of the single conditions.
+     * <p>
+     * Needs to be called while holding the lock of the list.
+     * </p>
+     *
+     * @param conditions
+     *            The conditions that need to be satisfied.
+     * @return A {@link Matcher} for the given conditions.
+     * @throws IllegalStateException
+     *             if the column of a condition is not indexed.
+     */
+    public IndexMatcher createMatcher(Collection<Condition> conditions) {
+        BitSet result = null;
+        for (Condition condition : conditions) {
+            BitSet matching = getMatchingRowIds(condition);
+            if (result == null) {
+                result = matching;
+            } else {
+                result.and(matching);
+            }
+        }
+        if (result == null) {
+            result = (BitSet) this.assignedIds.clone();
+        }
+        return new IndexMatcher(new ArrayList<Condition>(conditions), result, this.modCount);
+    }
+
+    private ColumnValues getColumnValues(int columnIndex) {
+        ColumnValues column = this.columns.get(columnIndex);
+        if (column == null) {
+            throw new IllegalStateException("Column " + columnIndex + " is not indexed"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return column;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.rows.clear();
+        this.rowIds.clear();
+        this.columns.clear();
+    }
+
+    /**
+     * A condition on the value of a column, e.g. <code>&gt; 1000</code>.
+     */
+    public static final class Condition {
+
+        private final int columnIndex;
+        private final MatchType matchType;
+        private final Object threshold;
+
+        /**
+         *
+         * @param columnIndex
+         *            The index of the column whose value is checked.
+         * @param matchType
+         *            The comparison operation, all {@link MatchType}s except
+         *            {@link MatchType#NONE} are supported.
+         * @param threshold
+         *            The value the column value is compared with.
+         */
+        public Condition(int columnIndex, MatchType matchType, Object threshold) {
+            if (matchType == null || matchType == MatchType.NONE) {
+                throw new IllegalArgumentException("Unsupported match type " + matchType); //$NON-NLS-1$
+            }
+            this.columnIndex = columnIndex;
+            this.matchType = matchType;
+            this.threshold = threshold;
+        }
+
+        public int getColumnIndex() {
+            return this.columnIndex;
+        }
+
+        public MatchType getMatchType() {
+            return this.matchType;
+        }
+
+        public Object getThreshold() {
+            return this.threshold;
+        }
+
+        boolean matches(Comparator<Object> comparator, Object value) {
+            int compare = comparator.compare(value, this.threshold);
+            switch (this.matchType) {
+                case EQUAL:
+                    return compare == 0;
+                case NOT_EQUAL:
+                    return compare != 0;
+                case GREATER_THAN:
+                    return compare > 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return compare >= 0;
+                case LESS_THAN:
+                    return compare < 0;
+                default:
+                    return compare <= 0;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 * this.columnIndex + this.matchType.hashCode();
+            return 31 * result + ((this.threshold == null) ? 0 : this.threshold.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Condition)) {
+                return false;
+            }
+            Condition other = (Condition) obj;
+            return this.columnIndex == other.columnIndex
+                    && this.matchType == other.matchType
+                    && (this.threshold == null ? other.threshold == null : this.threshold.equals(other.threshold));
+        }
+
+        @Override
+        public String toString() {
+            return this.columnIndex + " " + this.matchType + " " + this.threshold; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * {@link Matcher} that checks the membership of a row object in the result
+     * of an index query. Rows that were added or changed after the query are
+     * evaluated against the indexed values.
+     */
+    public final class IndexMatcher implements Matcher<T> {
+
+        private final List<Condition> conditions;
+        private final BitSet rowIds;
+        private final long stamp;
+
+        IndexMatcher(List<Condition> conditions, BitSet rowIds, long stamp) {
+            this.conditions = conditions;
+            this.rowIds = rowIds;
+            this.stamp = stamp;
+        }
+
+        @Override
+        public boolean matches(T item) {
+            RowId rowId = FilterValueIndex.this.rowIds.get(item);
+            if (rowId == null) {
+                return false;
+            }
+            int id = rowId.id;
+            if (FilterValueIndex.this.stamps[id] <= this.stamp) {
+                return this.rowIds.get(id);
+            }
+            return evaluate(id);
+        }
+
+        private boolean evaluate(int id) {
+            for (Condition condition : this.conditions) {
+                ColumnValues column = FilterValueIndex.this.columns.get(condition.columnIndex);
+                if (column == null || !condition.matches(column.comparator, column.valuesById[id])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the ids of the rows this matcher currently matches,
+         * including the rows that changed after the query.
+         *
+         * @return The ids of the matching row objects.
+         */
+        BitSet getEffectiveRowIds() {
+            BitSet result = (BitSet) this.rowIds.clone();
+            result.and(FilterValueIndex.this.assignedIds);
+            if (this.stamp < FilterValueIndex.this.modCount) {
+                long[] currentStamps = FilterValueIndex.this.stamps;
+                BitSet assigned = FilterValueIndex.this.assignedIds;
+                for (int id = assigned.nextSetBit(0); id >= 0; id = assigned.nextSetBit(id + 1)) {
+                    if (currentStamps[id] > this.stamp) {
+                        result.set(id, evaluate(id));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         *
+         * @return The conditions of this matcher.
+         */
+        public List<Condition> getConditions() {
+            return this.conditions;
+        }
+    }
+
+    /**
+     * The id and the number of occurrences of a row object.
+     */
+    private static final class RowId {
+        final int id;
+        int count = 1;
+
+        RowId(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * The sorted values of a column.
+     */
+    private final class ColumnValues {
+
+        final int columnIndex;
+        final Comparator<Object> comparator;
+        final TreeMap<Object, IdList> values;
+        Object[] valuesById = new Object[64];
+
+        ColumnValues(int columnIndex, Comparator<Object> comparator) {
+            this.columnIndex = columnIndex;
+            this.comparator = comparator;
+            this.values = new TreeMap<Object, IdList>(comparator);
+        }
+
+        void add(int id, T row) {
+            Object value = FilterValueIndex.this.columnAccessor.getDataValue(row, this.columnIndex);
+            if (id >= this.valuesById.length) {
+                this.valuesById = Arrays.copyOf(this.valuesById, Math.max(id + 1, this.valuesById.length * 2));
+            }
+            this.valuesById[id] = value;
+            IdList ids = this.values.get(value);
+            if (ids == null) {
+                ids = new IdList();
+                this.values.put(value, ids);
+            }
+            ids.add(id);
+        }
+
+        void remove(int id) {
+            Object value = this.valuesById[id];
+            IdList ids = this.values.get(value);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                this.values.remove(value);
+            }
+            this.valuesById[id] = null;
+        }
+
+        /**
+         * @return <code>true</code> if the value has changed.
+         */
+        boolean update(int id, T row) {
+            Object value = FilterValueIndex.this.columnAccessor.getDataValue(row, this.columnIndex);
+            if (this.comparator.compare(value, this.valuesById[id]) == 0) {
+                this.valuesById[id] = value;
+                return false;
+            }
+            remove(id);
+            add(id, row);
+            return true;
+        }
+
+        void collect(IdList ids, BitSet result) {
+            if (ids != null) {
+                for (int i = 0; i < ids.size; i++) {
+                    result.set(ids.ids[i]);
+                }
+            }
+        }
+
+        void collect(NavigableMap<Object, IdList> range, BitSet result) {
+            for (IdList ids : range.values()) {
+                collect(ids, result);
+            }
+        }
+    }
+
+    /**
+     * Unordered list of ids with the same value.
+     */
+    private static final class IdList {
+        int[] ids = new int[2];
+        int size;
+
+        void add(int id) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            this.ids[this.size++] = id;
+        }
+
+        boolean remove(int id) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.ids[i] == id) {
+                    this.ids[i] = this.ids[--this.size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
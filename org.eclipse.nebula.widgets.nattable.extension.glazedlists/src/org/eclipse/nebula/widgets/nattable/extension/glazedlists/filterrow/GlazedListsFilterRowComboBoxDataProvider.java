@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2019 Dirk Fauth and others.
+ * Copyright (c) 2013, 2020 Dirk Fauth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,6 +45,11 @@
  * <p>
  * This implementation solves this issue by listening to the wrapped source
  * EventList of the FilterList instead of the NatTable IStructuralChangeEvent.
+ * <p>
+ * The value tracking is enabled by default, so inserted, deleted and updated
+ * rows reported by the ListEvents are applied incrementally to the cached
+ * values. Only if a ListEvent does not provide the previous row objects, the
+ * whole cache is rebuilt.
  */
 public class GlazedListsFilterRowComboBoxDataProvider<T> extends
         FilterRowComboBoxDataProvider<T> implements ListEventListener<T> {
@@ -108,13 +113,151 @@ public GlazedListsFilterRowComboBoxDataProvider(
         if (baseCollection instanceof EventList) {
             this.baseEventList = ((EventList<T>) baseCollection);
             this.baseEventList.addListEventListener(this);
+            setValueTrackingEnabled(true);
         } else {
             LOG.error("baseCollection is not of type EventList. List changes can not be tracked."); //$NON-NLS-1$
         }
     }
 
+    @Override
+    public List<?> getValues(int columnIndex, int rowIndex) {
+        if (!this.cachingEnabled || !isValueTrackingEnabled()) {
+            return super.getValues(columnIndex, rowIndex);
+        }
+
+        // the values need to be collected while holding the list lock to keep
+        // the value tracking consistent with the list changes
+        List<?> result = null;
+        boolean built = false;
+        lockBaseEventList();
+        try {
+            getValueCacheLock().readLock().lock();
+            try {
+                result = getValueCache().get(columnIndex);
+            } finally {
+                getValueCacheLock().readLock().unlock();
+            }
+
+            if (result == null) {
+                getValueCacheLock().writeLock().lock();
+                try {
+                    result = buildColumnValues(columnIndex);
+                    getValueCache().put(columnIndex, result);
+                    built = true;
+                } finally {
+                    getValueCacheLock().writeLock().unlock();
+                }
+            }
+        } finally {
+            unlockBaseEventList();
+        }
+
+        // listeners might apply a filter, which needs the list write lock
+        if (built && isUpdateEventsEnabled()) {
+            fireCacheUpdateEvent(buildUpdateEvent(columnIndex, null, result));
+        }
+        return result;
+    }
+
+    @Override
+    public void setValueTrackingEnabled(boolean enabled) {
+        lockBaseEventList();
+        try {
+            super.setValueTrackingEnabled(enabled);
+        } finally {
+            unlockBaseEventList();
+        }
+    }
+
+    private void lockBaseEventList() {
+        if (this.baseEventList != null) {
+            this.baseEventList.getReadWriteLock().readLock().lock();
+        }
+    }
+
+    private void unlockBaseEventList() {
+        if (this.baseEventList != null) {
+            this.baseEventList.getReadWriteLock().readLock().unlock();
+        }
+    }
+
+    /**
+     * {@link ListEvent#getOldValue()} is deprecated in GlazedLists as not all
+     * lists provide the old values. It is still needed to remove the values
+     * of deleted or replaced row objects from the value tracking, if it is
+     * not supported the value cache is rebuilt.
+     */
+    @SuppressWarnings("deprecation")
+    private static <E> E getOldValue(ListEvent<E> listChanges) {
+        return listChanges.getOldValue();
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the given ListEvent provides the previous
+     *         row objects for all deletes and updates.
+     */
+    private boolean hasOldValues(ListEvent<T> listChanges) {
+        boolean result = true;
+        while (result && listChanges.next()) {
+            if (listChanges.getType() != ListEvent.INSERT
+                    && getOldValue(listChanges) == ListEvent.unknownValue()) {
+                result = false;
+            }
+        }
+        listChanges.reset();
+        return result;
+    }
+
     @Override
     public void listChanged(ListEvent<T> listChanges) {
+        if (listChanges.isReordering()) {
+            // reordering does not change the values
+            return;
+        }
+
+        if (isValueTrackingEnabled()
+                && !this.changeHandlingProcessing.get()
+                && hasOldValues(listChanges)) {
+            List<FilterRowComboUpdateEvent> updateEvents;
+            getValueCacheLock().writeLock().lock();
+            try {
+                while (listChanges.next()) {
+                    int index = listChanges.getIndex();
+                    switch (listChanges.getType()) {
+                        case ListEvent.INSERT:
+                            rowInserted(this.baseEventList.get(index));
+                            break;
+                        case ListEvent.DELETE:
+                            rowDeleted(getOldValue(listChanges));
+                            break;
+                        case ListEvent.UPDATE:
+                            rowUpdated(getOldValue(listChanges), this.baseEventList.get(index));
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                updateEvents = commitRowChanges();
+            } finally {
+                getValueCacheLock().writeLock().unlock();
+            }
+
+            if (!updateEvents.isEmpty() && isUpdateEventsEnabled()) {
+                // inform the listeners outside of the list event handling
+                SCHEDULER.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        for (FilterRowComboUpdateEvent event : updateEvents) {
+                            fireCacheUpdateEvent(event);
+                        }
+                    }
+                }, 0);
+            }
+            return;
+        }
+
         if (!this.changeHandlingProcessing.getAndSet(true)) {
             // a new row was added or a row was deleted
             SCHEDULER.schedule(new Runnable() {
@@ -122,6 +265,7 @@ public void listChanged(ListEvent<T> listChanges) {
                 @Override
                 public void run() {
                     List<FilterRowComboUpdateEvent> updateEvents = new ArrayList<FilterRowComboUpdateEvent>();
+                    lockBaseEventList();
                     getValueCacheLock().writeLock().lock();
                     try {
                         // remember the cache before updating
@@ -140,7 +284,7 @@ public void run() {
                             // values
                             for (Map.Entry<Integer, List<?>> entry : cacheBefore.entrySet()) {
                                 getValueCache().put(entry.getKey(),
-                                        collectValues(entry.getKey()));
+                                        buildColumnValues(entry.getKey()));
                             }
                         }
 
@@ -155,6 +299,7 @@ public void run() {
                         GlazedListsFilterRowComboBoxDataProvider.this.changeHandlingProcessing.set(false);
                     } finally {
                         getValueCacheLock().writeLock().unlock();
+                        unlockBaseEventList();
                     }
 
                     if (isUpdateEventsEnabled()) {
@@ -179,6 +324,8 @@ public void run() {
                         // usually this is fired for data updates
                         // so we need to update the value cache for the updated
                         // column
+                        FilterRowComboUpdateEvent updateEvent;
+                        lockBaseEventList();
                         getValueCacheLock().writeLock().lock();
                         try {
                             int column = ((CellVisualChangeEvent) event).getColumnPosition();
@@ -189,15 +336,19 @@ public void run() {
                             // already
                             if (!GlazedListsFilterRowComboBoxDataProvider.this.lazyLoading
                                     || cacheBefore != null) {
-                                getValueCache().put(column, collectValues(column));
+                                getValueCache().put(column, buildColumnValues(column));
                             }
 
-                            if (isUpdateEventsEnabled()) {
-                                // get the diff and fire the event
-                                fireCacheUpdateEvent(buildUpdateEvent(column, cacheBefore, getValueCache().get(column)));
-                            }
+                            // get the diff
+                            updateEvent = buildUpdateEvent(column, cacheBefore, getValueCache().get(column));
                         } finally {
                             getValueCacheLock().writeLock().unlock();
+                            unlockBaseEventList();
+                        }
+
+                        // fire the event without holding the list lock
+                        if (isUpdateEventsEnabled()) {
+                            fireCacheUpdateEvent(updateEvent);
                         }
                     }
                 }, 0);
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.TransformedList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.matchers.Matcher;
+import ca.odell.glazedlists.matchers.Matchers;
+
+/**
+ * Lightweight alternative to the GlazedLists {@link FilterList} that only
+ * stores the ascending source indexes of the matching rows. In contrast to
+ * the {@link FilterList}, the matching rows for a new {@link Matcher} can be
+ * calculated outside of the list lock, e.g. in parallel on a snapshot of the
+ * source list, and are then published as a single list change event. This
+ * is done by the {@link ParallelGlazedListsFilterStrategy}.
+ * <p>
+ * Changes of the source list are evaluated with the current {@link Matcher}
+ * in a single pass over the change event. Updates that don't change whether
+ * a row matches only need a binary search, structural changes shift the
+ * stored source indexes behind the first change.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the row objects.
+ * @since 2.0
+ */
+public class ParallelFilterList<T> extends TransformedList<T, T> {
+
+    /**
+     * The ascending source indexes of the matching rows.
+     */
+    private int[] matching;
+    private int size;
+
+    private Matcher<? super T> matcher = Matchers.trueMatcher();
+
+    /**
+     * Incremented with every change of the source list. Used to detect whether
+     * a snapshot of the source list is still valid.
+     */
+    private long changeCount;
+
+    /**
+     * Creates a {@link ParallelFilterList} on top of the given source list
+     * that initially contains all rows.
+     *
+     * @param source
+     *            The list that contains the row objects.
+     */
+    public ParallelFilterList(EventList<T> source) {
+        super(source);
+
+        this.size = source.size();
+        this.matching = new int[Math.max(this.size, 16)];
+        for (int i = 0; i < this.size; i++) {
+            this.matching[i] = i;
+        }
+
+        source.addListEventListener(this);
+    }
+
+    @Override
+    protected boolean isWritable() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected int getSourceIndex(int mutationIndex) {
+        return this.matching[mutationIndex];
+    }
+
+    /**
+     *
+     * @return The {@link Matcher} that is currently applied.
+     */
+    public Matcher<? super T> getMatcher() {
+        return this.matcher;
+    }
+
+    /**
+     * Applies the given {@link Matcher} by evaluating all rows of the source
+     * list sequentially in the calling thread.
+     *
+     * @param matcher
+     *            The {@link Matcher} to apply, <code>null</code> to match all
+     *            rows.
+     */
+    public void setMatcher(Matcher<? super T> matcher) {
+        getReadWriteLock().writeLock().lock();
+        try {
+            Matcher<? super T> newMatcher = (matcher != null) ? matcher : Matchers.trueMatcher();
+            int[] newMatching = new int[Math.max(this.source.size(), 16)];
+            int count = 0;
+            for (int i = 0; i < this.source.size(); i++) {
+                if (newMatcher.matches(this.source.get(i))) {
+                    newMatching[count++] = i;
+                }
+            }
+            publish(newMatcher, newMatching, count);
+        } finally {
+            getReadWriteLock().writeLock().unlock();
+        }
+    }
+
+    /**
+     * Creates a copy of the current source list content. Needs to be called
+     * while holding at least the read lock of the list.
+     *
+     * @return The row objects of the source list.
+     */
+    Object[] createSnapshot() {
+        return this.source.toArray();
+    }
+
+    /**
+     *
+     * @return The number of source list changes that were processed so far.
+     *         Needs to be called while holding at least the read lock of the
+     *         list.
+     */
+    long getChangeCount() {
+        return this.changeCount;
+    }
+
+    /**
+     * Replaces the matching rows and fires a single list change event that
+     * contains the differences to the previous state. Needs to be called
+     * while holding the write lock of the list.
+     *
+     * @param newMatcher
+     *            The {@link Matcher} that was used to calculate the matching
+     *            rows. Used to evaluate subsequent source list changes.
+     * @param newMatching
+     *            The ascending source indexes of the matching rows. The array
+     *            is taken over and must not be modified afterwards.
+     * @param newSize
+     *            The number of valid entries in <code>newMatching</code>.
+     */
+    void publish(Matcher<? super T> newMatcher, int[] newMatching, int newSize) {
+        int[] oldMatching = this.matching;
+        int oldSize = this.size;
+
+        this.matcher = newMatcher;
+        this.matching = newMatching;
+        this.size = newSize;
+
+        this.updates.beginEvent();
+        int oldIdx = 0;
+        int newIdx = 0;
+        while (oldIdx < oldSize || newIdx < newSize) {
+            if (oldIdx < oldSize && newIdx < newSize && oldMatching[oldIdx] == newMatching[newIdx]) {
+                oldIdx++;
+                newIdx++;
+            } else if (newIdx >= newSize || (oldIdx < oldSize && oldMatching[oldIdx] < newMatching[newIdx])) {
+                this.updates.elementDeleted(newIdx, this.source.get(oldMatching[oldIdx]));
+                oldIdx++;
+            } else {
+                this.updates.elementInserted(newIdx, this.source.get(newMatching[newIdx]));
+                newIdx++;
+            }
+        }
+        this.updates.commitEvent();
+    }
+
+    @Override
+    public void listChanged(ListEvent<T> listChanges) {
+        this.changeCount++;
+
+        if (listChanges.isReordering()) {
+            reorder(listChanges.getReorderMap());
+            return;
+        }
+
+        int[] old = this.matching;
+        int oldSize = this.size;
+
+        // the result is written in place as long as the matching rows before
+        // the current change are unchanged
+        int[] result = old;
+        int count = 0;
+        int read = 0;
+        // the difference between the current and the original source index
+        // of the rows that are not processed yet
+        int offset = 0;
+
+        this.updates.beginEvent();
+        while (listChanges.next()) {
+            int index = listChanges.getIndex();
+
+            // take over the unchanged rows before the current change
+            int end = lowerBound(old, read, oldSize, index - offset);
+            if (result != old || offset != 0) {
+                result = ensureCapacity(result, count + (end - read));
+                for (int i = read; i < end; i++) {
+                    result[count++] = old[i] + offset;
+                }
+            } else {
+                count = end;
+            }
+            read = end;
+
+            boolean matched = read < oldSize && old[read] + offset == index;
+            switch (listChanges.getType()) {
+                case ListEvent.INSERT:
+                    offset++;
+                    T inserted = this.source.get(index);
+                    if (this.matcher.matches(inserted)) {
+                        result = detach(result, old, count);
+                        result = ensureCapacity(result, count + 1);
+                        result[count++] = index;
+                        this.updates.elementInserted(count - 1, inserted);
+                    }
+                    break;
+                case ListEvent.DELETE:
+                    offset--;
+                    if (matched) {
+                        result = detach(result, old, count);
+                        read++;
+                        this.updates.elementDeleted(count, getOldValue(listChanges));
+                    }
+                    break;
+                case ListEvent.UPDATE:
+                    T updated = this.source.get(index);
+                    boolean matches = this.matcher.matches(updated);
+                    if (matched && matches) {
+                        // the kept entry needs to be shifted if previous
+                        // changes modified the source indexes
+                        if (result != old || offset != 0) {
+                            result = ensureCapacity(result, count + 1);
+                            result[count] = index;
+                        }
+                        count++;
+                        read++;
+                        this.updates.elementUpdated(count - 1, getOldValue(listChanges), updated);
+                    } else if (matched) {
+                        result = detach(result, old, count);
+                        read++;
+                        this.updates.elementDeleted(count, getOldValue(listChanges));
+                    } else if (matches) {
+                        result = detach(result, old, count);
+                        result = ensureCapacity(result, count + 1);
+                        result[count++] = index;
+                        this.updates.elementInserted(count - 1, updated);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // take over the remaining rows
+        if (result != old || offset != 0) {
+            result = ensureCapacity(result, count + (oldSize - read));
+            for (int i = read; i < oldSize; i++) {
+                result[count++] = old[i] + offset;
+            }
+        } else {
+            count = oldSize;
+        }
+
+        this.matching = result;
+        this.size = count;
+        this.updates.commitEvent();
+    }
+
+    /**
+     * Applies a reordering of the source list without evaluating the
+     * {@link Matcher}.
+     *
+     * @param sourceReorderMap
+     *            The previous source index for every current source index.
+     */
+    private void reorder(int[] sourceReorderMap) {
+        BitSet previous = new BitSet(this.source.size());
+        for (int i = 0; i < this.size; i++) {
+            previous.set(this.matching[i]);
+        }
+
+        int[] result = new int[this.matching.length];
+        int[] reorderMap = new int[this.size];
+        int count = 0;
+        for (int i = 0; i < sourceReorderMap.length; i++) {
+            if (previous.get(sourceReorderMap[i])) {
+                reorderMap[count] = Arrays.binarySearch(this.matching, 0, this.size, sourceReorderMap[i]);
+                result[count++] = i;
+            }
+        }
+        this.matching = result;
+
+        if (this.size > 0) {
+            this.updates.beginEvent();
+            this.updates.reorder(reorderMap);
+            this.updates.commitEvent();
+        }
+    }
+
+    /**
+     * {@link ListEvent#getOldValue()} is deprecated in GlazedLists as not all
+     * lists provide the old values. It is still needed to forward the removed
+     * or replaced row objects with the change event, lists that don't
+     * provide them return {@link ListEvent#unknownValue()}.
+     */
+    @SuppressWarnings("deprecation")
+    private static <E> E getOldValue(ListEvent<E> listChanges) {
+        return listChanges.getOldValue();
+    }
+
+    /**
+     * Ensures that the result is written to a separate array because the
+     * number of matching rows before the current change is modified.
+     */
+    private static int[] detach(int[] result, int[] old, int count) {
+        if (result != old) {
+            return result;
+        }
+        int[] detached = new int[old.length + 16];
+        System.arraycopy(old, 0, detached, 0, count);
+        return detached;
+    }
+
+    private static int[] ensureCapacity(int[] values, int capacity) {
+        if (capacity <= values.length) {
+            return values;
+        }
+        return Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+    }
+
+    /**
+     *
+     * @return The first index in the given range of the ascending values
+     *         whose value is not less than the given value.
+     */
+    private static int lowerBound(int[] values, int from, int to, int value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.matching = new int[0];
+        this.size = 0;
+    }
+}
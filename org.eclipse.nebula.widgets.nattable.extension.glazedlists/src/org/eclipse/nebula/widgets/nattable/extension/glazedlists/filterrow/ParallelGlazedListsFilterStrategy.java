@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.filterrow.IFilterStrategy;
+import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.TextFilterator;
+import ca.odell.glazedlists.matchers.CompositeMatcherEditor;
+import ca.odell.glazedlists.matchers.Matcher;
+import ca.odell.glazedlists.matchers.MatcherEditor;
+import ca.odell.glazedlists.matchers.Matchers;
+import ca.odell.glazedlists.matchers.TextMatcherEditor;
+import ca.odell.glazedlists.util.concurrent.ReadWriteLock;
+
+/**
+ * {@link IFilterStrategy} that evaluates the filter in parallel on a
+ * {@link ForkJoinPool}, instead of sequentially while holding the write lock
+ * of a {@link FilterList}.
+ * <p>
+ * The filter row content is transformed to GlazedLists matchers the same way
+ * as in the {@link DefaultGlazedListsFilterStrategy}, so the same filter
+ * syntax and configuration attributes are supported. Every change of the
+ * resulting {@link Matcher} triggers an evaluation of all rows:
+ * </p>
+ * <ol>
+ * <li>a snapshot of the source list is created while holding the read
+ * lock</li>
+ * <li>the snapshot is split into chunks that are evaluated in parallel
+ * without holding a lock</li>
+ * <li>the matching rows are published to the {@link ParallelFilterList} as a
+ * single list change event while holding the write lock</li>
+ * </ol>
+ * <p>
+ * The evaluation is performed asynchronously, so {@link #applyFilter(java.util.Map)}
+ * returns immediately and the table is updated via the list change event. A
+ * running evaluation is cancelled if the filter is changed again, e.g. while
+ * the user is typing. If the source list is changed while the snapshot is
+ * evaluated, the evaluation is repeated.
+ * </p>
+ * <p>
+ * The GlazedLists text matchers are not thread safe, so every task evaluates
+ * its own copy of the text matchers created by this strategy. If a
+ * {@link TextMatcherEditor} was added that was not created by this strategy,
+ * the rows are evaluated by a single task. All other {@link Matcher}s, e.g.
+ * of custom {@link MatcherEditor}s, and the {@link IColumnAccessor} are
+ * called from multiple threads and need to support concurrent reads.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the objects shown within the NatTable
+ * @since 2.0
+ */
+public class ParallelGlazedListsFilterStrategy<T> extends DefaultGlazedListsFilterStrategy<T> {
+
+    private static final Log LOG = LogFactory.getLog(ParallelGlazedListsFilterStrategy.class);
+
+    /**
+     * The minimum number of rows that are evaluated by a single task.
+     */
+    private static final int MIN_CHUNK_SIZE = 10000;
+
+    /**
+     * The number of times the evaluation is repeated if the source list was
+     * changed during the evaluation of the snapshot. Afterwards the rows are
+     * evaluated sequentially while holding the write lock.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ParallelFilterList<T> parallelFilterList;
+    private final ForkJoinPool pool;
+
+    private volatile FilterJob currentJob;
+
+    /**
+     * Create a new ParallelGlazedListsFilterStrategy on top of the given
+     * ParallelFilterList that uses the common {@link ForkJoinPool}.
+     *
+     * @param filterList
+     *            The ParallelFilterList that is used within the GlazedLists
+     *            based NatTable for filtering.
+     * @param columnAccessor
+     *            The IColumnAccessor necessary to access the column data of the
+     *            row objects in the ParallelFilterList.
+     * @param configRegistry
+     *            The IConfigRegistry necessary to retrieve filter specific
+     *            configurations.
+     */
+    public ParallelGlazedListsFilterStrategy(
+            ParallelFilterList<T> filterList,
+            IColumnAccessor<T> columnAccessor,
+            IConfigRegistry configRegistry) {
+        this(filterList, ForkJoinPool.commonPool(), columnAccessor, configRegistry);
+    }
+
+    /**
+     * Create a new ParallelGlazedListsFilterStrategy on top of the given
+     * ParallelFilterList that uses the given {@link ForkJoinPool}.
+     *
+     * @param filterList
+     *            The ParallelFilterList that is used within the GlazedLists
+     *            based NatTable for filtering.
+     * @param pool
+     *            The {@link ForkJoinPool} that is used to evaluate the filter.
+     * @param columnAccessor
+     *            The IColumnAccessor necessary to access the column data of the
+     *            row objects in the ParallelFilterList.
+     * @param configRegistry
+     *            The IConfigRegistry necessary to retrieve filter specific
+     *            configurations.
+     */
+    public ParallelGlazedListsFilterStrategy(
+            ParallelFilterList<T> filterList,
+            ForkJoinPool pool,
+            IColumnAccessor<T> columnAccessor,
+            IConfigRegistry configRegistry) {
+        // the matchers are created on an empty FilterList, the evaluation is
+        // performed by this strategy
+        super(new FilterList<T>(new BasicEventList<T>()), columnAccessor, configRegistry);
+
+        if (pool == null) {
+            throw new IllegalArgumentException("pool can not be null"); //$NON-NLS-1$
+        }
+        this.parallelFilterList = filterList;
+        this.pool = pool;
+
+        getMatcherEditor().addMatcherEditorListener(new MatcherEditor.Listener<T>() {
+            @Override
+            public void changedMatcher(MatcherEditor.Event<T> matcherEvent) {
+                schedule(matcherEvent.getMatcher(), createTemplate(getMatcherEditor()));
+            }
+        });
+    }
+
+    /**
+     * Cancels the running evaluation and starts the evaluation of the given
+     * {@link Matcher}.
+     *
+     * @param matcher
+     *            The {@link Matcher} to publish.
+     * @param template
+     *            The template to create a copy of the {@link Matcher} per
+     *            task, <code>null</code> if the {@link Matcher} can not be
+     *            copied and needs to be evaluated by a single task.
+     */
+    private void schedule(Matcher<T> matcher, MatcherTemplate<T> template) {
+        FilterJob job = new FilterJob(matcher, template);
+        synchronized (this) {
+            if (this.currentJob != null) {
+                this.currentJob.cancelled = true;
+                this.currentJob.cancel(false);
+            }
+            this.currentJob = job;
+        }
+        this.pool.execute(job);
+    }
+
+    /**
+     * Creates a {@link TaskTextMatcherEditor}, so a copy of the text matcher
+     * can be created for every task.
+     */
+    @Override
+    protected TextMatcherEditor<T> getTextMatcherEditor(
+            Integer columnIndex,
+            TextMatchingMode textMatchingMode,
+            IDisplayConverter converter,
+            String filterText) {
+        TextMatcherEditor<T> textMatcherEditor = new TaskTextMatcherEditor<T>(getTextFilterator(columnIndex, converter));
+        textMatcherEditor.setFilterText(new String[] { filterText });
+        textMatcherEditor.setMode(getGlazedListsTextMatcherEditorMode(textMatchingMode));
+        return textMatcherEditor;
+    }
+
+    /**
+     * Creates a template of the current {@link Matcher} of the given
+     * {@link MatcherEditor}.
+     *
+     * @return The template or <code>null</code> if the {@link Matcher}
+     *         contains a text matcher that can not be copied.
+     */
+    private MatcherTemplate<T> createTemplate(MatcherEditor<T> matcherEditor) {
+        if (matcherEditor instanceof CompositeMatcherEditor) {
+            CompositeMatcherEditor<T> composite = (CompositeMatcherEditor<T>) matcherEditor;
+            List<MatcherTemplate<T>> children = new ArrayList<MatcherTemplate<T>>();
+            for (MatcherEditor<T> child : composite.getMatcherEditors()) {
+                MatcherTemplate<T> template = createTemplate(child);
+                if (template == null) {
+                    return null;
+                }
+                children.add(template);
+            }
+            return new CompositeTemplate<T>(composite.getMode(), children);
+        } else if (matcherEditor instanceof TaskTextMatcherEditor) {
+            return new TextTemplate<T>((TaskTextMatcherEditor<T>) matcherEditor);
+        } else if (matcherEditor instanceof TextMatcherEditor) {
+            return null;
+        }
+        return new SharedTemplate<T>(matcherEditor.getMatcher());
+    }
+
+    /**
+     *
+     * @return The ParallelFilterList to which the filter is applied.
+     */
+    public ParallelFilterList<T> getParallelFilterList() {
+        return this.parallelFilterList;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the most recent filter is not yet
+     *         published to the ParallelFilterList.
+     */
+    public boolean isFiltering() {
+        FilterJob job = this.currentJob;
+        return job != null && !job.isDone();
+    }
+
+    /**
+     * Blocks the calling thread until the most recent filter is published to
+     * the ParallelFilterList. Needs to be called without holding the lock of
+     * the list.
+     */
+    public void awaitFilter() {
+        FilterJob job = this.currentJob;
+        while (job != null) {
+            try {
+                job.join();
+            } catch (CancellationException e) {
+                // superseded by a newer filter
+            }
+            FilterJob next = this.currentJob;
+            job = (next != job) ? next : null;
+        }
+    }
+
+    /**
+     * Evaluates a {@link Matcher} on a snapshot of the source list and
+     * publishes the result.
+     */
+    private class FilterJob extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Matcher<T> matcher;
+        private final MatcherTemplate<T> template;
+
+        volatile boolean cancelled;
+
+        FilterJob(Matcher<T> matcher, MatcherTemplate<T> template) {
+            this.matcher = matcher;
+            this.template = template;
+        }
+
+        @Override
+        protected void compute() {
+            ParallelFilterList<T> list = ParallelGlazedListsFilterStrategy.this.parallelFilterList;
+            ReadWriteLock lock = list.getReadWriteLock();
+            try {
+                for (int attempt = 1; !this.cancelled; attempt++) {
+                    Object[] snapshot;
+                    long changeCount;
+                    lock.readLock().lock();
+                    try {
+                        snapshot = list.createSnapshot();
+                        changeCount = list.getChangeCount();
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+
+                    int[] matching = evaluate(snapshot);
+                    if (matching == null) {
+                        return;
+                    }
+
+                    lock.writeLock().lock();
+                    try {
+                        if (this.cancelled) {
+                            return;
+                        }
+                        if (list.getChangeCount() == changeCount) {
+                            list.publish(this.matcher, matching, matching.length);
+                            return;
+                        }
+                        if (attempt >= MAX_ATTEMPTS) {
+                            list.setMatcher(this.matcher);
+                            return;
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Error on applying a filter", e); //$NON-NLS-1$
+            }
+        }
+
+        /**
+         * Evaluates the snapshot in chunks.
+         *
+         * @return The ascending indexes of the matching rows or
+         *         <code>null</code> if the job was cancelled.
+         */
+        private int[] evaluate(Object[] snapshot) {
+            int parallelism = ParallelGlazedListsFilterStrategy.this.pool.getParallelism();
+            int chunkSize = (this.template != null)
+                    ? Math.max(MIN_CHUNK_SIZE, snapshot.length / (parallelism * 4) + 1)
+                    : Math.max(1, snapshot.length);
+
+            List<Chunk> chunks = new ArrayList<Chunk>();
+            for (int start = 0; start < snapshot.length; start += chunkSize) {
+                chunks.add(new Chunk(snapshot, start, Math.min(start + chunkSize, snapshot.length)));
+            }
+            invokeAll(chunks);
+
+            if (this.cancelled) {
+                return null;
+            }
+
+            int count = 0;
+            for (Chunk chunk : chunks) {
+                count += chunk.count;
+            }
+            int[] matching = new int[count];
+            int pos = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.matching, 0, matching, pos, chunk.count);
+                pos += chunk.count;
+            }
+            return matching;
+        }
+
+        /**
+         * Evaluates a range of the snapshot.
+         */
+        private class Chunk extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final Object[] snapshot;
+            private final int start;
+            private final int end;
+
+            int[] matching;
+            int count;
+
+            Chunk(Object[] snapshot, int start, int end) {
+                this.snapshot = snapshot;
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void compute() {
+                Matcher<T> matcher = (FilterJob.this.template != null)
+                        ? FilterJob.this.template.create()
+                        : FilterJob.this.matcher;
+                this.matching = new int[this.end - this.start];
+                for (int i = this.start; i < this.end; i++) {
+                    // check for cancellation from time to time
+                    if ((i & 0xFFF) == 0 && FilterJob.this.cancelled) {
+                        return;
+                    }
+                    if (matcher.matches((T) this.snapshot[i])) {
+                        this.matching[this.count++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link TextMatcherEditor} that remembers the filter text, so a copy of
+     * its text matcher can be created.
+     */
+    private static class TaskTextMatcherEditor<T> extends TextMatcherEditor<T> {
+
+        private volatile String[] filterText = new String[0];
+
+        TaskTextMatcherEditor(TextFilterator<? super T> filterator) {
+            super(filterator);
+        }
+
+        @Override
+        public void setFilterText(String[] newFilters) {
+            this.filterText = newFilters.clone();
+            super.setFilterText(newFilters);
+        }
+    }
+
+    /**
+     * Creates a {@link Matcher} that is only used by a single task.
+     */
+    private abstract static class MatcherTemplate<T> {
+
+        abstract Matcher<T> create();
+    }
+
+    /**
+     * Template for a thread safe {@link Matcher} that is shared by all tasks.
+     */
+    private static class SharedTemplate<T> extends MatcherTemplate<T> {
+
+        private final Matcher<T> matcher;
+
+        SharedTemplate(Matcher<T> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        Matcher<T> create() {
+            return this.matcher;
+        }
+    }
+
+    /**
+     * Template that creates a new text matcher with the current settings of
+     * a {@link TaskTextMatcherEditor}.
+     */
+    private static class TextTemplate<T> extends MatcherTemplate<T> {
+
+        private final TextFilterator<? super T> filterator;
+        private final int mode;
+        private final Object strategy;
+        private final String[] filterText;
+
+        TextTemplate(TaskTextMatcherEditor<T> matcherEditor) {
+            this.filterator = matcherEditor.getFilterator();
+            this.mode = matcherEditor.getMode();
+            this.strategy = matcherEditor.getStrategy();
+            this.filterText = matcherEditor.filterText;
+        }
+
+        @Override
+        Matcher<T> create() {
+            TextMatcherEditor<T> matcherEditor = new TextMatcherEditor<T>(this.filterator);
+            matcherEditor.setMode(this.mode);
+            matcherEditor.setStrategy(this.strategy);
+            matcherEditor.setFilterText(this.filterText);
+            return matcherEditor.getMatcher();
+        }
+    }
+
+    /**
+     * Template that combines the matchers of child templates like a
+     * {@link CompositeMatcherEditor}.
+     */
+    private static class CompositeTemplate<T> extends MatcherTemplate<T> {
+
+        private final int mode;
+        private final List<MatcherTemplate<T>> children;
+
+        CompositeTemplate(int mode, List<MatcherTemplate<T>> children) {
+            this.mode = mode;
+            this.children = children;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Matcher<T> create() {
+            if (this.children.isEmpty()) {
+                return Matchers.trueMatcher();
+            }
+            Matcher<T>[] matchers = new Matcher[this.children.size()];
+            for (int i = 0; i < matchers.length; i++) {
+                matchers[i] = this.children.get(i).create();
+            }
+            return (this.mode == CompositeMatcherEditor.AND)
+                    ? Matchers.and(matchers)
+                    : Matchers.or(matchers);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,6 +40,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
@@ -49,7 +50,7 @@
 import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
 import org.eclipse.nebula.widgets.nattable.tree.ITreeData;
 import org.eclipse.nebula.widgets.nattable.tree.TreeLayer;
-import org.eclipse.nebula.widgets.nattable.util.CalculatedValueCache;
+import org.eclipse.nebula.widgets.nattable.util.EpochCalculatedValueCache;
 import org.eclipse.nebula.widgets.nattable.util.ICalculatedValueCache;
 import org.eclipse.nebula.widgets.nattable.util.ICalculatedValueCacheKey;
 import org.eclipse.nebula.widgets.nattable.util.ICalculator;
@@ -485,7 +486,7 @@ public GroupByDataLayer(
 
         this.configRegistry = configRegistry;
 
-        this.valueCache = new CalculatedValueCache(this, true, false, smoothUpdates);
+        this.valueCache = new EpochCalculatedValueCache(this, true, false, smoothUpdates);
 
         setDataProvider(new ListDataProvider<Object>(this.treeList, this.groupByColumnAccessor));
 
@@ -788,12 +789,61 @@ public IGroupBySummaryProvider<T> getGroupBySummaryProvider(LabelStack labelStac
     @Override
     public void handleLayerEvent(ILayerEvent event) {
         if (event instanceof IVisualChangeEvent) {
-            clearCache();
+            clearCache((IVisualChangeEvent) event);
         }
 
         super.handleLayerEvent(event);
     }
 
+    /**
+     * Clear the internal cache for the change described by the given event.
+     * <p>
+     * If the event is a {@link CellVisualChangeEvent} and the
+     * {@link EpochCalculatedValueCache} is used, only the summary values of the
+     * groups that contain the changed row are re-calculated. Events for
+     * {@link GroupByObject} rows are ignored in that case, as they are fired
+     * after a summary value was calculated. For all other events the whole
+     * cache is cleared.
+     * </p>
+     *
+     * @param event
+     *            The event that describes the change.
+     * @since 2.0
+     *
+     * @see #clearCache()
+     */
+    public void clearCache(IVisualChangeEvent event) {
+        if (event instanceof CellVisualChangeEvent
+                && this.valueCache instanceof EpochCalculatedValueCache) {
+            int rowPosition = ((CellVisualChangeEvent) event).getRowPosition();
+            if (rowPosition >= 0 && rowPosition < getRowCount()) {
+                if (!(this.treeData.getDataAtIndex(rowPosition) instanceof GroupByObject)) {
+                    invalidateGroupsOfRow((EpochCalculatedValueCache) this.valueCache, rowPosition);
+                    // the changed summary values might affect the sorting
+                    this.treeFormat.clearComparatorCache();
+                }
+                return;
+            }
+        }
+        clearCache();
+    }
+
+    /**
+     * Invalidates the cached summary values of all groups the row at the given
+     * index belongs to. As the tree is flattened depth-first, the groups are
+     * the closest previous rows with a lower depth.
+     */
+    private void invalidateGroupsOfRow(EpochCalculatedValueCache cache, int rowIndex) {
+        int depth = this.treeData.getDepthOfData(rowIndex);
+        for (int i = rowIndex - 1; i >= 0 && depth > 0; i--) {
+            int groupDepth = this.treeData.getDepthOfData(i);
+            if (groupDepth < depth) {
+                cache.invalidateRow(i);
+                depth = groupDepth;
+            }
+        }
+    }
+
     /**
      * Clear the internal cache to trigger new calculations.
      * <p>
@@ -801,7 +851,7 @@ public void handleLayerEvent(ILayerEvent event) {
      * use cases it might be useful, e.g. changing the summary provider
      * implementation at runtime.
      *
-     * @see CalculatedValueCache#clearCache()
+     * @see ICalculatedValueCache#clearCache()
      */
     public void clearCache() {
         this.valueCache.clearCache();
@@ -821,7 +871,7 @@ public void clearCache() {
      * use cases it might be useful, e.g. changing the summary provider
      * implementation at runtime.
      *
-     * @see CalculatedValueCache#killCache()
+     * @see ICalculatedValueCache#killCache()
      */
     public void killCache() {
         this.valueCache.killCache();
@@ -883,7 +933,8 @@ public ICalculatedValueCache getValueCache() {
      * calculate the summary values in a background thread and cache the
      * results.
      * <p>
-     * <b><u>Note:</u></b> By default the {@link CalculatedValueCache} is used.
+     * <b><u>Note:</u></b> By default the {@link EpochCalculatedValueCache} is
+     * used.
      * Be sure you know what you are doing when you are trying to exchange the
      * implementation.
      * </p>
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.poi;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.FontData;
+
+/**
+ * Key for the fonts that are shared between the cell styles of a workbook.
+ */
+class ExcelFontAttributes {
+
+    private final Color fg;
+    private final FontData fontData;
+
+    ExcelFontAttributes(Color fg, FontData fontData) {
+        this.fg = fg;
+        this.fontData = fontData;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((this.fg == null) ? 0 : this.fg.hashCode());
+        result = prime * result + ((this.fontData == null) ? 0 : this.fontData.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ExcelFontAttributes other = (ExcelFontAttributes) obj;
+        if (this.fg == null) {
+            if (other.fg != null)
+                return false;
+        } else if (!this.fg.equals(other.fg))
+            return false;
+        if (this.fontData == null) {
+            if (other.fontData != null)
+                return false;
+        } else if (!this.fontData.equals(other.fontData))
+            return false;
+        return true;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -41,6 +41,14 @@ protected Workbook createWorkbook() {
         return new HSSFWorkbook();
     }
 
+    /**
+     * The Excel 97 file format supports a maximum of 4000 cell styles.
+     */
+    @Override
+    protected int getDefaultMaxCellStyles() {
+        return 4000;
+    }
+
     @Override
     protected void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor) {
         xlCellStyle.setFillForegroundColor(getColorIndex(swtColor));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,7 +65,20 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 
     private final IOutputStreamProvider outputStreamProvider;
 
+    /**
+     * The default maximum number of cell styles in a workbook. This is the
+     * limit of the Excel 2007 file format.
+     *
+     * @since 2.0
+     */
+    public static final int DEFAULT_MAX_CELL_STYLES = 64000;
+
     private Map<ExcelCellStyleAttributes, CellStyle> xlCellStyles;
+    private Map<ExcelFontAttributes, Font> xlFonts;
+    // 0 = resolve the default of the file format lazily, as subclasses are
+    // not initialized yet while constructing
+    private int maxCellStyles = 0;
+    private boolean maxCellStylesReached = false;
 
     protected Workbook xlWorkbook;
     protected int sheetNumber;
@@ -104,6 +117,8 @@ public OutputStream getOutputStream(Shell shell) {
     @Override
     public void exportBegin(OutputStream outputStream) throws IOException {
         this.xlCellStyles = new HashMap<ExcelCellStyleAttributes, CellStyle>();
+        this.xlFonts = new HashMap<ExcelFontAttributes, Font>();
+        this.maxCellStylesReached = false;
         this.xlWorkbook = createWorkbook();
         // the hidden column positions are determined by inspection so
         // it needs to be cleared at the beginning
@@ -115,6 +130,7 @@ public void exportEnd(OutputStream outputStream) throws IOException {
         this.xlWorkbook.write(outputStream);
 
         this.xlCellStyles = null;
+        this.xlFonts = null;
         this.xlWorkbook = null;
         this.sheetNumber = 0;
         this.xlSheet = null;
@@ -328,8 +344,20 @@ private CellStyle getExcelCellStyle(
             String dataFormat, int hAlign, int vAlign,
             boolean vertical, boolean wrap, boolean border) {
 
-        CellStyle xlCellStyle = this.xlCellStyles.get(
-                new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border));
+        ExcelCellStyleAttributes styleAttributes =
+                new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border);
+        CellStyle xlCellStyle = this.xlCellStyles.get(styleAttributes);
+
+        if (xlCellStyle == null && this.xlWorkbook.getNumCellStyles() >= getMaxCellStyles()) {
+            // the workbook would get corrupted by exceeding the style limit,
+            // so the default style is used for all further combinations
+            if (!this.maxCellStylesReached) {
+                LOG.warn("Maximum number of cell styles reached, the default style is used for further style combinations"); //$NON-NLS-1$
+                this.maxCellStylesReached = true;
+            }
+            xlCellStyle = this.xlWorkbook.getCellStyleAt((short) 0);
+            this.xlCellStyles.put(styleAttributes, xlCellStyle);
+        }
 
         if (xlCellStyle == null) {
             xlCellStyle = this.xlWorkbook.createCellStyle();
@@ -340,11 +368,7 @@ private CellStyle getExcelCellStyle(
                 xlCellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
             }
 
-            Font xlFont = this.xlWorkbook.createFont();
-            setFontColor(xlFont, fg);
-            xlFont.setFontName(fontData.getName());
-            xlFont.setFontHeightInPoints((short) fontData.getHeight());
-            xlCellStyle.setFont(xlFont);
+            xlCellStyle.setFont(getExcelFont(fg, fontData));
 
             if (vertical)
                 xlCellStyle.setRotation((short) 90);
@@ -387,12 +411,29 @@ private CellStyle getExcelCellStyle(
                 xlCellStyle.setDataFormat(createHelper.createDataFormat().getFormat(dataFormat));
             }
 
-            this.xlCellStyles.put(
-                    new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border), xlCellStyle);
+            this.xlCellStyles.put(styleAttributes, xlCellStyle);
         }
         return xlCellStyle;
     }
 
+    /**
+     * Returns the Excel font for the given color and font data. Fonts are
+     * shared between cell styles to keep the number of fonts in the workbook
+     * low.
+     */
+    private Font getExcelFont(Color fg, FontData fontData) {
+        ExcelFontAttributes fontAttributes = new ExcelFontAttributes(fg, fontData);
+        Font xlFont = this.xlFonts.get(fontAttributes);
+        if (xlFont == null) {
+            xlFont = this.xlWorkbook.createFont();
+            setFontColor(xlFont, fg);
+            xlFont.setFontName(fontData.getName());
+            xlFont.setFontHeightInPoints((short) fontData.getHeight());
+            this.xlFonts.put(fontAttributes, xlFont);
+        }
+        return xlFont;
+    }
+
     /**
      *
      * @param cell
@@ -533,6 +574,47 @@ public void setApplyCellBorders(boolean apply) {
         this.applyCellBorders = apply;
     }
 
+    /**
+     * Configure the maximum number of cell styles that should be created in
+     * the workbook. Cell styles are shared between cells with the same style
+     * attributes. If the maximum is reached, cells with further style
+     * combinations are exported with the default cell style of the workbook,
+     * as exceeding the style limit of the file format results in a corrupted
+     * file.
+     *
+     * @param maxCellStyles
+     *            The maximum number of cell styles in the workbook, including
+     *            the built-in styles.
+     * @since 2.0
+     */
+    public void setMaxCellStyles(int maxCellStyles) {
+        if (maxCellStyles <= 0) {
+            throw new IllegalArgumentException("maxCellStyles <= 0"); //$NON-NLS-1$
+        }
+        this.maxCellStyles = maxCellStyles;
+    }
+
+    /**
+     *
+     * @return The maximum number of cell styles that are created in the
+     *         workbook, {@link #getDefaultMaxCellStyles()} if no maximum was
+     *         configured.
+     * @since 2.0
+     */
+    public int getMaxCellStyles() {
+        return (this.maxCellStyles > 0) ? this.maxCellStyles : getDefaultMaxCellStyles();
+    }
+
+    /**
+     *
+     * @return The maximum number of cell styles supported by the file format
+     *         of the created workbook.
+     * @since 2.0
+     */
+    protected int getDefaultMaxCellStyles() {
+        return DEFAULT_MAX_CELL_STYLES;
+    }
+
     protected abstract Workbook createWorkbook();
 
     protected abstract void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor);
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.poi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.eclipse.nebula.widgets.nattable.export.FileOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.swt.graphics.Color;
+
+/**
+ * Exporter that creates an Excel 2007 (xlsx) file via the streaming API of
+ * Apache POI. Only a window of the most recently exported rows is kept in
+ * memory, older rows are flushed to a temporary file. This way the memory
+ * consumption is independent of the number of exported rows.
+ * <p>
+ * <b>Note:</b> Rows that are flushed can not be accessed anymore. Therefore
+ * the row window needs to be greater than the maximum row span of the
+ * exported cells.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class SXSSFExcelExporter extends PoiExcelExporter {
+
+    private static final Log LOG = LogFactory.getLog(SXSSFExcelExporter.class);
+
+    /**
+     * The default number of rows that are kept in memory.
+     */
+    public static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+
+    private int rowWindowSize = DEFAULT_ROW_WINDOW_SIZE;
+
+    public SXSSFExcelExporter() {
+        this(new FileOutputStreamProvider("table_export.xlsx", new String[] { "Excel Workbook (*.xlsx)" }, new String[] { "*.xlsx" })); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    public SXSSFExcelExporter(IOutputStreamProvider outputStreamProvider) {
+        super(outputStreamProvider);
+    }
+
+    @Override
+    public void exportEnd(OutputStream outputStream) throws IOException {
+        Workbook workbook = this.xlWorkbook;
+        try {
+            super.exportEnd(outputStream);
+        } finally {
+            // remove the temporary files that back the flushed rows
+            if (workbook instanceof SXSSFWorkbook
+                    && !((SXSSFWorkbook) workbook).dispose()) {
+                LOG.warn("Temporary files of the export could not be deleted"); //$NON-NLS-1$
+            }
+        }
+    }
+
+    @Override
+    protected Workbook createWorkbook() {
+        return new SXSSFWorkbook(this.rowWindowSize);
+    }
+
+    @Override
+    protected void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor) {
+        ((XSSFCellStyle) xlCellStyle).setFillForegroundColor(getXSSFColor(swtColor));
+    }
+
+    @Override
+    protected void setFontColor(Font xlFont, Color swtColor) {
+        ((XSSFFont) xlFont).setColor(getXSSFColor(swtColor));
+    }
+
+    private XSSFColor getXSSFColor(Color swtColor) {
+        return new XSSFColor(new byte[] {
+                (byte) swtColor.getRed(),
+                (byte) swtColor.getGreen(),
+                (byte) swtColor.getBlue() });
+    }
+
+    /**
+     *
+     * @param rowWindowSize
+     *            The number of rows that are kept in memory before they are
+     *            flushed to a temporary file. Needs to be greater than the
+     *            maximum row span of the exported cells. Takes effect with
+     *            the next export.
+     */
+    public void setRowWindowSize(int rowWindowSize) {
+        if (rowWindowSize <= 0) {
+            throw new IllegalArgumentException("rowWindowSize <= 0"); //$NON-NLS-1$
+        }
+        this.rowWindowSize = rowWindowSize;
+    }
+
+    /**
+     *
+     * @return The number of rows that are kept in memory before they are
+     *         flushed to a temporary file.
+     */
+    public int getRowWindowSize() {
+        return this.rowWindowSize;
+    }
+}
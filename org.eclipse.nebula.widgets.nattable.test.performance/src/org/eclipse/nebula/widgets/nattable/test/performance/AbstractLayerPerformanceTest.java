@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,28 @@
 
 import org.eclipse.nebula.widgets.nattable.NatTable;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
-import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Shell;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 
+/**
+ * Paints the layer set by a test onto an offscreen image and reports the
+ * percentiles of the frame durations and the allocations per frame. The
+ * expected time is only reported as reference, as a single wall-clock
+ * measurement is not reliable enough to fail a build.
+ *
+ * @see NatTablePerfHarness
+ */
 public abstract class AbstractLayerPerformanceTest {
 
     public static final long DEFAULT_THRESHOLD = 100;
 
+    public static final int WARMUP_FRAMES = 10;
+
+    public static final int FRAMES = 50;
+
     private Shell shell;
 
     private long expectedTimeInMillis;
@@ -57,26 +68,20 @@ public void setup() {
     public void tearDown() {
         Assert.assertNotNull("Layer was not set", this.layer);
 
-        new NatTable(getShell(), this.layer) {
-            @Override
-            public void paintControl(PaintEvent event) {
-                // Start!
-                long startTimeInMillis = System.currentTimeMillis();
-                super.paintControl(event);
-                // Stop!
-                long stopTimeInMillis = System.currentTimeMillis();
-                long actualTimeInMillis = stopTimeInMillis - startTimeInMillis;
-
-                System.out.println("duration = " + actualTimeInMillis + " milliseconds");
-                Assert.assertTrue("Expected to take less than " + AbstractLayerPerformanceTest.this.expectedTimeInMillis
-                        + " milliseconds but took " + actualTimeInMillis
-                        + " milliseconds", actualTimeInMillis < AbstractLayerPerformanceTest.this.expectedTimeInMillis);
-            }
-        };
-
-        getShell().setVisible(true);
-
-        this.shell.dispose();
+        try {
+            NatTable natTable = new NatTable(getShell(), this.layer);
+            getShell().layout();
+
+            FrameStatistics statistics = new RenderFixture(natTable, null)
+                    .measure(RenderScenario.FULL_REPAINT, WARMUP_FRAMES, FRAMES);
+
+            System.out.println(getClass().getSimpleName() + ": " + statistics
+                    + (statistics.getPercentileMillis(50) < this.expectedTimeInMillis
+                            ? ""
+                            : " (median exceeds expected " + this.expectedTimeInMillis + "ms)"));
+        } finally {
+            this.shell.dispose();
+        }
     }
 
 }
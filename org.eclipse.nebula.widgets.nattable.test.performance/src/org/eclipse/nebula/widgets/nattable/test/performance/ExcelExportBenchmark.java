@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.export.ExportConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.export.NatExporter;
+import org.eclipse.nebula.widgets.nattable.export.excel.DefaultExportFormatter;
+import org.eclipse.nebula.widgets.nattable.extension.poi.SXSSFExcelExporter;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.Style;
+import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Export benchmark that writes tables with a growing number of rows via the
+ * {@link SXSSFExcelExporter} and the streaming mode of the
+ * {@link NatExporter}, and reports the duration, the peak heap usage and the
+ * size of the written file per row count. With the streaming export the peak
+ * heap is expected to stay constant while the number of rows grows.
+ * <p>
+ * The exported data is generated, so it does not consume heap itself. Every
+ * column has its own background color to exercise the sharing of the cell
+ * styles. A display is needed to resolve colors and fonts, e.g. Xvfb on a
+ * build server:
+ * </p>
+ *
+ * <pre>
+ * xvfb-run java -Xmx512m ... ExcelExportBenchmark -rows 100000,500000,1000000
+ * </pre>
+ * <p>
+ * Supported arguments are <code>-rows</code> (comma separated list),
+ * <code>-columns</code>, <code>-window</code> and <code>-chunk</code>.
+ * </p>
+ */
+public class ExcelExportBenchmark {
+
+    private List<Integer> rowCounts = new ArrayList<>();
+    private int columnCount = 20;
+    private int rowWindowSize = SXSSFExcelExporter.DEFAULT_ROW_WINDOW_SIZE;
+    private int chunkSize = NatExporter.DEFAULT_STREAMING_CHUNK_SIZE;
+
+    public ExcelExportBenchmark(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-rows":
+                    for (String count : value.split(",")) {
+                        this.rowCounts.add(Integer.parseInt(count.trim()));
+                    }
+                    break;
+                case "-columns":
+                    this.columnCount = Integer.parseInt(value);
+                    break;
+                case "-window":
+                    this.rowWindowSize = Integer.parseInt(value);
+                    break;
+                case "-chunk":
+                    this.chunkSize = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        if (this.rowCounts.isEmpty()) {
+            this.rowCounts.add(100000);
+            this.rowCounts.add(250000);
+            this.rowCounts.add(500000);
+            this.rowCounts.add(1000000);
+        }
+    }
+
+    public void run() {
+        System.out.println("columns=" + this.columnCount + " window=" + this.rowWindowSize
+                + " chunk=" + this.chunkSize + " maxHeap=" + toMB(Runtime.getRuntime().maxMemory()) + "MB");
+
+        // warmup
+        export(1000);
+
+        for (int rowCount : this.rowCounts) {
+            System.gc();
+            resetPeakHeap();
+            long start = System.nanoTime();
+            long bytes = export(rowCount);
+            long duration = System.nanoTime() - start;
+            System.out.println(String.format("rows=%-8d time=%6dms peakHeap=%5dMB file=%6dMB",
+                    rowCount, duration / 1000000, toMB(getPeakHeap()), toMB(bytes)));
+        }
+    }
+
+    private long export(final int rowCount) {
+        IDataProvider dataProvider = new IDataProvider() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                return (columnIndex % 2 == 0) ? (Object) (rowIndex * columnIndex) : "Row " + rowIndex; //$NON-NLS-1$
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return ExcelExportBenchmark.this.columnCount;
+            }
+
+            @Override
+            public int getRowCount() {
+                return rowCount;
+            }
+        };
+        DataLayer dataLayer = new DataLayer(dataProvider);
+        dataLayer.setConfigLabelAccumulator(new ColumnLabelAccumulator());
+
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        new DefaultNatTableStyleConfiguration().configureRegistry(configRegistry);
+        configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                new DefaultExportFormatter());
+        for (int column = 0; column < this.columnCount; column++) {
+            Style style = new Style();
+            style.setAttributeValue(
+                    CellStyleAttributes.BACKGROUND_COLOR,
+                    GUIHelper.getColor(255, 255 - column, 255 - 2 * column));
+            configRegistry.registerConfigAttribute(
+                    CellConfigAttributes.CELL_STYLE,
+                    style,
+                    DisplayMode.NORMAL,
+                    ColumnLabelAccumulator.COLUMN_LABEL_PREFIX + column);
+        }
+
+        final CountingOutputStream outputStream = new CountingOutputStream();
+        SXSSFExcelExporter exporter = new SXSSFExcelExporter(new IOutputStreamProvider() {
+
+            @Override
+            public OutputStream getOutputStream(Shell shell) {
+                return outputStream;
+            }
+
+            @Override
+            public Object getResult() {
+                return null;
+            }
+        });
+        exporter.setRowWindowSize(this.rowWindowSize);
+
+        NatExporter natExporter = new NatExporter(null);
+        natExporter.setOpenResult(false);
+        natExporter.enableStreaming(this.chunkSize, Runtime.getRuntime().availableProcessors());
+        natExporter.exportSingleLayer(exporter, dataLayer, configRegistry);
+        return outputStream.count;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long toMB(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * OutputStream that only counts the written bytes, so the benchmark does
+     * not depend on the file system.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+
+    public static void main(String[] args) {
+        Display display = Display.getDefault();
+        try {
+            new ExcelExportBenchmark(args).run();
+        } finally {
+            display.dispose();
+        }
+    }
+}
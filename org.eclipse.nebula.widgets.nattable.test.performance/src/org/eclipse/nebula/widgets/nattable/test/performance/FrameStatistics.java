@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Collects the duration and the allocated bytes of rendered frames and
+ * calculates percentiles of the frame durations.
+ * <p>
+ * The allocated bytes are measured via the HotSpot specific
+ * <code>com.sun.management.ThreadMXBean</code>, which is accessed
+ * reflectively so the bundle does not depend on it. If it is not available,
+ * the allocations are reported as -1.
+ * </p>
+ */
+public class FrameStatistics {
+
+    private static final Method ALLOCATED_BYTES_METHOD = getAllocatedBytesMethod();
+
+    private long[] durations;
+    private long[] allocations;
+    private int frameCount;
+
+    /**
+     * Create a new {@link FrameStatistics}.
+     *
+     * @param expectedFrames
+     *            The number of frames that are expected to be recorded.
+     */
+    public FrameStatistics(int expectedFrames) {
+        this.durations = new long[Math.max(1, expectedFrames)];
+        this.allocations = new long[this.durations.length];
+    }
+
+    /**
+     * Record a rendered frame.
+     *
+     * @param durationNanos
+     *            The duration of the frame in nanoseconds.
+     * @param allocatedBytes
+     *            The number of bytes allocated while rendering the frame, or
+     *            -1 if unknown.
+     */
+    public void record(long durationNanos, long allocatedBytes) {
+        if (this.frameCount == this.durations.length) {
+            this.durations = Arrays.copyOf(this.durations, this.frameCount * 2);
+            this.allocations = Arrays.copyOf(this.allocations, this.frameCount * 2);
+        }
+        this.durations[this.frameCount] = durationNanos;
+        this.allocations[this.frameCount] = allocatedBytes;
+        this.frameCount++;
+    }
+
+    /**
+     * @return The number of recorded frames.
+     */
+    public int getFrameCount() {
+        return this.frameCount;
+    }
+
+    /**
+     * Returns the frame duration at the given percentile, using the nearest
+     * rank method.
+     *
+     * @param percentile
+     *            The percentile in the range (0, 100].
+     * @return The frame duration at the given percentile in milliseconds, or 0
+     *         if no frame was recorded.
+     */
+    public double getPercentileMillis(double percentile) {
+        if (this.frameCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(this.durations, this.frameCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100d * this.frameCount);
+        return toMillis(sorted[Math.min(Math.max(rank, 1), this.frameCount) - 1]);
+    }
+
+    /**
+     * @return The mean frame duration in milliseconds.
+     */
+    public double getMeanMillis() {
+        if (this.frameCount == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < this.frameCount; i++) {
+            sum += this.durations[i];
+        }
+        return toMillis(sum / this.frameCount);
+    }
+
+    /**
+     * @return The maximum frame duration in milliseconds.
+     */
+    public double getMaxMillis() {
+        return getPercentileMillis(100);
+    }
+
+    /**
+     * @return The mean number of bytes allocated per frame, or -1 if the
+     *         allocations could not be measured.
+     */
+    public long getAllocatedBytesPerFrame() {
+        if (this.frameCount == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < this.frameCount; i++) {
+            if (this.allocations[i] < 0) {
+                return -1;
+            }
+            sum += this.allocations[i];
+        }
+        return sum / this.frameCount;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    @Override
+    public String toString() {
+        long allocated = getAllocatedBytesPerFrame();
+        return String.format(
+                "frames=%d p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms mean=%.3fms alloc/frame=%s",
+                this.frameCount,
+                getPercentileMillis(50),
+                getPercentileMillis(90),
+                getPercentileMillis(99),
+                getMaxMillis(),
+                getMeanMillis(),
+                allocated < 0 ? "n/a" : (allocated / 1024) + "KB");
+    }
+
+    /**
+     * @return The number of bytes allocated by the current thread so far, or
+     *         -1 if not supported by the JVM.
+     */
+    public static long getAllocatedBytes() {
+        if (ALLOCATED_BYTES_METHOD != null) {
+            try {
+                return (Long) ALLOCATED_BYTES_METHOD.invoke(
+                        ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+            } catch (Exception e) {
+                // fall through
+            }
+        }
+        return -1;
+    }
+
+    private static Method getAllocatedBytesMethod() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (type.isInstance(bean)) {
+                Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+                method.setAccessible(true);
+                return method;
+            }
+        } catch (Exception e) {
+            // not available on this JVM
+        }
+        return null;
+    }
+}
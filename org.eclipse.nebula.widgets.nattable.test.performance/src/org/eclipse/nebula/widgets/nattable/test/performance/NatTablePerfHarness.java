@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Original authors and others.
+ * Copyright (c) 2012, 2020 Original authors and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,90 +10,105 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.test.performance;
 
-import org.eclipse.nebula.widgets.nattable.NatTable;
-import org.eclipse.swt.SWT;
-import org.eclipse.swt.layout.FillLayout;
-import org.eclipse.swt.layout.GridData;
-import org.eclipse.swt.layout.GridLayout;
-import org.eclipse.swt.widgets.Composite;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 
-public class NatTablePerfHarness extends Shell {
-
-    public NatTablePerfHarness(String dataFileName, Display display, int style) {
-        super(display, style);
+/**
+ * Render benchmark that paints the standard layer stacks of
+ * {@link RenderStack} onto an offscreen image for every
+ * {@link RenderScenario} and reports the percentiles of the frame durations
+ * and the allocations per frame.
+ * <p>
+ * The shell is never opened, but a display is needed, so on a build server
+ * the benchmark needs to be executed with Xvfb, e.g.
+ * </p>
+ *
+ * <pre>
+ * xvfb-run java ... NatTablePerfHarness -rows 100000 -frames 200 -stacks GRID,TREE
+ * </pre>
+ * <p>
+ * Supported arguments are <code>-rows</code>, <code>-frames</code>,
+ * <code>-warmup</code>, <code>-width</code>, <code>-height</code>,
+ * <code>-stacks</code> and <code>-scenarios</code>. The stacks and scenarios
+ * are comma separated lists of the enum names.
+ * </p>
+ */
+public class NatTablePerfHarness {
 
-        createContents(dataFileName);
-        final GridLayout gridLayout = new GridLayout();
-        setLayout(gridLayout);
-    }
+    private int rowCount = 100000;
+    private int warmupFrames = 50;
+    private int frames = 200;
+    private int width = 1800;
+    private int height = 800;
+    private List<RenderStack> stacks = Arrays.asList(RenderStack.values());
+    private List<RenderScenario> scenarios = Arrays.asList(RenderScenario.values());
 
-    protected void checkSubclass() {
-        // Disable the check that prevents subclassing of SWT components
+    public NatTablePerfHarness(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-rows":
+                    this.rowCount = Integer.parseInt(value);
+                    break;
+                case "-frames":
+                    this.frames = Integer.parseInt(value);
+                    break;
+                case "-warmup":
+                    this.warmupFrames = Integer.parseInt(value);
+                    break;
+                case "-width":
+                    this.width = Integer.parseInt(value);
+                    break;
+                case "-height":
+                    this.height = Integer.parseInt(value);
+                    break;
+                case "-stacks":
+                    this.stacks = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        this.stacks.add(RenderStack.valueOf(name.trim()));
+                    }
+                    break;
+                case "-scenarios":
+                    this.scenarios = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        this.scenarios.add(RenderScenario.valueOf(name.trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
     }
 
-    private void createContents(String dataFileName) {
-        setText("NatTable Perf Harness");
-        setSize(5000, 1000);
-
-        final Composite composite = new Composite(this, SWT.NONE);
-        composite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
-        composite.setLayout(new FillLayout());
-
-        // NatTableDataGenerator dataGenerator = new NatTableDataGenerator();
-        long start, stop;
-        start = System.currentTimeMillis();
-
-        // FIXME hook up data provider to grid layer
-
-        // IDataProvider dataProvider = new
-        // InternalDataProvider(dataGenerator.loadData(dataFileName));
-        // stop = System.currentTimeMillis();
-        // System.out.println((stop - start) + " milliseconds to load " +
-        // dataFileName);
-        // start = System.currentTimeMillis();
-        // DefaultRowHeaderConfig rowConfig = new DefaultRowHeaderConfig();
-        // rowConfig.setRowHeaderColumnCount(1);
-
-        /*
-         * DefaultNatTableModel natModel = new DefaultNatTableModel();
-         * natModel.setBodyConfig(new DefaultBodyConfig(dataProvider));
-         * natModel.getBodyConfig().getColumnWidthConfig().setDefaultSize(75);
-         * natModel.getBodyConfig().getRowHeightConfig().setDefaultSize(20);
-         * natModel.setRowHeaderConfig(rowConfig);
-         * natModel.setFullRowSelection(true);
-         * natModel.setEnableMoveColumn(true);
-         * natModel.getBodyConfig().getColumnWidthConfig
-         * ().setResizableByDefault(true);
-         */
-        new NatTable(composite);
-        stop = System.currentTimeMillis();
-        System.out.println((stop - start)
-                + " milliseconds to load data into NatTable");
+    public void run(Display display) {
+        System.out.println("rows=" + this.rowCount + " size=" + this.width + "x" + this.height
+                + " warmup=" + this.warmupFrames + " frames=" + this.frames);
+        for (RenderStack stack : this.stacks) {
+            for (RenderScenario scenario : this.scenarios) {
+                // a new NatTable per scenario so the scenarios do not influence
+                // each other, e.g. via the scroll position
+                Shell shell = new Shell(display);
+                try {
+                    RenderFixture fixture = stack.createFixture(shell, this.rowCount, this.width, this.height);
+                    FrameStatistics statistics = fixture.measure(scenario, this.warmupFrames, this.frames);
+                    System.out.println(String.format("%-14s %-19s %s", stack, scenario, statistics));
+                } finally {
+                    shell.dispose();
+                }
+            }
+        }
     }
 
-    /**
-     * @param args
-     */
     public static void main(String[] args) {
-        if (args.length == 0) {
-            System.err.println("Missing input file.");
-            System.exit(-1);
-        }
+        Display display = Display.getDefault();
         try {
-            Display display = Display.getDefault();
-            NatTablePerfHarness shell = new NatTablePerfHarness(args[0],
-                    display, SWT.SHELL_TRIM);
-            shell.setLayout(new GridLayout());
-            shell.open();
-            while (!shell.isDisposed()) {
-                if (!display.readAndDispatch())
-                    display.sleep();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-
+            new NatTablePerfHarness(args).run(display);
+        } finally {
+            display.dispose();
         }
     }
 }
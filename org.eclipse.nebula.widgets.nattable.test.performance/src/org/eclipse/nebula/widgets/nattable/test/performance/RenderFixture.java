@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Event;
+
+/**
+ * A configured and sized {@link NatTable} that is rendered to an offscreen
+ * {@link Image} by the render benchmark. The NatTable does not need to be
+ * visible, but a display is needed, e.g. Xvfb on a build server.
+ */
+public class RenderFixture {
+
+    private final NatTable natTable;
+    private final ViewportLayer viewportLayer;
+
+    private int updateColumnPosition = -1;
+    private int updateRowPosition = -1;
+
+    /**
+     * Create a {@link RenderFixture} for the given {@link NatTable}.
+     *
+     * @param natTable
+     *            The configured and sized NatTable to render.
+     * @param viewportLayer
+     *            The ViewportLayer of the body region that is used for
+     *            scrolling, can be <code>null</code> if the
+     *            {@link RenderScenario#SCROLL_ONE_ROW} scenario is not used.
+     */
+    public RenderFixture(NatTable natTable, ViewportLayer viewportLayer) {
+        this.natTable = natTable;
+        this.viewportLayer = viewportLayer;
+    }
+
+    public NatTable getNatTable() {
+        return this.natTable;
+    }
+
+    /**
+     * @return The bounds of the NatTable, which is the region painted on a
+     *         full repaint.
+     */
+    public Rectangle getBounds() {
+        Rectangle clientArea = this.natTable.getClientArea();
+        return new Rectangle(0, 0, clientArea.width, clientArea.height);
+    }
+
+    /**
+     * Scroll the viewport down by one row. Starts from the top again if the
+     * end is reached.
+     */
+    public void scrollOneRow() {
+        if (this.viewportLayer == null) {
+            throw new IllegalStateException("No ViewportLayer to scroll");
+        }
+        int originY = this.viewportLayer.getOrigin().getY();
+        int rowHeight = this.viewportLayer.getRowHeightByPosition(0);
+        int maxOriginY = this.viewportLayer.getScrollableLayer().getHeight()
+                - this.viewportLayer.getClientAreaHeight();
+        this.viewportLayer.setOriginY(originY + rowHeight > maxOriginY ? 0 : originY + rowHeight);
+    }
+
+    /**
+     * Update the value of a body cell via {@link UpdateDataCommand}.
+     *
+     * @param newValue
+     *            The value to set.
+     * @return The bounds of the updated cell, which is the region that is
+     *         painted on a cell update.
+     */
+    public Rectangle updateCell(Object newValue) {
+        if (this.updateRowPosition < 0) {
+            findUpdateCell();
+        }
+        this.natTable.doCommand(
+                new UpdateDataCommand(this.natTable, this.updateColumnPosition, this.updateRowPosition, newValue));
+        return this.natTable.getCellByPosition(this.updateColumnPosition, this.updateRowPosition).getBounds();
+    }
+
+    /**
+     * Search the first body cell in the fourth visible body row, so the cell
+     * is not in a frozen region.
+     */
+    private void findUpdateCell() {
+        int bodyRows = 0;
+        for (int row = 0; row < this.natTable.getRowCount(); row++) {
+            for (int column = 0; column < this.natTable.getColumnCount(); column++) {
+                ILayerCell cell = this.natTable.getCellByPosition(column, row);
+                if (cell != null && cell.getConfigLabels().hasLabel(GridRegion.BODY)) {
+                    if (bodyRows++ == 3) {
+                        this.updateColumnPosition = column;
+                        this.updateRowPosition = row;
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+        throw new IllegalStateException("No body cell found to update");
+    }
+
+    /**
+     * Paint the given region of the NatTable on the given {@link GC} the same
+     * way as on a paint event.
+     *
+     * @param gc
+     *            The GC to paint on.
+     * @param region
+     *            The region of the NatTable to paint.
+     */
+    public void paint(GC gc, Rectangle region) {
+        Event event = new Event();
+        event.widget = this.natTable;
+        event.gc = gc;
+        event.x = region.x;
+        event.y = region.y;
+        event.width = region.width;
+        event.height = region.height;
+        gc.setClipping(region);
+        this.natTable.paintControl(new PaintEvent(event));
+    }
+
+    /**
+     * Render the given scenario to an offscreen image and collect the frame
+     * statistics.
+     *
+     * @param scenario
+     *            The scenario to render.
+     * @param warmupFrames
+     *            The number of frames that are rendered before measuring, to
+     *            let the JIT compile the painting code.
+     * @param frames
+     *            The number of measured frames.
+     * @return The statistics of the measured frames.
+     */
+    public FrameStatistics measure(RenderScenario scenario, int warmupFrames, int frames) {
+        Rectangle bounds = getBounds();
+        Image image = new Image(this.natTable.getDisplay(), Math.max(1, bounds.width), Math.max(1, bounds.height));
+        GC gc = new GC(image);
+        try {
+            for (int i = 0; i < warmupFrames; i++) {
+                paint(gc, scenario.prepareFrame(this, i));
+            }
+
+            FrameStatistics statistics = new FrameStatistics(frames);
+            for (int i = 0; i < frames; i++) {
+                long allocatedBefore = FrameStatistics.getAllocatedBytes();
+                long start = System.nanoTime();
+
+                paint(gc, scenario.prepareFrame(this, warmupFrames + i));
+
+                long duration = System.nanoTime() - start;
+                long allocatedAfter = FrameStatistics.getAllocatedBytes();
+                statistics.record(duration,
+                        allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+            }
+            return statistics;
+        } finally {
+            gc.dispose();
+            image.dispose();
+        }
+    }
+}
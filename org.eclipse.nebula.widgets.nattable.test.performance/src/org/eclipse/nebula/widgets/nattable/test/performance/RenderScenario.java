@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * The scenarios that are measured by the render benchmark. The preparation of
+ * a frame, e.g. the scrolling, is part of the measured frame duration, as it
+ * includes the event handling that is triggered in the layer stack.
+ */
+public enum RenderScenario {
+
+    /**
+     * Paint the whole NatTable without any change in between.
+     */
+    FULL_REPAINT {
+        @Override
+        Rectangle prepareFrame(RenderFixture fixture, int frame) {
+            return fixture.getBounds();
+        }
+    },
+
+    /**
+     * Scroll the viewport down by one row and paint the whole NatTable.
+     */
+    SCROLL_ONE_ROW {
+        @Override
+        Rectangle prepareFrame(RenderFixture fixture, int frame) {
+            fixture.scrollOneRow();
+            return fixture.getBounds();
+        }
+    },
+
+    /**
+     * Update the value of a single body cell and paint only the bounds of
+     * that cell, which is what the NatTable redraws on a cell update.
+     */
+    SINGLE_CELL_UPDATE {
+        @Override
+        Rectangle prepareFrame(RenderFixture fixture, int frame) {
+            return fixture.updateCell("Value " + frame);
+        }
+    };
+
+    /**
+     * Prepare the given fixture for the next frame.
+     *
+     * @param fixture
+     *            The fixture to render.
+     * @param frame
+     *            The number of the frame.
+     * @return The region of the NatTable that needs to be painted.
+     */
+    abstract Rectangle prepareFrame(RenderFixture fixture, int frame);
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
+import org.eclipse.nebula.widgets.nattable.data.ExtendedReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.dataset.person.PersonService;
+import org.eclipse.nebula.widgets.nattable.dataset.person.PersonWithAddress;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsEventLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow.DefaultGlazedListsFilterStrategy;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByDataLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByModel;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.tree.GlazedListTreeData;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.tree.GlazedListTreeRowModel;
+import org.eclipse.nebula.widgets.nattable.filterrow.FilterRowHeaderComposite;
+import org.eclipse.nebula.widgets.nattable.freeze.CompositeFreezeLayer;
+import org.eclipse.nebula.widgets.nattable.freeze.FreezeHelper;
+import org.eclipse.nebula.widgets.nattable.freeze.FreezeLayer;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultCornerDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultRowHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.layer.ColumnHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.CornerLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultColumnHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultRowHeaderDataLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
+import org.eclipse.nebula.widgets.nattable.grid.layer.RowHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.group.performance.ColumnGroupHeaderLayer;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.CompositeLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.tree.ITreeRowModel;
+import org.eclipse.nebula.widgets.nattable.tree.TreeLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.widgets.Composite;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.TreeList;
+
+/**
+ * The standard layer stacks that are rendered by the render benchmark. All
+ * stacks show the same {@link PersonWithAddress} data in a grid with column
+ * header, row header and corner.
+ */
+public enum RenderStack {
+
+    /**
+     * Grid with the default body layer stack.
+     */
+    GRID,
+
+    /**
+     * Grid with a GlazedLists TreeList that groups the persons by last name.
+     */
+    TREE,
+
+    /**
+     * Grid with a GroupByHeaderLayer that groups the persons by gender.
+     */
+    GROUP_BY,
+
+    /**
+     * Grid with a filter row in the column header.
+     */
+    FILTER_ROW,
+
+    /**
+     * Grid with column groups in the column header.
+     */
+    COLUMN_GROUPS,
+
+    /**
+     * Grid with frozen columns and rows.
+     */
+    FREEZE;
+
+    static final String[] PROPERTY_NAMES = {
+            "firstName", "lastName", "gender", "married", "birthday", "money", "description",
+            "address.street", "address.housenumber", "address.postalCode", "address.city" };
+
+    static final int GENDER_COLUMN_INDEX = 2;
+
+    /**
+     * Create the NatTable with this layer stack.
+     *
+     * @param parent
+     *            The parent of the NatTable.
+     * @param rowCount
+     *            The number of rows to show.
+     * @param width
+     *            The width of the NatTable.
+     * @param height
+     *            The height of the NatTable.
+     * @return The fixture to render the created NatTable.
+     */
+    public RenderFixture createFixture(Composite parent, int rowCount, int width, int height) {
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        List<PersonWithAddress> persons = PersonService.getPersonsWithAddress(rowCount);
+        IColumnPropertyAccessor<PersonWithAddress> columnPropertyAccessor =
+                new ExtendedReflectiveColumnPropertyAccessor<>(PROPERTY_NAMES);
+
+        EventList<PersonWithAddress> eventList = GlazedLists.eventList(persons);
+        FilterList<PersonWithAddress> filterList = null;
+        GroupByModel groupByModel = null;
+        ITreeRowModel<?> treeRowModel = null;
+
+        // body
+        IDataProvider bodyDataProvider;
+        IUniqueIndexLayer bodyDataLayer;
+        switch (this) {
+            case TREE:
+                TreeList<Object> treeList = new TreeList<>(
+                        GlazedLists.<Object> eventList(persons),
+                        new LastNameTreeFormat(),
+                        TreeList.nodesStartExpanded());
+                bodyDataProvider = new ListDataProvider<>(treeList, new TreeColumnPropertyAccessor(columnPropertyAccessor));
+                bodyDataLayer = new GlazedListsEventLayer<>(new DataLayer(bodyDataProvider), treeList);
+                treeRowModel = new GlazedListTreeRowModel<>(new GlazedListTreeData<>(treeList));
+                break;
+            case GROUP_BY:
+                groupByModel = new GroupByModel();
+                GroupByDataLayer<PersonWithAddress> groupByDataLayer =
+                        new GroupByDataLayer<>(groupByModel, eventList, columnPropertyAccessor, configRegistry);
+                bodyDataProvider = groupByDataLayer.getDataProvider();
+                bodyDataLayer = new GlazedListsEventLayer<>(groupByDataLayer, eventList);
+                treeRowModel = groupByDataLayer.getTreeRowModel();
+                break;
+            case FILTER_ROW:
+                filterList = new FilterList<>(eventList);
+                bodyDataProvider = new ListDataProvider<>(filterList, columnPropertyAccessor);
+                bodyDataLayer = new GlazedListsEventLayer<>(new DataLayer(bodyDataProvider), filterList);
+                break;
+            default:
+                bodyDataProvider = new ListDataProvider<>(persons, columnPropertyAccessor);
+                bodyDataLayer = new DataLayer(bodyDataProvider);
+                break;
+        }
+
+        SelectionLayer selectionLayer = new SelectionLayer(new ColumnHideShowLayer(new ColumnReorderLayer(bodyDataLayer)));
+        IUniqueIndexLayer scrollableLayer = treeRowModel != null
+                ? new TreeLayer(selectionLayer, treeRowModel)
+                : selectionLayer;
+        ViewportLayer viewportLayer = new ViewportLayer(scrollableLayer);
+        FreezeLayer freezeLayer = null;
+        ILayer bodyLayer = viewportLayer;
+        if (this == FREEZE) {
+            freezeLayer = new FreezeLayer(selectionLayer);
+            bodyLayer = new CompositeFreezeLayer(freezeLayer, viewportLayer, selectionLayer);
+        }
+
+        // column header
+        IDataProvider columnHeaderDataProvider = new DefaultColumnHeaderDataProvider(PROPERTY_NAMES);
+        DataLayer columnHeaderDataLayer = new DefaultColumnHeaderDataLayer(columnHeaderDataProvider);
+        ILayer columnHeaderLayer = new ColumnHeaderLayer(columnHeaderDataLayer, bodyLayer, selectionLayer);
+        if (this == COLUMN_GROUPS) {
+            ColumnGroupHeaderLayer columnGroupHeaderLayer = new ColumnGroupHeaderLayer(columnHeaderLayer, selectionLayer);
+            columnGroupHeaderLayer.addGroup("Person", 0, 7);
+            columnGroupHeaderLayer.addGroup("Address", 7, 4);
+            columnHeaderLayer = columnGroupHeaderLayer;
+        } else if (this == FILTER_ROW) {
+            columnHeaderLayer = new FilterRowHeaderComposite<>(
+                    new DefaultGlazedListsFilterStrategy<>(filterList, columnPropertyAccessor, configRegistry),
+                    columnHeaderLayer,
+                    columnHeaderDataProvider,
+                    configRegistry);
+        }
+
+        // row header
+        IDataProvider rowHeaderDataProvider = new DefaultRowHeaderDataProvider(bodyDataProvider);
+        ILayer rowHeaderLayer = new RowHeaderLayer(
+                new DefaultRowHeaderDataLayer(rowHeaderDataProvider), bodyLayer, selectionLayer);
+
+        // corner
+        ILayer cornerLayer = new CornerLayer(
+                new DataLayer(new DefaultCornerDataProvider(columnHeaderDataProvider, rowHeaderDataProvider)),
+                rowHeaderLayer,
+                columnHeaderLayer);
+
+        ILayer layer = new GridLayer(bodyLayer, columnHeaderLayer, rowHeaderLayer, cornerLayer);
+        if (this == GROUP_BY) {
+            CompositeLayer compositeLayer = new CompositeLayer(1, 2);
+            compositeLayer.setChildLayer(GroupByHeaderLayer.GROUP_BY_REGION,
+                    new GroupByHeaderLayer(groupByModel, layer, columnHeaderDataProvider), 0, 0);
+            compositeLayer.setChildLayer("Grid", layer, 0, 1);
+            layer = compositeLayer;
+        }
+
+        NatTable natTable = new NatTable(parent, layer, false);
+        natTable.setConfigRegistry(configRegistry);
+        natTable.addConfiguration(new DefaultNatTableStyleConfiguration());
+        natTable.configure();
+        natTable.setSize(width, height);
+
+        if (this == GROUP_BY) {
+            groupByModel.addGroupByColumnIndex(GENDER_COLUMN_INDEX);
+        } else if (this == FREEZE) {
+            FreezeHelper.freeze(freezeLayer, viewportLayer,
+                    new PositionCoordinate(viewportLayer, 0, 0),
+                    new PositionCoordinate(viewportLayer, 1, 4));
+        }
+
+        return new RenderFixture(natTable, viewportLayer);
+    }
+
+    /**
+     * Tree format that adds the last name as parent node of a person.
+     */
+    private static class LastNameTreeFormat implements TreeList.Format<Object> {
+
+        @Override
+        public void getPath(List<Object> path, Object element) {
+            if (element instanceof PersonWithAddress) {
+                path.add(((PersonWithAddress) element).getLastName());
+            }
+            path.add(element);
+        }
+
+        @Override
+        public boolean allowsChildren(Object element) {
+            return true;
+        }
+
+        @Override
+        public Comparator<? super Object> getComparator(int depth) {
+            return new Comparator<Object>() {
+
+                @Override
+                public int compare(Object o1, Object o2) {
+                    return getName(o1).compareTo(getName(o2));
+                }
+
+                private String getName(Object element) {
+                    return (element instanceof PersonWithAddress)
+                            ? ((PersonWithAddress) element).getLastName()
+                            : element.toString();
+                }
+            };
+        }
+    }
+
+    /**
+     * Column accessor for the TreeList that shows the last name parent nodes
+     * in the first column.
+     */
+    private static class TreeColumnPropertyAccessor implements IColumnPropertyAccessor<Object> {
+
+        private final IColumnPropertyAccessor<PersonWithAddress> columnPropertyAccessor;
+
+        TreeColumnPropertyAccessor(IColumnPropertyAccessor<PersonWithAddress> columnPropertyAccessor) {
+            this.columnPropertyAccessor = columnPropertyAccessor;
+        }
+
+        @Override
+        public Object getDataValue(Object rowObject, int columnIndex) {
+            if (rowObject instanceof PersonWithAddress) {
+                return this.columnPropertyAccessor.getDataValue((PersonWithAddress) rowObject, columnIndex);
+            }
+            return columnIndex == 0 ? rowObject : null;
+        }
+
+        @Override
+        public void setDataValue(Object rowObject, int columnIndex, Object newValue) {
+            if (rowObject instanceof PersonWithAddress) {
+                this.columnPropertyAccessor.setDataValue((PersonWithAddress) rowObject, columnIndex, newValue);
+            }
+        }
+
+        @Override
+        public int getColumnCount() {
+            return this.columnPropertyAccessor.getColumnCount();
+        }
+
+        @Override
+        public String getColumnProperty(int columnIndex) {
+            return this.columnPropertyAccessor.getColumnProperty(columnIndex);
+        }
+
+        @Override
+        public int getColumnIndex(String propertyName) {
+            return this.columnPropertyAccessor.getColumnIndex(propertyName);
+        }
+    }
+}